@@ -0,0 +1,15 @@
+package com.uit.accountservice.config;
+
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class AccountRabbitMQConfig {
+
+    @Bean
+    public TopicExchange accountExchange() {
+        return new TopicExchange(RabbitMQConstants.ACCOUNT_EXCHANGE);
+    }
+}
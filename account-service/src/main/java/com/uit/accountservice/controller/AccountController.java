@@ -1,6 +1,10 @@
 package com.uit.accountservice.controller;
 
 import com.uit.accountservice.dto.request.*;
+import com.uit.accountservice.dto.response.LedgerBalanceResponse;
+import com.uit.accountservice.entity.enums.BalanceOperationType;
+import com.uit.accountservice.idempotency.IdempotencyService;
+import com.uit.accountservice.ledger.LedgerService;
 import com.uit.accountservice.mapper.AccountMapper;
 import com.uit.accountservice.repository.AccountRepository;
 import com.uit.accountservice.security.RequireRole;
@@ -10,6 +14,7 @@ import com.uit.accountservice.dto.AccountDto;
 import com.uit.sharedkernel.api.ApiResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -18,6 +23,7 @@ import jakarta.servlet.http.HttpServletRequest;
 
 import java.util.Map;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -29,6 +35,8 @@ public class AccountController {
     private final AccountRepository accountRepository;
     private final AccountMapper accountMapper;
     private final TransferAuditService auditService;
+    private final LedgerService ledgerService;
+    private final IdempotencyService idempotencyService;
     
     // change this to check health for this endpoint
     @GetMapping("/")
@@ -80,14 +88,15 @@ public class AccountController {
      * SECURITY: Internal endpoint only - called by transaction-service during transfers.
      * Protected by network policy in production (not exposed via Kong).
      * Path changed from /{accountId}/debit to /internal/{accountId}/debit (2024-12).
+     * Idempotent per transactionId: a retried call returns the original response.
      */
     @PostMapping("/internal/{accountId}/debit")
     public ResponseEntity<?> debitAccount(
             @PathVariable String accountId,
             @RequestBody com.uit.accountservice.dto.request.AccountBalanceRequest request) {
         try {
-            com.uit.accountservice.dto.response.AccountBalanceResponse response = 
-                accountService.debitAccount(accountId, request);
+            com.uit.accountservice.dto.response.AccountBalanceResponse response = idempotencyService.execute(
+                BalanceOperationType.DEBIT, accountId, request, () -> accountService.debitAccount(accountId, request));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -106,8 +115,8 @@ public class AccountController {
             @PathVariable String accountId,
             @RequestBody com.uit.accountservice.dto.request.AccountBalanceRequest request) {
         try {
-            com.uit.accountservice.dto.response.AccountBalanceResponse response = 
-                accountService.creditAccount(accountId, request);
+            com.uit.accountservice.dto.response.AccountBalanceResponse response = idempotencyService.execute(
+                BalanceOperationType.CREDIT, accountId, request, () -> accountService.creditAccount(accountId, request));
             return ResponseEntity.ok(response);
         } catch (Exception e) {
             return ResponseEntity.badRequest().body(Map.of(
@@ -141,6 +150,76 @@ public class AccountController {
         }
     }
 
+    /**
+     * Execute many internal transfers in one DB transaction (group commit).
+     * Returns one result per transfer; failed items do not abort the batch.
+     */
+    @PostMapping("/internal/transfer/batch")
+    public ResponseEntity<?> executeInternalTransferBatch(
+            @Valid @RequestBody com.uit.accountservice.dto.request.BatchInternalTransferRequest request) {
+        try {
+            return ResponseEntity.ok(accountService.executeInternalTransferBatch(request.getTransfers()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "success", false,
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    /**
+     * Whether an internal transfer committed, looked up by transactionId.
+     * Used by transaction-service to settle transfers whose response it never received.
+     */
+    @GetMapping("/internal/transfer/{transactionId}")
+    public ResponseEntity<com.uit.accountservice.dto.response.InternalTransferResponse> getInternalTransferOutcome(
+            @PathVariable String transactionId,
+            @RequestParam("senderAccountId") String senderAccountId) {
+        return ResponseEntity.ok(accountService.getInternalTransferOutcome(transactionId, senderAccountId));
+    }
+
+    /**
+     * Flag or unflag an account for hot mode (payroll, merchant accounts).
+     * Credits to hot accounts are journaled and settled in grouped flushes
+     * instead of serializing on the account row lock.
+     */
+    @PutMapping("/{accountId}/hot")
+    @RequireRole("admin")
+    public ResponseEntity<ApiResponse<AccountDto>> setHotAccount(
+            @PathVariable("accountId") String accountId,
+            @RequestParam("enabled") boolean enabled) {
+        return ResponseEntity.ok(ApiResponse.success(accountService.setHotAccount(accountId, enabled)));
+    }
+
+    /**
+     * Journal balance of an account, optionally as of a point in time (admin only).
+     */
+    @GetMapping("/{accountId}/ledger/balance")
+    @RequireRole("admin")
+    public ResponseEntity<ApiResponse<LedgerBalanceResponse>> getLedgerBalance(
+            @PathVariable("accountId") String accountId,
+            @RequestParam(value = "asOf", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime asOf) {
+        BigDecimal balance = asOf != null
+                ? ledgerService.getBalanceAsOf(accountId, asOf)
+                : ledgerService.getBalance(accountId);
+        return ResponseEntity.ok(ApiResponse.success(LedgerBalanceResponse.builder()
+                .accountId(accountId)
+                .asOf(asOf)
+                .ledgerBalance(balance)
+                .build()));
+    }
+
+    /**
+     * Compare the journal balance with accounts.balance (admin only).
+     */
+    @GetMapping("/{accountId}/ledger/reconcile")
+    @RequireRole("admin")
+    public ResponseEntity<ApiResponse<LedgerBalanceResponse>> reconcileLedger(
+            @PathVariable("accountId") String accountId) {
+        return ResponseEntity.ok(ApiResponse.success(ledgerService.reconcile(accountId)));
+    }
+
   // Section of BoLac
     private String getCurrentUserId() {
         var authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -0,0 +1,21 @@
+package com.uit.accountservice.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchInternalTransferRequest {
+
+    @NotEmpty(message = "Transfers are required")
+    @Valid
+    private List<InternalTransferRequest> transfers;
+}
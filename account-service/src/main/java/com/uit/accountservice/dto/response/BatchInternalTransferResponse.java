@@ -0,0 +1,21 @@
+package com.uit.accountservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchInternalTransferResponse {
+
+    /** One result per submitted transfer, in request order. */
+    private List<InternalTransferResponse> results;
+
+    private int succeeded;
+    private int failed;
+}
@@ -26,4 +26,7 @@ public class InternalTransferResponse {
     private BigDecimal amount;
     private boolean success;
     private String message;
+
+    /** Set when success is false. */
+    private TransferFailureCode failureCode;
 }
@@ -0,0 +1,29 @@
+package com.uit.accountservice.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerBalanceResponse {
+
+    private String accountId;
+
+    /** Null for the current balance */
+    private LocalDateTime asOf;
+
+    /** Snapshot + tail sum from the journal */
+    private BigDecimal ledgerBalance;
+
+    /** Reconciliation only: accounts.balance and not-yet-flushed hot credits */
+    private BigDecimal accountBalance;
+    private BigDecimal pendingCredits;
+    private Boolean reconciled;
+}
@@ -0,0 +1,16 @@
+package com.uit.accountservice.dto.response;
+
+/**
+ * Why an internal transfer was not applied. Sent with failed transfer results so
+ * callers can classify them without parsing the message.
+ */
+public enum TransferFailureCode {
+    INVALID_REQUEST,        // Missing transactionId or non-positive amount
+    DUPLICATE_TRANSACTION,  // transactionId already used in the same batch or for another transfer
+    SAME_ACCOUNT,           // Sender and receiver are the same account
+    SENDER_NOT_FOUND,
+    RECEIVER_NOT_FOUND,
+    INSUFFICIENT_FUNDS,
+    PROCESSING_ERROR,       // Unexpected error while applying this transfer; nothing was committed
+    NOT_FOUND               // No transfer was committed under this transactionId, and none will be
+}
@@ -48,6 +48,14 @@ public class Account {
     @Column(nullable = false)
     private AccountStatus status;
 
+    /**
+     * Hot accounts (payroll, merchants) receive credits through the pending-credit
+     * journal instead of locking this row on every transfer.
+     */
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean hot = false;
+
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -0,0 +1,46 @@
+package com.uit.accountservice.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Account balance covering every ledger entry up to lastEntryId.
+ * Current balance = latest snapshot + signed sum of later entries.
+ */
+@Entity
+@Table(name = "balance_snapshots",
+    uniqueConstraints = @UniqueConstraint(name = "uq_balance_snapshot", columnNames = {"account_id", "last_entry_id"}),
+    indexes = @Index(name = "idx_balance_snapshot_as_of", columnList = "account_id,as_of"))
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceSnapshot {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "account_id", nullable = false)
+    private String accountId;
+
+    @Column(name = "last_entry_id", nullable = false)
+    private Long lastEntryId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal balance;
+
+    /** created_at of the last covered entry */
+    @Column(name = "as_of", nullable = false)
+    private LocalDateTime asOf;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
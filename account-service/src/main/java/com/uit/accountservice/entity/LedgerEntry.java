@@ -0,0 +1,58 @@
+package com.uit.accountservice.entity;
+
+import com.uit.accountservice.entity.enums.LedgerDirection;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.Immutable;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One debit or credit leg in the append-only journal.
+ * Rows are never updated, except that an unsettled hot-account credit is marked
+ * settled once it is in accounts.balance; a reversal is a new leg in the
+ * opposite direction.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_entries",
+    indexes = {
+        @Index(name = "idx_ledger_account_entry", columnList = "account_id,entry_id"),
+        @Index(name = "idx_ledger_account_created", columnList = "account_id,created_at"),
+        @Index(name = "idx_ledger_transaction", columnList = "transaction_id")
+    })
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "entry_id")
+    private Long entryId;
+
+    @Column(name = "account_id", nullable = false)
+    private String accountId;
+
+    @Column(name = "transaction_id", nullable = false, length = 100)
+    private String transactionId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private LedgerDirection direction;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    /** False for a hot-account credit not yet added to accounts.balance */
+    @Builder.Default
+    @Column(nullable = false)
+    private boolean settled = true;
+}
@@ -0,0 +1,55 @@
+package com.uit.accountservice.entity;
+
+import com.uit.accountservice.entity.enums.BalanceOperationType;
+import com.uit.accountservice.entity.enums.IdempotencyStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One applied debit/credit, keyed by (transactionId, operationType).
+ * The row is inserted in the same transaction as the balance change, so a
+ * duplicate call either waits on the key and fails, or finds the stored response.
+ */
+@Entity
+@Table(name = "transaction_idempotency")
+@IdClass(TransactionIdempotencyId.class)
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionIdempotency {
+
+    @Id
+    @Column(name = "transaction_id")
+    private String transactionId;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "operation_type", length = 20)
+    private BalanceOperationType operationType;
+
+    @Column(name = "account_id", nullable = false)
+    private String accountId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private IdempotencyStatus status;
+
+    @Column(name = "response_payload", columnDefinition = "TEXT")
+    private String responsePayload;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+}
@@ -0,0 +1,16 @@
+package com.uit.accountservice.entity;
+
+import com.uit.accountservice.entity.enums.BalanceOperationType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionIdempotencyId implements Serializable {
+    private String transactionId;
+    private BalanceOperationType operationType;
+}
@@ -0,0 +1,7 @@
+package com.uit.accountservice.entity.enums;
+
+public enum BalanceOperationType {
+    DEBIT,
+    CREDIT,
+    INTERNAL_TRANSFER   // Both legs of /accounts/internal/transfer, keyed once per transactionId
+}
@@ -0,0 +1,7 @@
+package com.uit.accountservice.entity.enums;
+
+public enum IdempotencyStatus {
+    PROCESSING,        // Claimed, balance operation in progress
+    COMPLETED,         // Applied, response stored for replay
+    FAILED             // Not applied; an internal transfer tombstone rejects later attempts
+}
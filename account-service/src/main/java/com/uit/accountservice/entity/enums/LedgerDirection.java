@@ -0,0 +1,6 @@
+package com.uit.accountservice.entity.enums;
+
+public enum LedgerDirection {
+    DEBIT,             // Money leaves the account
+    CREDIT             // Money enters the account
+}
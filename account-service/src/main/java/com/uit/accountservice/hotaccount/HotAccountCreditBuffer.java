@@ -0,0 +1,99 @@
+package com.uit.accountservice.hotaccount;
+
+import com.uit.accountservice.entity.LedgerEntry;
+import com.uit.accountservice.ledger.LedgerService;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.accountservice.repository.LedgerEntryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Credit path for hot accounts.
+ *
+ * Instead of locking the receiver's accounts row, each credit appends an
+ * unsettled ledger leg in the caller's transaction, so it commits (or rolls back)
+ * together with the debit leg. That insert is the only write a hot credit makes.
+ * A scheduled flusher folds unsettled legs into the balance with one UPDATE per
+ * account per batch and marks them settled.
+ *
+ * Debits stay strict: after locking the row, the debit claims the account's
+ * unsettled legs and adds them to the balance before checking funds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotAccountCreditBuffer {
+
+    private final LedgerService ledgerService;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final AccountRepository accountRepository;
+
+    @Value("${account.hot.flush-batch-size:1000}")
+    private int flushBatchSize;
+
+    /**
+     * Record a pending credit. Must run inside the caller's transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(String accountId, String transactionId, BigDecimal amount) {
+        ledgerService.recordPendingCredit(accountId, transactionId, amount);
+    }
+
+    /**
+     * Claim and settle the pending credits of one account, returning their total.
+     * The caller must already hold the account row lock and add the total to the
+     * loaded balance. Credits inside a flush batch in progress are skipped; the
+     * flusher applies them once the caller commits, so a debit check can only be
+     * stricter than necessary, never looser.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal claimPending(String accountId) {
+        List<LedgerEntry> pending = ledgerEntryRepository.claimUnsettledByAccountId(accountId);
+        if (pending.isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+        BigDecimal total = pending.stream()
+                .map(LedgerEntry::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+        ledgerEntryRepository.markSettled(pending.stream().map(LedgerEntry::getEntryId).toList());
+        log.debug("Claimed {} pending credits ({}) for hot account {}", pending.size(), total, accountId);
+        return total;
+    }
+
+    /**
+     * Periodic grouped flush: claim a batch of pending credits, sum them per account
+     * and apply one balance UPDATE per account. Accounts are updated in accountId order,
+     * the same order transfers use, to avoid deadlocks.
+     *
+     * @return number of credits applied
+     */
+    @Scheduled(fixedDelayString = "${account.hot.flush-interval-ms:200}")
+    @Transactional
+    public int flush() {
+        List<LedgerEntry> batch = ledgerEntryRepository.claimUnsettled(PageRequest.of(0, flushBatchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, BigDecimal> totals = new TreeMap<>();
+        for (LedgerEntry credit : batch) {
+            totals.merge(credit.getAccountId(), credit.getAmount(), BigDecimal::add);
+        }
+        totals.forEach(accountRepository::addToBalance);
+        ledgerEntryRepository.markSettled(batch.stream().map(LedgerEntry::getEntryId).toList());
+
+        log.debug("Flushed {} hot-account credits into {} accounts", batch.size(), totals.size());
+        return batch.size();
+    }
+}
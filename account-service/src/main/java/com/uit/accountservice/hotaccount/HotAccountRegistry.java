@@ -0,0 +1,100 @@
+package com.uit.accountservice.hotaccount;
+
+import com.uit.accountservice.repository.AccountRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tracks which accounts run in hot mode.
+ *
+ * An account is hot when it is flagged in the accounts table (accounts.hot)
+ * or when this instance keeps waiting too long for its row lock. Auto-detected
+ * accounts fall back to normal mode after a cool-down period.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class HotAccountRegistry {
+
+    private final AccountRepository accountRepository;
+
+    @Value("${account.hot.lock-wait-threshold-ms:50}")
+    private long lockWaitThresholdMs;
+
+    @Value("${account.hot.promotion-threshold:5}")
+    private int promotionThreshold;
+
+    @Value("${account.hot.auto-ttl-minutes:10}")
+    private long autoTtlMinutes;
+
+    private volatile Set<String> flaggedAccounts = Set.of();
+    private final Map<String, Instant> autoDetectedUntil = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> slowLockWaits = new ConcurrentHashMap<>();
+
+    public boolean isHot(String accountId) {
+        if (flaggedAccounts.contains(accountId)) {
+            return true;
+        }
+        Instant until = autoDetectedUntil.get(accountId);
+        if (until == null) {
+            return false;
+        }
+        if (until.isBefore(Instant.now())) {
+            autoDetectedUntil.remove(accountId, until);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Record how long a credit waited for the account row lock.
+     * After enough slow waits within one refresh window the account is promoted
+     * to hot mode on this instance.
+     */
+    public void recordLockWait(String accountId, long waitNanos) {
+        if (waitNanos < lockWaitThresholdMs * 1_000_000L) {
+            return;
+        }
+        int slowWaits = slowLockWaits.computeIfAbsent(accountId, id -> new AtomicInteger()).incrementAndGet();
+        if (slowWaits >= promotionThreshold) {
+            slowLockWaits.remove(accountId);
+            autoDetectedUntil.put(accountId, Instant.now().plusSeconds(autoTtlMinutes * 60));
+            log.warn("Account {} promoted to hot mode after {} slow lock waits (>{} ms)",
+                    accountId, slowWaits, lockWaitThresholdMs);
+        }
+    }
+
+    /**
+     * Apply a flag change immediately on this instance; other instances pick it up on refresh.
+     */
+    public void setFlagged(String accountId, boolean hot) {
+        Set<String> updated = ConcurrentHashMap.newKeySet();
+        updated.addAll(flaggedAccounts);
+        if (hot) {
+            updated.add(accountId);
+        } else {
+            updated.remove(accountId);
+            autoDetectedUntil.remove(accountId);
+        }
+        flaggedAccounts = Set.copyOf(updated);
+    }
+
+    @Scheduled(fixedDelayString = "${account.hot.refresh-interval-ms:30000}")
+    public void refreshFlaggedAccounts() {
+        try {
+            flaggedAccounts = Set.copyOf(accountRepository.findHotAccountIds());
+            slowLockWaits.clear();
+        } catch (Exception e) {
+            log.warn("Failed to refresh hot account flags: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,286 @@
+package com.uit.accountservice.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.uit.accountservice.dto.request.AccountBalanceRequest;
+import com.uit.accountservice.dto.request.InternalTransferRequest;
+import com.uit.accountservice.dto.response.AccountBalanceResponse;
+import com.uit.accountservice.dto.response.InternalTransferResponse;
+import com.uit.accountservice.entity.TransactionIdempotency;
+import com.uit.accountservice.entity.TransactionIdempotencyId;
+import com.uit.accountservice.entity.enums.BalanceOperationType;
+import com.uit.accountservice.entity.enums.IdempotencyStatus;
+import com.uit.accountservice.repository.TransactionIdempotencyRepository;
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+import jakarta.persistence.EntityExistsException;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.PessimisticLockException;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Exactly-once debit/credit keyed on (transactionId, operationType).
+ *
+ * The balance operation claims its key in transaction_idempotency inside its own
+ * transaction (begin/complete), so the key commits or rolls back with the money.
+ * A concurrent duplicate blocks on the primary key and fails once the first call
+ * commits; execute() then replays the stored response. Failed operations roll
+ * back their key, so a retry after e.g. insufficient funds runs again.
+ *
+ * An in-memory Bloom filter lets first-time ids skip the lookup. It is only a
+ * shortcut: a miss after a restart or on another instance still ends at the key.
+ *
+ * Internal transfers (single and batched) use the key (transactionId, INTERNAL_TRANSFER).
+ * Callers look it up after locking the sender row, so a duplicate of the same transfer
+ * waits for the first one and then finds its stored result. A transfer that the
+ * reconciliation lookup reported as never applied gets a FAILED tombstone under the
+ * same key, so a late copy of its batch is rejected instead of moving the money.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IdempotencyService {
+
+    private final TransactionIdempotencyRepository idempotencyRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${account.idempotency.bloom.expected-insertions:1000000}")
+    private long expectedInsertions;
+
+    @Value("${account.idempotency.bloom.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    private volatile BloomFilter<CharSequence> seenKeys;
+
+    @PostConstruct
+    void init() {
+        seenKeys = newFilter();
+    }
+
+    /**
+     * Run a balance operation at most once. Replays return the original response.
+     */
+    public AccountBalanceResponse execute(BalanceOperationType type, String accountId,
+                                          AccountBalanceRequest request,
+                                          Supplier<AccountBalanceResponse> operation) {
+        String transactionId = request.getTransactionId();
+        String key = type + ":" + transactionId;
+
+        if (transactionId != null && seenKeys.mightContain(key)) {
+            Optional<AccountBalanceResponse> replay = findReplay(type, accountId, request);
+            if (replay.isPresent()) {
+                return replay.get();
+            }
+        }
+
+        try {
+            AccountBalanceResponse response = operation.get();
+            remember(key);
+            return response;
+        } catch (RuntimeException e) {
+            if (!isKeyConflict(e)) {
+                throw e;
+            }
+            // A concurrent call with the same key committed first
+            remember(key);
+            return findReplay(type, accountId, request).orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Claim the key inside the balance operation's transaction.
+     * persist (not merge) so an existing key fails instead of being overwritten.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public TransactionIdempotency begin(BalanceOperationType type, String accountId, AccountBalanceRequest request) {
+        if (request.getTransactionId() == null) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "Transaction ID is required");
+        }
+        TransactionIdempotency record = TransactionIdempotency.builder()
+                .transactionId(request.getTransactionId())
+                .operationType(type)
+                .accountId(accountId)
+                .amount(request.getAmount())
+                .status(IdempotencyStatus.PROCESSING)
+                .build();
+        entityManager.persist(record);
+        entityManager.flush();
+        return record;
+    }
+
+    /**
+     * Store the response for replay; commits together with the balance change.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public AccountBalanceResponse complete(TransactionIdempotency record, AccountBalanceResponse response) {
+        record.setResponsePayload(writeResponse(response));
+        record.setStatus(IdempotencyStatus.COMPLETED);
+        record.setCompletedAt(LocalDateTime.now());
+        return response;
+    }
+
+    /**
+     * The stored internal transfer record for this transactionId, if any.
+     * Call with the sender row locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<TransactionIdempotency> findTransfer(String transactionId) {
+        return idempotencyRepository.findById(
+                new TransactionIdempotencyId(transactionId, BalanceOperationType.INTERNAL_TRANSFER));
+    }
+
+    /**
+     * Stored internal transfer records for these requests, by transactionId.
+     * Call with the sender rows locked.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, TransactionIdempotency> findTransfers(Collection<InternalTransferRequest> requests) {
+        List<TransactionIdempotencyId> ids = requests.stream()
+                .map(InternalTransferRequest::getTransactionId)
+                .filter(Objects::nonNull)
+                .distinct()
+                .map(id -> new TransactionIdempotencyId(id, BalanceOperationType.INTERNAL_TRANSFER))
+                .toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return idempotencyRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(TransactionIdempotency::getTransactionId, Function.identity()));
+    }
+
+    /**
+     * The stored result for a transfer that already has a record: the original response,
+     * or the NOT_FOUND result of a tombstone. Reusing the id for another transfer is rejected.
+     */
+    public InternalTransferResponse replayTransfer(TransactionIdempotency record, InternalTransferRequest request) {
+        if (record.getStatus() == IdempotencyStatus.COMPLETED
+                && (!record.getAccountId().equals(request.getSenderAccountId())
+                    || request.getAmount() == null
+                    || record.getAmount().compareTo(request.getAmount()) != 0)) {
+            throw new AppException(ErrorCode.DUPLICATE_TRANSACTION,
+                    "Transaction " + request.getTransactionId() + " was already applied from "
+                            + record.getAccountId() + " for " + record.getAmount());
+        }
+        log.info("Replaying internal transfer {} ({})", request.getTransactionId(), record.getStatus());
+        return readTransfer(record);
+    }
+
+    public InternalTransferResponse readTransfer(TransactionIdempotency record) {
+        return readResponse(record, InternalTransferResponse.class);
+    }
+
+    /**
+     * Record an applied transfer; commits together with both legs.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void completeTransfer(InternalTransferRequest request, InternalTransferResponse response) {
+        persistTransfer(request.getTransactionId(), request.getSenderAccountId(), request.getAmount(),
+                IdempotencyStatus.COMPLETED, response);
+    }
+
+    /**
+     * Tombstone a transfer reported as never applied, so it cannot be applied later.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void rejectTransfer(String transactionId, String senderAccountId, InternalTransferResponse response) {
+        persistTransfer(transactionId, senderAccountId, BigDecimal.ZERO, IdempotencyStatus.FAILED, response);
+    }
+
+    private void persistTransfer(String transactionId, String senderAccountId, BigDecimal amount,
+                                 IdempotencyStatus status, InternalTransferResponse response) {
+        TransactionIdempotency record = TransactionIdempotency.builder()
+                .transactionId(transactionId)
+                .operationType(BalanceOperationType.INTERNAL_TRANSFER)
+                .accountId(senderAccountId)
+                .amount(amount)
+                .status(status)
+                .responsePayload(writeResponse(response))
+                .completedAt(LocalDateTime.now())
+                .build();
+        entityManager.persist(record);
+    }
+
+    private Optional<AccountBalanceResponse> findReplay(BalanceOperationType type, String accountId,
+                                                        AccountBalanceRequest request) {
+        return idempotencyRepository.findById(new TransactionIdempotencyId(request.getTransactionId(), type))
+                .filter(record -> record.getStatus() == IdempotencyStatus.COMPLETED)
+                .map(record -> {
+                    if (!record.getAccountId().equals(accountId)
+                            || record.getAmount().compareTo(request.getAmount()) != 0) {
+                        throw new AppException(ErrorCode.DUPLICATE_TRANSACTION,
+                                "Transaction " + request.getTransactionId() + " was already applied to "
+                                        + record.getAccountId() + " for " + record.getAmount());
+                    }
+                    log.info("Replaying {} for transaction {}", type, request.getTransactionId());
+                    return readResponse(record, AccountBalanceResponse.class);
+                });
+    }
+
+    private <T> T readResponse(TransactionIdempotency record, Class<T> type) {
+        try {
+            return objectMapper.readValue(record.getResponsePayload(), type);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored response for " + record.getTransactionId(), e);
+        }
+    }
+
+    private String writeResponse(Object response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize response", e);
+        }
+    }
+
+    private void remember(String key) {
+        BloomFilter<CharSequence> filter = seenKeys;
+        filter.put(key);
+        if (filter.approximateElementCount() >= expectedInsertions) {
+            // Saturated: start over; forgotten keys fall back to the primary key check
+            seenKeys = newFilter();
+        }
+    }
+
+    private BloomFilter<CharSequence> newFilter() {
+        return BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, falsePositiveRate);
+    }
+
+    private static boolean isKeyConflict(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException
+                    || t instanceof EntityExistsException
+                    || t instanceof org.hibernate.exception.ConstraintViolationException
+                    || t instanceof PessimisticLockingFailureException
+                    || t instanceof PessimisticLockException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
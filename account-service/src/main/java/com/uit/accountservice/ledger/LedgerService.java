@@ -0,0 +1,248 @@
+package com.uit.accountservice.ledger;
+
+import com.uit.accountservice.dto.response.LedgerBalanceResponse;
+import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.BalanceSnapshot;
+import com.uit.accountservice.entity.LedgerEntry;
+import com.uit.accountservice.entity.enums.LedgerDirection;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.accountservice.repository.BalanceSnapshotRepository;
+import com.uit.accountservice.repository.LedgerEntryRepository;
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Append-only double-entry journal.
+ *
+ * Every balance change writes immutable debit/credit legs in the same transaction
+ * as the accounts row update; that locked row stays the authority for funds
+ * checks. Hot-account credits skip the row update: they are written as unsettled
+ * legs only, and HotAccountCreditBuffer settles them into the balance later. A scheduled job
+ * writes a balance snapshot once an account has accumulated enough entries, so a
+ * ledger balance is always "latest snapshot + sum of a short tail" and as-of
+ * queries are range scans.
+ *
+ * Snapshots follow commit order through the accounts row lock. Every leg is
+ * inserted while its transaction holds a lock on the account's row: a FOR UPDATE
+ * from the balance update, or a KEY SHARE from {@link #recordPendingCredit},
+ * which concurrent hot credits can share. The snapshot writer takes FOR UPDATE,
+ * so once it holds the row no transaction with an uncommitted leg for that
+ * account is left, and every later leg gets a higher entry id.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class LedgerService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceSnapshotRepository balanceSnapshotRepository;
+    private final AccountRepository accountRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${account.ledger.snapshot-every:100}")
+    private long snapshotEvery;
+
+    private String pendingCreditLockSql;
+
+    @PostConstruct
+    void choosePendingCreditLock() {
+        String database = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+        // KEY SHARE does not conflict with other KEY SHARE holders or the flusher's UPDATE, only with
+        // FOR UPDATE. Databases without it fall back to FOR UPDATE, which serializes hot credits.
+        pendingCreditLockSql = "SELECT account_id FROM accounts WHERE account_id = ? "
+                + ("PostgreSQL".equals(database) ? "FOR KEY SHARE" : "FOR UPDATE");
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDebit(String accountId, String transactionId, BigDecimal amount) {
+        ledgerEntryRepository.save(entry(accountId, transactionId, LedgerDirection.DEBIT, amount));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordCredit(String accountId, String transactionId, BigDecimal amount) {
+        ledgerEntryRepository.save(entry(accountId, transactionId, LedgerDirection.CREDIT, amount));
+    }
+
+    /**
+     * Credit to a hot account: an unsettled leg, added to accounts.balance when
+     * HotAccountCreditBuffer settles it. Takes a KEY SHARE lock on the account row
+     * so a snapshot cannot be taken while the leg is uncommitted.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordPendingCredit(String accountId, String transactionId, BigDecimal amount) {
+        if (jdbcTemplate.queryForList(pendingCreditLockSql, String.class, accountId).isEmpty()) {
+            throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Account not found: " + accountId);
+        }
+        ledgerEntryRepository.save(LedgerEntry.builder()
+                .accountId(accountId)
+                .transactionId(transactionId)
+                .direction(LedgerDirection.CREDIT)
+                .amount(amount)
+                .settled(false)
+                .build());
+    }
+
+    /**
+     * Both legs of an internal transfer.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordTransfer(String transactionId, String senderAccountId, String receiverAccountId, BigDecimal amount) {
+        ledgerEntryRepository.saveAll(transferLegs(transactionId, senderAccountId, receiverAccountId, amount));
+    }
+
+    /**
+     * Pre-built legs, e.g. all settled items of a transfer batch in one saveAll.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordAll(List<LedgerEntry> entries) {
+        if (!entries.isEmpty()) {
+            ledgerEntryRepository.saveAll(entries);
+        }
+    }
+
+    /**
+     * The debit leg a transfer wrote on the sender's account, if it committed.
+     */
+    @Transactional(readOnly = true)
+    public Optional<LedgerEntry> findDebit(String accountId, String transactionId) {
+        return ledgerEntryRepository.findByTransactionIdOrderByEntryId(transactionId).stream()
+                .filter(entry -> entry.getAccountId().equals(accountId)
+                        && entry.getDirection() == LedgerDirection.DEBIT)
+                .findFirst();
+    }
+
+    public static List<LedgerEntry> transferLegs(String transactionId, String senderAccountId,
+                                                 String receiverAccountId, BigDecimal amount) {
+        return List.of(
+                entry(senderAccountId, transactionId, LedgerDirection.DEBIT, amount),
+                entry(receiverAccountId, transactionId, LedgerDirection.CREDIT, amount));
+    }
+
+    /**
+     * Current journal balance: latest snapshot + tail sum.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(String accountId) {
+        BalanceSnapshot snapshot = balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(accountId)
+                .orElse(null);
+        long afterEntryId = snapshot != null ? snapshot.getLastEntryId() : 0L;
+        BigDecimal base = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+        return base.add(ledgerEntryRepository.sumSince(accountId, afterEntryId));
+    }
+
+    /**
+     * Journal balance at a point in time: latest snapshot taken at or before asOf,
+     * plus the entries after it up to asOf. History starts at the opening snapshot.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalanceAsOf(String accountId, LocalDateTime asOf) {
+        BalanceSnapshot snapshot = balanceSnapshotRepository
+                .findFirstByAccountIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(accountId, asOf)
+                .orElse(null);
+        long afterEntryId = snapshot != null ? snapshot.getLastEntryId() : 0L;
+        BigDecimal base = snapshot != null ? snapshot.getBalance() : BigDecimal.ZERO;
+        return base.add(ledgerEntryRepository.sumSinceUntil(accountId, afterEntryId, asOf));
+    }
+
+    /**
+     * Compare the journal with accounts.balance. Unsettled hot-account credits are
+     * counted on the account side.
+     */
+    @Transactional(readOnly = true)
+    public LedgerBalanceResponse reconcile(String accountId) {
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        BigDecimal ledgerBalance = getBalance(accountId);
+        BigDecimal pending = ledgerEntryRepository.sumUnsettled(accountId);
+        boolean reconciled = ledgerBalance.compareTo(account.getBalance().add(pending)) == 0;
+        if (!reconciled) {
+            log.warn("Ledger mismatch for account {} - ledger: {}, balance: {}, pending credits: {}",
+                    accountId, ledgerBalance, account.getBalance(), pending);
+        }
+
+        return LedgerBalanceResponse.builder()
+                .accountId(accountId)
+                .ledgerBalance(ledgerBalance)
+                .accountBalance(account.getBalance())
+                .pendingCredits(pending)
+                .reconciled(reconciled)
+                .build();
+    }
+
+    /**
+     * Write a snapshot for every account with snapshot-every entries since its last
+     * one. Each account is snapshotted in its own short transaction holding its row
+     * lock, so writers on other accounts never wait for the whole run.
+     */
+    @Scheduled(fixedDelayString = "${account.ledger.snapshot-interval-ms:60000}")
+    public int writeSnapshots() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int written = 0;
+        for (String accountId : ledgerEntryRepository.findSnapshotCandidates(snapshotEvery)) {
+            Boolean snapshotted = transaction.execute(status -> writeSnapshot(accountId));
+            if (Boolean.TRUE.equals(snapshotted)) {
+                written++;
+            }
+        }
+
+        if (written > 0) {
+            log.debug("Wrote {} balance snapshots", written);
+        }
+        return written;
+    }
+
+    private boolean writeSnapshot(String accountId) {
+        // Waits for every transaction still writing a leg for this account
+        if (accountRepository.findByIdWithLock(accountId).isEmpty()) {
+            return false;
+        }
+
+        BalanceSnapshot previous = balanceSnapshotRepository.findFirstByAccountIdOrderByLastEntryIdDesc(accountId)
+                .orElse(null);
+        long afterEntryId = previous != null ? previous.getLastEntryId() : 0L;
+        BigDecimal base = previous != null ? previous.getBalance() : BigDecimal.ZERO;
+
+        LedgerTail tail = ledgerEntryRepository.findTail(accountId, afterEntryId);
+        if (tail.entries() < snapshotEvery) {
+            return false;
+        }
+
+        balanceSnapshotRepository.save(BalanceSnapshot.builder()
+                .accountId(accountId)
+                .lastEntryId(tail.lastEntryId())
+                .balance(base.add(tail.sum()))
+                .asOf(previous != null && previous.getAsOf().isAfter(tail.lastCreatedAt())
+                        ? previous.getAsOf() : tail.lastCreatedAt())
+                .build());
+        return true;
+    }
+
+    private static LedgerEntry entry(String accountId, String transactionId, LedgerDirection direction, BigDecimal amount) {
+        return LedgerEntry.builder()
+                .accountId(accountId)
+                .transactionId(transactionId)
+                .direction(direction)
+                .amount(amount)
+                .build();
+    }
+}
@@ -0,0 +1,11 @@
+package com.uit.accountservice.ledger;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Entries of one account after its latest snapshot: how many, the last id,
+ * their signed sum and the newest created_at.
+ */
+public record LedgerTail(Long entries, Long lastEntryId, BigDecimal sum, LocalDateTime lastCreatedAt) {
+}
@@ -0,0 +1,55 @@
+package com.uit.accountservice.messaging;
+
+import com.uit.accountservice.entity.Account;
+import com.uit.sharedkernel.amqp.RabbitMQMessageProducer;
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import com.uit.sharedkernel.event.AccountChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Broadcasts account changes that invalidate cached account lookups in other services.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountEventPublisher {
+
+    private final RabbitMQMessageProducer messageProducer;
+
+    /**
+     * Publish once the current transaction commits, so a consumer that reloads
+     * right after the invalidation already sees the new state.
+     */
+    public void publishAccountChanged(Account account, String reason) {
+        AccountChangedEvent event = AccountChangedEvent.builder()
+                .accountId(account.getAccountId())
+                .accountNumber(account.getAccountNumber())
+                .status(account.getStatus() != null ? account.getStatus().name() : null)
+                .reason(reason)
+                .build();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(event);
+                }
+            });
+        } else {
+            send(event);
+        }
+    }
+
+    private void send(AccountChangedEvent event) {
+        try {
+            messageProducer.publish(event, RabbitMQConstants.ACCOUNT_EXCHANGE, RabbitMQConstants.ACCOUNT_CHANGED_ROUTING_KEY);
+        } catch (Exception e) {
+            // Consumers' cache TTL bounds staleness if the broker is down
+            log.error("Failed to publish account change for {}: {}", event.getAccountId(), e.getMessage());
+        }
+    }
+}
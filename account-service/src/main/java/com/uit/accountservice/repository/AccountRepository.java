@@ -4,10 +4,12 @@ import com.uit.accountservice.entity.Account;
 import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 
@@ -36,6 +38,17 @@ public interface AccountRepository extends JpaRepository<Account, String> {
     @Query("SELECT a FROM Account a WHERE a.accountId IN :accountIds ORDER BY a.accountId")
     List<Account> findByIdInWithLock(@Param("accountIds") List<String> accountIds);
 
+    /**
+     * Apply an aggregated delta to the balance in a single UPDATE.
+     * Used by the hot-account flusher so a whole group of credits costs one row write.
+     */
+    @Modifying
+    @Query("UPDATE Account a SET a.balance = a.balance + :delta WHERE a.accountId = :accountId")
+    int addToBalance(@Param("accountId") String accountId, @Param("delta") BigDecimal delta);
+
+    @Query("SELECT a.accountId FROM Account a WHERE a.hot = true")
+    List<String> findHotAccountIds();
+
     Optional<Account> findByAccountNumber(String accountNumber);
 
     boolean existsByAccountNumber(String accountNumber);
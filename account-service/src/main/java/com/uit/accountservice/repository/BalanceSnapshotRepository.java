@@ -0,0 +1,17 @@
+package com.uit.accountservice.repository;
+
+import com.uit.accountservice.entity.BalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface BalanceSnapshotRepository extends JpaRepository<BalanceSnapshot, Long> {
+
+    Optional<BalanceSnapshot> findFirstByAccountIdOrderByLastEntryIdDesc(String accountId);
+
+    Optional<BalanceSnapshot> findFirstByAccountIdAndAsOfLessThanEqualOrderByLastEntryIdDesc(
+            String accountId, LocalDateTime asOf);
+}
@@ -0,0 +1,89 @@
+package com.uit.accountservice.repository;
+
+import com.uit.accountservice.entity.LedgerEntry;
+import com.uit.accountservice.ledger.LedgerTail;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+
+    /**
+     * Signed sum (credits minus debits) of the entries after a snapshot.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.direction = com.uit.accountservice.entity.enums.LedgerDirection.DEBIT " +
+           "THEN -e.amount ELSE e.amount END), 0) " +
+           "FROM LedgerEntry e WHERE e.accountId = :accountId AND e.entryId > :afterEntryId")
+    BigDecimal sumSince(@Param("accountId") String accountId, @Param("afterEntryId") long afterEntryId);
+
+    /**
+     * Signed sum of the entries after a snapshot, up to and including a point in time.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN e.direction = com.uit.accountservice.entity.enums.LedgerDirection.DEBIT " +
+           "THEN -e.amount ELSE e.amount END), 0) " +
+           "FROM LedgerEntry e WHERE e.accountId = :accountId AND e.entryId > :afterEntryId AND e.createdAt <= :asOf")
+    BigDecimal sumSinceUntil(@Param("accountId") String accountId,
+                             @Param("afterEntryId") long afterEntryId,
+                             @Param("asOf") LocalDateTime asOf);
+
+    /**
+     * Count, last id, signed sum and newest created_at of the entries after a snapshot.
+     */
+    @Query("SELECT new com.uit.accountservice.ledger.LedgerTail(COUNT(e), MAX(e.entryId), " +
+           "COALESCE(SUM(CASE WHEN e.direction = com.uit.accountservice.entity.enums.LedgerDirection.DEBIT " +
+           "THEN -e.amount ELSE e.amount END), 0), MAX(e.createdAt)) " +
+           "FROM LedgerEntry e WHERE e.accountId = :accountId AND e.entryId > :afterEntryId")
+    LedgerTail findTail(@Param("accountId") String accountId, @Param("afterEntryId") long afterEntryId);
+
+    /**
+     * Accounts with at least :threshold entries since their latest snapshot.
+     */
+    @Query("SELECT e.accountId FROM LedgerEntry e " +
+           "WHERE e.entryId > COALESCE((SELECT MAX(s.lastEntryId) FROM BalanceSnapshot s WHERE s.accountId = e.accountId), 0) " +
+           "GROUP BY e.accountId HAVING COUNT(e) >= :threshold")
+    List<String> findSnapshotCandidates(@Param("threshold") long threshold);
+
+    /**
+     * Claim the oldest unsettled hot-account credits for a flush.
+     * SKIP LOCKED lets several account-service instances flush side by side
+     * without waiting on each other's batches.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM LedgerEntry e WHERE e.settled = false ORDER BY e.entryId")
+    List<LedgerEntry> claimUnsettled(Pageable pageable);
+
+    /**
+     * Claim the unsettled credits of one account, skipping legs held by a running flush.
+     * Used by debits so the balance check includes acknowledged credits.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM LedgerEntry e WHERE e.accountId = :accountId AND e.settled = false ORDER BY e.entryId")
+    List<LedgerEntry> claimUnsettledByAccountId(@Param("accountId") String accountId);
+
+    /**
+     * Mark claimed credits as applied to accounts.balance; the only update the journal allows.
+     */
+    @Modifying
+    @Query(value = "UPDATE ledger_entries SET settled = TRUE WHERE entry_id IN (:entryIds)", nativeQuery = true)
+    int markSettled(@Param("entryIds") Collection<Long> entryIds);
+
+    @Query("SELECT COALESCE(SUM(e.amount), 0) FROM LedgerEntry e WHERE e.accountId = :accountId AND e.settled = false")
+    BigDecimal sumUnsettled(@Param("accountId") String accountId);
+
+    List<LedgerEntry> findByTransactionIdOrderByEntryId(String transactionId);
+}
@@ -0,0 +1,10 @@
+package com.uit.accountservice.repository;
+
+import com.uit.accountservice.entity.TransactionIdempotency;
+import com.uit.accountservice.entity.TransactionIdempotencyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TransactionIdempotencyRepository extends JpaRepository<TransactionIdempotency, TransactionIdempotencyId> {
+}
@@ -7,12 +7,22 @@ import com.uit.accountservice.dto.request.CreateAccountRequest;
 import com.uit.accountservice.dto.request.SendSmsOtpRequest;
 import com.uit.accountservice.dto.request.TransferRequest;
 import com.uit.accountservice.dto.request.VerifyTransferRequest;
+import com.uit.accountservice.dto.response.BatchInternalTransferResponse;
 import com.uit.accountservice.dto.response.ChallengeResponse;
+import com.uit.accountservice.dto.response.TransferFailureCode;
 import com.uit.accountservice.dto.response.UserResponse;
 import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.LedgerEntry;
+import com.uit.accountservice.entity.TransactionIdempotency;
+import com.uit.accountservice.entity.enums.BalanceOperationType;
 import com.uit.accountservice.entity.enums.AccountStatus;
 import com.uit.accountservice.entity.enums.TransferStatus;
+import com.uit.accountservice.hotaccount.HotAccountCreditBuffer;
+import com.uit.accountservice.hotaccount.HotAccountRegistry;
+import com.uit.accountservice.idempotency.IdempotencyService;
+import com.uit.accountservice.ledger.LedgerService;
 import com.uit.accountservice.mapper.AccountMapper;
+import com.uit.accountservice.messaging.AccountEventPublisher;
 import com.uit.accountservice.repository.AccountRepository;
 import com.uit.accountservice.riskengine.RiskEngineService;
 import com.uit.accountservice.riskengine.dto.RiskAssessmentRequest;
@@ -25,20 +35,31 @@ import com.uit.sharedkernel.audit.AuditEventPublisher;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.math.BigDecimal;
 
 import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
@@ -58,6 +79,15 @@ public class AccountService {
     private final PasswordEncoder passwordEncoder;
     private final UserClient userClient;
     private final CardService cardService;
+    private final HotAccountRegistry hotAccountRegistry;
+    private final HotAccountCreditBuffer hotAccountCreditBuffer;
+    private final LedgerService ledgerService;
+    private final PlatformTransactionManager transactionManager;
+    private final IdempotencyService idempotencyService;
+    private final AccountEventPublisher accountEventPublisher;
+
+    @Value("${account.transfer.batch.max-size:500}")
+    private int maxTransferBatchSize;
 
 
     public List<AccountDto> getAccountsByUserId(String userId) {
@@ -94,11 +124,19 @@ public class AccountService {
         log.info("Debiting account {} - Amount: {} - Transaction: {}", 
                 accountId, request.getAmount(), request.getTransactionId());
 
+        // Claim (transactionId, DEBIT) first so duplicates wait on the key, not the account row
+        TransactionIdempotency idempotency = idempotencyService.begin(BalanceOperationType.DEBIT, accountId, request);
+
         // Find account WITH PESSIMISTIC LOCK to prevent concurrent modifications
         Account account = accountRepository.findByIdWithLock(accountId)
                 .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
                         "Account not found: " + accountId));
 
+        // Hot account: fold pending credits in so the balance check stays strict
+        if (hotAccountRegistry.isHot(accountId)) {
+            settlePendingCredits(account);
+        }
+
         BigDecimal oldBalance = account.getBalance();
 
         // Check sufficient balance (double-check after acquiring lock)
@@ -113,6 +151,7 @@ public class AccountService {
         BigDecimal newBalance = account.getBalance().subtract(request.getAmount());
         account.setBalance(newBalance);
         accountRepository.save(account);
+        ledgerService.recordDebit(accountId, request.getTransactionId(), request.getAmount());
 
         log.info("Debit successful - Account: {} - Old balance: {} - New balance: {} - TxID: {}", 
                 accountId, oldBalance, newBalance, request.getTransactionId());
@@ -136,14 +175,14 @@ public class AccountService {
             log.error("Failed to publish audit event for debit: {}", e.getMessage());
         }
 
-        return com.uit.accountservice.dto.response.AccountBalanceResponse.builder()
+        return idempotencyService.complete(idempotency, com.uit.accountservice.dto.response.AccountBalanceResponse.builder()
                 .accountId(accountId)
                 .oldBalance(oldBalance)
                 .newBalance(newBalance)
                 .transactionId(request.getTransactionId())
                 .success(true)
                 .message("Debit successful")
-                .build();
+                .build());
     }
 
     /**
@@ -159,10 +198,19 @@ public class AccountService {
         log.info("Crediting account {} - Amount: {} - Transaction: {}", 
                 accountId, request.getAmount(), request.getTransactionId());
 
+        TransactionIdempotency idempotency = idempotencyService.begin(BalanceOperationType.CREDIT, accountId, request);
+
+        // Hot account: append a pending credit instead of queueing on the row lock
+        if (hotAccountRegistry.isHot(accountId)) {
+            return idempotencyService.complete(idempotency, creditHotAccount(accountId, request));
+        }
+
         // Find account WITH PESSIMISTIC LOCK to prevent concurrent modifications
+        long lockStart = System.nanoTime();
         Account account = accountRepository.findByIdWithLock(accountId)
                 .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
                         "Account not found: " + accountId));
+        hotAccountRegistry.recordLockWait(accountId, System.nanoTime() - lockStart);
 
         BigDecimal oldBalance = account.getBalance();
 
@@ -170,6 +218,7 @@ public class AccountService {
         BigDecimal newBalance = account.getBalance().add(request.getAmount());
         account.setBalance(newBalance);
         accountRepository.save(account);
+        ledgerService.recordCredit(accountId, request.getTransactionId(), request.getAmount());
 
         log.info("Credit successful - Account: {} - Old balance: {} - New balance: {} - TxID: {}", 
                 accountId, oldBalance, newBalance, request.getTransactionId());
@@ -193,13 +242,42 @@ public class AccountService {
             log.error("Failed to publish audit event for credit: {}", e.getMessage());
         }
 
-        return com.uit.accountservice.dto.response.AccountBalanceResponse.builder()
+        return idempotencyService.complete(idempotency, com.uit.accountservice.dto.response.AccountBalanceResponse.builder()
                 .accountId(accountId)
                 .oldBalance(oldBalance)
                 .newBalance(newBalance)
                 .transactionId(request.getTransactionId())
                 .success(true)
                 .message("Credit successful")
+                .build());
+    }
+
+    /**
+     * Credit a hot account through the pending-credit journal.
+     * The accounts row is read without a lock; the balance catches up on the next flush.
+     */
+    private com.uit.accountservice.dto.response.AccountBalanceResponse creditHotAccount(
+            String accountId,
+            com.uit.accountservice.dto.request.AccountBalanceRequest request) {
+
+        Account account = accountRepository.findById(accountId)
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
+                        "Account not found: " + accountId));
+
+        hotAccountCreditBuffer.append(accountId, request.getTransactionId(), request.getAmount());
+
+        log.info("Credit queued for hot account {} - Amount: {} - TxID: {}", 
+                accountId, request.getAmount(), request.getTransactionId());
+
+        publishHotCreditAudit(account, request.getAmount(), request.getTransactionId(),
+                "ACCOUNT_CREDIT", "Account credited by " + request.getAmount(),
+                Map.of("transactionId", request.getTransactionId()));
+
+        return com.uit.accountservice.dto.response.AccountBalanceResponse.builder()
+                .accountId(accountId)
+                .transactionId(request.getTransactionId())
+                .success(true)
+                .message("Credit accepted - hot account balance settles on next flush")
                 .build();
     }
 
@@ -207,6 +285,8 @@ public class AccountService {
      * Execute internal transfer atomically in a single transaction.
      * Both debit and credit happen together - either both succeed or both fail.
      * Uses pessimistic locking on BOTH accounts to prevent race conditions.
+     * Keyed like the batch path on (transactionId, INTERNAL_TRANSFER), so a retried
+     * call returns the original response instead of moving the money again.
      */
     @Transactional
     public com.uit.accountservice.dto.response.InternalTransferResponse executeInternalTransfer(
@@ -216,9 +296,21 @@ public class AccountService {
                 request.getSenderAccountId(), request.getReceiverAccountId(), 
                 request.getAmount(), request.getTransactionId());
 
+        if (!request.getSenderAccountId().equals(request.getReceiverAccountId())
+                && hotAccountRegistry.isHot(request.getReceiverAccountId())) {
+            return executeTransferToHotAccount(request);
+        }
+
         // Lock BOTH accounts in deterministic order to prevent deadlock
+        long lockStart = System.nanoTime();
         List<String> accountIds = List.of(request.getSenderAccountId(), request.getReceiverAccountId());
         List<Account> accounts = accountRepository.findByIdInWithLock(accountIds);
+        hotAccountRegistry.recordLockWait(request.getReceiverAccountId(), System.nanoTime() - lockStart);
+
+        Optional<com.uit.accountservice.dto.response.InternalTransferResponse> applied = findAppliedTransfer(request);
+        if (applied.isPresent()) {
+            return applied.get();
+        }
         
         if (accounts.size() != 2) {
             throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
@@ -231,6 +323,9 @@ public class AccountService {
                 .findFirst()
                 .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
                         "Sender account not found"));
+        if (hotAccountRegistry.isHot(request.getSenderAccountId())) {
+            settlePendingCredits(fromAccount);
+        }
         
         Account toAccount = accounts.stream()
                 .filter(a -> a.getAccountId().equals(request.getReceiverAccountId()))
@@ -257,13 +352,96 @@ public class AccountService {
         // Save both accounts (within same transaction)
         accountRepository.save(fromAccount);
         accountRepository.save(toAccount);
+        ledgerService.recordTransfer(request.getTransactionId(), request.getSenderAccountId(),
+                request.getReceiverAccountId(), request.getAmount());
 
         log.info("Internal transfer completed - TxID: {} - Sender: {} ({} → {}) - Receiver: {} ({} → {})",
                 request.getTransactionId(),
                 request.getSenderAccountId(), fromOldBalance, fromAccount.getBalance(),
                 request.getReceiverAccountId(), toOldBalance, toAccount.getBalance());
 
-        // Centralized Audit Log (Sender)
+        publishInternalTransferAudits(request, fromAccount.getUserId(), fromOldBalance, fromAccount.getBalance(),
+                toAccount.getUserId(), toOldBalance, toAccount.getBalance());
+
+        com.uit.accountservice.dto.response.InternalTransferResponse response =
+                com.uit.accountservice.dto.response.InternalTransferResponse.builder()
+                .transactionId(request.getTransactionId())
+                .senderAccountId(request.getSenderAccountId())
+                .senderAccountOldBalance(fromOldBalance)
+                .senderAccountNewBalance(fromAccount.getBalance())
+                .receiverAccountId(request.getReceiverAccountId())
+                .receiverAccountOldBalance(toOldBalance)
+                .receiverAccountNewBalance(toAccount.getBalance())
+                .amount(request.getAmount())
+                .success(true)
+                .message("Internal transfer completed successfully")
+                .build();
+        idempotencyService.completeTransfer(request, response);
+        return response;
+    }
+
+    /**
+     * The stored result of a transfer already recorded under this transactionId.
+     * Checked with the sender row locked, so a duplicate in flight has committed or
+     * rolled back by now. A tombstoned id is rejected rather than applied.
+     */
+    private Optional<com.uit.accountservice.dto.response.InternalTransferResponse> findAppliedTransfer(
+            com.uit.accountservice.dto.request.InternalTransferRequest request) {
+        return idempotencyService.findTransfer(request.getTransactionId()).map(record -> {
+            com.uit.accountservice.dto.response.InternalTransferResponse replay =
+                    idempotencyService.replayTransfer(record, request);
+            if (!replay.isSuccess()) {
+                throw new AppException(ErrorCode.DUPLICATE_TRANSACTION,
+                        "Transaction " + request.getTransactionId() + " was reconciled as not applied");
+            }
+            return replay;
+        });
+    }
+
+    /**
+     * Internal transfer into a hot account.
+     * Only the sender row is locked; the receiver leg is appended as a pending credit
+     * in the same transaction, so both legs still commit or roll back together.
+     */
+    private com.uit.accountservice.dto.response.InternalTransferResponse executeTransferToHotAccount(
+            com.uit.accountservice.dto.request.InternalTransferRequest request) {
+
+        Account toAccount = accountRepository.findById(request.getReceiverAccountId())
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
+                        "Receiver account not found"));
+
+        Account fromAccount = accountRepository.findByIdWithLock(request.getSenderAccountId())
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, 
+                        "Sender account not found"));
+
+        Optional<com.uit.accountservice.dto.response.InternalTransferResponse> applied = findAppliedTransfer(request);
+        if (applied.isPresent()) {
+            return applied.get();
+        }
+
+        if (hotAccountRegistry.isHot(request.getSenderAccountId())) {
+            settlePendingCredits(fromAccount);
+        }
+
+        BigDecimal fromOldBalance = fromAccount.getBalance();
+
+        if (fromAccount.getBalance().compareTo(request.getAmount()) < 0) {
+            log.warn("Insufficient balance - Account: {} Required: {} Available: {}", 
+                    request.getSenderAccountId(), request.getAmount(), fromAccount.getBalance());
+            throw new AppException(ErrorCode.INSUFFICIENT_FUNDS, 
+                    "Insufficient balance in sender account");
+        }
+
+        fromAccount.setBalance(fromAccount.getBalance().subtract(request.getAmount()));
+        accountRepository.save(fromAccount);
+        ledgerService.recordDebit(request.getSenderAccountId(), request.getTransactionId(), request.getAmount());
+        hotAccountCreditBuffer.append(request.getReceiverAccountId(), request.getTransactionId(), request.getAmount());
+
+        log.info("Internal transfer to hot account completed - TxID: {} - Sender: {} ({} → {}) - Receiver: {} (pending credit)",
+                request.getTransactionId(),
+                request.getSenderAccountId(), fromOldBalance, fromAccount.getBalance(),
+                request.getReceiverAccountId());
+
         try {
             AuditEventDto senderAudit = AuditEventDto.builder()
                     .serviceName("account-service")
@@ -281,6 +459,56 @@ public class AccountService {
                     .result("SUCCESS")
                     .build();
             auditEventPublisher.publishAuditEvent(senderAudit);
+        } catch (Exception e) {
+            log.error("Failed to publish audit event for internal transfer: {}", e.getMessage());
+        }
+
+        publishHotCreditAudit(toAccount, request.getAmount(), request.getTransactionId(),
+                "INTERNAL_TRANSFER_RECEIVED", "Received " + request.getAmount() + " from " + request.getSenderAccountId(),
+                Map.of(
+                    "transactionId", request.getTransactionId(),
+                    "senderAccountId", request.getSenderAccountId()
+                ));
+
+        com.uit.accountservice.dto.response.InternalTransferResponse response =
+                com.uit.accountservice.dto.response.InternalTransferResponse.builder()
+                .transactionId(request.getTransactionId())
+                .senderAccountId(request.getSenderAccountId())
+                .senderAccountOldBalance(fromOldBalance)
+                .senderAccountNewBalance(fromAccount.getBalance())
+                .receiverAccountId(request.getReceiverAccountId())
+                .amount(request.getAmount())
+                .success(true)
+                .message("Internal transfer completed successfully - receiver balance settles on next flush")
+                .build();
+        idempotencyService.completeTransfer(request, response);
+        return response;
+    }
+
+    /**
+     * Centralized audit log for both legs of a settled internal transfer.
+     */
+    private void publishInternalTransferAudits(com.uit.accountservice.dto.request.InternalTransferRequest request,
+                                               String senderUserId, BigDecimal fromOldBalance, BigDecimal fromNewBalance,
+                                               String receiverUserId, BigDecimal toOldBalance, BigDecimal toNewBalance) {
+        // Centralized Audit Log (Sender)
+        try {
+            AuditEventDto senderAudit = AuditEventDto.builder()
+                    .serviceName("account-service")
+                    .entityType("Account")
+                    .entityId(request.getSenderAccountId())
+                    .action("INTERNAL_TRANSFER_SENT")
+                    .userId(senderUserId)
+                    .oldValues(Map.of("balance", fromOldBalance.toString()))
+                    .newValues(Map.of("balance", fromNewBalance.toString()))
+                    .changes("Transferred " + request.getAmount() + " to " + request.getReceiverAccountId())
+                    .metadata(Map.of(
+                        "transactionId", request.getTransactionId(),
+                        "receiverAccountId", request.getReceiverAccountId()
+                    ))
+                    .result("SUCCESS")
+                    .build();
+            auditEventPublisher.publishAuditEvent(senderAudit);
 
             // Centralized Audit Log (Receiver)
             AuditEventDto receiverAudit = AuditEventDto.builder()
@@ -288,9 +516,9 @@ public class AccountService {
                     .entityType("Account")
                     .entityId(request.getReceiverAccountId())
                     .action("INTERNAL_TRANSFER_RECEIVED")
-                    .userId(toAccount.getUserId())
+                    .userId(receiverUserId)
                     .oldValues(Map.of("balance", toOldBalance.toString()))
-                    .newValues(Map.of("balance", toAccount.getBalance().toString()))
+                    .newValues(Map.of("balance", toNewBalance.toString()))
                     .changes("Received " + request.getAmount() + " from " + request.getSenderAccountId())
                     .metadata(Map.of(
                         "transactionId", request.getTransactionId(),
@@ -302,21 +530,327 @@ public class AccountService {
         } catch (Exception e) {
             log.error("Failed to publish audit event for internal transfer: {}", e.getMessage());
         }
+    }
+
+    /**
+     * Execute a batch of internal transfers in a single DB transaction (group commit).
+     * Every involved account is locked once, in accountId order, and legs are applied in
+     * request order against the locked rows. A transfer that fails (unknown account,
+     * insufficient funds, ...) gets a failed result with a {@link TransferFailureCode}
+     * without aborting the rest of the batch.
+     *
+     * Each applied transfer records (transactionId, INTERNAL_TRANSFER) in
+     * transaction_idempotency in the batch transaction. A transactionId that already has
+     * a record - from an earlier batch, a single transfer, or a reconciliation tombstone -
+     * gets its stored result back and is not applied again.
+     *
+     * If the batch transaction itself fails (a constraint violation on one leg, a lock
+     * timeout, ...), every transfer is retried in its own transaction, so only the one
+     * that cannot be applied fails. Audit events are published after the commit.
+     */
+    public BatchInternalTransferResponse executeInternalTransferBatch(
+            List<com.uit.accountservice.dto.request.InternalTransferRequest> requests) {
+
+        if (requests.size() > maxTransferBatchSize) {
+            throw new AppException(ErrorCode.BAD_REQUEST,
+                    "Batch size " + requests.size() + " exceeds maximum of " + maxTransferBatchSize);
+        }
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        List<Runnable> audits = new ArrayList<>();
+        List<com.uit.accountservice.dto.response.InternalTransferResponse> results;
+        try {
+            results = transaction.execute(status -> applyBatch(requests, new HashSet<>(), audits));
+        } catch (RuntimeException e) {
+            log.warn("Internal transfer batch of {} failed, retrying transfers one by one: {}",
+                    requests.size(), e.getMessage());
+            audits.clear();
+            results = applyOneByOne(requests, transaction, audits);
+        }
+        audits.forEach(Runnable::run);
+
+        int succeeded = (int) results.stream()
+                .filter(com.uit.accountservice.dto.response.InternalTransferResponse::isSuccess)
+                .count();
+        log.info("Internal transfer batch completed - {} succeeded, {} failed",
+                succeeded, requests.size() - succeeded);
+
+        return BatchInternalTransferResponse.builder()
+                .results(results)
+                .succeeded(succeeded)
+                .failed(requests.size() - succeeded)
+                .build();
+    }
+
+    /**
+     * Fallback after a failed batch commit: one transaction per transfer.
+     * Duplicate transactionIds are still rejected across the whole batch.
+     */
+    private List<com.uit.accountservice.dto.response.InternalTransferResponse> applyOneByOne(
+            List<com.uit.accountservice.dto.request.InternalTransferRequest> requests,
+            TransactionTemplate transaction, List<Runnable> audits) {
+
+        Set<String> seenTransactionIds = new HashSet<>();
+        List<com.uit.accountservice.dto.response.InternalTransferResponse> results = new ArrayList<>(requests.size());
+        for (com.uit.accountservice.dto.request.InternalTransferRequest request : requests) {
+            List<Runnable> itemAudits = new ArrayList<>();
+            try {
+                results.add(transaction.execute(status ->
+                        applyBatch(List.of(request), seenTransactionIds, itemAudits)).get(0));
+                audits.addAll(itemAudits);
+            } catch (RuntimeException e) {
+                log.error("Internal transfer {} could not be applied: {}", request.getTransactionId(), e.getMessage());
+                results.add(failedTransfer(request, TransferFailureCode.PROCESSING_ERROR,
+                        "Transfer could not be applied"));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Lock, apply and journal a list of transfers inside the caller's transaction.
+     */
+    private List<com.uit.accountservice.dto.response.InternalTransferResponse> applyBatch(
+            List<com.uit.accountservice.dto.request.InternalTransferRequest> requests,
+            Set<String> seenTransactionIds, List<Runnable> audits) {
+
+        List<String> accountIds = requests.stream()
+                .flatMap(r -> Stream.of(r.getSenderAccountId(), r.getReceiverAccountId()))
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+
+        // Single locking query; rows come back ORDER BY accountId so concurrent batches cannot deadlock
+        Map<String, Account> accounts = accountRepository.findByIdInWithLock(accountIds).stream()
+                .collect(Collectors.toMap(Account::getAccountId, Function.identity()));
+        for (Account account : accounts.values()) {
+            if (hotAccountRegistry.isHot(account.getAccountId())) {
+                settlePendingCredits(account);
+            }
+        }
+
+        log.info("Executing internal transfer batch - {} transfers over {} locked accounts",
+                requests.size(), accounts.size());
+
+        // Read after the locks: a copy of one of these transfers in flight elsewhere has finished
+        Map<String, TransactionIdempotency> recorded = idempotencyService.findTransfers(requests);
+
+        Map<String, Account> touched = new LinkedHashMap<>();
+        List<LedgerEntry> ledgerEntries = new ArrayList<>();
+        List<com.uit.accountservice.dto.response.InternalTransferResponse> results = new ArrayList<>(requests.size());
+
+        for (com.uit.accountservice.dto.request.InternalTransferRequest request : requests) {
+            TransactionIdempotency previous = recorded.get(request.getTransactionId());
+            if (previous != null && seenTransactionIds.add(request.getTransactionId())) {
+                results.add(replayBatchedTransfer(previous, request));
+                continue;
+            }
+            com.uit.accountservice.dto.response.InternalTransferResponse result =
+                    applyBatchedTransfer(request, accounts, seenTransactionIds, audits);
+            results.add(result);
+            if (result.isSuccess()) {
+                idempotencyService.completeTransfer(request, result);
+                touched.put(request.getSenderAccountId(), accounts.get(request.getSenderAccountId()));
+                touched.put(request.getReceiverAccountId(), accounts.get(request.getReceiverAccountId()));
+                ledgerEntries.addAll(LedgerService.transferLegs(request.getTransactionId(),
+                        request.getSenderAccountId(), request.getReceiverAccountId(), request.getAmount()));
+            }
+        }
+
+        accountRepository.saveAll(touched.values());
+        ledgerService.recordAll(ledgerEntries);
+        return results;
+    }
+
+    private com.uit.accountservice.dto.response.InternalTransferResponse applyBatchedTransfer(
+            com.uit.accountservice.dto.request.InternalTransferRequest request,
+            Map<String, Account> accounts, Set<String> seenTransactionIds, List<Runnable> audits) {
+
+        if (request.getTransactionId() == null || request.getAmount() == null || request.getAmount().signum() <= 0) {
+            return failedTransfer(request, TransferFailureCode.INVALID_REQUEST, "Invalid transfer request");
+        }
+        if (!seenTransactionIds.add(request.getTransactionId())) {
+            return failedTransfer(request, TransferFailureCode.DUPLICATE_TRANSACTION, "Duplicate transactionId in batch");
+        }
+        if (Objects.equals(request.getSenderAccountId(), request.getReceiverAccountId())) {
+            return failedTransfer(request, TransferFailureCode.SAME_ACCOUNT, "Sender and receiver accounts must differ");
+        }
+
+        Account fromAccount = accounts.get(request.getSenderAccountId());
+        if (fromAccount == null) {
+            return failedTransfer(request, TransferFailureCode.SENDER_NOT_FOUND, "Sender account not found");
+        }
+        Account toAccount = accounts.get(request.getReceiverAccountId());
+        if (toAccount == null) {
+            return failedTransfer(request, TransferFailureCode.RECEIVER_NOT_FOUND, "Receiver account not found");
+        }
+
+        BigDecimal fromOldBalance = fromAccount.getBalance();
+        BigDecimal toOldBalance = toAccount.getBalance();
+
+        if (fromOldBalance.compareTo(request.getAmount()) < 0) {
+            log.warn("Insufficient balance in batch - Account: {} Required: {} Available: {} TxID: {}",
+                    request.getSenderAccountId(), request.getAmount(), fromOldBalance, request.getTransactionId());
+            return failedTransfer(request, TransferFailureCode.INSUFFICIENT_FUNDS, "Insufficient balance in sender account");
+        }
+
+        BigDecimal fromNewBalance = fromOldBalance.subtract(request.getAmount());
+        BigDecimal toNewBalance = toOldBalance.add(request.getAmount());
+        fromAccount.setBalance(fromNewBalance);
+        toAccount.setBalance(toNewBalance);
+
+        String senderUserId = fromAccount.getUserId();
+        String receiverUserId = toAccount.getUserId();
+        audits.add(() -> publishInternalTransferAudits(request, senderUserId, fromOldBalance, fromNewBalance,
+                receiverUserId, toOldBalance, toNewBalance));
 
         return com.uit.accountservice.dto.response.InternalTransferResponse.builder()
                 .transactionId(request.getTransactionId())
                 .senderAccountId(request.getSenderAccountId())
                 .senderAccountOldBalance(fromOldBalance)
-                .senderAccountNewBalance(fromAccount.getBalance())
+                .senderAccountNewBalance(fromNewBalance)
                 .receiverAccountId(request.getReceiverAccountId())
                 .receiverAccountOldBalance(toOldBalance)
-                .receiverAccountNewBalance(toAccount.getBalance())
+                .receiverAccountNewBalance(toNewBalance)
                 .amount(request.getAmount())
                 .success(true)
                 .message("Internal transfer completed successfully")
                 .build();
     }
 
+    private com.uit.accountservice.dto.response.InternalTransferResponse replayBatchedTransfer(
+            TransactionIdempotency previous, com.uit.accountservice.dto.request.InternalTransferRequest request) {
+        try {
+            return idempotencyService.replayTransfer(previous, request);
+        } catch (AppException e) {
+            return failedTransfer(request, TransferFailureCode.DUPLICATE_TRANSACTION, e.getMessage());
+        }
+    }
+
+    private com.uit.accountservice.dto.response.InternalTransferResponse failedTransfer(
+            com.uit.accountservice.dto.request.InternalTransferRequest request,
+            TransferFailureCode failureCode, String message) {
+        return com.uit.accountservice.dto.response.InternalTransferResponse.builder()
+                .transactionId(request.getTransactionId())
+                .senderAccountId(request.getSenderAccountId())
+                .receiverAccountId(request.getReceiverAccountId())
+                .amount(request.getAmount())
+                .success(false)
+                .message(message)
+                .failureCode(failureCode)
+                .build();
+    }
+
+    /**
+     * Whether an internal transfer was committed, for a caller that lost the original
+     * response (e.g. timed out waiting for a batch). The sender row lock is taken first,
+     * so a transfer still in flight on that account commits or rolls back before the
+     * journal is read.
+     *
+     * A NOT_FOUND answer is final: it leaves a tombstone under (transactionId,
+     * INTERNAL_TRANSFER), so a copy of the transfer arriving later is rejected.
+     */
+    @Transactional
+    public com.uit.accountservice.dto.response.InternalTransferResponse getInternalTransferOutcome(
+            String transactionId, String senderAccountId) {
+
+        accountRepository.findByIdWithLock(senderAccountId)
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Sender account not found"));
+
+        TransactionIdempotency record = idempotencyService.findTransfer(transactionId).orElse(null);
+        if (record != null && record.getAccountId().equals(senderAccountId)) {
+            return idempotencyService.readTransfer(record);
+        }
+
+        // Transfers applied before they were recorded in transaction_idempotency are only in the journal
+        return ledgerService.findDebit(senderAccountId, transactionId)
+                .map(debit -> com.uit.accountservice.dto.response.InternalTransferResponse.builder()
+                        .transactionId(transactionId)
+                        .senderAccountId(senderAccountId)
+                        .amount(debit.getAmount())
+                        .success(true)
+                        .message("Internal transfer was applied")
+                        .build())
+                .orElseGet(() -> {
+                    com.uit.accountservice.dto.response.InternalTransferResponse notFound =
+                            com.uit.accountservice.dto.response.InternalTransferResponse.builder()
+                            .transactionId(transactionId)
+                            .senderAccountId(senderAccountId)
+                            .success(false)
+                            .message("No internal transfer committed for this transactionId")
+                            .failureCode(TransferFailureCode.NOT_FOUND)
+                            .build();
+                    if (record == null) {
+                        idempotencyService.rejectTransfer(transactionId, senderAccountId, notFound);
+                    }
+                    return notFound;
+                });
+    }
+
+    /**
+     * Add a hot account's pending credits to its locked row.
+     */
+    private void settlePendingCredits(Account account) {
+        BigDecimal pending = hotAccountCreditBuffer.claimPending(account.getAccountId());
+        if (pending.signum() > 0) {
+            account.setBalance(account.getBalance().add(pending));
+            accountRepository.save(account);
+        }
+    }
+
+    private void publishHotCreditAudit(Account account, BigDecimal amount, String transactionId,
+                                       String action, String changes, Map<String, Object> metadata) {
+        try {
+            AuditEventDto auditEvent = AuditEventDto.builder()
+                    .serviceName("account-service")
+                    .entityType("Account")
+                    .entityId(account.getAccountId())
+                    .action(action)
+                    .userId(account.getUserId())
+                    .newValues(Map.of("pendingCredit", amount.toString()))
+                    .changes(changes)
+                    .metadata(metadata)
+                    .result("SUCCESS")
+                    .build();
+            auditEventPublisher.publishAuditEvent(auditEvent);
+        } catch (Exception e) {
+            log.error("Failed to publish audit event for hot account credit {}: {}", transactionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Flag or unflag an account for hot mode (admin only).
+     * Unflagging settles pending credits so the row is exact again right away.
+     */
+    @Transactional
+    public AccountDto setHotAccount(String accountId, boolean hot) {
+        Account account = accountRepository.findByIdWithLock(accountId)
+                .orElseThrow(() -> new AppException(ErrorCode.ACCOUNT_NOT_FOUND));
+
+        if (!hot) {
+            settlePendingCredits(account);
+        }
+        account.setHot(hot);
+        accountRepository.save(account);
+        hotAccountRegistry.setFlagged(accountId, hot);
+
+        log.info("Hot mode {} for account {}", hot ? "enabled" : "disabled", accountId);
+
+        auditEventPublisher.publishAuditEvent(AuditEventDto.builder()
+                .serviceName("account-service")
+                .entityType("Account")
+                .entityId(accountId)
+                .action("SET_HOT_ACCOUNT")
+                .userId(account.getUserId())
+                .newValues(Map.of("hot", String.valueOf(hot)))
+                .changes("Hot account mode " + (hot ? "enabled" : "disabled"))
+                .result("SUCCESS")
+                .build());
+
+        return accountMapper.toDto(account);
+    }
+
     // SECTION BOLAC <3
     public List<AccountDto> getMyAccounts(String userId) {
         // Chỉ lấy các tài khoản chưa bị đóng
@@ -544,6 +1078,7 @@ public class AccountService {
 
         account.setStatus(AccountStatus.CLOSED);
         accountRepository.save(account);
+        accountEventPublisher.publishAccountChanged(account, "CLOSED");
 
         // Centralized Audit Log
         AuditEventDto auditEvent = AuditEventDto.builder()
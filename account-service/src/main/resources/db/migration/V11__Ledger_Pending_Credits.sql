@@ -0,0 +1,47 @@
+-- =======================================================
+-- Hot-account credits become unsettled ledger legs
+-- =======================================================
+
+-- A hot-account credit used to write a hot_account_credits row and a ledger
+-- leg. It now writes only the leg, with settled = FALSE until the flusher
+-- (or a debit holding the row lock) adds it to accounts.balance.
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS settled BOOLEAN NOT NULL DEFAULT TRUE;
+
+-- Move pending credits over. Those journaled since V8 already have a leg;
+-- older ones get one now.
+ALTER TABLE ledger_entries DISABLE TRIGGER trg_ledger_entries_immutable;
+
+UPDATE ledger_entries e SET settled = FALSE
+FROM hot_account_credits c
+WHERE e.account_id = c.account_id
+  AND e.transaction_id = c.transaction_id
+  AND e.direction = 'CREDIT';
+
+INSERT INTO ledger_entries (account_id, transaction_id, direction, amount, created_at, settled)
+SELECT c.account_id, c.transaction_id, 'CREDIT', c.amount, c.created_at, FALSE
+FROM hot_account_credits c
+WHERE NOT EXISTS (
+    SELECT 1 FROM ledger_entries e
+    WHERE e.account_id = c.account_id
+      AND e.transaction_id = c.transaction_id
+      AND e.direction = 'CREDIT');
+
+ALTER TABLE ledger_entries ENABLE TRIGGER trg_ledger_entries_immutable;
+
+DROP TABLE IF EXISTS hot_account_credits;
+
+-- Settling a pending credit is the only change a journal row may see
+CREATE OR REPLACE FUNCTION ledger_entries_immutable() RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'UPDATE' AND NOT OLD.settled AND NEW.settled
+       AND (NEW.entry_id, NEW.account_id, NEW.transaction_id, NEW.direction, NEW.amount, NEW.created_at)
+           IS NOT DISTINCT FROM
+           (OLD.entry_id, OLD.account_id, OLD.transaction_id, OLD.direction, OLD.amount, OLD.created_at) THEN
+        RETURN NEW;
+    END IF;
+    RAISE EXCEPTION 'ledger_entries is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+-- Flush and debit claims only ever look at the few unsettled legs
+CREATE INDEX IF NOT EXISTS idx_ledger_unsettled ON ledger_entries(account_id, entry_id) WHERE NOT settled;
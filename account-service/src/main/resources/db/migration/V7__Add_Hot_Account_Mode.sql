@@ -0,0 +1,18 @@
+-- =======================================================
+-- Hot Account Mode
+-- =======================================================
+
+-- Accounts flagged as hot (payroll, merchants) take credits through
+-- hot_account_credits instead of locking their accounts row per transfer
+ALTER TABLE accounts ADD COLUMN IF NOT EXISTS hot BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Pending credits for hot accounts (append-only, drained by the flusher)
+CREATE TABLE IF NOT EXISTS hot_account_credits (
+    id BIGSERIAL PRIMARY KEY,
+    account_id VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(255) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_hot_credit_account ON hot_account_credits(account_id, id);
@@ -0,0 +1,53 @@
+-- =======================================================
+-- Append-only double-entry journal + balance snapshots
+-- =======================================================
+
+-- One immutable row per debit/credit leg. A transfer writes two legs
+-- sharing the same transaction_id.
+CREATE TABLE IF NOT EXISTS ledger_entries (
+    entry_id BIGSERIAL PRIMARY KEY,
+    account_id VARCHAR(255) NOT NULL,
+    transaction_id VARCHAR(100) NOT NULL,
+    direction VARCHAR(10) NOT NULL,
+    amount DECIMAL(19, 2) NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT ledger_entries_direction_check CHECK (direction IN ('DEBIT', 'CREDIT')),
+    CONSTRAINT ledger_entries_amount_check CHECK (amount > 0)
+);
+
+-- Tail sums after a snapshot and as-of range scans per account
+CREATE INDEX IF NOT EXISTS idx_ledger_account_entry ON ledger_entries(account_id, entry_id);
+CREATE INDEX IF NOT EXISTS idx_ledger_account_created ON ledger_entries(account_id, created_at);
+CREATE INDEX IF NOT EXISTS idx_ledger_transaction ON ledger_entries(transaction_id);
+
+-- Journal rows are never updated or deleted
+CREATE OR REPLACE FUNCTION ledger_entries_immutable() RETURNS TRIGGER AS $$
+BEGIN
+    RAISE EXCEPTION 'ledger_entries is append-only';
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_ledger_entries_immutable ON ledger_entries;
+CREATE TRIGGER trg_ledger_entries_immutable
+    BEFORE UPDATE OR DELETE ON ledger_entries
+    FOR EACH ROW EXECUTE FUNCTION ledger_entries_immutable();
+
+-- Balance of an account covering every entry up to last_entry_id
+CREATE TABLE IF NOT EXISTS balance_snapshots (
+    snapshot_id BIGSERIAL PRIMARY KEY,
+    account_id VARCHAR(255) NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    balance DECIMAL(19, 2) NOT NULL,
+    as_of TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT uq_balance_snapshot UNIQUE (account_id, last_entry_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_balance_snapshot_as_of ON balance_snapshots(account_id, as_of);
+
+-- Opening snapshot: existing balances become the start of the journal
+INSERT INTO balance_snapshots (account_id, last_entry_id, balance, as_of)
+SELECT account_id, 0, balance, CURRENT_TIMESTAMP FROM accounts
+ON CONFLICT (account_id, last_entry_id) DO NOTHING;
@@ -0,0 +1,12 @@
+-- =======================================================
+-- Enforce transaction_idempotency for debit/credit
+-- =======================================================
+
+-- A debit and its compensating credit share the transaction id,
+-- so the key is (transaction_id, operation_type)
+ALTER TABLE transaction_idempotency DROP CONSTRAINT IF EXISTS transaction_idempotency_pkey;
+ALTER TABLE transaction_idempotency ADD CONSTRAINT transaction_idempotency_pkey
+    PRIMARY KEY (transaction_id, operation_type);
+
+-- Original AccountBalanceResponse (JSON), returned as-is on replay
+ALTER TABLE transaction_idempotency ADD COLUMN IF NOT EXISTS response_payload TEXT;
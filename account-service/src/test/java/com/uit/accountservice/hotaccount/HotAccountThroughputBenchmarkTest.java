@@ -0,0 +1,153 @@
+package com.uit.accountservice.hotaccount;
+
+import com.uit.accountservice.AbstractIntegrationTest;
+import com.uit.accountservice.dto.request.InternalTransferRequest;
+import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.enums.AccountStatus;
+import com.uit.accountservice.ledger.LedgerService;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.accountservice.riskengine.RiskEngineService;
+import com.uit.accountservice.service.AccountService;
+import com.uit.sharedkernel.audit.AuditEventPublisher;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Throughput benchmark for hot account mode: 1 hot receiver x N concurrent senders.
+ *
+ * Runs the same workload with plain row locking and with hot mode, logs transfers/sec
+ * for both and checks that every credit lands on the receiver. The numbers only mean
+ * something against PostgreSQL; the in-memory test database serializes differently.
+ *
+ * Runs only with -Pbenchmark; scale it with -DhotAccount.senders=32 -DhotAccount.transfersPerSender=500.
+ */
+@Tag("benchmark")
+@DisplayName("Hot Account Throughput Benchmark")
+class HotAccountThroughputBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(HotAccountThroughputBenchmarkTest.class);
+
+    private static final int SENDERS = Integer.getInteger("hotAccount.senders", 8);
+    private static final int TRANSFERS_PER_SENDER = Integer.getInteger("hotAccount.transfersPerSender", 25);
+    private static final BigDecimal AMOUNT = new BigDecimal("1.00");
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private HotAccountCreditBuffer creditBuffer;
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @MockBean
+    private RiskEngineService riskEngineService;
+
+    @MockBean
+    private WebClient.Builder webClientBuilder;
+
+    @MockBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @MockBean
+    private AuditEventPublisher auditEventPublisher;
+
+    @AfterEach
+    void tearDown() {
+        accountRepository.deleteAllInBatch();
+    }
+
+    @Test
+    @DisplayName("Row locking and hot mode both settle every credit; logs throughput of each")
+    void testHotReceiverThroughput() throws Exception {
+        double baseline = runWorkload(false);
+        double hot = runWorkload(true);
+
+        log.info("[hot-account] {} senders x {} transfers: row-lock {} tx/s, hot mode {} tx/s (x{})",
+                SENDERS, TRANSFERS_PER_SENDER, Math.round(baseline), Math.round(hot),
+                String.format("%.2f", hot / baseline));
+    }
+
+    private double runWorkload(boolean hotMode) throws Exception {
+        Account receiver = newAccount(BigDecimal.ZERO);
+        List<Account> senders = new ArrayList<>();
+        for (int i = 0; i < SENDERS; i++) {
+            senders.add(newAccount(BigDecimal.valueOf(TRANSFERS_PER_SENDER)));
+        }
+        accountService.setHotAccount(receiver.getAccountId(), hotMode);
+
+        ExecutorService pool = Executors.newFixedThreadPool(SENDERS);
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>();
+        for (Account sender : senders) {
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < TRANSFERS_PER_SENDER; i++) {
+                    accountService.executeInternalTransfer(InternalTransferRequest.builder()
+                            .transactionId(UUID.randomUUID().toString())
+                            .senderAccountId(sender.getAccountId())
+                            .receiverAccountId(receiver.getAccountId())
+                            .amount(AMOUNT)
+                            .build());
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+        long elapsed = System.nanoTime() - start;
+        pool.shutdown();
+
+        while (creditBuffer.flush() > 0) {
+            // drain everything the scheduled flusher has not picked up yet
+        }
+
+        BigDecimal expected = AMOUNT.multiply(BigDecimal.valueOf((long) SENDERS * TRANSFERS_PER_SENDER));
+        assertThat(accountRepository.findById(receiver.getAccountId()).orElseThrow().getBalance())
+                .isEqualByComparingTo(expected);
+        for (Account sender : senders) {
+            assertThat(accountRepository.findById(sender.getAccountId()).orElseThrow().getBalance())
+                    .isEqualByComparingTo(BigDecimal.ZERO);
+        }
+
+        assertThat(ledgerService.reconcile(receiver.getAccountId()).getReconciled()).isTrue();
+
+        accountService.setHotAccount(receiver.getAccountId(), false);
+        return (double) SENDERS * TRANSFERS_PER_SENDER / (elapsed / 1_000_000_000.0);
+    }
+
+    private Account newAccount(BigDecimal balance) {
+        return accountRepository.saveAndFlush(Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + (long) (Math.random() * 8_999_999_999L)))
+                .userId("bench-" + UUID.randomUUID())
+                .balance(balance)
+                .status(AccountStatus.ACTIVE)
+                .build());
+    }
+}
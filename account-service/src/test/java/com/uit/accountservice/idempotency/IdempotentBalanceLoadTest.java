@@ -0,0 +1,247 @@
+package com.uit.accountservice.idempotency;
+
+import com.uit.accountservice.AbstractIntegrationTest;
+import com.uit.accountservice.dto.request.AccountBalanceRequest;
+import com.uit.accountservice.dto.request.InternalTransferRequest;
+import com.uit.accountservice.dto.response.AccountBalanceResponse;
+import com.uit.accountservice.dto.response.InternalTransferResponse;
+import com.uit.accountservice.dto.response.TransferFailureCode;
+import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.enums.AccountStatus;
+import com.uit.accountservice.entity.enums.BalanceOperationType;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.accountservice.repository.LedgerEntryRepository;
+import com.uit.accountservice.riskengine.RiskEngineService;
+import com.uit.accountservice.service.AccountService;
+import com.uit.sharedkernel.audit.AuditEventPublisher;
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Hammers the same transactionId from many threads and checks the money moves once.
+ * Scale with -Didempotency.threads=64.
+ */
+@DisplayName("Idempotent Balance Operations Load Test")
+class IdempotentBalanceLoadTest extends AbstractIntegrationTest {
+
+    private static final int THREADS = Integer.getInteger("idempotency.threads", 16);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private AccountService accountService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @MockBean
+    private RiskEngineService riskEngineService;
+
+    @MockBean
+    private WebClient.Builder webClientBuilder;
+
+    @MockBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @MockBean
+    private AuditEventPublisher auditEventPublisher;
+
+    private Account account;
+
+    private Account receiver;
+
+    @BeforeEach
+    void setUp() {
+        account = newAccount();
+        receiver = newAccount();
+    }
+
+    @Test
+    @DisplayName("Concurrent debits with one transactionId apply once and replay the original response")
+    void testConcurrentDebit_SameTransactionId_AppliedOnce() throws Exception {
+        AccountBalanceRequest request = request(UUID.randomUUID().toString(), "100.00");
+
+        List<AccountBalanceResponse> responses = hammer(BalanceOperationType.DEBIT, request);
+
+        assertThat(responses).hasSize(THREADS);
+        assertThat(responses).allSatisfy(r -> {
+            assertThat(r.isSuccess()).isTrue();
+            assertThat(r.getNewBalance()).isEqualByComparingTo("900.00");
+        });
+        assertThat(balance()).isEqualByComparingTo("900.00");
+        assertThat(ledgerEntryRepository.findByTransactionIdOrderByEntryId(request.getTransactionId())).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Compensating credit shares the transactionId but is applied once too")
+    void testDebitThenCompensation_AppliedOnceEach() throws Exception {
+        AccountBalanceRequest request = request(UUID.randomUUID().toString(), "250.00");
+
+        hammer(BalanceOperationType.DEBIT, request);
+        hammer(BalanceOperationType.CREDIT, request);
+
+        assertThat(balance()).isEqualByComparingTo("1000.00");
+        assertThat(ledgerEntryRepository.findByTransactionIdOrderByEntryId(request.getTransactionId())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Reusing a transactionId with another amount is rejected")
+    void testReplay_DifferentAmount_Rejected() {
+        String transactionId = UUID.randomUUID().toString();
+        execute(BalanceOperationType.DEBIT, request(transactionId, "10.00"));
+
+        assertThatThrownBy(() -> execute(BalanceOperationType.DEBIT, request(transactionId, "20.00")))
+                .isInstanceOf(AppException.class)
+                .matches(e -> ((AppException) e).getErrorCode() == ErrorCode.DUPLICATE_TRANSACTION);
+        assertThat(balance()).isEqualByComparingTo("990.00");
+    }
+
+    @Test
+    @DisplayName("A failed debit is not recorded, so its retry runs again")
+    void testFailedDebit_RetryExecutes() {
+        String transactionId = UUID.randomUUID().toString();
+
+        assertThatThrownBy(() -> execute(BalanceOperationType.DEBIT, request(transactionId, "5000.00")))
+                .isInstanceOf(AppException.class);
+        accountService.creditAccount(account.getAccountId(), request(UUID.randomUUID().toString(), "4000.00"));
+
+        AccountBalanceResponse retry = execute(BalanceOperationType.DEBIT, request(transactionId, "5000.00"));
+        assertThat(retry.getNewBalance()).isEqualByComparingTo("0.00");
+    }
+
+    @Test
+    @DisplayName("Concurrent internal transfers with one transactionId, single and batched, move the money once")
+    void testConcurrentInternalTransfer_SameTransactionId_AppliedOnce() throws Exception {
+        InternalTransferRequest request = transfer(UUID.randomUUID().toString(), "100.00");
+        AtomicInteger calls = new AtomicInteger();
+
+        List<InternalTransferResponse> responses = hammer(() -> calls.getAndIncrement() % 2 == 0
+                ? accountService.executeInternalTransfer(request)
+                : accountService.executeInternalTransferBatch(List.of(request)).getResults().get(0));
+        // A retried batch that arrives later replays too
+        responses.add(accountService.executeInternalTransferBatch(List.of(request)).getResults().get(0));
+
+        assertThat(responses).allSatisfy(r -> {
+            assertThat(r.isSuccess()).isTrue();
+            assertThat(r.getSenderAccountNewBalance()).isEqualByComparingTo("900.00");
+        });
+        assertThat(balance()).isEqualByComparingTo("900.00");
+        assertThat(balance(receiver)).isEqualByComparingTo("1100.00");
+        assertThat(ledgerEntryRepository.findByTransactionIdOrderByEntryId(request.getTransactionId())).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A transfer reported as not applied is rejected when its batch arrives late")
+    void testInternalTransfer_LateArrivalAfterNotFound_Rejected() {
+        InternalTransferRequest request = transfer(UUID.randomUUID().toString(), "100.00");
+
+        InternalTransferResponse outcome = accountService.getInternalTransferOutcome(
+                request.getTransactionId(), account.getAccountId());
+        InternalTransferResponse late = accountService.executeInternalTransferBatch(List.of(request)).getResults().get(0);
+
+        assertThat(outcome.getFailureCode()).isEqualTo(TransferFailureCode.NOT_FOUND);
+        assertThat(late.isSuccess()).isFalse();
+        assertThat(late.getFailureCode()).isEqualTo(TransferFailureCode.NOT_FOUND);
+        assertThatThrownBy(() -> accountService.executeInternalTransfer(request))
+                .isInstanceOf(AppException.class)
+                .matches(e -> ((AppException) e).getErrorCode() == ErrorCode.DUPLICATE_TRANSACTION);
+        assertThat(accountService.getInternalTransferOutcome(request.getTransactionId(), account.getAccountId())
+                .getFailureCode()).isEqualTo(TransferFailureCode.NOT_FOUND);
+        assertThat(balance()).isEqualByComparingTo("1000.00");
+        assertThat(ledgerEntryRepository.findByTransactionIdOrderByEntryId(request.getTransactionId())).isEmpty();
+    }
+
+    private List<AccountBalanceResponse> hammer(BalanceOperationType type, AccountBalanceRequest request) throws Exception {
+        return hammer(() -> execute(type, request));
+    }
+
+    private <T> List<T> hammer(Supplier<T> call) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>();
+        for (int i = 0; i < THREADS; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return call.get();
+            }));
+        }
+        start.countDown();
+
+        List<T> responses = new ArrayList<>();
+        for (Future<T> future : futures) {
+            responses.add(future.get(1, TimeUnit.MINUTES));
+        }
+        pool.shutdown();
+        return responses;
+    }
+
+    private AccountBalanceResponse execute(BalanceOperationType type, AccountBalanceRequest request) {
+        return idempotencyService.execute(type, account.getAccountId(), request, () -> type == BalanceOperationType.DEBIT
+                ? accountService.debitAccount(account.getAccountId(), request)
+                : accountService.creditAccount(account.getAccountId(), request));
+    }
+
+    private AccountBalanceRequest request(String transactionId, String amount) {
+        return AccountBalanceRequest.builder()
+                .accountId(account.getAccountId())
+                .transactionId(transactionId)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+
+    private InternalTransferRequest transfer(String transactionId, String amount) {
+        return InternalTransferRequest.builder()
+                .transactionId(transactionId)
+                .senderAccountId(account.getAccountId())
+                .receiverAccountId(receiver.getAccountId())
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+
+    private Account newAccount() {
+        return accountRepository.saveAndFlush(Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + (long) (Math.random() * 8_999_999_999L)))
+                .userId("idem-" + UUID.randomUUID())
+                .balance(new BigDecimal("1000.00"))
+                .status(AccountStatus.ACTIVE)
+                .build());
+    }
+
+    private BigDecimal balance() {
+        return balance(account);
+    }
+
+    private BigDecimal balance(Account target) {
+        return accountRepository.findById(target.getAccountId()).orElseThrow().getBalance();
+    }
+}
@@ -0,0 +1,246 @@
+package com.uit.accountservice.ledger;
+
+import com.uit.accountservice.AbstractIntegrationTest;
+import com.uit.accountservice.dto.response.LedgerBalanceResponse;
+import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.BalanceSnapshot;
+import com.uit.accountservice.entity.enums.AccountStatus;
+import com.uit.accountservice.hotaccount.HotAccountCreditBuffer;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.accountservice.repository.BalanceSnapshotRepository;
+import com.uit.accountservice.riskengine.RiskEngineService;
+import com.uit.sharedkernel.audit.AuditEventPublisher;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Journal balances, snapshots and reconciliation against a real database.
+ * The scheduled snapshot writer and hot-credit flusher are slowed down so
+ * each test drives them itself.
+ */
+@TestPropertySource(properties = {
+        "account.ledger.snapshot-every=3",
+        "account.ledger.snapshot-interval-ms=3600000",
+        "account.hot.flush-interval-ms=3600000"
+})
+@DisplayName("Ledger Service Integration Tests")
+class LedgerServiceTest extends AbstractIntegrationTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 1, 1, 10, 0);
+
+    @Autowired
+    private LedgerService ledgerService;
+
+    @Autowired
+    private HotAccountCreditBuffer creditBuffer;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private BalanceSnapshotRepository balanceSnapshotRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @MockBean
+    private RiskEngineService riskEngineService;
+
+    @MockBean
+    private WebClient.Builder webClientBuilder;
+
+    @MockBean
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @MockBean
+    private JwtDecoder jwtDecoder;
+
+    @MockBean
+    private AuditEventPublisher auditEventPublisher;
+
+    @Test
+    @DisplayName("getBalance sums credits minus debits, with and without a snapshot")
+    void testGetBalance() {
+        String accountId = newAccount(BigDecimal.ZERO);
+        assertThat(ledgerService.getBalance(accountId)).isEqualByComparingTo("0");
+
+        insertLeg(accountId, "CREDIT", "100.00", T0);
+        insertLeg(accountId, "DEBIT", "30.00", T0.plusMinutes(1));
+        insertLeg(accountId, "CREDIT", "5.50", T0.plusMinutes(2));
+        assertThat(ledgerService.getBalance(accountId)).isEqualByComparingTo("75.50");
+
+        assertThat(ledgerService.writeSnapshots()).isGreaterThanOrEqualTo(1);
+        insertLeg(accountId, "DEBIT", "0.50", T0.plusMinutes(3));
+
+        assertThat(ledgerService.getBalance(accountId)).isEqualByComparingTo("75.00");
+    }
+
+    @Test
+    @DisplayName("getBalanceAsOf sees only entries created up to the given time, before and after a snapshot")
+    void testGetBalanceAsOf() {
+        String accountId = newAccount(BigDecimal.ZERO);
+        insertLeg(accountId, "CREDIT", "100.00", T0);
+        insertLeg(accountId, "DEBIT", "40.00", T0.plusHours(1));
+        insertLeg(accountId, "CREDIT", "10.00", T0.plusHours(2));
+        ledgerService.writeSnapshots();
+        insertLeg(accountId, "DEBIT", "5.00", T0.plusHours(3));
+
+        assertThat(ledgerService.getBalanceAsOf(accountId, T0.minusMinutes(1))).isEqualByComparingTo("0");
+        assertThat(ledgerService.getBalanceAsOf(accountId, T0)).isEqualByComparingTo("100.00");
+        assertThat(ledgerService.getBalanceAsOf(accountId, T0.plusMinutes(90))).isEqualByComparingTo("60.00");
+        assertThat(ledgerService.getBalanceAsOf(accountId, T0.plusHours(2))).isEqualByComparingTo("70.00");
+        assertThat(ledgerService.getBalanceAsOf(accountId, T0.plusHours(4))).isEqualByComparingTo("65.00");
+    }
+
+    @Test
+    @DisplayName("reconcile matches the journal against accounts.balance plus unsettled hot credits")
+    void testReconcile() {
+        String accountId = newAccount(new BigDecimal("50.00"));
+        insertLeg(accountId, "CREDIT", "50.00", T0);
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                creditBuffer.append(accountId, UUID.randomUUID().toString(), new BigDecimal("20.00")));
+
+        LedgerBalanceResponse pending = ledgerService.reconcile(accountId);
+        assertThat(pending.getReconciled()).isTrue();
+        assertThat(pending.getLedgerBalance()).isEqualByComparingTo("70.00");
+        assertThat(pending.getAccountBalance()).isEqualByComparingTo("50.00");
+        assertThat(pending.getPendingCredits()).isEqualByComparingTo("20.00");
+
+        while (creditBuffer.flush() > 0) {
+            // settle everything
+        }
+        LedgerBalanceResponse settled = ledgerService.reconcile(accountId);
+        assertThat(settled.getReconciled()).isTrue();
+        assertThat(settled.getAccountBalance()).isEqualByComparingTo("70.00");
+        assertThat(settled.getPendingCredits()).isEqualByComparingTo("0");
+
+        // A leg with no matching balance change is reported
+        insertLeg(accountId, "DEBIT", "1.00", T0.plusMinutes(5));
+        assertThat(ledgerService.reconcile(accountId).getReconciled()).isFalse();
+    }
+
+    @Test
+    @DisplayName("writeSnapshots waits for the threshold and each snapshot equals a full re-sum")
+    void testWriteSnapshots() {
+        String accountId = newAccount(BigDecimal.ZERO);
+        insertLeg(accountId, "CREDIT", "10.00", T0);
+        insertLeg(accountId, "CREDIT", "20.00", T0.plusMinutes(1));
+        ledgerService.writeSnapshots();
+        assertThat(snapshots(accountId)).isEmpty();
+
+        insertLeg(accountId, "DEBIT", "5.00", T0.plusMinutes(2));
+        ledgerService.writeSnapshots();
+        ledgerService.writeSnapshots();
+        assertThat(snapshots(accountId)).hasSize(1);
+
+        insertLeg(accountId, "CREDIT", "1.00", T0.plusMinutes(3));
+        insertLeg(accountId, "CREDIT", "2.00", T0.plusMinutes(4));
+        insertLeg(accountId, "DEBIT", "3.00", T0.plusMinutes(5));
+        ledgerService.writeSnapshots();
+
+        List<BalanceSnapshot> snapshots = snapshots(accountId);
+        assertThat(snapshots).hasSize(2);
+        for (BalanceSnapshot snapshot : snapshots) {
+            assertThat(snapshot.getBalance()).isEqualByComparingTo(fullSum(accountId, snapshot.getLastEntryId()));
+        }
+        assertThat(snapshots.get(0).getAsOf()).isEqualTo(T0.plusMinutes(2));
+        assertThat(snapshots.get(1).getAsOf()).isEqualTo(T0.plusMinutes(5));
+        assertThat(snapshots.get(1).getBalance()).isEqualByComparingTo("25.00");
+    }
+
+    @Test
+    @DisplayName("A leg with a lower id that commits late is not skipped by a snapshot")
+    void testSnapshotWaitsForUncommittedLeg() throws Exception {
+        String accountId = newAccount(BigDecimal.ZERO);
+        insertLeg(accountId, "CREDIT", "10.00", T0);
+        insertLeg(accountId, "CREDIT", "10.00", T0.plusMinutes(1));
+        insertLeg(accountId, "CREDIT", "10.00", T0.plusMinutes(2));
+
+        CountDownLatch legWritten = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<Void> writer = CompletableFuture.runAsync(() ->
+                new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                    accountRepository.findByIdWithLock(accountId).orElseThrow();
+                    ledgerService.recordCredit(accountId, UUID.randomUUID().toString(), new BigDecimal("7.00"));
+                    legWritten.countDown();
+                    await(release);
+                }));
+        assertThat(legWritten.await(10, TimeUnit.SECONDS)).isTrue();
+
+        CompletableFuture<Integer> snapshotter = CompletableFuture.supplyAsync(ledgerService::writeSnapshots);
+        Thread.sleep(200);
+        assertThat(snapshotter).isNotDone();
+
+        release.countDown();
+        writer.get(10, TimeUnit.SECONDS);
+        snapshotter.get(10, TimeUnit.SECONDS);
+
+        List<BalanceSnapshot> snapshots = snapshots(accountId);
+        assertThat(snapshots).hasSize(1);
+        assertThat(snapshots.get(0).getBalance()).isEqualByComparingTo("37.00");
+        assertThat(snapshots.get(0).getLastEntryId()).isEqualTo(
+                jdbcTemplate.queryForObject("SELECT MAX(entry_id) FROM ledger_entries WHERE account_id = ?",
+                        Long.class, accountId));
+        assertThat(ledgerService.getBalance(accountId)).isEqualByComparingTo("37.00");
+    }
+
+    private String newAccount(BigDecimal balance) {
+        return accountRepository.saveAndFlush(Account.builder()
+                .accountNumber(String.valueOf(1_000_000_000L + (long) (Math.random() * 8_999_999_999L)))
+                .userId("ledger-" + UUID.randomUUID())
+                .balance(balance)
+                .status(AccountStatus.ACTIVE)
+                .build()).getAccountId();
+    }
+
+    private void insertLeg(String accountId, String direction, String amount, LocalDateTime createdAt) {
+        jdbcTemplate.update("INSERT INTO ledger_entries (account_id, transaction_id, direction, amount, created_at, settled) "
+                        + "VALUES (?, ?, ?, ?, ?, TRUE)",
+                accountId, UUID.randomUUID().toString(), direction, new BigDecimal(amount), createdAt);
+    }
+
+    private List<BalanceSnapshot> snapshots(String accountId) {
+        return balanceSnapshotRepository.findAll().stream()
+                .filter(snapshot -> snapshot.getAccountId().equals(accountId))
+                .sorted((a, b) -> Long.compare(a.getLastEntryId(), b.getLastEntryId()))
+                .toList();
+    }
+
+    private BigDecimal fullSum(String accountId, long upToEntryId) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(CASE WHEN direction = 'DEBIT' THEN -amount ELSE amount END), 0) "
+                        + "FROM ledger_entries WHERE account_id = ? AND entry_id <= ?",
+                BigDecimal.class, accountId, upToEntryId);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
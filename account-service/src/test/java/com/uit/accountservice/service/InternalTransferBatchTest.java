@@ -0,0 +1,252 @@
+package com.uit.accountservice.service;
+
+import com.uit.accountservice.dto.request.InternalTransferRequest;
+import com.uit.accountservice.dto.response.BatchInternalTransferResponse;
+import com.uit.accountservice.dto.response.InternalTransferResponse;
+import com.uit.accountservice.dto.response.TransferFailureCode;
+import com.uit.accountservice.entity.Account;
+import com.uit.accountservice.entity.LedgerEntry;
+import com.uit.accountservice.entity.TransactionIdempotency;
+import com.uit.accountservice.entity.enums.IdempotencyStatus;
+import com.uit.accountservice.entity.enums.LedgerDirection;
+import com.uit.accountservice.hotaccount.HotAccountCreditBuffer;
+import com.uit.accountservice.hotaccount.HotAccountRegistry;
+import com.uit.accountservice.idempotency.IdempotencyService;
+import com.uit.accountservice.ledger.LedgerService;
+import com.uit.accountservice.repository.AccountRepository;
+import com.uit.sharedkernel.audit.AuditEventPublisher;
+import com.uit.sharedkernel.exception.AppException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Internal Transfer Batch Unit Tests")
+class InternalTransferBatchTest {
+
+    @Mock
+    private AccountRepository accountRepository;
+
+    @Mock
+    private HotAccountRegistry hotAccountRegistry;
+
+    @Mock
+    private HotAccountCreditBuffer hotAccountCreditBuffer;
+
+    @Mock
+    private AuditEventPublisher auditEventPublisher;
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @InjectMocks
+    private AccountService accountService;
+
+    private Account alice;
+    private Account bob;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(accountService, "maxTransferBatchSize", 500);
+        alice = Account.builder().accountId("acc-a").userId("alice").balance(new BigDecimal("100.00")).build();
+        bob = Account.builder().accountId("acc-b").userId("bob").balance(new BigDecimal("10.00")).build();
+    }
+
+    @Test
+    @DisplayName("Locks each account once in accountId order and applies legs in request order")
+    void testBatch_AppliesLegsInOrder() {
+        when(accountRepository.findByIdInWithLock(List.of("acc-a", "acc-b"))).thenReturn(List.of(alice, bob));
+
+        BatchInternalTransferResponse response = accountService.executeInternalTransferBatch(List.of(
+                transfer("tx-1", "acc-b", "acc-a", "10.00"),
+                transfer("tx-2", "acc-a", "acc-b", "60.00"),
+                transfer("tx-3", "acc-b", "acc-a", "55.00")));
+
+        assertThat(response.getSucceeded()).isEqualTo(3);
+        assertThat(response.getFailed()).isZero();
+        assertThat(alice.getBalance()).isEqualByComparingTo("105.00");
+        assertThat(bob.getBalance()).isEqualByComparingTo("5.00");
+    }
+
+    @Test
+    @DisplayName("Insufficient funds fails only that item")
+    void testBatch_InsufficientFunds_DoesNotAbortBatch() {
+        when(accountRepository.findByIdInWithLock(List.of("acc-a", "acc-b", "acc-missing"))).thenReturn(List.of(alice, bob));
+
+        BatchInternalTransferResponse response = accountService.executeInternalTransferBatch(List.of(
+                transfer("tx-1", "acc-b", "acc-a", "50.00"),
+                transfer("tx-2", "acc-a", "acc-b", "30.00"),
+                transfer("tx-2", "acc-a", "acc-b", "30.00"),
+                transfer("tx-3", "acc-a", "acc-missing", "1.00")));
+
+        List<InternalTransferResponse> results = response.getResults();
+        assertThat(results).extracting(InternalTransferResponse::isSuccess)
+                .containsExactly(false, true, false, false);
+        assertThat(results).extracting(InternalTransferResponse::getFailureCode)
+                .containsExactly(TransferFailureCode.INSUFFICIENT_FUNDS, null,
+                        TransferFailureCode.DUPLICATE_TRANSACTION, TransferFailureCode.RECEIVER_NOT_FOUND);
+        assertThat(alice.getBalance()).isEqualByComparingTo("70.00");
+        assertThat(bob.getBalance()).isEqualByComparingTo("40.00");
+        verify(accountRepository).saveAll(anyIterable());
+    }
+
+    @Test
+    @DisplayName("A transactionId recorded by an earlier batch gets its stored result and moves no money")
+    void testBatch_RecordedTransfer_Replayed() {
+        when(accountRepository.findByIdInWithLock(List.of("acc-a", "acc-b"))).thenReturn(List.of(alice, bob));
+        TransactionIdempotency applied = TransactionIdempotency.builder()
+                .transactionId("tx-1").accountId("acc-a").amount(new BigDecimal("10.00"))
+                .status(IdempotencyStatus.COMPLETED).build();
+        TransactionIdempotency tombstone = TransactionIdempotency.builder()
+                .transactionId("tx-2").accountId("acc-a").amount(BigDecimal.ZERO)
+                .status(IdempotencyStatus.FAILED).build();
+        InternalTransferRequest first = transfer("tx-1", "acc-a", "acc-b", "10.00");
+        InternalTransferRequest late = transfer("tx-2", "acc-a", "acc-b", "20.00");
+        InternalTransferRequest fresh = transfer("tx-3", "acc-a", "acc-b", "5.00");
+        when(idempotencyService.findTransfers(List.of(first, late, fresh)))
+                .thenReturn(Map.of("tx-1", applied, "tx-2", tombstone));
+        when(idempotencyService.replayTransfer(applied, first)).thenReturn(InternalTransferResponse.builder()
+                .transactionId("tx-1").success(true).amount(new BigDecimal("10.00")).build());
+        when(idempotencyService.replayTransfer(tombstone, late)).thenReturn(InternalTransferResponse.builder()
+                .transactionId("tx-2").success(false).failureCode(TransferFailureCode.NOT_FOUND).build());
+
+        BatchInternalTransferResponse response = accountService.executeInternalTransferBatch(List.of(first, late, fresh));
+
+        assertThat(response.getResults()).extracting(InternalTransferResponse::isSuccess)
+                .containsExactly(true, false, true);
+        assertThat(response.getResults().get(1).getFailureCode()).isEqualTo(TransferFailureCode.NOT_FOUND);
+        assertThat(alice.getBalance()).isEqualByComparingTo("95.00");
+        assertThat(bob.getBalance()).isEqualByComparingTo("15.00");
+        verify(idempotencyService).completeTransfer(eq(fresh), any());
+        verify(idempotencyService, times(1)).completeTransfer(any(), any());
+        verify(ledgerService).recordAll(argThat(legs -> legs.size() == 2));
+    }
+
+    @Test
+    @DisplayName("A failed batch commit is retried per transfer so only the offending transfer fails")
+    void testBatch_CommitFailure_FallsBackToOneByOne() {
+        when(accountRepository.findByIdInWithLock(anyList())).thenReturn(List.of(alice, bob));
+        // The batch insert and then tx-2's own insert hit a constraint; tx-1 and tx-3 go through alone
+        doThrow(new DataIntegrityViolationException("duplicate leg"))
+                .when(ledgerService).recordAll(argThat(legs -> legs.size() > 2
+                        || legs.stream().anyMatch(leg -> "tx-2".equals(leg.getTransactionId()))));
+
+        BatchInternalTransferResponse response = accountService.executeInternalTransferBatch(List.of(
+                transfer("tx-1", "acc-a", "acc-b", "10.00"),
+                transfer("tx-2", "acc-a", "acc-b", "20.00"),
+                transfer("tx-3", "acc-b", "acc-a", "5.00")));
+
+        assertThat(response.getResults()).extracting(InternalTransferResponse::isSuccess)
+                .containsExactly(true, false, true);
+        assertThat(response.getResults().get(1).getFailureCode()).isEqualTo(TransferFailureCode.PROCESSING_ERROR);
+        assertThat(response.getSucceeded()).isEqualTo(2);
+        // One batch attempt plus three single-transfer attempts, two of which committed
+        verify(ledgerService, times(4)).recordAll(anyList());
+        verify(transactionManager, times(2)).commit(null);
+        verify(transactionManager, times(2)).rollback(null);
+        // Only the committed transfers are audited, two events each
+        verify(auditEventPublisher, times(4)).publishAuditEvent(any());
+    }
+
+    @Test
+    @DisplayName("Audit events are not published when the batch does not commit")
+    void testBatch_NoAuditsBeforeCommit() {
+        when(accountRepository.findByIdInWithLock(anyList())).thenReturn(List.of(alice, bob));
+        doThrow(new DataIntegrityViolationException("down")).when(ledgerService).recordAll(anyList());
+
+        BatchInternalTransferResponse response = accountService.executeInternalTransferBatch(List.of(
+                transfer("tx-1", "acc-a", "acc-b", "10.00")));
+
+        assertThat(response.getFailed()).isEqualTo(1);
+        verify(auditEventPublisher, never()).publishAuditEvent(any());
+    }
+
+    @Test
+    @DisplayName("Outcome lookup reports whether the sender's debit leg committed")
+    void testGetInternalTransferOutcome() {
+        when(accountRepository.findByIdWithLock("acc-a")).thenReturn(Optional.of(alice));
+        when(ledgerService.findDebit("acc-a", "tx-1")).thenReturn(Optional.of(LedgerEntry.builder()
+                .accountId("acc-a").transactionId("tx-1").direction(LedgerDirection.DEBIT)
+                .amount(new BigDecimal("10.00")).build()));
+        when(ledgerService.findDebit("acc-a", "tx-2")).thenReturn(Optional.empty());
+
+        InternalTransferResponse applied = accountService.getInternalTransferOutcome("tx-1", "acc-a");
+        InternalTransferResponse missing = accountService.getInternalTransferOutcome("tx-2", "acc-a");
+
+        assertThat(applied.isSuccess()).isTrue();
+        assertThat(applied.getAmount()).isEqualByComparingTo("10.00");
+        assertThat(missing.isSuccess()).isFalse();
+        assertThat(missing.getFailureCode()).isEqualTo(TransferFailureCode.NOT_FOUND);
+        // Only the missing transfer is tombstoned, so a late copy of it is rejected
+        verify(idempotencyService).rejectTransfer("tx-2", "acc-a", missing);
+        verify(idempotencyService, times(1)).rejectTransfer(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Outcome lookup answers from the stored record before the journal")
+    void testGetInternalTransferOutcome_Recorded() {
+        when(accountRepository.findByIdWithLock("acc-a")).thenReturn(Optional.of(alice));
+        TransactionIdempotency tombstone = TransactionIdempotency.builder()
+                .transactionId("tx-1").accountId("acc-a").amount(BigDecimal.ZERO)
+                .status(IdempotencyStatus.FAILED).build();
+        InternalTransferResponse stored = InternalTransferResponse.builder()
+                .transactionId("tx-1").success(false).failureCode(TransferFailureCode.NOT_FOUND).build();
+        when(idempotencyService.findTransfer("tx-1")).thenReturn(Optional.of(tombstone));
+        when(idempotencyService.readTransfer(tombstone)).thenReturn(stored);
+
+        assertThat(accountService.getInternalTransferOutcome("tx-1", "acc-a")).isSameAs(stored);
+        verify(ledgerService, never()).findDebit(any(), any());
+        verify(idempotencyService, never()).rejectTransfer(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Rejects batches over the configured maximum")
+    void testBatch_TooLarge_Throws() {
+        ReflectionTestUtils.setField(accountService, "maxTransferBatchSize", 1);
+
+        assertThatThrownBy(() -> accountService.executeInternalTransferBatch(Collections.nCopies(2,
+                transfer("tx-1", "acc-a", "acc-b", "1.00"))))
+                .isInstanceOf(AppException.class);
+    }
+
+    private InternalTransferRequest transfer(String txId, String from, String to, String amount) {
+        return InternalTransferRequest.builder()
+                .transactionId(txId)
+                .senderAccountId(from)
+                .receiverAccountId(to)
+                .amount(new BigDecimal(amount))
+                .build();
+    }
+}
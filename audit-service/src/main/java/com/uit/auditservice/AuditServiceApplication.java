@@ -3,9 +3,11 @@ package com.uit.auditservice;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication(scanBasePackages = {"com.uit.auditservice", "com.uit.sharedkernel"})
 @EnableDiscoveryClient
+@EnableScheduling
 public class AuditServiceApplication {
 
     public static void main(String[] args) {
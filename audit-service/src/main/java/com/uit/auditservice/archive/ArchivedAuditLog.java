@@ -0,0 +1,25 @@
+package com.uit.auditservice.archive;
+
+import java.time.LocalDateTime;
+
+/**
+ * One audit row as stored in a cold-storage segment. Same columns as the
+ * three audit log tables.
+ */
+public record ArchivedAuditLog(
+        String id,
+        String serviceName,
+        String entityType,
+        String entityId,
+        String action,
+        String userId,
+        String ipAddress,
+        String userAgent,
+        String oldValues,
+        String newValues,
+        String changes,
+        String result,
+        String errorMessage,
+        String metadata,
+        LocalDateTime timestamp) {
+}
@@ -0,0 +1,200 @@
+package com.uit.auditservice.archive;
+
+import com.uit.auditservice.partition.AuditPartitionManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Cold storage for expired audit partitions.
+ *
+ * Partitions detached by {@link AuditPartitionManager} are rewritten into
+ * compressed, read-only segment files under audit.archive.dir, sorted by
+ * (entity_id, timestamp), and then dropped from Postgres. A partition is only
+ * dropped once its segment and the directory entry are on disk, and the
+ * directory must be configured explicitly: it is the only copy of the rows, so
+ * it has to be persistent storage, not a container's scratch filesystem.
+ * Segments are opened at startup and searched by {@link #findHistory} for
+ * entity history older than the hot tables hold.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.archive.enabled", havingValue = "true")
+public class AuditArchiveService {
+
+    private static final String SEGMENT_SUFFIX = ".seg";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate streamingJdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path archiveDir;
+    private final int blockRows;
+    private final double bloomFalsePositiveRate;
+    private final Map<String, List<AuditSegment>> segments = new ConcurrentHashMap<>();
+
+    public AuditArchiveService(JdbcTemplate jdbcTemplate,
+                               DataSource dataSource,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${audit.archive.dir:}") String archiveDir,
+                               @Value("${audit.archive.block-rows:256}") int blockRows,
+                               @Value("${audit.archive.bloom-false-positive-rate:0.01}") double bloomFalsePositiveRate) {
+        if (archiveDir == null || archiveDir.isBlank()) {
+            throw new IllegalStateException(
+                    "audit.archive.enabled is set but audit.archive.dir is not; point it at a persistent volume");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        // Postgres only streams a result set with a fetch size inside a transaction
+        this.streamingJdbcTemplate = new JdbcTemplate(dataSource);
+        this.streamingJdbcTemplate.setFetchSize(1000);
+        this.transactionTemplate = transactionTemplate;
+        this.archiveDir = Path.of(archiveDir);
+        this.blockRows = blockRows;
+        this.bloomFalsePositiveRate = bloomFalsePositiveRate;
+        AuditPartitionManager.AUDIT_TABLES.forEach(table -> segments.put(table, new CopyOnWriteArrayList<>()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadSegments() throws IOException {
+        Files.createDirectories(archiveDir);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(archiveDir, "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                register(file);
+            }
+        }
+        log.info("Loaded audit archive from {}: {} segments", archiveDir,
+                segments.values().stream().mapToInt(List::size).sum());
+    }
+
+    @Scheduled(cron = "${audit.archive.cron:0 45 0 * * *}")
+    public void archiveDetachedPartitions() {
+        for (String table : AuditPartitionManager.AUDIT_TABLES) {
+            for (String partition : detachedPartitions(table)) {
+                try {
+                    archive(partition);
+                } catch (Exception e) {
+                    log.error("Failed to archive audit partition {}: {}", partition, e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Archived rows of one entity from the given audit table, newest first.
+     */
+    public List<ArchivedAuditLog> findHistory(String table, String entityType, String entityId) {
+        List<ArchivedAuditLog> rows = new ArrayList<>();
+        for (AuditSegment segment : segments.getOrDefault(table, List.of())) {
+            try {
+                rows.addAll(segment.find(entityType, entityId));
+            } catch (IOException e) {
+                log.warn("Failed to read audit segment {}: {}", segment.file(), e.getMessage());
+            }
+        }
+        rows.sort(Comparator.comparing(ArchivedAuditLog::timestamp, Comparator.nullsLast(Comparator.reverseOrder())));
+        return rows;
+    }
+
+    // Plain tables named like partitions of the audit table but no longer attached to it
+    private List<String> detachedPartitions(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_class c " +
+                "WHERE c.relkind = 'r' AND c.relname ~ ? " +
+                "AND NOT EXISTS (SELECT 1 FROM pg_inherits i WHERE i.inhrelid = c.oid)",
+                String.class, "^" + table + "_y[0-9]{4}m[0-9]{2}$");
+    }
+
+    private void archive(String partition) throws IOException {
+        Path target = archiveDir.resolve(partition + SEGMENT_SUFFIX);
+        if (Files.exists(target)) {
+            // Written by an earlier run that did not get to drop the table
+            jdbcTemplate.execute("DROP TABLE \"" + partition + "\"");
+            return;
+        }
+
+        Long entities = jdbcTemplate.queryForObject(
+                "SELECT count(DISTINCT entity_id) FROM \"" + partition + "\"", Long.class);
+        Path temp = archiveDir.resolve(partition + SEGMENT_SUFFIX + ".tmp");
+        int rows;
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(temp, blockRows, entities, bloomFalsePositiveRate)) {
+            // COLLATE "C" sorts by code point, the order AuditSegment binary-searches in
+            transactionTemplate.executeWithoutResult(status -> streamingJdbcTemplate.query(
+                    "SELECT * FROM \"" + partition + "\" ORDER BY entity_id COLLATE \"C\", timestamp",
+                    rs -> {
+                        Timestamp timestamp = rs.getTimestamp("timestamp");
+                        try {
+                            writer.append(new ArchivedAuditLog(
+                                    rs.getString("id"),
+                                    rs.getString("service_name"),
+                                    rs.getString("entity_type"),
+                                    rs.getString("entity_id"),
+                                    rs.getString("action"),
+                                    rs.getString("user_id"),
+                                    rs.getString("ip_address"),
+                                    rs.getString("user_agent"),
+                                    rs.getString("old_values"),
+                                    rs.getString("new_values"),
+                                    rs.getString("changes"),
+                                    rs.getString("result"),
+                                    rs.getString("error_message"),
+                                    rs.getString("metadata"),
+                                    timestamp != null ? timestamp.toLocalDateTime() : null));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }));
+            writer.finish();
+            rows = writer.rowCount();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        target.toFile().setReadOnly();
+        // The rename is only durable once the directory is synced
+        syncDirectory(archiveDir);
+        register(target);
+        jdbcTemplate.execute("DROP TABLE \"" + partition + "\"");
+        log.info("Archived audit partition {} ({} rows) to {}", partition, rows, target);
+    }
+
+    private static void syncDirectory(Path dir) throws IOException {
+        try (FileChannel channel = FileChannel.open(dir, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    private void register(Path file) throws IOException {
+        String name = file.getFileName().toString();
+        for (String table : AuditPartitionManager.AUDIT_TABLES) {
+            if (name.startsWith(table + "_y")) {
+                segments.get(table).add(AuditSegment.open(file));
+                return;
+            }
+        }
+        log.warn("Ignoring audit segment {} - no matching audit table", file);
+    }
+}
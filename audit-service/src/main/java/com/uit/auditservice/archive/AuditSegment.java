@@ -0,0 +1,170 @@
+package com.uit.auditservice.archive;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.uit.auditservice.archive.AuditSegmentWriter.BlockEntry;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read side of a segment file written by {@link AuditSegmentWriter}.
+ *
+ * The file is memory-mapped; the sparse index and Bloom filter are loaded on
+ * open, so a lookup for an absent entity touches no data pages and a hit only
+ * inflates the few blocks whose key range can hold the entity.
+ */
+final class AuditSegment {
+
+    private final Path file;
+    private final MappedByteBuffer data;
+    private final List<BlockEntry> index;
+    private final BloomFilter<CharSequence> entityIds;
+    private final int rowCount;
+
+    private AuditSegment(Path file, MappedByteBuffer data, List<BlockEntry> index,
+                         BloomFilter<CharSequence> entityIds, int rowCount) {
+        this.file = file;
+        this.data = data;
+        this.index = index;
+        this.entityIds = entityIds;
+        this.rowCount = rowCount;
+    }
+
+    static AuditSegment open(Path file) throws IOException {
+        MappedByteBuffer data;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > AuditSegmentWriter.MAX_SEGMENT_BYTES) {
+                throw new IOException("Audit segment larger than " + AuditSegmentWriter.MAX_SEGMENT_BYTES + " bytes: " + file);
+            }
+            data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int footer = data.capacity() - AuditSegmentWriter.FOOTER_BYTES;
+        if (footer < 0 || data.getInt(footer + 24) != AuditSegmentWriter.MAGIC) {
+            throw new IOException("Not an audit segment: " + file);
+        }
+        long indexOffset = data.getLong(footer);
+        long bloomOffset = data.getLong(footer + 8);
+        int rowCount = data.getInt(footer + 16);
+        int version = data.getInt(footer + 20);
+        if (version != AuditSegmentWriter.VERSION) {
+            throw new IOException("Unsupported audit segment version " + version + ": " + file);
+        }
+
+        DataInputStream indexIn = new DataInputStream(stream(data, indexOffset, Math.toIntExact(bloomOffset - indexOffset)));
+        int blocks = indexIn.readInt();
+        List<BlockEntry> index = new ArrayList<>(blocks);
+        for (int i = 0; i < blocks; i++) {
+            index.add(new BlockEntry(readString(indexIn), indexIn.readLong(), indexIn.readInt(), indexIn.readInt()));
+        }
+
+        BloomFilter<CharSequence> entityIds = BloomFilter.readFrom(
+                stream(data, bloomOffset, Math.toIntExact(footer - bloomOffset)),
+                Funnels.stringFunnel(StandardCharsets.UTF_8));
+        return new AuditSegment(file, data, List.copyOf(index), entityIds, rowCount);
+    }
+
+    boolean mightContain(String entityId) {
+        return entityIds.mightContain(entityId);
+    }
+
+    /**
+     * All rows of the entity in this segment, in (entityId, timestamp) order.
+     */
+    List<ArchivedAuditLog> find(String entityType, String entityId) throws IOException {
+        List<ArchivedAuditLog> rows = new ArrayList<>();
+        if (!mightContain(entityId)) {
+            return rows;
+        }
+
+        // The entity's rows start in the last block whose first key is below it, or the first block
+        // whose first key equals it, and continue through every block starting with it
+        int start = firstBlockAtOrAfter(entityId);
+        if (start > 0) {
+            start--;
+        }
+        for (int i = start; i < index.size() && AuditSegmentWriter.compareKeys(index.get(i).firstKey(), entityId) <= 0; i++) {
+            BlockEntry entry = index.get(i);
+            DataInputStream in = new DataInputStream(new InflaterInputStream(stream(data, entry.offset(), entry.length())));
+            for (int row = 0; row < entry.rows(); row++) {
+                ArchivedAuditLog log = readRow(in);
+                if (entityId.equals(log.entityId()) && Objects.equals(entityType, log.entityType())) {
+                    rows.add(log);
+                }
+            }
+        }
+        return rows;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    Path file() {
+        return file;
+    }
+
+    private int firstBlockAtOrAfter(String entityId) {
+        int low = 0;
+        int high = index.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (AuditSegmentWriter.compareKeys(index.get(mid).firstKey(), entityId) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static ArchivedAuditLog readRow(DataInputStream in) throws IOException {
+        String id = readString(in);
+        String serviceName = readString(in);
+        String entityType = readString(in);
+        String entityId = readString(in);
+        String action = readString(in);
+        String userId = readString(in);
+        String ipAddress = readString(in);
+        String userAgent = readString(in);
+        String oldValues = readString(in);
+        String newValues = readString(in);
+        String changes = readString(in);
+        String result = readString(in);
+        String errorMessage = readString(in);
+        String metadata = readString(in);
+        String timestamp = readString(in);
+        return new ArchivedAuditLog(id, serviceName, entityType, entityId, action, userId, ipAddress, userAgent,
+                oldValues, newValues, changes, result, errorMessage, metadata,
+                timestamp != null ? LocalDateTime.parse(timestamp) : null);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    // Absolute slice, so concurrent lookups never share a buffer position
+    private static InputStream stream(ByteBuffer data, long offset, int length) {
+        byte[] bytes = new byte[length];
+        data.get(Math.toIntExact(offset), bytes);
+        return new ByteArrayInputStream(bytes);
+    }
+}
@@ -0,0 +1,198 @@
+package com.uit.auditservice.archive;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes one immutable segment file. Rows must be appended sorted by
+ * (entityId, timestamp), entityIds in {@link #compareKeys} order; an
+ * out-of-order row fails the write rather than producing a segment whose
+ * index lookups would miss rows.
+ *
+ * Layout: deflate-compressed blocks of up to blockRows rows, then the sparse
+ * index (first entityId, offset, length and row count of every block), then a
+ * Bloom filter of the entityIds, then a fixed-size footer pointing at both.
+ * A segment is read through a single mapping, so it may not exceed
+ * {@link #MAX_SEGMENT_BYTES}. See {@link AuditSegment} for the read side.
+ */
+final class AuditSegmentWriter implements Closeable {
+
+    static final int MAGIC = 0x46424153; // "FBAS"
+    static final int VERSION = 1;
+    static final int FOOTER_BYTES = Long.BYTES * 2 + Integer.BYTES * 3;
+    static final long MAX_SEGMENT_BYTES = Integer.MAX_VALUE;
+
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final int blockRows;
+    private final BloomFilter<CharSequence> entityIds;
+    private final List<BlockEntry> index = new ArrayList<>();
+
+    private ByteArrayOutputStream blockBytes = new ByteArrayOutputStream();
+    private DataOutputStream block = new DataOutputStream(blockBytes);
+    private String blockFirstKey;
+    private String lastKey;
+    private int blockRowCount;
+    private long offset;
+    private int rowCount;
+
+    AuditSegmentWriter(Path file, int blockRows, long expectedEntityIds, double falsePositiveRate) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+        this.blockRows = blockRows;
+        this.entityIds = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8),
+                Math.max(1, expectedEntityIds), falsePositiveRate);
+    }
+
+    void append(ArchivedAuditLog row) throws IOException {
+        if (lastKey != null && compareKeys(lastKey, row.entityId()) > 0) {
+            throw new IOException("Audit rows not sorted by entity id: " + row.entityId() + " after " + lastKey);
+        }
+        lastKey = row.entityId();
+        if (blockRowCount == 0) {
+            blockFirstKey = row.entityId();
+        }
+        writeString(block, row.id());
+        writeString(block, row.serviceName());
+        writeString(block, row.entityType());
+        writeString(block, row.entityId());
+        writeString(block, row.action());
+        writeString(block, row.userId());
+        writeString(block, row.ipAddress());
+        writeString(block, row.userAgent());
+        writeString(block, row.oldValues());
+        writeString(block, row.newValues());
+        writeString(block, row.changes());
+        writeString(block, row.result());
+        writeString(block, row.errorMessage());
+        writeString(block, row.metadata());
+        writeString(block, row.timestamp() != null ? row.timestamp().toString() : null);
+
+        entityIds.put(row.entityId());
+        blockRowCount++;
+        rowCount++;
+        if (blockRowCount == blockRows) {
+            flushBlock();
+        }
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    private void flushBlock() throws IOException {
+        if (blockRowCount == 0) {
+            return;
+        }
+        block.flush();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(blockBytes.size() / 4 + 64);
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream deflate = new DeflaterOutputStream(compressed, deflater)) {
+            blockBytes.writeTo(deflate);
+        } finally {
+            deflater.end();
+        }
+        checkSize(offset + compressed.size());
+        compressed.writeTo(out);
+        index.add(new BlockEntry(blockFirstKey, offset, compressed.size(), blockRowCount));
+        offset += compressed.size();
+
+        blockBytes = new ByteArrayOutputStream();
+        block = new DataOutputStream(blockBytes);
+        blockRowCount = 0;
+    }
+
+    /**
+     * Flush the last block, write index, Bloom filter and footer, and force the
+     * file to disk.
+     */
+    void finish() throws IOException {
+        flushBlock();
+
+        long indexOffset = offset;
+        ByteArrayOutputStream indexBytes = new ByteArrayOutputStream();
+        DataOutputStream indexOut = new DataOutputStream(indexBytes);
+        indexOut.writeInt(index.size());
+        for (BlockEntry entry : index) {
+            writeString(indexOut, entry.firstKey());
+            indexOut.writeLong(entry.offset());
+            indexOut.writeInt(entry.length());
+            indexOut.writeInt(entry.rows());
+        }
+        indexOut.flush();
+        indexBytes.writeTo(out);
+
+        long bloomOffset = indexOffset + indexBytes.size();
+        entityIds.writeTo(out);
+
+        out.writeLong(indexOffset);
+        out.writeLong(bloomOffset);
+        out.writeInt(rowCount);
+        out.writeInt(VERSION);
+        out.writeInt(MAGIC);
+        out.flush();
+        checkSize(channel.size());
+        channel.force(true);
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Order of entityIds in a segment: by Unicode code point, which is the
+     * UTF-8 byte order Postgres sorts by under COLLATE "C". String.compareTo
+     * compares UTF-16 units and differs for characters outside the BMP.
+     */
+    static int compareKeys(String a, String b) {
+        int i = 0;
+        int j = 0;
+        while (i < a.length() && j < b.length()) {
+            int ca = a.codePointAt(i);
+            int cb = b.codePointAt(j);
+            if (ca != cb) {
+                return Integer.compare(ca, cb);
+            }
+            i += Character.charCount(ca);
+            j += Character.charCount(cb);
+        }
+        return Integer.compare(a.length() - i, b.length() - j);
+    }
+
+    private static void checkSize(long bytes) throws IOException {
+        if (bytes > MAX_SEGMENT_BYTES) {
+            throw new IOException("Audit segment exceeds " + MAX_SEGMENT_BYTES + " bytes");
+        }
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    record BlockEntry(String firstKey, long offset, int length, int rows) {
+    }
+}
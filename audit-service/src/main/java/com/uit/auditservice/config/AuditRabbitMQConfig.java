@@ -2,6 +2,8 @@ package com.uit.auditservice.config;
 
 import com.uit.sharedkernel.constants.RabbitMQConstants;
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,6 +20,18 @@ public class AuditRabbitMQConfig {
     @Value("${rabbitmq.routing-key.audit:" + RabbitMQConstants.AUDIT_LOG + "}")
     private String auditRoutingKey;
 
+    @Value("${rabbitmq.queue.audit-dlq:" + RabbitMQConstants.AUDIT_DLQ + "}")
+    private String auditDeadLetterQueue;
+
+    @Value("${audit.consumer.batch-size:200}")
+    private int batchSize;
+
+    @Value("${audit.consumer.batch-timeout-ms:200}")
+    private long batchTimeoutMs;
+
+    @Value("${audit.consumer.concurrency:1}")
+    private int concurrency;
+
     @Bean
     public Queue auditQueue() {
         return QueueBuilder.durable(auditQueue)
@@ -25,6 +39,14 @@ public class AuditRabbitMQConfig {
                 .build();
     }
 
+    /**
+     * Poison audit messages are republished here by the consumer
+     */
+    @Bean
+    public Queue auditDeadLetterQueue() {
+        return QueueBuilder.durable(auditDeadLetterQueue).build();
+    }
+
     @Bean
     public TopicExchange auditExchange() {
         return new TopicExchange(auditExchange);
@@ -37,4 +59,24 @@ public class AuditRabbitMQConfig {
                 .to(auditExchange)
                 .with(auditRoutingKey);
     }
+
+    /**
+     * Delivers audit messages in batches of up to batch-size, or whatever
+     * arrived within batch-timeout-ms. Acks stay manual so the consumer can
+     * ack a whole batch at once.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory auditBatchListenerContainerFactory(ConnectionFactory connectionFactory) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setAcknowledgeMode(AcknowledgeMode.MANUAL);
+        factory.setDefaultRequeueRejected(false);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setBatchReceiveTimeout(batchTimeoutMs);
+        factory.setPrefetchCount(batchSize * 2);
+        factory.setConcurrentConsumers(concurrency);
+        return factory;
+    }
 }
@@ -0,0 +1,23 @@
+package com.uit.auditservice.controller;
+
+import com.uit.auditservice.query.TransactionAuditTrail;
+import com.uit.auditservice.service.AuditHistoryService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/audit/trail")
+@RequiredArgsConstructor
+public class AuditTrailController {
+
+    private final AuditHistoryService auditHistoryService;
+
+    /**
+     * Every audit event that carries transactionId in its metadata, across all services
+     */
+    @GetMapping("/transaction/{transactionId}")
+    public ResponseEntity<TransactionAuditTrail> getTransactionTrail(@PathVariable String transactionId) {
+        return ResponseEntity.ok(auditHistoryService.findTransactionTrail(transactionId));
+    }
+}
@@ -1,14 +1,26 @@
 package com.uit.auditservice.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uit.auditservice.entity.TransactionAuditLog;
+import com.uit.auditservice.query.AuditMetadataFilter;
+import com.uit.auditservice.query.AuditRowEstimator;
+import com.uit.auditservice.query.KeysetCursor;
+import com.uit.auditservice.query.KeysetPage;
 import com.uit.auditservice.repository.TransactionAuditLogRepository;
+import com.uit.auditservice.service.AuditExportService;
+import com.uit.auditservice.service.AuditHistoryService;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.sharedkernel.export.ExportResponses;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -18,6 +30,10 @@ import java.util.List;
 public class TransactionAuditController {
 
     private final TransactionAuditLogRepository repository;
+    private final AuditHistoryService auditHistoryService;
+    private final AuditRowEstimator rowEstimator;
+    private final AuditExportService auditExportService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     public ResponseEntity<Page<TransactionAuditLog>> getAllAudits(Pageable pageable) {
@@ -27,8 +43,11 @@ public class TransactionAuditController {
     @GetMapping("/entity/{entityType}/{entityId}")
     public ResponseEntity<List<TransactionAuditLog>> getEntityHistory(
             @PathVariable String entityType,
-            @PathVariable String entityId) {
-        return ResponseEntity.ok(repository.findHistoryByEntity(entityType, entityId));
+            @PathVariable String entityId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        LocalDateTime until = start == null ? null : end != null ? end : LocalDateTime.now();
+        return ResponseEntity.ok(auditHistoryService.findTransactionHistory(entityType, entityId, start, until));
     }
 
     @GetMapping("/user/{userId}")
@@ -52,4 +71,97 @@ public class TransactionAuditController {
             Pageable pageable) {
         return ResponseEntity.ok(repository.findByTimestampBetween(start, end, pageable));
     }
+
+    /**
+     * Full audit trail for a period as NDJSON or CSV, streamed (gzip if accepted)
+     */
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        return ExportResponses.attachment("transaction-audit", format, acceptEncoding,
+                out -> auditExportService.exportTransactionAudits(start, end, format, out));
+    }
+
+    // Keyset (cursor) endpoints: no OFFSET and no count(*); pass nextCursor back as cursor
+
+    @GetMapping("/keyset/entity/{entityId}")
+    public ResponseEntity<KeysetPage<TransactionAuditLog>> scrollEntityAudits(
+            @PathVariable String entityId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return ResponseEntity.ok(page(
+                repository.scrollByEntityId(entityId, after.timestamp(), after.id(), KeysetPage.limit(size)),
+                size, estimateTotal, "entity_id = ?", entityId));
+    }
+
+    @GetMapping("/keyset/user/{userId}")
+    public ResponseEntity<KeysetPage<TransactionAuditLog>> scrollUserAudits(
+            @PathVariable String userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return ResponseEntity.ok(page(
+                repository.scrollByUserId(userId, after.timestamp(), after.id(), KeysetPage.limit(size)),
+                size, estimateTotal, "user_id = ?", userId));
+    }
+
+    @GetMapping("/keyset/action/{action}")
+    public ResponseEntity<KeysetPage<TransactionAuditLog>> scrollByAction(
+            @PathVariable String action,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return ResponseEntity.ok(page(
+                repository.scrollByAction(action, after.timestamp(), after.id(), KeysetPage.limit(size)),
+                size, estimateTotal, "action = ?", action));
+    }
+
+    @GetMapping("/keyset/date-range")
+    public ResponseEntity<KeysetPage<TransactionAuditLog>> scrollByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return ResponseEntity.ok(page(
+                repository.scrollByTimestampBetween(start, end, after.timestamp(), after.id(), KeysetPage.limit(size)),
+                size, estimateTotal, "timestamp BETWEEN ? AND ?", start, end));
+    }
+
+    /**
+     * Events whose metadata carries the given ids, optionally within an amount range
+     */
+    @GetMapping("/keyset/metadata")
+    public ResponseEntity<KeysetPage<TransactionAuditLog>> scrollByMetadata(
+            @RequestParam(required = false) String transactionId,
+            @RequestParam(required = false) String senderAccountId,
+            @RequestParam(required = false) String receiverAccountId,
+            @RequestParam(required = false) BigDecimal minAmount,
+            @RequestParam(required = false) BigDecimal maxAmount,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(defaultValue = "false") boolean estimateTotal) {
+        AuditMetadataFilter filter = new AuditMetadataFilter(
+                transactionId, senderAccountId, receiverAccountId, minAmount, maxAmount);
+        String containment = filter.containment(objectMapper);
+        KeysetCursor after = KeysetCursor.decode(cursor);
+        return ResponseEntity.ok(page(
+                repository.scrollByMetadata(containment, filter.minAmount(), filter.maxAmount(), after.timestamp(), after.id(),
+                        KeysetPage.limit(size)),
+                size, estimateTotal, "metadata @> CAST(? AS jsonb)", containment));
+    }
+
+    private KeysetPage<TransactionAuditLog> page(List<TransactionAuditLog> rows, int size, boolean estimateTotal,
+                                   String condition, Object... args) {
+        Long total = estimateTotal ? rowEstimator.estimate("transaction_audit_logs", condition, args) : null;
+        return KeysetPage.of(rows, size, TransactionAuditLog::getTimestamp, TransactionAuditLog::getId, total);
+    }
 }
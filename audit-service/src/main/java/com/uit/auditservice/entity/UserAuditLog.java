@@ -5,18 +5,18 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "user_audit_logs", indexes = {
-        @Index(name = "idx_user_service_name", columnList = "service_name"),
-        @Index(name = "idx_user_entity_type", columnList = "entity_type"),
-        @Index(name = "idx_user_entity_id", columnList = "entity_id"),
-        @Index(name = "idx_user_action", columnList = "action"),
-        @Index(name = "idx_user_user_id", columnList = "user_id"),
-        @Index(name = "idx_user_timestamp", columnList = "timestamp")
-})
+        @Index(name = "idx_user_entity_keyset", columnList = "entity_id, timestamp, id"),
+        @Index(name = "idx_user_user_keyset", columnList = "user_id, timestamp, id"),
+        @Index(name = "idx_user_action_keyset", columnList = "action, timestamp, id"),
+        @Index(name = "idx_user_timestamp_keyset", columnList = "timestamp, id")
+}) // Partitioned by month on timestamp, see V2__Partition_Audit_Logs.sql
 @Data
 @Builder
 @NoArgsConstructor
@@ -48,10 +48,12 @@ public class UserAuditLog {
     @Column(name = "user_agent", length = 500)
     private String userAgent;
 
-    @Column(name = "old_values", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "old_values", columnDefinition = "jsonb")
     private String oldValues;
 
-    @Column(name = "new_values", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "new_values", columnDefinition = "jsonb")
     private String newValues;
 
     @Column(name = "changes", columnDefinition = "TEXT")
@@ -63,7 +65,8 @@ public class UserAuditLog {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
-    @Column(name = "metadata", columnDefinition = "TEXT")
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "metadata", columnDefinition = "jsonb")
     private String metadata;
 
     @Column(name = "timestamp", nullable = false)
@@ -1,40 +1,109 @@
 package com.uit.auditservice.messaging;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.rabbitmq.client.Channel;
 import com.uit.sharedkernel.audit.AuditEventDto;
+import com.uit.sharedkernel.constants.RabbitMQConstants;
 import com.uit.auditservice.service.AuditService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.core.Message;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Consumes audit events in batches. A message body is either a single
+ * AuditEventDto or, from publishers in async mode, a JSON array of them.
+ *
+ * All events of a batch are written in one transaction and the batch is acked
+ * with a single multiple=true ack. Messages that cannot be parsed or stored
+ * are republished to the audit DLQ and acked with the rest, so one poison
+ * message never holds back the batch.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class AuditEventConsumer {
 
+    static final String ERROR_HEADER = "x-audit-error";
+
+    private static final TypeReference<List<AuditEventDto>> EVENT_LIST = new TypeReference<>() {};
+
     private final AuditService auditService;
+    private final ObjectMapper objectMapper;
+    private final RabbitTemplate rabbitTemplate;
+
+    @Value("${rabbitmq.queue.audit-dlq:" + RabbitMQConstants.AUDIT_DLQ + "}")
+    private String deadLetterQueue;
 
     @RabbitListener(
         queues = "${rabbitmq.queue.audit:audit.queue}",
-        containerFactory = "simpleRabbitListenerContainerFactory"
+        containerFactory = "auditBatchListenerContainerFactory"
     )
-    public void consumeAuditEvent(AuditEventDto event, Channel channel, Message message) throws IOException {
-        log.info("Received audit event from RabbitMQ: service={}, entityType={}, action={}",
-                event.getServiceName(), event.getEntityType(), event.getAction());
+    public void consumeAuditEvents(List<Message> messages, Channel channel) throws IOException {
+        if (messages.isEmpty()) {
+            return;
+        }
+
+        Map<Message, List<AuditEventDto>> accepted = new LinkedHashMap<>();
+        for (Message message : messages) {
+            try {
+                List<AuditEventDto> events = readEvents(message.getBody());
+                events.forEach(auditService::validate);
+                accepted.put(message, events);
+            } catch (Exception e) {
+                deadLetter(message, e);
+            }
+        }
+
+        List<AuditEventDto> events = new ArrayList<>();
+        accepted.values().forEach(events::addAll);
+        try {
+            auditService.logAuditEvents(events);
+        } catch (Exception e) {
+            // Find the culprit: retry message by message, dead-lettering whatever still fails
+            log.warn("Audit batch of {} messages failed, writing them one by one: {}", accepted.size(), e.getMessage());
+            for (Map.Entry<Message, List<AuditEventDto>> entry : accepted.entrySet()) {
+                try {
+                    auditService.logAuditEvents(entry.getValue());
+                } catch (Exception ex) {
+                    deadLetter(entry.getKey(), ex);
+                }
+            }
+        }
+
+        // One ack covers every delivery of the batch, dead-lettered ones included
+        long lastTag = messages.get(messages.size() - 1).getMessageProperties().getDeliveryTag();
+        channel.basicAck(lastTag, true);
+        log.info("Processed {} audit event(s) from {} message(s)", events.size(), messages.size());
+    }
+
+    private List<AuditEventDto> readEvents(byte[] body) throws IOException {
+        JsonNode root = objectMapper.readTree(body);
+        if (root.isArray()) {
+            return objectMapper.convertValue(root, EVENT_LIST);
+        }
+        return List.of(objectMapper.treeToValue(root, AuditEventDto.class));
+    }
 
+    private void deadLetter(Message message, Exception cause) {
+        log.error("Moving audit message to {}: {}", deadLetterQueue, cause.getMessage());
         try {
-            auditService.logAuditEvent(event);
-            channel.basicAck(message.getMessageProperties().getDeliveryTag(), false);
-            log.info("Successfully processed and ACKed audit event for entity: {}", event.getEntityId());
+            message.getMessageProperties().setHeader(ERROR_HEADER, String.valueOf(cause.getMessage()));
+            rabbitTemplate.send("", deadLetterQueue, message);
         } catch (Exception e) {
-            log.error("Failed to process audit event: {}", event, e);
-            // Reject and don't requeue to prevent infinite retry loops
-            channel.basicNack(message.getMessageProperties().getDeliveryTag(), false, false);
-            // Message will be sent to DLQ if configured, or discarded
+            // Same outcome as the old nack without requeue
+            log.error("Failed to dead-letter audit message, discarding it: {}", new String(message.getBody()), e);
         }
     }
 }
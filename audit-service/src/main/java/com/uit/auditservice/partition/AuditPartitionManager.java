@@ -0,0 +1,150 @@
+package com.uit.auditservice.partition;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly audit partitions rolling.
+ *
+ * Creates partitions months-ahead months in advance (so rows never land in the
+ * default partition) and takes partitions older than retention-months out of
+ * the table: DETACH leaves them as plain tables for archiving, DROP deletes them.
+ * Rows that did land in the default partition are moved out by
+ * create_audit_partition when their month's partition is created.
+ *
+ * A failed step is logged as an error and counted in
+ * audit.partition.maintenance.failures, since the job retries only a day later.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.partition.enabled", havingValue = "true", matchIfMissing = true)
+public class AuditPartitionManager {
+
+    public static final List<String> AUDIT_TABLES =
+            List.of("account_audit_logs", "transaction_audit_logs", "user_audit_logs");
+
+    private static final Pattern PARTITION_MONTH = Pattern.compile("_y(\\d{4})m(\\d{2})$");
+
+    public enum RetentionAction {
+        DETACH,
+        DROP
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String datasourceUrl;
+    private final int monthsAhead;
+    private final int retentionMonths;
+    private final RetentionAction retentionAction;
+    private final MeterRegistry meterRegistry;
+
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${spring.datasource.url:}") String datasourceUrl,
+                                 @Value("${audit.partition.months-ahead:3}") int monthsAhead,
+                                 @Value("${audit.partition.retention-months:12}") int retentionMonths,
+                                 @Value("${audit.partition.retention-action:DETACH}") RetentionAction retentionAction) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.datasourceUrl = datasourceUrl;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+        this.retentionAction = retentionAction;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintainPartitions();
+    }
+
+    @Scheduled(cron = "${audit.partition.cron:0 15 0 * * *}")
+    public void maintainPartitions() {
+        if (!datasourceUrl.startsWith("jdbc:postgresql:")) {
+            log.debug("Audit partition maintenance skipped - datasource is not PostgreSQL");
+            return;
+        }
+
+        YearMonth current = YearMonth.now();
+        YearMonth oldestKept = current.minusMonths(retentionMonths);
+        for (String table : AUDIT_TABLES) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                createPartition(table, current.plusMonths(i));
+            }
+            for (String partition : attachedPartitions(table)) {
+                partitionMonth(partition)
+                        .filter(month -> month.isBefore(oldestKept))
+                        .ifPresent(month -> expire(table, partition));
+            }
+        }
+    }
+
+    private void createPartition(String table, YearMonth month) {
+        try {
+            jdbcTemplate.queryForObject("SELECT create_audit_partition(?, ?)", String.class,
+                    table, Date.valueOf(month.atDay(1)));
+        } catch (Exception e) {
+            // Until this succeeds, that month's rows collect in the default partition
+            log.error("Could not create {} partition for {}: {}", table, month, e.getMessage());
+            failure(table, "create");
+        }
+    }
+
+    private List<String> attachedPartitions(String table) {
+        return jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid " +
+                "JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ?", String.class, table);
+    }
+
+    private void expire(String table, String partition) {
+        try {
+            jdbcTemplate.execute("ALTER TABLE " + quote(table) + " DETACH PARTITION " + quote(partition));
+            if (retentionAction == RetentionAction.DROP) {
+                jdbcTemplate.execute("DROP TABLE " + quote(partition));
+            }
+            log.info("Audit partition {} expired ({})", partition, retentionAction);
+        } catch (Exception e) {
+            log.error("Failed to expire audit partition {}: {}", partition, e.getMessage());
+            failure(table, "expire");
+        }
+    }
+
+    private void failure(String table, String operation) {
+        Counter.builder("audit.partition.maintenance.failures")
+                .description("Audit partitions that could not be created or expired")
+                .tag("table", table)
+                .tag("operation", operation)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Month covered by a partition named &lt;table&gt;_yYYYYmMM; empty for the default partition.
+     */
+    public static Optional<YearMonth> partitionMonth(String partition) {
+        Matcher matcher = PARTITION_MONTH.matcher(partition);
+        if (!matcher.find()) {
+            return Optional.empty();
+        }
+        return Optional.of(YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2))));
+    }
+
+    private static String quote(String identifier) {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+}
@@ -0,0 +1,57 @@
+package com.uit.auditservice.query;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Metadata keys an audit search can filter on. The id keys become one jsonb
+ * containment (@>) served by the GIN index; the amount range is compared in SQL
+ * on the rows that index returns, so it needs an id key.
+ */
+public record AuditMetadataFilter(String transactionId, String senderAccountId, String receiverAccountId,
+                                  BigDecimal minAmount, BigDecimal maxAmount) {
+
+    /**
+     * metadata.amount of row a as an exact numeric, NULL when absent or not a number.
+     * Amounts are stored as JSON numbers or numeric strings; CASE keeps the cast
+     * from ever seeing anything else. The pattern spells ? as {0,1} so it is not
+     * taken for a query parameter.
+     */
+    public static final String AMOUNT_SQL = "CASE WHEN a.metadata->>'amount' ~ '^-{0,1}[0-9]+(\\.[0-9]+){0,1}([eE][-+]{0,1}[0-9]+){0,1}$' " +
+            "THEN CAST(a.metadata->>'amount' AS numeric) END";
+
+    public AuditMetadataFilter {
+        if (transactionId == null && senderAccountId == null && receiverAccountId == null) {
+            throw new AppException(ErrorCode.BAD_REQUEST,
+                    "Metadata search needs transactionId, senderAccountId or receiverAccountId");
+        }
+        if (minAmount != null && maxAmount != null && minAmount.compareTo(maxAmount) > 0) {
+            throw new AppException(ErrorCode.BAD_REQUEST, "minAmount is greater than maxAmount");
+        }
+    }
+
+    public static AuditMetadataFilter forTransaction(String transactionId) {
+        return new AuditMetadataFilter(transactionId, null, null, null, null);
+    }
+
+    /**
+     * @return the jsonb document every matching metadata value must contain
+     */
+    public String containment(ObjectMapper objectMapper) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (transactionId != null) keys.put("transactionId", transactionId);
+        if (senderAccountId != null) keys.put("senderAccountId", senderAccountId);
+        if (receiverAccountId != null) keys.put("receiverAccountId", receiverAccountId);
+        try {
+            return objectMapper.writeValueAsString(keys);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize metadata filter", e);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.uit.auditservice.query;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Planner row estimates for keyset pages, instead of an exact count(*)
+ * that would read every matching row.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AuditRowEstimator {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * @param table     audit table name
+     * @param condition WHERE clause with ? placeholders for args
+     * @return estimated matching rows, or null if no estimate is available
+     */
+    public Long estimate(String table, String condition, Object... args) {
+        try {
+            String plan = jdbcTemplate.queryForObject(
+                    "EXPLAIN (FORMAT JSON) SELECT 1 FROM " + table + " WHERE " + condition, String.class, args);
+            JsonNode root = objectMapper.readTree(plan);
+            return root.path(0).path("Plan").path("Plan Rows").asLong();
+        } catch (Exception e) {
+            log.debug("Row estimate unavailable for {}: {}", table, e.getMessage());
+            return null;
+        }
+    }
+}
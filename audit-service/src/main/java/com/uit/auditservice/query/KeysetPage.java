@@ -0,0 +1,40 @@
+package com.uit.auditservice.query;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset scan. nextCursor is null on the last page;
+ * estimatedTotal is only filled when the client asked for it.
+ */
+public record KeysetPage<T>(List<T> items, String nextCursor, Long estimatedTotal) {
+
+    public static final int MAX_SIZE = 500;
+
+    /**
+     * Asks for one row more than the page size, to know whether a next page exists
+     */
+    public static Pageable limit(int size) {
+        return PageRequest.of(0, clamp(size) + 1);
+    }
+
+    public static <T> KeysetPage<T> of(List<T> rows, int size, Function<T, LocalDateTime> timestamp,
+                                       Function<T, String> id, Long estimatedTotal) {
+        int pageSize = clamp(size);
+        if (rows.size() <= pageSize) {
+            return new KeysetPage<>(rows, null, estimatedTotal);
+        }
+        List<T> items = rows.subList(0, pageSize);
+        T last = items.get(pageSize - 1);
+        String next = new KeysetCursor(timestamp.apply(last), id.apply(last)).encode();
+        return new KeysetPage<>(List.copyOf(items), next, estimatedTotal);
+    }
+
+    private static int clamp(int size) {
+        return Math.max(1, Math.min(size, MAX_SIZE));
+    }
+}
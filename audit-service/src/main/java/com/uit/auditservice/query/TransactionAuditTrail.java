@@ -0,0 +1,16 @@
+package com.uit.auditservice.query;
+
+import com.uit.auditservice.entity.AccountAuditLog;
+import com.uit.auditservice.entity.TransactionAuditLog;
+import com.uit.auditservice.entity.UserAuditLog;
+
+import java.util.List;
+
+/**
+ * Every hot audit event whose metadata names one transaction, per audit table, oldest first
+ */
+public record TransactionAuditTrail(String transactionId,
+                                    List<AccountAuditLog> account,
+                                    List<TransactionAuditLog> transaction,
+                                    List<UserAuditLog> user) {
+}
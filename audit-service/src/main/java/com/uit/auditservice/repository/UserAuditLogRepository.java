@@ -1,14 +1,19 @@
 package com.uit.auditservice.repository;
 
 import com.uit.auditservice.entity.UserAuditLog;
+import com.uit.auditservice.query.AuditMetadataFilter;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserAuditLogRepository extends JpaRepository<UserAuditLog, String> {
@@ -28,4 +33,47 @@ public interface UserAuditLogRepository extends JpaRepository<UserAuditLog, Stri
 
     @Query("SELECT a FROM UserAuditLog a WHERE a.entityType = :entityType AND a.entityId = :entityId ORDER BY a.timestamp DESC")
     List<UserAuditLog> findHistoryByEntity(String entityType, String entityId);
+
+    // Time-bounded, so Postgres only scans the monthly partitions in range
+    @Query("SELECT a FROM UserAuditLog a WHERE a.entityType = :entityType AND a.entityId = :entityId " +
+           "AND a.timestamp BETWEEN :start AND :end ORDER BY a.timestamp DESC")
+    List<UserAuditLog> findHistoryByEntityBetween(String entityType, String entityId, LocalDateTime start, LocalDateTime end);
+
+    // Export cursor: consume inside a transaction so Postgres honours the fetch size
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT a FROM UserAuditLog a WHERE a.timestamp BETWEEN :start AND :end ORDER BY a.timestamp, a.id")
+    Stream<UserAuditLog> streamByTimestampBetween(LocalDateTime start, LocalDateTime end);
+
+    // Metadata lookups go through the GIN (jsonb_path_ops) index on metadata via @>
+    @Query(value = "SELECT * FROM user_audit_logs a WHERE a.metadata @> CAST(:containment AS jsonb) " +
+           "ORDER BY a.timestamp, a.id", nativeQuery = true)
+    List<UserAuditLog> findByMetadataContaining(String containment);
+
+    @Query(value = "SELECT * FROM user_audit_logs a WHERE a.metadata @> CAST(:containment AS jsonb) " +
+           "AND (CAST(:minAmount AS numeric) IS NULL OR " + AuditMetadataFilter.AMOUNT_SQL + " >= CAST(:minAmount AS numeric)) " +
+           "AND (CAST(:maxAmount AS numeric) IS NULL OR " + AuditMetadataFilter.AMOUNT_SQL + " <= CAST(:maxAmount AS numeric)) " +
+           "AND (a.timestamp, a.id) < (:timestamp, :id) ORDER BY a.timestamp DESC, a.id DESC", nativeQuery = true)
+    List<UserAuditLog> scrollByMetadata(String containment, BigDecimal minAmount, BigDecimal maxAmount,
+                                         LocalDateTime timestamp, String id, Pageable limit);
+
+    // Keyset scans, newest first: rows strictly after the (timestamp, id) cursor; page size via Pageable
+    @Query("SELECT a FROM UserAuditLog a WHERE a.entityId = :entityId AND (a.timestamp, a.id) < (:timestamp, :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<UserAuditLog> scrollByEntityId(String entityId, LocalDateTime timestamp, String id, Pageable limit);
+
+    @Query("SELECT a FROM UserAuditLog a WHERE a.userId = :userId AND (a.timestamp, a.id) < (:timestamp, :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<UserAuditLog> scrollByUserId(String userId, LocalDateTime timestamp, String id, Pageable limit);
+
+    @Query("SELECT a FROM UserAuditLog a WHERE a.action = :action AND (a.timestamp, a.id) < (:timestamp, :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<UserAuditLog> scrollByAction(String action, LocalDateTime timestamp, String id, Pageable limit);
+
+    @Query("SELECT a FROM UserAuditLog a WHERE a.timestamp BETWEEN :start AND :end AND (a.timestamp, a.id) < (:timestamp, :id) " +
+           "ORDER BY a.timestamp DESC, a.id DESC")
+    List<UserAuditLog> scrollByTimestampBetween(LocalDateTime start, LocalDateTime end,
+                                         LocalDateTime timestamp, String id, Pageable limit);
 }
@@ -0,0 +1,105 @@
+package com.uit.auditservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.auditservice.entity.AccountAuditLog;
+import com.uit.auditservice.entity.TransactionAuditLog;
+import com.uit.auditservice.entity.UserAuditLog;
+import com.uit.auditservice.repository.AccountAuditLogRepository;
+import com.uit.auditservice.repository.TransactionAuditLogRepository;
+import com.uit.auditservice.repository.UserAuditLogRepository;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.sharedkernel.export.ExportWriter;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Streams audit trails from a database cursor straight to the response, one
+ * row at a time, so memory stays flat whatever the export size.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class AuditExportService {
+
+    static final List<String> CSV_HEADER = List.of("id", "timestamp", "serviceName", "entityType", "entityId",
+            "action", "userId", "ipAddress", "userAgent", "result", "changes", "errorMessage",
+            "oldValues", "newValues", "metadata");
+
+    private final AccountAuditLogRepository accountAuditLogRepository;
+    private final TransactionAuditLogRepository transactionAuditLogRepository;
+    private final UserAuditLogRepository userAuditLogRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional(readOnly = true)
+    public long exportAccountAudits(LocalDateTime start, LocalDateTime end, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("account_audit_logs", accountAuditLogRepository.streamByTimestampBetween(start, end),
+                format, out, AuditExportService::csvAccountRow);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportTransactionAudits(LocalDateTime start, LocalDateTime end, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("transaction_audit_logs", transactionAuditLogRepository.streamByTimestampBetween(start, end),
+                format, out, AuditExportService::csvTransactionRow);
+    }
+
+    @Transactional(readOnly = true)
+    public long exportUserAudits(LocalDateTime start, LocalDateTime end, ExportFormat format, OutputStream out)
+            throws IOException {
+        return export("user_audit_logs", userAuditLogRepository.streamByTimestampBetween(start, end),
+                format, out, AuditExportService::csvUserRow);
+    }
+
+    private <T> long export(String table, Stream<T> stream, ExportFormat format, OutputStream out,
+                            Function<T, List<?>> csvRow) throws IOException {
+        long started = System.currentTimeMillis();
+        try (Stream<T> rows = stream;
+             ExportWriter<T> writer = ExportWriter.open(format, out, objectMapper, CSV_HEADER, csvRow)) {
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                T row = iterator.next();
+                writer.write(row);
+                // Otherwise the persistence context keeps every exported row
+                entityManager.detach(row);
+            }
+            log.info("Exported {} rows from {} as {} in {} ms",
+                    writer.getRowCount(), table, format, System.currentTimeMillis() - started);
+            return writer.getRowCount();
+        }
+    }
+
+    private static List<?> csvAccountRow(AccountAuditLog a) {
+        return Arrays.asList(a.getId(), a.getTimestamp(), a.getServiceName(), a.getEntityType(), a.getEntityId(),
+                a.getAction(), a.getUserId(), a.getIpAddress(), a.getUserAgent(), a.getResult(), a.getChanges(),
+                a.getErrorMessage(), a.getOldValues(), a.getNewValues(), a.getMetadata());
+    }
+
+    private static List<?> csvTransactionRow(TransactionAuditLog a) {
+        return Arrays.asList(a.getId(), a.getTimestamp(), a.getServiceName(), a.getEntityType(), a.getEntityId(),
+                a.getAction(), a.getUserId(), a.getIpAddress(), a.getUserAgent(), a.getResult(), a.getChanges(),
+                a.getErrorMessage(), a.getOldValues(), a.getNewValues(), a.getMetadata());
+    }
+
+    private static List<?> csvUserRow(UserAuditLog a) {
+        return Arrays.asList(a.getId(), a.getTimestamp(), a.getServiceName(), a.getEntityType(), a.getEntityId(),
+                a.getAction(), a.getUserId(), a.getIpAddress(), a.getUserAgent(), a.getResult(), a.getChanges(),
+                a.getErrorMessage(), a.getOldValues(), a.getNewValues(), a.getMetadata());
+    }
+}
@@ -0,0 +1,153 @@
+package com.uit.auditservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.auditservice.archive.ArchivedAuditLog;
+import com.uit.auditservice.archive.AuditArchiveService;
+import com.uit.auditservice.entity.AccountAuditLog;
+import com.uit.auditservice.entity.TransactionAuditLog;
+import com.uit.auditservice.entity.UserAuditLog;
+import com.uit.auditservice.query.AuditMetadataFilter;
+import com.uit.auditservice.query.TransactionAuditTrail;
+import com.uit.auditservice.repository.AccountAuditLogRepository;
+import com.uit.auditservice.repository.TransactionAuditLogRepository;
+import com.uit.auditservice.repository.UserAuditLogRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Entity history across hot Postgres partitions and, when audit.archive.enabled
+ * is set, the cold-storage segments. Archived rows are always older than the
+ * hot ones, so they are appended after them to keep newest-first order.
+ * A null start means the whole history; end is only read together with start.
+ */
+@Service
+@RequiredArgsConstructor
+public class AuditHistoryService {
+
+    private final AccountAuditLogRepository accountAuditLogRepository;
+    private final TransactionAuditLogRepository transactionAuditLogRepository;
+    private final UserAuditLogRepository userAuditLogRepository;
+    private final ObjectProvider<AuditArchiveService> auditArchiveService;
+    private final ObjectMapper objectMapper;
+
+    public List<AccountAuditLog> findAccountHistory(String entityType, String entityId,
+                                                   LocalDateTime start, LocalDateTime end) {
+        List<AccountAuditLog> hot = start != null
+                ? accountAuditLogRepository.findHistoryByEntityBetween(entityType, entityId, start, end)
+                : accountAuditLogRepository.findHistoryByEntity(entityType, entityId);
+        return withArchived(hot, "account_audit_logs", entityType, entityId, start, end, this::toAccountAuditLog);
+    }
+
+    public List<TransactionAuditLog> findTransactionHistory(String entityType, String entityId,
+                                                   LocalDateTime start, LocalDateTime end) {
+        List<TransactionAuditLog> hot = start != null
+                ? transactionAuditLogRepository.findHistoryByEntityBetween(entityType, entityId, start, end)
+                : transactionAuditLogRepository.findHistoryByEntity(entityType, entityId);
+        return withArchived(hot, "transaction_audit_logs", entityType, entityId, start, end, this::toTransactionAuditLog);
+    }
+
+    public List<UserAuditLog> findUserHistory(String entityType, String entityId,
+                                                   LocalDateTime start, LocalDateTime end) {
+        List<UserAuditLog> hot = start != null
+                ? userAuditLogRepository.findHistoryByEntityBetween(entityType, entityId, start, end)
+                : userAuditLogRepository.findHistoryByEntity(entityType, entityId);
+        return withArchived(hot, "user_audit_logs", entityType, entityId, start, end, this::toUserAuditLog);
+    }
+
+    /**
+     * Looks the transaction up in the metadata of all three tables, each through
+     * its GIN index. Archived segments are not searched.
+     */
+    public TransactionAuditTrail findTransactionTrail(String transactionId) {
+        String containment = AuditMetadataFilter.forTransaction(transactionId).containment(objectMapper);
+        return new TransactionAuditTrail(transactionId,
+                accountAuditLogRepository.findByMetadataContaining(containment),
+                transactionAuditLogRepository.findByMetadataContaining(containment),
+                userAuditLogRepository.findByMetadataContaining(containment));
+    }
+
+    private <T> List<T> withArchived(List<T> hot, String table, String entityType, String entityId,
+                                     LocalDateTime start, LocalDateTime end, Function<ArchivedAuditLog, T> mapper) {
+        AuditArchiveService archive = auditArchiveService.getIfAvailable();
+        if (archive == null) {
+            return hot;
+        }
+        List<T> archived = archive.findHistory(table, entityType, entityId).stream()
+                .filter(row -> start == null || !row.timestamp().isBefore(start))
+                .filter(row -> end == null || !row.timestamp().isAfter(end))
+                .map(mapper)
+                .toList();
+        if (archived.isEmpty()) {
+            return hot;
+        }
+        List<T> all = new ArrayList<>(hot);
+        all.addAll(archived);
+        return all;
+    }
+
+    private AccountAuditLog toAccountAuditLog(ArchivedAuditLog row) {
+        return AccountAuditLog.builder()
+                .id(row.id())
+                .serviceName(row.serviceName())
+                .entityType(row.entityType())
+                .entityId(row.entityId())
+                .action(row.action())
+                .userId(row.userId())
+                .ipAddress(row.ipAddress())
+                .userAgent(row.userAgent())
+                .oldValues(row.oldValues())
+                .newValues(row.newValues())
+                .changes(row.changes())
+                .result(row.result())
+                .errorMessage(row.errorMessage())
+                .metadata(row.metadata())
+                .timestamp(row.timestamp())
+                .build();
+    }
+
+    private TransactionAuditLog toTransactionAuditLog(ArchivedAuditLog row) {
+        return TransactionAuditLog.builder()
+                .id(row.id())
+                .serviceName(row.serviceName())
+                .entityType(row.entityType())
+                .entityId(row.entityId())
+                .action(row.action())
+                .userId(row.userId())
+                .ipAddress(row.ipAddress())
+                .userAgent(row.userAgent())
+                .oldValues(row.oldValues())
+                .newValues(row.newValues())
+                .changes(row.changes())
+                .result(row.result())
+                .errorMessage(row.errorMessage())
+                .metadata(row.metadata())
+                .timestamp(row.timestamp())
+                .build();
+    }
+
+    private UserAuditLog toUserAuditLog(ArchivedAuditLog row) {
+        return UserAuditLog.builder()
+                .id(row.id())
+                .serviceName(row.serviceName())
+                .entityType(row.entityType())
+                .entityId(row.entityId())
+                .action(row.action())
+                .userId(row.userId())
+                .ipAddress(row.ipAddress())
+                .userAgent(row.userAgent())
+                .oldValues(row.oldValues())
+                .newValues(row.newValues())
+                .changes(row.changes())
+                .result(row.result())
+                .errorMessage(row.errorMessage())
+                .metadata(row.metadata())
+                .timestamp(row.timestamp())
+                .build();
+    }
+}
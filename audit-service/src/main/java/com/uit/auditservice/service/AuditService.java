@@ -1,127 +1,136 @@
 package com.uit.auditservice.service;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.uit.sharedkernel.audit.AuditEventDto;
-import com.uit.auditservice.entity.AccountAuditLog;
-import com.uit.auditservice.entity.TransactionAuditLog;
-import com.uit.auditservice.entity.UserAuditLog;
-import com.uit.auditservice.repository.AccountAuditLogRepository;
-import com.uit.auditservice.repository.TransactionAuditLogRepository;
-import com.uit.auditservice.repository.UserAuditLogRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class AuditService {
 
-    private final AccountAuditLogRepository accountAuditLogRepository;
-    private final TransactionAuditLogRepository transactionAuditLogRepository;
-    private final UserAuditLogRepository userAuditLogRepository;
+    private static final Set<String> RESULTS = Set.of("SUCCESS", "FAILURE", "PENDING");
+
+    private static final String INSERT_COLUMNS = " (id, service_name, entity_type, entity_id, action, user_id, " +
+            "ip_address, user_agent, old_values, new_values, changes, result, error_message, metadata, timestamp) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS jsonb), CAST(? AS jsonb), ?, ?, ?, CAST(? AS jsonb), ?)";
+
+    private final JdbcTemplate jdbcTemplate;
     private final ObjectMapper objectMapper;
 
     @Transactional
     public void logAuditEvent(AuditEventDto event) {
-        log.info("Logging audit event: service={}, entityType={}, action={}, entityId={}",
-                event.getServiceName(), event.getEntityType(), event.getAction(), event.getEntityId());
+        logAuditEvents(List.of(event));
+    }
 
-        try {
-            switch (event.getServiceName().toLowerCase()) {
-                case "account-service":
-                    logAccountAudit(event);
-                    break;
-                case "transaction-service":
-                    logTransactionAudit(event);
-                    break;
-                case "user-service":
-                    logUserAudit(event);
-                    break;
-                default:
-                    log.warn("Unknown service name: {}", event.getServiceName());
+    /**
+     * Write a batch of audit events in one transaction, grouped by target table
+     * and inserted with one JDBC batch per table.
+     */
+    @Transactional
+    public void logAuditEvents(List<AuditEventDto> events) {
+        Map<String, List<AuditEventDto>> byTable = new LinkedHashMap<>();
+        for (AuditEventDto event : events) {
+            String table = tableFor(event);
+            if (table == null) {
+                log.warn("Unknown service name: {}", event.getServiceName());
+                continue;
             }
-        } catch (Exception e) {
-            log.error("Failed to log audit event: {}", event, e);
-            throw e; // Rethrow to let Consumer handle NACK/DLQ
+            byTable.computeIfAbsent(table, t -> new ArrayList<>()).add(event);
         }
+
+        byTable.forEach((table, tableEvents) -> {
+            jdbcTemplate.batchUpdate("INSERT INTO " + table + INSERT_COLUMNS, tableEvents, tableEvents.size(),
+                    (ps, event) -> {
+                        ps.setString(1, UUID.randomUUID().toString());
+                        ps.setString(2, event.getServiceName());
+                        ps.setString(3, event.getEntityType());
+                        ps.setString(4, event.getEntityId());
+                        ps.setString(5, event.getAction());
+                        ps.setString(6, event.getUserId());
+                        ps.setString(7, event.getIpAddress());
+                        ps.setString(8, event.getUserAgent());
+                        ps.setString(9, toJson(event.getOldValues()));
+                        ps.setString(10, toJson(event.getNewValues()));
+                        ps.setString(11, event.getChanges());
+                        ps.setString(12, event.getResult());
+                        ps.setString(13, event.getErrorMessage());
+                        ps.setString(14, toJson(event.getMetadata()));
+                        ps.setTimestamp(15, Timestamp.valueOf(
+                                event.getTimestamp() != null ? event.getTimestamp() : LocalDateTime.now()));
+                    });
+            log.debug("Inserted {} audit logs into {}", tableEvents.size(), table);
+        });
+    }
+
+    /**
+     * Reject events the audit tables would refuse, so one bad event does not
+     * roll back the batch it arrived with.
+     *
+     * @throws IllegalArgumentException describing the first problem found
+     */
+    public void validate(AuditEventDto event) {
+        if (event.getServiceName() == null || event.getEntityType() == null
+                || event.getEntityId() == null || event.getAction() == null) {
+            throw new IllegalArgumentException("Audit event is missing serviceName, entityType, entityId or action");
+        }
+        if (event.getResult() != null && !RESULTS.contains(event.getResult())) {
+            throw new IllegalArgumentException("Unsupported audit result: " + event.getResult());
+        }
+    }
+
+    private static String tableFor(AuditEventDto event) {
+        return switch (event.getServiceName().toLowerCase()) {
+            case "account-service" -> "account_audit_logs";
+            case "transaction-service" -> "transaction_audit_logs";
+            case "user-service" -> "user_audit_logs";
+            default -> null;
+        };
     }
 
+    /**
+     * JSON text for a jsonb column. Strings that already hold JSON pass through;
+     * anything else that cannot be serialized is stored as a JSON string, since
+     * an invalid value would fail the whole batch.
+     */
     private String toJson(Object object) {
         if (object == null) return null;
         try {
-            if (object instanceof String) return (String) object;
+            if (object instanceof String value) {
+                if (isJson(value)) return value;
+                return objectMapper.writeValueAsString(value);
+            }
             return objectMapper.writeValueAsString(object);
         } catch (Exception e) {
             log.warn("Failed to convert audit field to JSON: {}", object, e);
-            return String.valueOf(object);
+            try {
+                return objectMapper.writeValueAsString(String.valueOf(object));
+            } catch (Exception ignored) {
+                return null;
+            }
         }
     }
 
-    private void logAccountAudit(AuditEventDto event) {
-        AccountAuditLog auditLog = AccountAuditLog.builder()
-                .serviceName(event.getServiceName())
-                .entityType(event.getEntityType())
-                .entityId(event.getEntityId())
-                .action(event.getAction())
-                .userId(event.getUserId())
-                .ipAddress(event.getIpAddress())
-                .userAgent(event.getUserAgent())
-                .oldValues(toJson(event.getOldValues()))
-                .newValues(toJson(event.getNewValues()))
-                .changes(event.getChanges())
-                .result(event.getResult())
-                .errorMessage(event.getErrorMessage())
-                .metadata(toJson(event.getMetadata()))
-                .timestamp(event.getTimestamp())
-                .build();
-
-        accountAuditLogRepository.save(auditLog);
-        log.debug("Account audit log saved: {}", auditLog.getId());
-    }
-
-    private void logTransactionAudit(AuditEventDto event) {
-        TransactionAuditLog auditLog = TransactionAuditLog.builder()
-                .serviceName(event.getServiceName())
-                .entityType(event.getEntityType())
-                .entityId(event.getEntityId())
-                .action(event.getAction())
-                .userId(event.getUserId())
-                .ipAddress(event.getIpAddress())
-                .userAgent(event.getUserAgent())
-                .oldValues(toJson(event.getOldValues()))
-                .newValues(toJson(event.getNewValues()))
-                .changes(event.getChanges())
-                .result(event.getResult())
-                .errorMessage(event.getErrorMessage())
-                .metadata(toJson(event.getMetadata()))
-                .timestamp(event.getTimestamp())
-                .build();
-
-        transactionAuditLogRepository.save(auditLog);
-        log.debug("Transaction audit log saved: {}", auditLog.getId());
-    }
-
-    private void logUserAudit(AuditEventDto event) {
-        UserAuditLog auditLog = UserAuditLog.builder()
-                .serviceName(event.getServiceName())
-                .entityType(event.getEntityType())
-                .entityId(event.getEntityId())
-                .action(event.getAction())
-                .userId(event.getUserId())
-                .ipAddress(event.getIpAddress())
-                .userAgent(event.getUserAgent())
-                .oldValues(toJson(event.getOldValues()))
-                .newValues(toJson(event.getNewValues()))
-                .changes(event.getChanges())
-                .result(event.getResult())
-                .errorMessage(event.getErrorMessage())
-                .metadata(toJson(event.getMetadata()))
-                .timestamp(event.getTimestamp())
-                .build();
-
-        userAuditLogRepository.save(auditLog);
-        log.debug("User audit log saved: {}", auditLog.getId());
+    private boolean isJson(String value) {
+        try {
+            objectMapper.reader().with(DeserializationFeature.FAIL_ON_TRAILING_TOKENS).readTree(value);
+            return !value.isBlank();
+        } catch (Exception e) {
+            return false;
+        }
     }
 }
@@ -0,0 +1,92 @@
+-- =======================================================
+-- Monthly range partitioning of the audit log tables
+-- =======================================================
+
+-- Creates the monthly partition of an audit table holding the given date, if missing.
+-- Partitions are named <table>_yYYYYmMM; AuditPartitionManager calls this to stay ahead.
+-- Rows of that month already in the default partition would make a plain CREATE fail
+-- (and stay outside retention forever), so the default partition is detached, the new
+-- partition created, the rows moved into it and the default reattached. All of it runs
+-- in the caller's transaction: it either completes or leaves the table as it was.
+CREATE OR REPLACE FUNCTION create_audit_partition(parent TEXT, month DATE) RETURNS TEXT AS $$
+DECLARE
+    start_date DATE := date_trunc('month', month)::date;
+    end_date DATE := (date_trunc('month', month) + INTERVAL '1 month')::date;
+    partition_name TEXT := format('%s_y%sm%s', parent, to_char(start_date, 'YYYY'), to_char(start_date, 'MM'));
+    default_name TEXT := parent || '_default';
+    has_default_rows BOOLEAN := FALSE;
+    moved BIGINT;
+BEGIN
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    IF to_regclass(default_name) IS NOT NULL THEN
+        EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE "timestamp" >= %L AND "timestamp" < %L)',
+                       default_name, start_date, end_date) INTO has_default_rows;
+    END IF;
+
+    IF NOT has_default_rows THEN
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                       partition_name, parent, start_date, end_date);
+        RETURN partition_name;
+    END IF;
+
+    EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, default_name);
+    EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                   partition_name, parent, start_date, end_date);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE "timestamp" >= %L AND "timestamp" < %L RETURNING *) ' ||
+                   'INSERT INTO %I SELECT * FROM moved',
+                   default_name, start_date, end_date, partition_name);
+    GET DIAGNOSTICS moved = ROW_COUNT;
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent, default_name);
+    RAISE NOTICE 'Moved % rows from % into %', moved, default_name, partition_name;
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Rebuild each table as a partitioned table: one partition per month from the
+-- oldest existing row to three months ahead, plus a default partition so an
+-- insert never fails for lack of a partition. Existing rows are copied over.
+DO $$
+DECLARE
+    audit_table TEXT;
+    month DATE;
+BEGIN
+    FOREACH audit_table IN ARRAY ARRAY['account_audit_logs', 'transaction_audit_logs', 'user_audit_logs'] LOOP
+        EXECUTE format('ALTER TABLE %I RENAME TO %I', audit_table, audit_table || '_legacy');
+        EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS INCLUDING CONSTRAINTS) PARTITION BY RANGE ("timestamp")',
+                       audit_table, audit_table || '_legacy');
+
+        EXECUTE format('SELECT COALESCE(date_trunc(''month'', min("timestamp")), date_trunc(''month'', now()))::date FROM %I',
+                       audit_table || '_legacy') INTO month;
+        WHILE month <= (date_trunc('month', now()) + INTERVAL '3 months')::date LOOP
+            PERFORM create_audit_partition(audit_table, month);
+            month := (month + INTERVAL '1 month')::date;
+        END LOOP;
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I DEFAULT', audit_table || '_default', audit_table);
+
+        EXECUTE format('INSERT INTO %I SELECT * FROM %I', audit_table, audit_table || '_legacy');
+        EXECUTE format('DROP TABLE %I', audit_table || '_legacy');
+
+        -- The partition key has to be part of the primary key
+        EXECUTE format('ALTER TABLE %I ADD PRIMARY KEY (id, timestamp)', audit_table);
+    END LOOP;
+END $$;
+
+-- Fewer indexes per insert: service_name is constant per table and entity_type
+-- is only ever queried together with entity_id. BRIN suits the append-only timestamp.
+CREATE INDEX IF NOT EXISTS idx_account_entity ON account_audit_logs(entity_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_account_user_id ON account_audit_logs(user_id);
+CREATE INDEX IF NOT EXISTS idx_account_action ON account_audit_logs(action);
+CREATE INDEX IF NOT EXISTS idx_account_timestamp ON account_audit_logs USING BRIN (timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_transaction_entity ON transaction_audit_logs(entity_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_transaction_user_id ON transaction_audit_logs(user_id);
+CREATE INDEX IF NOT EXISTS idx_transaction_action ON transaction_audit_logs(action);
+CREATE INDEX IF NOT EXISTS idx_transaction_timestamp ON transaction_audit_logs USING BRIN (timestamp);
+
+CREATE INDEX IF NOT EXISTS idx_user_entity ON user_audit_logs(entity_id, timestamp);
+CREATE INDEX IF NOT EXISTS idx_user_user_id ON user_audit_logs(user_id);
+CREATE INDEX IF NOT EXISTS idx_user_action ON user_audit_logs(action);
+CREATE INDEX IF NOT EXISTS idx_user_timestamp ON user_audit_logs USING BRIN (timestamp);
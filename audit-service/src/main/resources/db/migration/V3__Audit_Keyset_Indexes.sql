@@ -0,0 +1,35 @@
+-- =======================================================
+-- Composite indexes for keyset pagination
+-- =======================================================
+
+-- Each keyset endpoint filters on one column and walks (timestamp, id)
+-- backwards from the cursor, so every filter gets a (filter, timestamp, id)
+-- index. The btree on (timestamp, id) serves the date-range scan in order,
+-- which the BRIN index could not.
+
+DROP INDEX IF EXISTS idx_account_entity;
+DROP INDEX IF EXISTS idx_account_user_id;
+DROP INDEX IF EXISTS idx_account_action;
+DROP INDEX IF EXISTS idx_account_timestamp;
+CREATE INDEX IF NOT EXISTS idx_account_entity_keyset ON account_audit_logs(entity_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_account_user_keyset ON account_audit_logs(user_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_account_action_keyset ON account_audit_logs(action, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_account_timestamp_keyset ON account_audit_logs(timestamp, id);
+
+DROP INDEX IF EXISTS idx_transaction_entity;
+DROP INDEX IF EXISTS idx_transaction_user_id;
+DROP INDEX IF EXISTS idx_transaction_action;
+DROP INDEX IF EXISTS idx_transaction_timestamp;
+CREATE INDEX IF NOT EXISTS idx_transaction_entity_keyset ON transaction_audit_logs(entity_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_user_keyset ON transaction_audit_logs(user_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_action_keyset ON transaction_audit_logs(action, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_transaction_timestamp_keyset ON transaction_audit_logs(timestamp, id);
+
+DROP INDEX IF EXISTS idx_user_entity;
+DROP INDEX IF EXISTS idx_user_user_id;
+DROP INDEX IF EXISTS idx_user_action;
+DROP INDEX IF EXISTS idx_user_timestamp;
+CREATE INDEX IF NOT EXISTS idx_user_entity_keyset ON user_audit_logs(entity_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_user_user_keyset ON user_audit_logs(user_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_user_action_keyset ON user_audit_logs(action, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_user_timestamp_keyset ON user_audit_logs(timestamp, id);
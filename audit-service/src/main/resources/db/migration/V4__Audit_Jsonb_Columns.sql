@@ -0,0 +1,38 @@
+-- =======================================================
+-- JSONB old/new values and metadata, with a GIN index on metadata
+-- =======================================================
+
+-- AuditService used to fall back to plain text when a value could not be
+-- serialized, so not every stored value is valid JSON. Those are kept as a
+-- JSON string instead of failing the migration.
+CREATE OR REPLACE FUNCTION audit_text_to_jsonb(value TEXT) RETURNS JSONB AS $$
+BEGIN
+    RETURN value::jsonb;
+EXCEPTION WHEN others THEN
+    RETURN to_jsonb(value);
+END;
+$$ LANGUAGE plpgsql IMMUTABLE;
+
+-- Altering the partitioned parent rewrites every partition, default included
+DO $$
+DECLARE
+    audit_table TEXT;
+BEGIN
+    FOREACH audit_table IN ARRAY ARRAY['account_audit_logs', 'transaction_audit_logs', 'user_audit_logs'] LOOP
+        EXECUTE format('ALTER TABLE %I ' ||
+                       'ALTER COLUMN old_values TYPE JSONB USING audit_text_to_jsonb(old_values), ' ||
+                       'ALTER COLUMN new_values TYPE JSONB USING audit_text_to_jsonb(new_values), ' ||
+                       'ALTER COLUMN metadata TYPE JSONB USING audit_text_to_jsonb(metadata)',
+                       audit_table);
+    END LOOP;
+END $$;
+
+DROP FUNCTION audit_text_to_jsonb(TEXT);
+
+-- jsonb_path_ops only serves @>, @? and @@ but is a fraction of the size of
+-- the default opclass. Metadata lookups (transactionId, receiverAccountId, ...)
+-- go through @>. old/new values are not queried, so they get no index: every
+-- extra index is paid on each insert into these append-heavy tables.
+CREATE INDEX IF NOT EXISTS idx_account_metadata ON account_audit_logs USING GIN (metadata jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_transaction_metadata ON transaction_audit_logs USING GIN (metadata jsonb_path_ops);
+CREATE INDEX IF NOT EXISTS idx_user_metadata ON user_audit_logs USING GIN (metadata jsonb_path_ops);
@@ -0,0 +1,132 @@
+package com.uit.auditservice.archive;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AuditSegment Round-Trip Tests")
+class AuditSegmentTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("Every entity's rows come back, in timestamp order, across block boundaries")
+    void testRoundTripAcrossBlocks() throws IOException {
+        // Mixed case, punctuation and a non-BMP character: String.compareTo orders these differently
+        List<String> entityIds = new ArrayList<>(List.of(
+                "ACC-9", "acc-1", "Acc_2", "acc.3", "a", "b-\uFFFD", "b-\uD83D\uDE00", "zz", "Z"));
+        entityIds.sort(AuditSegmentWriter::compareKeys);
+
+        Map<String, List<ArchivedAuditLog>> expected = new LinkedHashMap<>();
+        Path file = dir.resolve("account_audit_logs_y2024m01.seg");
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(file, 4, entityIds.size(), 0.01)) {
+            int n = 0;
+            for (String entityId : entityIds) {
+                // 1 to 9 rows each, so entities start mid-block and span several blocks
+                int rows = 1 + (n * 5) % 9;
+                for (int i = 0; i < rows; i++) {
+                    ArchivedAuditLog row = row(entityId, START.plusMinutes(n * 100L + i));
+                    writer.append(row);
+                    expected.computeIfAbsent(entityId, k -> new ArrayList<>()).add(row);
+                }
+                n++;
+            }
+            writer.finish();
+        }
+
+        AuditSegment segment = AuditSegment.open(file);
+        assertThat(segment.rowCount()).isEqualTo(expected.values().stream().mapToInt(List::size).sum());
+        for (Map.Entry<String, List<ArchivedAuditLog>> entity : expected.entrySet()) {
+            assertThat(segment.find("ACCOUNT", entity.getKey()))
+                    .as("rows of %s", entity.getKey())
+                    .containsExactlyElementsOf(entity.getValue());
+        }
+    }
+
+    @Test
+    @DisplayName("Unknown entities and other entity types return nothing")
+    void testMisses() throws IOException {
+        Path file = dir.resolve("user_audit_logs_y2024m01.seg");
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(file, 2, 3, 0.01)) {
+            for (String entityId : List.of("u-1", "u-2", "u-3")) {
+                writer.append(row(entityId, START));
+                writer.append(row(entityId, START.plusMinutes(1)));
+            }
+            writer.finish();
+        }
+
+        AuditSegment segment = AuditSegment.open(file);
+        assertThat(segment.find("ACCOUNT", "u-0")).isEmpty();
+        assertThat(segment.find("ACCOUNT", "u-4")).isEmpty();
+        assertThat(segment.find("USER", "u-2")).isEmpty();
+        assertThat(segment.find("ACCOUNT", "u-2")).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A single block segment and an empty segment can be read back")
+    void testSmallSegments() throws IOException {
+        Path single = dir.resolve("single.seg");
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(single, 256, 1, 0.01)) {
+            writer.append(row("only", START));
+            writer.finish();
+        }
+        assertThat(AuditSegment.open(single).find("ACCOUNT", "only")).hasSize(1);
+
+        Path empty = dir.resolve("empty.seg");
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(empty, 256, 0, 0.01)) {
+            writer.finish();
+        }
+        AuditSegment segment = AuditSegment.open(empty);
+        assertThat(segment.rowCount()).isZero();
+        assertThat(segment.find("ACCOUNT", "only")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Rows out of key order are rejected instead of producing an unsearchable segment")
+    void testRejectsUnsortedRows() throws IOException {
+        Path file = dir.resolve("unsorted.seg");
+        try (AuditSegmentWriter writer = new AuditSegmentWriter(file, 4, 2, 0.01)) {
+            writer.append(row("acc-1", START));
+            // en_US collation puts "ACC-2" after "acc-1"; code point order does not
+            assertThatThrownBy(() -> writer.append(row("ACC-2", START)))
+                    .isInstanceOf(IOException.class)
+                    .hasMessageContaining("not sorted");
+        }
+    }
+
+    @Test
+    @DisplayName("Key order is UTF-8 byte order, as Postgres sorts under COLLATE \"C\"")
+    void testKeyOrderMatchesUtf8Bytes() {
+        List<String> keys = List.of("a", "B", "b", "a-1", "a_1", "a.1", "\u00E9", "\uFFFD", "\uD83D\uDE00", "");
+        for (String a : keys) {
+            for (String b : keys) {
+                int bytes = Arrays.compareUnsigned(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
+                assertThat(Integer.signum(AuditSegmentWriter.compareKeys(a, b)))
+                        .as("%s vs %s", a, b)
+                        .isEqualTo(Integer.signum(bytes));
+            }
+        }
+    }
+
+    private static ArchivedAuditLog row(String entityId, LocalDateTime timestamp) {
+        return new ArchivedAuditLog(entityId + "@" + timestamp, "account-service", "ACCOUNT", entityId, "UPDATE",
+                "user-1", null, null, "{\"balance\":1}", "{\"balance\":2}", null, "SUCCESS", null,
+                "{\"transactionId\":\"t-1\"}", timestamp);
+    }
+}
@@ -0,0 +1,179 @@
+package com.uit.auditservice.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rabbitmq.client.Channel;
+import com.uit.auditservice.service.AuditService;
+import com.uit.sharedkernel.audit.AuditEventDto;
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditEventConsumer Unit Tests")
+class AuditEventConsumerTest {
+
+    @Mock
+    private AuditService auditService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private Channel channel;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    private AuditEventConsumer consumer;
+
+    @BeforeEach
+    void setUp() {
+        consumer = new AuditEventConsumer(auditService, objectMapper, rabbitTemplate);
+        ReflectionTestUtils.setField(consumer, "deadLetterQueue", RabbitMQConstants.AUDIT_DLQ);
+    }
+
+    @Test
+    @DisplayName("Single events and event arrays of one batch are stored together and acked once")
+    void testBatchStoredAndAckedOnce() throws Exception {
+        Message single = message(1, json(event("acc-1")));
+        Message array = message(2, json(List.of(event("acc-2"), event("acc-3"))));
+        Message last = message(3, json(event("acc-4")));
+
+        consumer.consumeAuditEvents(List.of(single, array, last), channel);
+
+        verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-1", "acc-2", "acc-3", "acc-4"))));
+        verify(channel).basicAck(3, true);
+        verify(channel, never()).basicNack(anyLong(), eq(true), eq(true));
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class));
+    }
+
+    @Test
+    @DisplayName("An unparseable message inside a batch is dead-lettered and the rest are stored")
+    void testPoisonMessageDeadLettered() throws Exception {
+        Message good = message(1, json(event("acc-1")));
+        Message poison = message(2, "{not json");
+        Message alsoGood = message(3, json(event("acc-3")));
+
+        consumer.consumeAuditEvents(List.of(good, poison, alsoGood), channel);
+
+        verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-1", "acc-3"))));
+        ArgumentCaptor<Message> deadLettered = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate).send(eq(""), eq(RabbitMQConstants.AUDIT_DLQ), deadLettered.capture());
+        assertThat(deadLettered.getValue()).isSameAs(poison);
+        assertThat((String) poison.getMessageProperties().getHeader(AuditEventConsumer.ERROR_HEADER)).isNotBlank();
+        verify(channel).basicAck(3, true);
+    }
+
+    @Test
+    @DisplayName("An event that fails validation is dead-lettered with the reason")
+    void testInvalidEventDeadLettered() throws Exception {
+        AuditEventDto invalid = event("acc-2");
+        invalid.setResult("MAYBE");
+        // lenient: the stub only matches the invalid event, the valid one is validated too
+        lenient().doThrow(new IllegalArgumentException("Unsupported audit result: MAYBE"))
+                .when(auditService).validate(argThat(event -> "MAYBE".equals(event.getResult())));
+        Message bad = message(2, json(invalid));
+
+        consumer.consumeAuditEvents(List.of(message(1, json(event("acc-1"))), bad), channel);
+
+        verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-1"))));
+        verify(rabbitTemplate).send("", RabbitMQConstants.AUDIT_DLQ, bad);
+        assertThat((String) bad.getMessageProperties().getHeader(AuditEventConsumer.ERROR_HEADER))
+                .isEqualTo("Unsupported audit result: MAYBE");
+        verify(channel).basicAck(2, true);
+    }
+
+    @Test
+    @DisplayName("When the batch insert fails each message is retried alone and only the failing one is dead-lettered")
+    void testPerMessageRetryAfterBatchFailure() throws Exception {
+        Message first = message(1, json(event("acc-1")));
+        Message failing = message(2, json(List.of(event("acc-2"), event("broken"))));
+        Message third = message(3, json(event("acc-3")));
+        lenient().doThrow(new DataIntegrityViolationException("value too long"))
+                .when(auditService).logAuditEvents(argThat(events -> entityIds(events).contains("broken")));
+
+        consumer.consumeAuditEvents(List.of(first, failing, third), channel);
+
+        var order = inOrder(auditService);
+        order.verify(auditService).logAuditEvents(argThat(events -> events.size() == 4));
+        order.verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-1"))));
+        order.verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-2", "broken"))));
+        order.verify(auditService).logAuditEvents(argThat(events -> entityIds(events).equals(List.of("acc-3"))));
+        verify(rabbitTemplate, times(1)).send(anyString(), anyString(), any(Message.class));
+        verify(rabbitTemplate).send("", RabbitMQConstants.AUDIT_DLQ, failing);
+        verify(channel).basicAck(3, true);
+    }
+
+    @Test
+    @DisplayName("A message the DLQ cannot take is discarded and the batch is still acked")
+    void testDeadLetterFailureStillAcks() throws Exception {
+        doThrow(new AmqpConnectException(new ConnectException("broker down")))
+                .when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+        consumer.consumeAuditEvents(List.of(message(7, "[1, 2")), channel);
+
+        verify(auditService).logAuditEvents(List.of());
+        verify(channel).basicAck(7, true);
+    }
+
+    @Test
+    @DisplayName("An empty delivery is neither stored nor acked")
+    void testEmptyBatch() throws Exception {
+        consumer.consumeAuditEvents(List.of(), channel);
+
+        verify(auditService, never()).logAuditEvents(anyList());
+        verify(channel, never()).basicAck(anyLong(), eq(true));
+    }
+
+    private String json(Object value) throws Exception {
+        return objectMapper.writeValueAsString(value);
+    }
+
+    private static Message message(long deliveryTag, String body) {
+        MessageProperties properties = new MessageProperties();
+        properties.setDeliveryTag(deliveryTag);
+        return new Message(body.getBytes(StandardCharsets.UTF_8), properties);
+    }
+
+    private static List<String> entityIds(List<AuditEventDto> events) {
+        return events.stream().map(AuditEventDto::getEntityId).toList();
+    }
+
+    private static AuditEventDto event(String entityId) {
+        return AuditEventDto.builder()
+                .serviceName("account-service")
+                .entityType("Account")
+                .entityId(entityId)
+                .action("TRANSFER")
+                .result("SUCCESS")
+                .build();
+    }
+}
@@ -0,0 +1,138 @@
+package com.uit.auditservice.partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Partition rollover and retention against the real migrations. Skipped when
+ * Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("AuditPartitionManager Postgres Integration Tests")
+class AuditPartitionManagerPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        jdbcTemplate = new JdbcTemplate(
+                new DriverManagerDataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword()));
+    }
+
+    @Test
+    @DisplayName("Partitions are created months ahead and rows for those months land in them, not the default")
+    void testCreatesPartitionsAhead() {
+        YearMonth current = YearMonth.now();
+        // The migration created three months ahead; the manager extends that to six
+        manager(6, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+        manager(6, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        for (String table : AuditPartitionManager.AUDIT_TABLES) {
+            for (int i = 0; i <= 6; i++) {
+                assertThat(isAttached(table, partition(table, current.plusMonths(i))))
+                        .as("%s partition for %s", table, current.plusMonths(i))
+                        .isTrue();
+            }
+        }
+
+        String id = insert("transaction_audit_logs", current.plusMonths(5));
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM transaction_audit_logs WHERE id = ?", String.class, id))
+                .isEqualTo(partition("transaction_audit_logs", current.plusMonths(5)));
+    }
+
+    @Test
+    @DisplayName("A partition past retention is detached and kept with its rows, or dropped")
+    void testExpiresOldPartitions() {
+        YearMonth expired = YearMonth.now().minusMonths(14);
+        createPartition("account_audit_logs", expired);
+        String id = insert("account_audit_logs", expired);
+
+        manager(3, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        String detached = partition("account_audit_logs", expired);
+        assertThat(isAttached("account_audit_logs", detached)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM account_audit_logs WHERE id = ?", Long.class, id))
+                .isZero();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM " + detached + " WHERE id = ?", Long.class, id))
+                .isOne();
+
+        createPartition("user_audit_logs", expired);
+        manager(3, AuditPartitionManager.RetentionAction.DROP).maintainPartitions();
+
+        assertThat(jdbcTemplate.queryForObject("SELECT to_regclass(?)::text", String.class,
+                partition("user_audit_logs", expired))).isNull();
+    }
+
+    @Test
+    @DisplayName("Rows already in the default partition move into their month's partition when it is created")
+    void testMovesDefaultRowsIntoNewPartition() {
+        YearMonth future = YearMonth.now().plusMonths(9);
+        String early = insert("user_audit_logs", future);
+        String later = insert("user_audit_logs", future.plusMonths(1));
+        assertThat(partitionOf("user_audit_logs", early)).isEqualTo("user_audit_logs_default");
+
+        manager(9, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        assertThat(isAttached("user_audit_logs", partition("user_audit_logs", future))).isTrue();
+        assertThat(isAttached("user_audit_logs", "user_audit_logs_default")).isTrue();
+        assertThat(partitionOf("user_audit_logs", early)).isEqualTo(partition("user_audit_logs", future));
+        // The month after months-ahead has no partition yet and stays in the default
+        assertThat(partitionOf("user_audit_logs", later)).isEqualTo("user_audit_logs_default");
+    }
+
+    private static String partitionOf(String table, String id) {
+        return jdbcTemplate.queryForObject(
+                "SELECT tableoid::regclass::text FROM " + table + " WHERE id = ?", String.class, id);
+    }
+
+    private static AuditPartitionManager manager(int monthsAhead, AuditPartitionManager.RetentionAction action) {
+        return new AuditPartitionManager(jdbcTemplate, new SimpleMeterRegistry(), POSTGRES.getJdbcUrl(), monthsAhead, 12, action);
+    }
+
+    private static void createPartition(String table, YearMonth month) {
+        jdbcTemplate.queryForObject("SELECT create_audit_partition(?, ?)", String.class, table, Date.valueOf(month.atDay(1)));
+    }
+
+    private static boolean isAttached(String table, String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM pg_inherits i " +
+                "JOIN pg_class c ON c.oid = i.inhrelid JOIN pg_class p ON p.oid = i.inhparent " +
+                "WHERE p.relname = ? AND c.relname = ?)", Boolean.class, table, partition));
+    }
+
+    private static String insert(String table, YearMonth month) {
+        String id = UUID.randomUUID().toString();
+        jdbcTemplate.update("INSERT INTO " + table + " (id, service_name, entity_type, entity_id, action, timestamp) " +
+                        "VALUES (?, 'account-service', 'Account', 'acc-1', 'CREATE', ?)",
+                id, Timestamp.valueOf(month.atDay(15).atTime(12, 0)));
+        return id;
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
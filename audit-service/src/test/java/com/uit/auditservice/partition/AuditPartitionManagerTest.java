@@ -0,0 +1,123 @@
+package com.uit.auditservice.partition;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditPartitionManager Unit Tests")
+class AuditPartitionManagerTest {
+
+    private static final String POSTGRES_URL = "jdbc:postgresql://localhost:5432/audit";
+    private static final String CREATE = "SELECT create_audit_partition(?, ?)";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("Partitions are created for the current month and months-ahead after it, for every table")
+    void testCreatesPartitionsAhead() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString())).thenReturn(List.of());
+
+        manager(2, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        YearMonth current = YearMonth.now();
+        for (String table : AuditPartitionManager.AUDIT_TABLES) {
+            for (int i = 0; i <= 2; i++) {
+                verify(jdbcTemplate).queryForObject(CREATE, String.class, table, Date.valueOf(current.plusMonths(i).atDay(1)));
+            }
+        }
+        verify(jdbcTemplate, times(9)).queryForObject(eq(CREATE), eq(String.class), any(), any());
+    }
+
+    @Test
+    @DisplayName("A partition that cannot be created does not stop the others and is counted as a failure")
+    void testCreateFailureIsIsolated() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString())).thenReturn(List.of());
+        lenient().when(jdbcTemplate.queryForObject(eq(CREATE), eq(String.class), eq("account_audit_logs"), any()))
+                .thenThrow(new DataAccessResourceFailureException("rows already in default partition"));
+
+        manager(0, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        verify(jdbcTemplate).queryForObject(eq(CREATE), eq(String.class), eq("transaction_audit_logs"), any());
+        verify(jdbcTemplate).queryForObject(eq(CREATE), eq(String.class), eq("user_audit_logs"), any());
+        assertThat(meterRegistry.get("audit.partition.maintenance.failures")
+                .tag("table", "account_audit_logs").tag("operation", "create").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Only partitions older than the retention window are detached; the default partition stays")
+    void testDetachesExpiredPartitions() {
+        YearMonth current = YearMonth.now();
+        String expired = partition("account_audit_logs", current.minusMonths(13));
+        String oldestKept = partition("account_audit_logs", current.minusMonths(12));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("account_audit_logs")))
+                .thenReturn(List.of("account_audit_logs_default", expired, oldestKept));
+
+        manager(0, AuditPartitionManager.RetentionAction.DETACH).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE \"account_audit_logs\" DETACH PARTITION \"" + expired + "\"");
+        verify(jdbcTemplate, times(1)).execute(anyString());
+    }
+
+    @Test
+    @DisplayName("With retention-action DROP an expired partition is detached and then dropped")
+    void testDropsExpiredPartitions() {
+        String expired = partition("user_audit_logs", YearMonth.now().minusYears(2));
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), anyString())).thenReturn(List.of());
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("user_audit_logs"))).thenReturn(List.of(expired));
+
+        manager(0, AuditPartitionManager.RetentionAction.DROP).maintainPartitions();
+
+        verify(jdbcTemplate).execute("ALTER TABLE \"user_audit_logs\" DETACH PARTITION \"" + expired + "\"");
+        verify(jdbcTemplate).execute("DROP TABLE \"" + expired + "\"");
+    }
+
+    @Test
+    @DisplayName("Maintenance is skipped on a datasource that is not PostgreSQL")
+    void testSkipsOtherDatabases() {
+        new AuditPartitionManager(jdbcTemplate, meterRegistry, "jdbc:h2:mem:audit", 3, 12, AuditPartitionManager.RetentionAction.DROP)
+                .maintainPartitions();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("partitionMonth reads the month from a partition name and ignores the default partition")
+    void testPartitionMonth() {
+        assertThat(AuditPartitionManager.partitionMonth("transaction_audit_logs_y2024m02"))
+                .contains(YearMonth.of(2024, 2));
+        assertThat(AuditPartitionManager.partitionMonth("transaction_audit_logs_default")).isEmpty();
+        assertThat(AuditPartitionManager.partitionMonth("transaction_audit_logs_y2024m02_old")).isEmpty();
+    }
+
+    private AuditPartitionManager manager(int monthsAhead, AuditPartitionManager.RetentionAction action) {
+        return new AuditPartitionManager(jdbcTemplate, meterRegistry, POSTGRES_URL, monthsAhead, 12, action);
+    }
+
+    private static String partition(String table, YearMonth month) {
+        return String.format("%s_y%04dm%02d", table, month.getYear(), month.getMonthValue());
+    }
+}
@@ -0,0 +1,58 @@
+package com.uit.auditservice.query;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.exception.AppException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AuditMetadataFilter Unit Tests")
+class AuditMetadataFilterTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    @DisplayName("The id keys become one containment document, absent keys left out")
+    void testContainment() {
+        AuditMetadataFilter filter = new AuditMetadataFilter("tx-1", null, "acc-\"2\"", null, null);
+
+        assertThat(filter.containment(objectMapper))
+                .isEqualTo("{\"transactionId\":\"tx-1\",\"receiverAccountId\":\"acc-\\\"2\\\"\"}");
+        assertThat(AuditMetadataFilter.forTransaction("tx-9").containment(objectMapper))
+                .isEqualTo("{\"transactionId\":\"tx-9\"}");
+    }
+
+    @Test
+    @DisplayName("Only numeric amounts reach the SQL cast")
+    void testAmountSqlGuard() {
+        Matcher guard = Pattern.compile("~ '([^']+)'").matcher(AuditMetadataFilter.AMOUNT_SQL);
+        assertThat(guard.find()).isTrue();
+        Pattern numeric = Pattern.compile(guard.group(1));
+
+        for (String amount : List.of("100", "100.10", "-5.5", "9007199254740993", "1E+3", "2.5e-2")) {
+            assertThat(numeric.matcher(amount).matches()).as(amount).isTrue();
+        }
+        for (String amount : List.of("n/a", "", "1.", ".5", "1,000", "NaN", "12 USD")) {
+            assertThat(numeric.matcher(amount).matches()).as(amount).isFalse();
+        }
+        assertThat(AuditMetadataFilter.AMOUNT_SQL).contains("CAST(a.metadata->>'amount' AS numeric)");
+    }
+
+    @Test
+    @DisplayName("A filter needs an id key and a range that is not inverted")
+    void testValidation() {
+        assertThatThrownBy(() -> new AuditMetadataFilter(null, null, null, BigDecimal.ONE, null))
+                .isInstanceOf(AppException.class)
+                .hasMessageContaining("transactionId");
+        assertThatThrownBy(() -> new AuditMetadataFilter("tx-1", null, null, BigDecimal.TEN, BigDecimal.ONE))
+                .isInstanceOf(AppException.class)
+                .hasMessage("minAmount is greater than maxAmount");
+    }
+}
@@ -0,0 +1,109 @@
+package com.uit.auditservice.query;
+
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("KeysetCursor Unit Tests")
+class KeysetCursorTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+    /**
+     * (timestamp DESC, id DESC), the order of every keyset scan
+     */
+    private static final Comparator<Row> NEWEST_FIRST =
+            Comparator.comparing(Row::timestamp).thenComparing(Row::id).reversed();
+
+    private record Row(LocalDateTime timestamp, String id) {
+    }
+
+    @Test
+    @DisplayName("A cursor survives encode and decode, fractional seconds and separators in the id included")
+    void testRoundTrip() {
+        KeysetCursor cursor = new KeysetCursor(T0, "a|b-7f3c");
+
+        String token = cursor.encode();
+
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(KeysetCursor.decode(token)).isEqualTo(cursor);
+    }
+
+    @Test
+    @DisplayName("No cursor starts the scan at the newest row")
+    void testMissingCursorIsStart() {
+        assertThat(KeysetCursor.decode(null)).isSameAs(KeysetCursor.START);
+        assertThat(KeysetCursor.decode(" ")).isSameAs(KeysetCursor.START);
+        assertThat(KeysetCursor.START.timestamp()).isAfter(LocalDateTime.now().plusYears(100));
+    }
+
+    @Test
+    @DisplayName("A tampered or malformed cursor is a bad request")
+    void testInvalidCursor() {
+        String noSeparator = Base64.getUrlEncoder().encodeToString("2024-05-01T12:00".getBytes(StandardCharsets.UTF_8));
+        String badTimestamp = Base64.getUrlEncoder().encodeToString("yesterday|id".getBytes(StandardCharsets.UTF_8));
+
+        for (String token : List.of("not*base64", noSeparator, badTimestamp)) {
+            assertThatThrownBy(() -> KeysetCursor.decode(token))
+                    .as(token)
+                    .isInstanceOf(AppException.class)
+                    .hasMessage("Invalid cursor")
+                    .extracting(e -> ((AppException) e).getErrorCode())
+                    .isEqualTo(ErrorCode.BAD_REQUEST);
+        }
+    }
+
+    @Test
+    @DisplayName("A full page points at its last row; a short or exact page has no next cursor")
+    void testPageBoundary() {
+        List<Row> rows = List.of(new Row(T0, "c"), new Row(T0, "b"), new Row(T0.minusSeconds(1), "z"));
+
+        KeysetPage<Row> full = KeysetPage.of(rows, 2, Row::timestamp, Row::id, null);
+        assertThat(full.items()).containsExactly(rows.get(0), rows.get(1));
+        assertThat(KeysetCursor.decode(full.nextCursor())).isEqualTo(new KeysetCursor(T0, "b"));
+
+        assertThat(KeysetPage.of(rows.subList(0, 2), 2, Row::timestamp, Row::id, null).nextCursor()).isNull();
+        assertThat(KeysetPage.limit(2).getPageSize()).isEqualTo(3);
+        assertThat(KeysetPage.limit(10_000).getPageSize()).isEqualTo(KeysetPage.MAX_SIZE + 1);
+    }
+
+    @Test
+    @DisplayName("Paging through rows that share a timestamp across page breaks returns each row exactly once")
+    void testWalkAcrossTiedTimestamps() {
+        List<Row> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Five rows on the same millisecond, so every page break falls inside the tie
+            rows.add(new Row(i < 5 ? T0 : T0.minusMinutes(i), "id-" + i));
+        }
+        rows.sort(NEWEST_FIRST);
+
+        List<Row> seen = new ArrayList<>();
+        KeysetCursor after = KeysetCursor.decode(null);
+        for (int pages = 0; pages < 10; pages++) {
+            KeysetCursor cursor = after;
+            List<Row> fetched = rows.stream()
+                    .filter(row -> NEWEST_FIRST.compare(row, new Row(cursor.timestamp(), cursor.id())) > 0)
+                    .limit(KeysetPage.limit(2).getPageSize())
+                    .toList();
+            KeysetPage<Row> page = KeysetPage.of(fetched, 2, Row::timestamp, Row::id, null);
+            seen.addAll(page.items());
+            if (page.nextCursor() == null) {
+                break;
+            }
+            after = KeysetCursor.decode(page.nextCursor());
+        }
+
+        assertThat(seen).containsExactlyElementsOf(rows);
+    }
+}
@@ -0,0 +1,149 @@
+package com.uit.auditservice.repository;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.auditservice.entity.TransactionAuditLog;
+import com.uit.auditservice.query.AuditMetadataFilter;
+import com.uit.auditservice.query.KeysetCursor;
+import com.uit.auditservice.query.KeysetPage;
+import com.uit.auditservice.service.AuditService;
+import com.uit.sharedkernel.audit.AuditEventDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Keyset scans and metadata filters against the real migrations and partitions.
+ * Rows are written through AuditService, as the consumer does. Skipped when
+ * Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DataJpaTest(properties = "spring.cloud.config.enabled=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(AuditService.class)
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@DisplayName("Audit Log Repository Postgres Integration Tests")
+class AuditLogRepositoryPostgresTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2024, 5, 1, 12, 0, 0, 123_456_000);
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private TransactionAuditLogRepository repository;
+
+    @Autowired
+    private AuditService auditService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    @DisplayName("Paging an entity's history, ties on timestamp included, returns every row once in order")
+    void testScrollAcrossPageBoundaries() {
+        List<AuditEventDto> events = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Five events on the same instant, so the page breaks fall inside the tie
+            events.add(event("tx-1", i < 5 ? T0 : T0.minusDays(i * 20L)));
+        }
+        events.add(event("tx-2", T0));
+        auditService.logAuditEvents(events);
+        List<String> expected = jdbcTemplate.queryForList(
+                "SELECT id FROM transaction_audit_logs WHERE entity_id = 'tx-1' ORDER BY timestamp DESC, id DESC",
+                String.class);
+
+        List<String> seen = new ArrayList<>();
+        String token = null;
+        for (int pages = 0; pages < 10; pages++) {
+            KeysetCursor after = KeysetCursor.decode(token);
+            KeysetPage<TransactionAuditLog> page = KeysetPage.of(
+                    repository.scrollByEntityId("tx-1", after.timestamp(), after.id(), KeysetPage.limit(2)),
+                    2, TransactionAuditLog::getTimestamp, TransactionAuditLog::getId, null);
+            page.items().forEach(row -> seen.add(row.getId()));
+            token = page.nextCursor();
+            if (token == null) {
+                break;
+            }
+        }
+
+        assertThat(expected).hasSize(7);
+        assertThat(seen).containsExactlyElementsOf(expected);
+    }
+
+    @Test
+    @DisplayName("The metadata filter runs as SQL: ids through containment, amounts compared as exact decimals")
+    void testMetadataFilter() {
+        // 2^53 and 2^53 + 1 are the same double, so only an exact comparison tells them apart
+        auditService.logAuditEvents(List.of(
+                withMetadata("m-1", "acc-1", new BigDecimal("9007199254740992")),
+                withMetadata("m-2", "acc-1", new BigDecimal("9007199254740993")),
+                withMetadata("m-3", "acc-1", "9007199254740993"),
+                withMetadata("m-4", "acc-1", "n/a"),
+                withMetadata("m-5", "acc-2", new BigDecimal("9007199254740993"))));
+
+        assertThat(scrollByMetadata(new AuditMetadataFilter(null, "acc-1", null, null, null)))
+                .containsExactlyInAnyOrder("m-1", "m-2", "m-3", "m-4");
+        assertThat(scrollByMetadata(new AuditMetadataFilter(null, "acc-1", null,
+                new BigDecimal("9007199254740993"), null)))
+                .containsExactlyInAnyOrder("m-2", "m-3");
+        assertThat(scrollByMetadata(new AuditMetadataFilter(null, "acc-1", null,
+                null, new BigDecimal("9007199254740992.99"))))
+                .containsExactly("m-1");
+        assertThat(scrollByMetadata(new AuditMetadataFilter("tx-m-5", null, null,
+                new BigDecimal("9007199254740993"), new BigDecimal("9007199254740993"))))
+                .containsExactly("m-5");
+    }
+
+    private List<String> scrollByMetadata(AuditMetadataFilter filter) {
+        return repository.scrollByMetadata(filter.containment(objectMapper), filter.minAmount(), filter.maxAmount(),
+                        KeysetCursor.START.timestamp(), KeysetCursor.START.id(), KeysetPage.limit(50)).stream()
+                .map(TransactionAuditLog::getEntityId)
+                .toList();
+    }
+
+    private static AuditEventDto withMetadata(String entityId, String senderAccountId, Object amount) {
+        AuditEventDto event = event(entityId, T0);
+        event.setMetadata(Map.of("transactionId", "tx-" + entityId, "senderAccountId", senderAccountId, "amount", amount));
+        return event;
+    }
+
+    private static AuditEventDto event(String entityId, LocalDateTime timestamp) {
+        return AuditEventDto.builder()
+                .serviceName("transaction-service")
+                .entityType("Transaction")
+                .entityId(entityId)
+                .action("TRANSFER")
+                .result("SUCCESS")
+                .timestamp(timestamp)
+                .build();
+    }
+}
@@ -0,0 +1,164 @@
+package com.uit.auditservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.audit.AuditEventDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditService Unit Tests")
+class AuditServiceTest {
+
+    private static final LocalDateTime AT = LocalDateTime.of(2024, 5, 1, 12, 30);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private AuditService auditService;
+
+    @BeforeEach
+    void setUp() {
+        auditService = new AuditService(jdbcTemplate, new ObjectMapper().findAndRegisterModules());
+    }
+
+    @Test
+    @DisplayName("A mixed batch becomes one JDBC batch per audit table, in arrival order")
+    @SuppressWarnings("unchecked")
+    void testOneJdbcBatchPerTable() {
+        AuditEventDto account1 = event("account-service", "acc-1");
+        AuditEventDto transaction = event("transaction-service", "tx-1");
+        AuditEventDto account2 = event("ACCOUNT-SERVICE", "acc-2");
+        AuditEventDto user = event("user-service", "user-1");
+        AuditEventDto unknown = event("card-service", "card-1");
+
+        auditService.logAuditEvents(List.of(account1, transaction, account2, unknown, user));
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<Collection<AuditEventDto>> rows = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<Integer> batchSize = ArgumentCaptor.forClass(Integer.class);
+        verify(jdbcTemplate, times(3)).batchUpdate(sql.capture(), rows.capture(), batchSize.capture(),
+                any(ParameterizedPreparedStatementSetter.class));
+        assertThat(sql.getAllValues()).extracting(statement -> statement.split(" ")[2])
+                .containsExactly("account_audit_logs", "transaction_audit_logs", "user_audit_logs");
+        assertThat(rows.getAllValues()).containsExactly(List.of(account1, account2), List.of(transaction), List.of(user));
+        assertThat(batchSize.getAllValues()).containsExactly(2, 1, 1);
+    }
+
+    @Test
+    @DisplayName("Each row binds every column, with JSON fields ready for the jsonb casts")
+    @SuppressWarnings("unchecked")
+    void testRowBinding() throws Exception {
+        AuditEventDto event = event("account-service", "acc-1");
+        event.setUserId("user-1");
+        event.setOldValues(Map.of("balance", 10));
+        event.setNewValues("{\"balance\": 5}");
+        event.setMetadata("plain text");
+        event.setChanges("balance 10 -> 5");
+        event.setTimestamp(AT);
+
+        auditService.logAuditEvents(List.of(event));
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<AuditEventDto>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.getValue().setValues(ps, event);
+
+        verify(ps).setString(eq(1), any(String.class));
+        verify(ps).setString(2, "account-service");
+        verify(ps).setString(4, "acc-1");
+        verify(ps).setString(6, "user-1");
+        verify(ps).setString(9, "{\"balance\":10}");
+        // Strings that already hold JSON pass through; anything else becomes a JSON string
+        verify(ps).setString(10, "{\"balance\": 5}");
+        verify(ps).setString(14, "\"plain text\"");
+        verify(ps).setString(11, "balance 10 -> 5");
+        verify(ps).setString(12, "SUCCESS");
+        verify(ps).setTimestamp(15, Timestamp.valueOf(AT));
+    }
+
+    @Test
+    @DisplayName("An event without a timestamp is stored with the current time")
+    @SuppressWarnings("unchecked")
+    void testMissingTimestampDefaultsToNow() throws Exception {
+        AuditEventDto event = event("user-service", "user-1");
+
+        auditService.logAuditEvents(List.of(event));
+
+        ArgumentCaptor<ParameterizedPreparedStatementSetter<AuditEventDto>> setter =
+                ArgumentCaptor.forClass(ParameterizedPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), any(Collection.class), anyInt(), setter.capture());
+        PreparedStatement ps = mock(PreparedStatement.class);
+        LocalDateTime before = LocalDateTime.now();
+        setter.getValue().setValues(ps, event);
+
+        ArgumentCaptor<Timestamp> timestamp = ArgumentCaptor.forClass(Timestamp.class);
+        verify(ps).setTimestamp(eq(15), timestamp.capture());
+        assertThat(timestamp.getValue().toLocalDateTime()).isAfterOrEqualTo(before);
+        verify(ps).setString(9, null);
+    }
+
+    @Test
+    @DisplayName("A batch of unknown services writes nothing")
+    @SuppressWarnings("unchecked")
+    void testUnknownServicesOnly() {
+        auditService.logAuditEvents(List.of(event("card-service", "card-1")));
+
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(Collection.class), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+    }
+
+    @Test
+    @DisplayName("validate rejects events the audit tables would refuse")
+    void testValidate() {
+        assertThatNoException().isThrownBy(() -> auditService.validate(event("account-service", "acc-1")));
+
+        AuditEventDto missingAction = event("account-service", "acc-1");
+        missingAction.setAction(null);
+        assertThatThrownBy(() -> auditService.validate(missingAction))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing");
+
+        AuditEventDto badResult = event("account-service", "acc-1");
+        badResult.setResult("MAYBE");
+        assertThatThrownBy(() -> auditService.validate(badResult))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Unsupported audit result: MAYBE");
+    }
+
+    private static AuditEventDto event(String serviceName, String entityId) {
+        return AuditEventDto.builder()
+                .serviceName(serviceName)
+                .entityType("Account")
+                .entityId(entityId)
+                .action("TRANSFER")
+                .result("SUCCESS")
+                .build();
+    }
+}
@@ -0,0 +1,93 @@
+package com.uit.notificationservice.cache;
+
+import com.uit.notificationservice.entity.UserPreference;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Write-behind for default preferences of users seen for the first time.
+ *
+ * The listener no longer inserts on its own thread: defaults are queued here
+ * and inserted in one JDBC batch per flush. Inserts use ON CONFLICT DO NOTHING,
+ * so a preference the user saved in the meantime (or another replica's default)
+ * is never overwritten.
+ */
+@Slf4j
+@Component
+public class DefaultPreferenceWriter {
+
+    private static final String INSERT_SQL = "INSERT INTO user_preference (user_id, phone_number, email, device_token, " +
+            "push_notification_enabled, sms_notification_enabled, email_notification_enabled) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?) ON CONFLICT (user_id) DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final Map<String, UserPreference> pending = new ConcurrentHashMap<>();
+
+    public DefaultPreferenceWriter(JdbcTemplate jdbcTemplate,
+                                   @Value("${notification.preference-cache.default-batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void enqueue(UserPreference preference) {
+        pending.putIfAbsent(preference.getUserId(), preference);
+    }
+
+    /**
+     * Drop a queued default, e.g. because the user just saved real preferences
+     */
+    public void discard(String userId) {
+        pending.remove(userId);
+    }
+
+    @Scheduled(fixedDelayString = "${notification.preference-cache.default-flush-interval-ms:1000}")
+    public void flush() {
+        while (!pending.isEmpty()) {
+            List<UserPreference> batch = new ArrayList<>(Math.min(pending.size(), batchSize));
+            for (String userId : pending.keySet()) {
+                UserPreference preference = pending.remove(userId);
+                if (preference != null) {
+                    batch.add(preference);
+                }
+                if (batch.size() >= batchSize) {
+                    break;
+                }
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            try {
+                jdbcTemplate.batchUpdate(INSERT_SQL, batch, batch.size(), (ps, preference) -> {
+                    ps.setString(1, preference.getUserId());
+                    ps.setString(2, preference.getPhoneNumber());
+                    ps.setString(3, preference.getEmail());
+                    ps.setString(4, preference.getDeviceToken());
+                    ps.setBoolean(5, preference.isPushNotificationEnabled());
+                    ps.setBoolean(6, preference.isSmsNotificationEnabled());
+                    ps.setBoolean(7, preference.isEmailNotificationEnabled());
+                });
+                log.debug("Inserted {} default user preferences", batch.size());
+            } catch (Exception e) {
+                // Requeue; the cache keeps serving the defaults meanwhile
+                batch.forEach(this::enqueue);
+                log.warn("Failed to insert {} default user preferences: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushOnShutdown() {
+        flush();
+    }
+}
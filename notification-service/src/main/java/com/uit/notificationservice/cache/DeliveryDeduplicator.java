@@ -0,0 +1,96 @@
+package com.uit.notificationservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Drops repeated transaction notifications before any lookup or send.
+ *
+ * transaction-service may publish the same completion more than once (webhook
+ * and polling paths), and RabbitMQ redelivers unacked messages. Each
+ * (transactionId, eventType, recipient) is claimed once: first in a local
+ * Caffeine set, which catches repeats on this instance without I/O, then with
+ * a Redis SET NX and a TTL when notification.dedupe.redis.enabled is set, so
+ * replicas agree. If Redis is unreachable the local answer stands and the
+ * notification is sent.
+ */
+@Slf4j
+@Component
+public class DeliveryDeduplicator {
+
+    static final String REDIS_KEY_PREFIX = "notification-delivered:";
+
+    private final Cache<String, Boolean> seen;
+    private final StringRedisTemplate redisTemplate;
+    private final Duration ttl;
+
+    private final Counter firstDeliveries;
+    private final Counter localDuplicates;
+    private final Counter redisDuplicates;
+
+    public DeliveryDeduplicator(ObjectProvider<StringRedisTemplate> redisTemplate,
+                                MeterRegistry meterRegistry,
+                                @Value("${notification.dedupe.ttl-seconds:86400}") long ttlSeconds,
+                                @Value("${notification.dedupe.local.max-size:200000}") long localMaxSize,
+                                @Value("${notification.dedupe.redis.enabled:false}") boolean redisEnabled) {
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.ttl = Duration.ofSeconds(ttlSeconds);
+        this.seen = Caffeine.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(ttl)
+                .build();
+
+        this.firstDeliveries = dedupeCounter(meterRegistry, "first");
+        this.localDuplicates = dedupeCounter(meterRegistry, "duplicate_local");
+        this.redisDuplicates = dedupeCounter(meterRegistry, "duplicate_redis");
+    }
+
+    /**
+     * Claim the delivery.
+     *
+     * @param recipient who is notified, including the role, e.g. "receiver:user-1"
+     * @return true the first time for this key within the TTL, false for a repeat
+     */
+    public boolean claim(String transactionId, String eventType, String recipient) {
+        if (transactionId == null) {
+            return true;
+        }
+        String key = transactionId + ':' + eventType + ':' + recipient;
+
+        if (seen.asMap().putIfAbsent(key, Boolean.TRUE) != null) {
+            localDuplicates.increment();
+            return false;
+        }
+
+        if (redisTemplate != null) {
+            try {
+                Boolean claimed = redisTemplate.opsForValue().setIfAbsent(REDIS_KEY_PREFIX + key, "1", ttl);
+                if (Boolean.FALSE.equals(claimed)) {
+                    redisDuplicates.increment();
+                    return false;
+                }
+            } catch (Exception e) {
+                log.warn("Redis dedupe check failed for {}, sending anyway: {}", key, e.getMessage());
+            }
+        }
+
+        firstDeliveries.increment();
+        return true;
+    }
+
+    private static Counter dedupeCounter(MeterRegistry registry, String result) {
+        return Counter.builder("notification.dedupe")
+                .description("Transaction notification delivery claims by outcome")
+                .tag("result", result)
+                .register(registry);
+    }
+}
@@ -0,0 +1,169 @@
+package com.uit.notificationservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uit.notificationservice.entity.UserPreference;
+import com.uit.notificationservice.repository.UserPreferenceRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache of user notification preferences for the listeners.
+ *
+ * L1 is a per-instance Caffeine cache. When notification.preference-cache.redis.enabled
+ * is set, Redis is a shared L2 and evictions are broadcast on a Redis channel so
+ * every replica drops its L1 entry. Users without a stored preference get the
+ * defaults at once; the row is inserted later by {@link DefaultPreferenceWriter}.
+ */
+@Slf4j
+@Component
+public class UserPreferenceCache {
+
+    static final String REDIS_KEY_PREFIX = "notification-preference:";
+    public static final String INVALIDATION_CHANNEL = "notification-preference:invalidate";
+
+    private final Cache<String, UserPreference> nearCache;
+    private final UserPreferenceRepo userPreferenceRepo;
+    private final DefaultPreferenceWriter defaultPreferenceWriter;
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration redisTtl;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+    private final Counter defaultsCreated;
+
+    public UserPreferenceCache(UserPreferenceRepo userPreferenceRepo,
+                               DefaultPreferenceWriter defaultPreferenceWriter,
+                               ObjectProvider<StringRedisTemplate> redisTemplate,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry,
+                               @Value("${notification.preference-cache.near.max-size:50000}") long nearMaxSize,
+                               @Value("${notification.preference-cache.near.ttl-seconds:300}") long nearTtlSeconds,
+                               @Value("${notification.preference-cache.redis.enabled:false}") boolean redisEnabled,
+                               @Value("${notification.preference-cache.redis.ttl-seconds:1800}") long redisTtlSeconds) {
+        this.userPreferenceRepo = userPreferenceRepo;
+        this.defaultPreferenceWriter = defaultPreferenceWriter;
+        this.redisTemplate = redisEnabled ? redisTemplate.getIfAvailable() : null;
+        this.objectMapper = objectMapper;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(nearTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "userPreference");
+        this.nearHits = lookupCounter(meterRegistry, "near", "hit");
+        this.nearMisses = lookupCounter(meterRegistry, "near", "miss");
+        this.redisHits = lookupCounter(meterRegistry, "redis", "hit");
+        this.redisMisses = lookupCounter(meterRegistry, "redis", "miss");
+        this.defaultsCreated = Counter.builder("notification.preference.defaults")
+                .description("Default preferences created for users without one")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Near-cache, then Redis, then the database; never null. The returned
+     * instance is shared and must not be modified.
+     */
+    public UserPreference get(String userId) {
+        UserPreference cached = nearCache.getIfPresent(userId);
+        if (cached != null) {
+            nearHits.increment();
+            return cached;
+        }
+        nearMisses.increment();
+
+        UserPreference shared = readRedis(userId);
+        if (shared != null) {
+            redisHits.increment();
+            nearCache.put(userId, shared);
+            return shared;
+        }
+        if (redisTemplate != null) {
+            redisMisses.increment();
+        }
+
+        UserPreference loaded = userPreferenceRepo.findById(userId).orElseGet(() -> createDefault(userId));
+        nearCache.put(userId, loaded);
+        writeRedis(userId, loaded);
+        return loaded;
+    }
+
+    /**
+     * Drop the user's entry here, in Redis and, through the invalidation
+     * channel, on every other replica.
+     */
+    public void evict(String userId) {
+        evictLocal(userId);
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + userId);
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, userId);
+        } catch (Exception e) {
+            log.warn("Failed to evict preference of user {} from Redis: {}", userId, e.getMessage());
+        }
+    }
+
+    public void evictLocal(String userId) {
+        nearCache.invalidate(userId);
+    }
+
+    private UserPreference createDefault(String userId) {
+        log.info("No preference stored for user {}, using defaults", userId);
+        UserPreference defaults = new UserPreference();
+        defaults.setUserId(userId);
+        defaults.setPushNotificationEnabled(true);
+        defaults.setSmsNotificationEnabled(false);
+        defaults.setEmailNotificationEnabled(false);
+        defaultPreferenceWriter.enqueue(defaults);
+        defaultsCreated.increment();
+        return defaults;
+    }
+
+    private UserPreference readRedis(String userId) {
+        if (redisTemplate == null) {
+            return null;
+        }
+        try {
+            String value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + userId);
+            return value != null ? objectMapper.readValue(value, UserPreference.class) : null;
+        } catch (Exception e) {
+            log.warn("Redis preference lookup failed for user {}: {}", userId, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String userId, UserPreference preference) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + userId, objectMapper.writeValueAsString(preference), redisTtl);
+        } catch (Exception e) {
+            log.warn("Failed to cache preference of user {} in Redis: {}", userId, e.getMessage());
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String level, String result) {
+        return Counter.builder("notification.preference.cache")
+                .description("User preference lookups by cache level and outcome")
+                .tag("level", level)
+                .tag("result", result)
+                .register(registry);
+    }
+}
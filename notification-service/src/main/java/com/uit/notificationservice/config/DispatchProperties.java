@@ -0,0 +1,51 @@
+package com.uit.notificationservice.config;
+
+import com.uit.notificationservice.dispatch.NotificationChannel;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Per-channel bulkhead settings for notification dispatch
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "notification.dispatch")
+public class DispatchProperties {
+
+    private Lane push = new Lane(64, 5000);
+    private Lane email = new Lane(16, 15000);
+    private Lane sms = new Lane(16, 10000);
+
+    public Lane forChannel(NotificationChannel channel) {
+        return switch (channel) {
+            case PUSH -> push;
+            case EMAIL -> email;
+            case SMS -> sms;
+        };
+    }
+
+    @Getter
+    @Setter
+    public static class Lane {
+        /** Sends in flight at once on this channel */
+        private int maxConcurrency;
+        /** Per-attempt deadline; the attempt is interrupted and retried after it */
+        private long timeoutMs;
+        private int maxAttempts = 3;
+        /** Delay before the first retry, doubled for each further one */
+        private long retryBackoffMs = 1000;
+        /** Sends waiting for a permit or a retry; beyond it new sends are dropped */
+        private int queueCapacity = 10000;
+
+        public Lane() {
+        }
+
+        Lane(int maxConcurrency, long timeoutMs) {
+            this.maxConcurrency = maxConcurrency;
+            this.timeoutMs = timeoutMs;
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.uit.notificationservice.config;
+
+import com.uit.notificationservice.cache.UserPreferenceCache;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Multi-replica preference cache: every instance subscribes to the invalidation
+ * channel and drops its near-cache entry when any replica evicts a user.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "notification.preference-cache.redis", name = "enabled", havingValue = "true")
+public class PreferenceCacheRedisConfig {
+
+    @Bean
+    public RedisMessageListenerContainer preferenceInvalidationContainer(RedisConnectionFactory connectionFactory,
+                                                                         UserPreferenceCache userPreferenceCache) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> userPreferenceCache.evictLocal(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(UserPreferenceCache.INVALIDATION_CHANNEL));
+        return container;
+    }
+}
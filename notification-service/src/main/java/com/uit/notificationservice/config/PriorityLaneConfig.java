@@ -0,0 +1,78 @@
+package com.uit.notificationservice.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
+
+/**
+ * OTP and bulk notifications each get their own listener container factory
+ * and consumer threads, so a backlog on the transaction queue never occupies
+ * the threads that deliver OTPs. OTP SMS also gets its own gateway
+ * connection pool instead of the shared WebClient one.
+ */
+@Configuration
+public class PriorityLaneConfig {
+
+    public static final String OTP_CONTAINER_FACTORY = "otpListenerContainerFactory";
+    public static final String BULK_CONTAINER_FACTORY = "bulkListenerContainerFactory";
+    public static final String BULK_LISTENER_ID = "bulk-notifications";
+
+    @Bean(OTP_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory otpListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            PriorityLaneProperties properties) {
+        PriorityLaneProperties.Otp otp = properties.getOtp();
+        return containerFactory(configurer, connectionFactory, "otp-listener-",
+                otp.getConsumers(), otp.getMaxConsumers(), otp.getPrefetch());
+    }
+
+    @Bean(BULK_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory bulkListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory,
+            PriorityLaneProperties properties) {
+        PriorityLaneProperties.Bulk bulk = properties.getBulk();
+        return containerFactory(configurer, connectionFactory, "bulk-listener-",
+                bulk.getConsumers(), bulk.getMaxConsumers(), bulk.getPrefetch());
+    }
+
+    @Bean
+    public WebClient otpSmsWebClient(WebClient.Builder webClientBuilder, PriorityLaneProperties properties) {
+        PriorityLaneProperties.Otp otp = properties.getOtp();
+        ConnectionProvider provider = ConnectionProvider.builder("otp-sms")
+                .maxConnections(otp.getConnections())
+                .pendingAcquireTimeout(Duration.ofMillis(otp.getPendingAcquireTimeoutMs()))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(provider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) Math.min(otp.getSendTimeoutMs(), Integer.MAX_VALUE))
+                .responseTimeout(Duration.ofMillis(otp.getSendTimeoutMs()));
+        // Clone: the injected builder is shared with the bulk senders
+        return webClientBuilder.clone()
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .build();
+    }
+
+    private static SimpleRabbitListenerContainerFactory containerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer, ConnectionFactory connectionFactory,
+            String threadPrefix, int consumers, int maxConsumers, int prefetch) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setConcurrentConsumers(consumers);
+        factory.setMaxConcurrentConsumers(Math.max(consumers, maxConsumers));
+        factory.setPrefetchCount(prefetch);
+        factory.setTaskExecutor(new SimpleAsyncTaskExecutor(threadPrefix));
+        return factory;
+    }
+}
@@ -0,0 +1,58 @@
+package com.uit.notificationservice.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * OTP and bulk notification lanes: separate listener containers, a reserved
+ * SMS gateway connection pool for OTP, and the bulk throttle driven by OTP
+ * queue latency
+ */
+@Getter
+@Setter
+@Configuration
+@ConfigurationProperties(prefix = "notification.priority")
+public class PriorityLaneProperties {
+
+    private Otp otp = new Otp();
+    private Bulk bulk = new Bulk();
+    private Throttle throttle = new Throttle();
+
+    @Getter
+    @Setter
+    public static class Otp {
+        private int consumers = 4;
+        private int maxConsumers = 8;
+        private int prefetch = 1;
+        /** Gateway connections reserved for OTP; bulk SMS never uses them */
+        private int connections = 8;
+        private long pendingAcquireTimeoutMs = 2000;
+        /** Per-attempt deadline for the gateway call */
+        private long sendTimeoutMs = 5000;
+        private int maxAttempts = 2;
+        /** Publish-to-gateway target; well inside transaction-service's 90s OTP expiry */
+        private long sloMs = 10000;
+    }
+
+    @Getter
+    @Setter
+    public static class Bulk {
+        private int consumers = 2;
+        private int maxConsumers = 8;
+        private int prefetch = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class Throttle {
+        /** OTP queue latency above which bulk work is cut back */
+        private long otpQueueLatencyThresholdMs = 2000;
+        /** Lowest share of bulk concurrency the throttle goes down to */
+        private double minFactor = 0.1;
+        /** Share of bulk concurrency restored per calm interval */
+        private double recoveryStep = 0.1;
+        private long intervalMs = 1000;
+    }
+}
@@ -0,0 +1,96 @@
+package com.uit.notificationservice.dispatch;
+
+import com.uit.notificationservice.config.PriorityLaneConfig;
+import com.uit.notificationservice.config.PriorityLaneProperties;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.listener.MessageListenerContainer;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cuts bulk notification work back while OTPs wait in their queue.
+ *
+ * OTP listeners report how long each event sat between publish and receipt.
+ * Every interval, if the worst wait exceeded the threshold, the bulk factor is
+ * halved (down to minFactor); otherwise it recovers by recoveryStep. The factor
+ * scales the bulk listener's consumers and every {@link ChannelDispatcher}
+ * lane, which frees CPU, connections and gateway capacity for OTP.
+ */
+@Slf4j
+@Component
+public class BulkThrottle {
+
+    private final ChannelDispatcher channelDispatcher;
+    private final RabbitListenerEndpointRegistry listenerRegistry;
+    private final PriorityLaneProperties properties;
+
+    private final AtomicLong worstOtpQueueLatencyMs = new AtomicLong();
+    private volatile double factor = 1.0;
+
+    public BulkThrottle(ChannelDispatcher channelDispatcher,
+                        RabbitListenerEndpointRegistry listenerRegistry,
+                        PriorityLaneProperties properties,
+                        MeterRegistry meterRegistry) {
+        this.channelDispatcher = channelDispatcher;
+        this.listenerRegistry = listenerRegistry;
+        this.properties = properties;
+        Gauge.builder("notification.bulk.throttle.factor", this, BulkThrottle::getFactor)
+                .description("Share of configured bulk notification concurrency currently allowed")
+                .register(meterRegistry);
+    }
+
+    public void recordOtpQueueLatency(long latencyMs) {
+        worstOtpQueueLatencyMs.accumulateAndGet(latencyMs, Math::max);
+    }
+
+    public double getFactor() {
+        return factor;
+    }
+
+    @Scheduled(fixedDelayString = "${notification.priority.throttle.interval-ms:1000}")
+    void adjust() {
+        PriorityLaneProperties.Throttle throttle = properties.getThrottle();
+        long worst = worstOtpQueueLatencyMs.getAndSet(0);
+
+        double next = worst > throttle.getOtpQueueLatencyThresholdMs()
+                ? Math.max(throttle.getMinFactor(), factor / 2)
+                : Math.min(1.0, factor + throttle.getRecoveryStep());
+        if (next == factor) {
+            return;
+        }
+        if (next < factor) {
+            log.warn("OTP queue latency {} ms over {} ms, throttling bulk notifications to {}%",
+                    worst, throttle.getOtpQueueLatencyThresholdMs(), Math.round(next * 100));
+        } else if (next == 1.0) {
+            log.info("OTP queue latency back to normal, bulk notifications unthrottled");
+        }
+        boolean growing = next > factor;
+        factor = next;
+        channelDispatcher.throttle(next);
+        scaleBulkConsumers(next, growing);
+    }
+
+    private void scaleBulkConsumers(double factor, boolean growing) {
+        MessageListenerContainer container = listenerRegistry.getListenerContainer(PriorityLaneConfig.BULK_LISTENER_ID);
+        if (!(container instanceof SimpleMessageListenerContainer simple)) {
+            return;
+        }
+        PriorityLaneProperties.Bulk bulk = properties.getBulk();
+        int consumers = Math.max(1, (int) Math.round(bulk.getConsumers() * factor));
+        int maxConsumers = Math.max(consumers, (int) Math.round(bulk.getMaxConsumers() * factor));
+        // The container rejects a consumer count above its current maximum, and vice versa
+        if (growing) {
+            simple.setMaxConcurrentConsumers(maxConsumers);
+            simple.setConcurrentConsumers(consumers);
+        } else {
+            simple.setConcurrentConsumers(consumers);
+            simple.setMaxConcurrentConsumers(maxConsumers);
+        }
+    }
+}
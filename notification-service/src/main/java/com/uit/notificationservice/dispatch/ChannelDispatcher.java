@@ -0,0 +1,236 @@
+package com.uit.notificationservice.dispatch;
+
+import com.uit.notificationservice.config.DispatchProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs notification sends on virtual threads, one bulkhead per channel.
+ *
+ * Each channel has its own concurrency limit, per-attempt timeout, retry
+ * schedule and latency histogram, so a slow SMTP server only ever holds email
+ * permits: push and SMS keep flowing, and the listener thread never blocks on
+ * a send. Failed or timed-out attempts are retried with exponential backoff
+ * until maxAttempts; a channel whose queue is full drops new sends.
+ * {@link #throttle(double)} shrinks every lane while OTP delivery is falling behind.
+ */
+@Slf4j
+@Component
+public class ChannelDispatcher {
+
+    /**
+     * A blocking send; throwing marks the attempt as failed
+     */
+    @FunctionalInterface
+    public interface Send {
+        void run() throws Exception;
+    }
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService retryScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("notification-retry").daemon().factory());
+    private final Map<NotificationChannel, Lane> lanes = new EnumMap<>(NotificationChannel.class);
+
+    public ChannelDispatcher(DispatchProperties properties, MeterRegistry meterRegistry) {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            lanes.put(channel, new Lane(channel, properties.forChannel(channel), meterRegistry));
+        }
+    }
+
+    /**
+     * Queue a send on the channel's bulkhead and return at once.
+     *
+     * @param description what is sent to whom, for logs
+     * @return completes with true once an attempt succeeds, false when the send
+     * is dropped or out of attempts; never completes exceptionally
+     */
+    public CompletableFuture<Boolean> dispatch(NotificationChannel channel, String description, Send send) {
+        Lane lane = lanes.get(channel);
+        CompletableFuture<Boolean> result = new CompletableFuture<>();
+        if (lane.queued.incrementAndGet() > lane.settings.getQueueCapacity()) {
+            lane.queued.decrementAndGet();
+            lane.dropped.increment();
+            log.error("{} channel queue full, dropping {}", channel, description);
+            result.complete(false);
+            return result;
+        }
+        submit(lane, description, send, 1, result);
+        return result;
+    }
+
+    /**
+     * Scale every lane's concurrency to factor times its configured limit, at
+     * least one. Sends already holding a permit finish; the lane just admits
+     * fewer until it is back under the new limit.
+     */
+    public void throttle(double factor) {
+        for (Lane lane : lanes.values()) {
+            lane.resize(Math.max(1, (int) Math.ceil(lane.settings.getMaxConcurrency() * factor)));
+        }
+    }
+
+    int concurrencyLimit(NotificationChannel channel) {
+        return lanes.get(channel).limit;
+    }
+
+    private void submit(Lane lane, String description, Send send, int attempt, CompletableFuture<Boolean> result) {
+        executor.execute(() -> attempt(lane, description, send, attempt, result));
+    }
+
+    private void attempt(Lane lane, String description, Send send, int attempt, CompletableFuture<Boolean> result) {
+        try {
+            lane.permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            finish(lane, result, false);
+            return;
+        }
+
+        long started = System.nanoTime();
+        String outcome;
+        Exception failure = null;
+        try {
+            // The send runs on its own virtual thread so a timeout can interrupt its blocking I/O
+            Future<?> sending = executor.submit(() -> {
+                send.run();
+                return null;
+            });
+            try {
+                sending.get(lane.settings.getTimeoutMs(), TimeUnit.MILLISECONDS);
+                outcome = "success";
+            } catch (TimeoutException e) {
+                sending.cancel(true);
+                outcome = "timeout";
+                failure = e;
+            } catch (ExecutionException e) {
+                outcome = "failure";
+                failure = e.getCause() instanceof Exception cause ? cause : e;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "failure";
+            failure = e;
+        } catch (RejectedExecutionException e) {
+            // Shutting down
+            outcome = "failure";
+            failure = e;
+        } finally {
+            lane.permits.release();
+        }
+        lane.latency(outcome).record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+
+        if (failure == null) {
+            finish(lane, result, true);
+            return;
+        }
+        if (attempt >= lane.settings.getMaxAttempts() || executor.isShutdown()) {
+            log.error("{} send failed after {} attempts ({}): {}", lane.channel, attempt, description, failure.getMessage());
+            lane.exhausted.increment();
+            finish(lane, result, false);
+            return;
+        }
+        long backoff = lane.settings.getRetryBackoffMs() << (attempt - 1);
+        log.warn("{} send attempt {} {} ({}), retrying in {} ms",
+                lane.channel, attempt, outcome, description, backoff);
+        lane.retries.increment();
+        retryScheduler.schedule(() -> submit(lane, description, send, attempt + 1, result), backoff, TimeUnit.MILLISECONDS);
+    }
+
+    private static void finish(Lane lane, CompletableFuture<Boolean> result, boolean delivered) {
+        lane.queued.decrementAndGet();
+        result.complete(delivered);
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            log.warn("Notification sends still running at shutdown were interrupted");
+            executor.shutdownNow();
+        }
+    }
+
+    private static final class Lane {
+        private final NotificationChannel channel;
+        private final DispatchProperties.Lane settings;
+        private final ResizableSemaphore permits;
+        private volatile int limit;
+        private final AtomicInteger queued = new AtomicInteger();
+        private final Map<String, Timer> latencies = new ConcurrentHashMap<>();
+        private final MeterRegistry meterRegistry;
+        private final Counter retries;
+        private final Counter exhausted;
+        private final Counter dropped;
+
+        private Lane(NotificationChannel channel, DispatchProperties.Lane settings, MeterRegistry meterRegistry) {
+            this.channel = channel;
+            this.settings = settings;
+            this.limit = settings.getMaxConcurrency();
+            this.permits = new ResizableSemaphore(limit);
+            this.meterRegistry = meterRegistry;
+            String tag = channel.name().toLowerCase();
+            this.retries = counter(meterRegistry, "notification.dispatch.retries", tag);
+            this.exhausted = counter(meterRegistry, "notification.dispatch.exhausted", tag);
+            this.dropped = counter(meterRegistry, "notification.dispatch.dropped", tag);
+            meterRegistry.gauge("notification.dispatch.queued", Tags.of("channel", tag), queued);
+        }
+
+        private synchronized void resize(int newLimit) {
+            if (newLimit > limit) {
+                permits.release(newLimit - limit);
+            } else if (newLimit < limit) {
+                permits.reduce(limit - newLimit);
+            }
+            limit = newLimit;
+        }
+
+        private Timer latency(String outcome) {
+            return latencies.computeIfAbsent(outcome, o -> Timer.builder("notification.dispatch.latency")
+                    .description("Notification send attempt latency by channel and outcome")
+                    .tag("channel", channel.name().toLowerCase())
+                    .tag("outcome", o)
+                    .publishPercentileHistogram()
+                    .maximumExpectedValue(Duration.ofMillis(settings.getTimeoutMs()))
+                    .register(meterRegistry));
+        }
+
+        private static Counter counter(MeterRegistry registry, String name, String channel) {
+            return Counter.builder(name).tag("channel", channel).register(registry);
+        }
+    }
+
+    /**
+     * Semaphore whose permit count can shrink while permits are held
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+        private ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        private void reduce(int reduction) {
+            reducePermits(reduction);
+        }
+    }
+}
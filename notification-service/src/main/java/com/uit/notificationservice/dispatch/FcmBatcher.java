@@ -0,0 +1,190 @@
+package com.uit.notificationservice.dispatch;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching front for FCM.
+ *
+ * Push messages submitted within a short window are sent together through
+ * FirebaseMessaging.sendEach, up to 500 per call (the FCM limit), instead of one
+ * HTTPS round trip each. Identical messages to the same token inside a batch are
+ * coalesced into one send. Each caller gets its own token's outcome; tokens FCM
+ * reports as unregistered or invalid are published as an
+ * {@link InvalidDeviceTokensEvent} so they can be pruned.
+ */
+@Slf4j
+@Component
+public class FcmBatcher {
+
+    /**
+     * FCM rejects sendEach calls with more messages than this
+     */
+    public static final int FCM_MAX_BATCH = 500;
+
+    private final FirebaseMessaging firebaseMessaging;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final BlockingQueue<PendingPush> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Value("${notification.push-batch.window-ms:20}")
+    private long windowMs;
+
+    @Value("${notification.push-batch.max-size:500}")
+    private int maxBatchSize;
+
+    @Value("${notification.push-batch.workers:2}")
+    private int workerCount;
+
+    /**
+     * @param coalesceKey messages with the same key in one batch are sent once
+     */
+    private record PendingPush(String deviceToken, String coalesceKey, Message message,
+                               CompletableFuture<String> result) {
+    }
+
+    public FcmBatcher(FirebaseMessaging firebaseMessaging, ApplicationEventPublisher eventPublisher) {
+        this.firebaseMessaging = firebaseMessaging;
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostConstruct
+    void start() {
+        maxBatchSize = Math.max(1, Math.min(maxBatchSize, FCM_MAX_BATCH));
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform()
+                    .name("fcm-batcher-" + i)
+                    .daemon()
+                    .start(this::drainLoop));
+        }
+        log.info("FCM batching started - window: {}ms, max size: {}, workers: {}", windowMs, maxBatchSize, workerCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        List<PendingPush> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.result().completeExceptionally(
+                new IllegalStateException("Notification service is shutting down")));
+    }
+
+    /**
+     * Queue a message for the next batch.
+     *
+     * @param coalesceKey identifies the message content, e.g. title and body
+     * @return completes with the FCM message id, or exceptionally with the
+     * token's FirebaseMessagingException (or the whole call's, if it failed)
+     */
+    public CompletableFuture<String> submit(String deviceToken, String coalesceKey, Message message) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        queue.add(new PendingPush(deviceToken, coalesceKey, message, result));
+        return result;
+    }
+
+    /**
+     * Token errors only; INVALID_ARGUMENT is left out since it can also mean a bad payload
+     */
+    public static boolean isInvalidToken(FirebaseMessagingException e) {
+        MessagingErrorCode code = e.getMessagingErrorCode();
+        return code == MessagingErrorCode.UNREGISTERED || code == MessagingErrorCode.SENDER_ID_MISMATCH;
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                List<PendingPush> batch = new ArrayList<>();
+                batch.add(queue.take());
+
+                // Give concurrent sends a short window to join this batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingPush next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void send(List<PendingPush> batch) {
+        // Coalesce: one message per (token, content); every caller of a group shares its outcome
+        Map<String, List<PendingPush>> groups = new LinkedHashMap<>();
+        for (PendingPush push : batch) {
+            groups.computeIfAbsent(push.deviceToken() + '\u0000' + push.coalesceKey(), k -> new ArrayList<>()).add(push);
+        }
+        List<List<PendingPush>> distinct = new ArrayList<>(groups.values());
+        List<Message> messages = distinct.stream().map(group -> group.get(0).message()).toList();
+
+        Set<String> invalidTokens = new LinkedHashSet<>();
+        try {
+            BatchResponse response = firebaseMessaging.sendEach(messages);
+            List<SendResponse> results = response.getResponses();
+
+            for (int i = 0; i < distinct.size(); i++) {
+                SendResponse result = results.get(i);
+                List<PendingPush> group = distinct.get(i);
+                if (result.isSuccessful()) {
+                    group.forEach(p -> p.result().complete(result.getMessageId()));
+                } else {
+                    FirebaseMessagingException error = result.getException();
+                    if (isInvalidToken(error)) {
+                        invalidTokens.add(group.get(0).deviceToken());
+                    }
+                    group.forEach(p -> p.result().completeExceptionally(error));
+                }
+            }
+
+            log.debug("FCM batch of {} ({} after coalescing) - {} succeeded, {} failed",
+                    batch.size(), messages.size(), response.getSuccessCount(), response.getFailureCount());
+        } catch (Exception e) {
+            log.error("FCM batch of {} failed: {}", batch.size(), e.getMessage());
+            batch.forEach(p -> p.result().completeExceptionally(e));
+        }
+
+        if (!invalidTokens.isEmpty()) {
+            try {
+                eventPublisher.publishEvent(new InvalidDeviceTokensEvent(Set.copyOf(invalidTokens)));
+            } catch (Exception e) {
+                log.warn("Failed to prune {} invalid device tokens: {}", invalidTokens.size(), e.getMessage());
+            }
+        }
+    }
+}
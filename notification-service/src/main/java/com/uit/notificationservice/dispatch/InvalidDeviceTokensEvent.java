@@ -0,0 +1,9 @@
+package com.uit.notificationservice.dispatch;
+
+import java.util.Set;
+
+/**
+ * Device tokens FCM reported as unregistered or invalid
+ */
+public record InvalidDeviceTokensEvent(Set<String> deviceTokens) {
+}
@@ -0,0 +1,10 @@
+package com.uit.notificationservice.dispatch;
+
+/**
+ * Delivery channels, each dispatched through its own bulkhead
+ */
+public enum NotificationChannel {
+    PUSH,
+    EMAIL,
+    SMS
+}
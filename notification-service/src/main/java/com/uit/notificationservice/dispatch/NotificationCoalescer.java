@@ -0,0 +1,170 @@
+package com.uit.notificationservice.dispatch;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Collapses bursts of transfer notifications into digests, per user, channel
+ * and direction.
+ *
+ * The first event for a key is sent as usual and opens a window. Events
+ * arriving while the window is open are only counted; when it closes they go
+ * out as one {@link Digest} ("You received 137 transfers totalling X"). A user
+ * with one transfer a minute sees no difference, while a payroll or merchant
+ * account gets two messages per window per channel instead of hundreds.
+ * Windows live in this instance only, so each replica coalesces the events it
+ * consumes.
+ */
+@Slf4j
+@Component
+public class NotificationCoalescer {
+
+    public enum Direction {
+        SENT,
+        RECEIVED
+    }
+
+    public record Key(String userId, NotificationChannel channel, Direction direction) {
+    }
+
+    /**
+     * Events held back while a window was open
+     *
+     * @param total sum of the known amounts; events without one only count
+     */
+    public record Digest(Key key, int count, BigDecimal total, long firstAtMillis, long lastAtMillis) {
+    }
+
+    private static final class Window {
+        private final long openedAt;
+        private int count;
+        private BigDecimal total = BigDecimal.ZERO;
+        private long firstAt;
+        private long lastAt;
+        private Consumer<Digest> flush;
+
+        private Window(long openedAt) {
+            this.openedAt = openedAt;
+        }
+    }
+
+    private final Map<Key, Window> windows = new ConcurrentHashMap<>();
+    private final Map<NotificationChannel, Counter> coalesced = new EnumMap<>(NotificationChannel.class);
+    private final Map<NotificationChannel, Counter> digests = new EnumMap<>(NotificationChannel.class);
+
+    @Value("${notification.coalescing.enabled:true}")
+    private boolean enabled;
+
+    @Value("${notification.coalescing.window-ms:60000}")
+    private long windowMs;
+
+    public NotificationCoalescer(MeterRegistry meterRegistry) {
+        for (NotificationChannel channel : NotificationChannel.values()) {
+            String tag = channel.name().toLowerCase();
+            coalesced.put(channel, Counter.builder("notification.coalesced")
+                    .description("Notifications held back for a digest")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+            digests.put(channel, Counter.builder("notification.digests")
+                    .description("Digest notifications sent")
+                    .tag("channel", tag)
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Record an event for the key.
+     *
+     * @param amount may be null
+     * @param flush  sends the digest when the window closes; the latest event's
+     *               callback wins, so it sees the newest contact details
+     * @return true if the event was absorbed into a pending digest and must not
+     * be sent now, false if the caller should send it as usual
+     */
+    public boolean offer(Key key, BigDecimal amount, Consumer<Digest> flush) {
+        if (!enabled) {
+            return false;
+        }
+        long now = System.currentTimeMillis();
+        boolean[] absorbed = new boolean[1];
+        Window[] expired = new Window[1];
+        windows.compute(key, (k, window) -> {
+            if (window == null || now - window.openedAt >= windowMs) {
+                // No burst in progress: open a window and let this event through
+                expired[0] = window;
+                return new Window(now);
+            }
+            absorbed[0] = true;
+            if (window.count == 0) {
+                window.firstAt = now;
+            }
+            window.count++;
+            window.lastAt = now;
+            if (amount != null) {
+                window.total = window.total.add(amount);
+            }
+            window.flush = flush;
+            return window;
+        });
+        // A window that closed before the scheduled flush reached it
+        if (expired[0] != null && expired[0].count > 0) {
+            send(key, expired[0]);
+        }
+        if (absorbed[0]) {
+            coalesced.get(key.channel()).increment();
+        }
+        return absorbed[0];
+    }
+
+    /**
+     * Send digests for windows that have closed
+     */
+    @Scheduled(fixedDelayString = "${notification.coalescing.flush-interval-ms:1000}")
+    void flushExpired() {
+        long now = System.currentTimeMillis();
+        for (Key key : windows.keySet()) {
+            Window[] closed = new Window[1];
+            windows.computeIfPresent(key, (k, window) -> {
+                if (now - window.openedAt < windowMs) {
+                    return window;
+                }
+                closed[0] = window;
+                return null;
+            });
+            if (closed[0] != null && closed[0].count > 0) {
+                send(key, closed[0]);
+            }
+        }
+    }
+
+    @PreDestroy
+    void flushAll() {
+        for (Key key : windows.keySet()) {
+            Window window = windows.remove(key);
+            if (window != null && window.count > 0) {
+                send(key, window);
+            }
+        }
+    }
+
+    private void send(Key key, Window window) {
+        try {
+            window.flush.accept(new Digest(key, window.count, window.total, window.firstAt, window.lastAt));
+            digests.get(key.channel()).increment();
+        } catch (Exception e) {
+            log.error("Failed to send {} digest of {} notifications to user {}: {}",
+                    key.channel(), window.count, key.userId(), e.getMessage());
+        }
+    }
+}
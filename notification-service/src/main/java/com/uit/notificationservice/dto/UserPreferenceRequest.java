@@ -26,4 +26,6 @@ public class UserPreferenceRequest {
     private Boolean smsNotificationEnabled;
     
     private Boolean emailNotificationEnabled;
+
+    private Boolean digestEnabled;
 }
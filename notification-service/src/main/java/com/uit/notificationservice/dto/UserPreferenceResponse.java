@@ -26,4 +26,6 @@ public class UserPreferenceResponse {
     private boolean smsNotificationEnabled;
 
     private boolean emailNotificationEnabled;
+
+    private boolean digestEnabled;
 }
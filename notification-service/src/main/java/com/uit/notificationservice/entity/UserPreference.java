@@ -35,4 +35,11 @@ public class UserPreference {
 
     @Column(nullable = false, name = "email_notification_enabled")
     private boolean emailNotificationEnabled;
+
+    /**
+     * Coalesce bursts of successful transfer notifications into one digest per channel
+     */
+    @Builder.Default
+    @Column(nullable = false, name = "digest_enabled")
+    private boolean digestEnabled = true;
 }
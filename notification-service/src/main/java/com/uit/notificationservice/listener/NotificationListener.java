@@ -1,9 +1,18 @@
 package com.uit.notificationservice.listener;
 
 import com.uit.notificationservice.dto.EmailNotificationRequest;
+import com.uit.notificationservice.cache.DeliveryDeduplicator;
+import com.uit.notificationservice.cache.UserPreferenceCache;
+import com.uit.notificationservice.config.PriorityLaneConfig;
+import com.uit.notificationservice.dispatch.ChannelDispatcher;
+import com.uit.notificationservice.dispatch.NotificationChannel;
+import com.uit.notificationservice.dispatch.NotificationCoalescer;
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Digest;
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Direction;
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Key;
 import com.uit.notificationservice.entity.UserPreference;
-import com.uit.notificationservice.repository.UserPreferenceRepo;
 import com.uit.notificationservice.service.NotificationService;
+import com.uit.notificationservice.service.OtpSmsSender;
 import com.uit.sharedkernel.constants.RabbitMQConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,39 +20,50 @@ import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class NotificationListener {
     private final NotificationService notificationService;
-    private final UserPreferenceRepo userPreferenceRepo;
+    private final UserPreferenceCache userPreferenceCache;
+    private final ChannelDispatcher channelDispatcher;
+    private final OtpSmsSender otpSmsSender;
+    private final NotificationCoalescer notificationCoalescer;
+    private final DeliveryDeduplicator deliveryDeduplicator;
+
+    private static final DateTimeFormatter DIGEST_TIME_FORMATTER =
+            DateTimeFormatter.ofPattern("HH:mm:ss").withZone(ZoneId.systemDefault());
 
     /**
      * Handles OTP generation events from transaction-service
      * Queue: notification.otp.queue
      * Routing Key: otp.generated
      * Purpose: Send OTP via SMS to user's phone number
+     * Priority lane: own consumers and gateway connections, never shared with transaction notifications
      */
-    @RabbitListener(queues = RabbitMQConstants.OTP_QUEUE)
+    @RabbitListener(queues = RabbitMQConstants.OTP_QUEUE, containerFactory = PriorityLaneConfig.OTP_CONTAINER_FACTORY)
     public void handleOtpNotification(Map<String, Object> message) {
-        log.info("Received OTP notification event: {}", message);
+        log.info("Received OTP notification event for transaction: {}", message.get("transactionId"));
 
         try {
             String transactionId = (String) message.get("transactionId");
             String phoneNumber = (String) message.get("phoneNumber");
             String otpCode = (String) message.get("otpCode");
+            Long publishedAt = message.get("createdAt") instanceof Number createdAt ? createdAt.longValue() : null;
 
             log.info("Processing OTP notification for transaction: {}, phone: {}", transactionId, phoneNumber);
 
             // Send SMS OTP via TextBee API
-            notificationService.sendSmsOtp(phoneNumber, otpCode);
-
-            log.info("OTP SMS sent successfully for transaction: {}", transactionId);
-
+            otpSmsSender.send(transactionId, phoneNumber, otpCode, publishedAt);
         } catch (Exception e) {
             log.error("Failed to send OTP notification: {}", e.getMessage(), e);
             // OTP failures are critical - consider implementing retry logic or alerting
@@ -55,8 +75,11 @@ public class NotificationListener {
      * Queue: notification-queue
      * Routing Keys: notification.TransactionCompleted, notification.TransactionFailed, notification.ExternalTransferInitiated
      * Purpose: Send multi-channel notifications (Push, SMS, Email) based on user preferences
+     * Sends are handed to ChannelDispatcher and run concurrently; this thread never waits on a channel
+     * Bulk lane: BulkThrottle scales these consumers down while OTPs are queuing
      */
-    @RabbitListener(queues = RabbitMQConstants.TRANSACTION_QUEUE)
+    @RabbitListener(id = PriorityLaneConfig.BULK_LISTENER_ID, queues = RabbitMQConstants.TRANSACTION_QUEUE,
+            containerFactory = PriorityLaneConfig.BULK_CONTAINER_FACTORY)
     public void handleTransactionNotification(Map<String, Object> message) {
         log.info("Received transaction notification event: {}", message);
 
@@ -82,48 +105,58 @@ public class NotificationListener {
             log.info("Processing transaction notification - TxID: {}, SenderUser: {}, SenderAccount: {}, ReceiverUser: {}, ReceiverAccount: {}, Status: {}, Success: {}",
                     transactionId, senderUserId, senderAccountNumber, receiverUserId, receiverAccountNumber, status, success);
 
+            // Repeated events (webhook + polling, redelivery) are dropped before any lookup or send
+            String eventType = status != null ? status : (success ? "COMPLETED" : "FAILED");
+
             // ========== SENDER NOTIFICATION (Money Deducted) ==========
             log.info("Processing sender notification for user: {} (account: {})", senderUserId, senderAccountNumber);
-            if (notiWho == 0 || notiWho == 1) {
-                UserPreference senderPreference = userPreferenceRepo.findById(senderUserId)
-                        .orElseGet(() -> {
-                            log.warn("User preference not found for sender user: {}, using defaults", senderUserId);
-                            return createDefaultPreference(senderUserId);
-                        });
+            if ((notiWho == 0 || notiWho == 1)
+                    && claimDelivery(transactionId, eventType, "sender:" + senderUserId)) {
+                UserPreference senderPreference = userPreferenceCache.get(senderUserId);
 
                 // Build sender notification (money deducted)
                 String senderTitle = success ? "Money Sent Successfully" : "Transaction Failed";
                 String senderContent = formatSenderNotification(success, amount, receiverAccountNumber, status, notificationMessage);
 
+                // Failures are always sent on their own; successful transfers may be coalesced
+                Direction senderDirection = success ? Direction.SENT : null;
+
                 // Send Push Notification to Sender
-                sendPushNotification(senderUserId, senderPreference, transactionId, senderTitle, senderContent);
+                sendPushNotification(senderUserId, senderPreference, transactionId, senderTitle, senderContent,
+                        senderDirection, amount);
 
                 // Send Email Notification to Sender
                 sendEmailNotification(senderUserId, senderPreference, transactionId, senderTitle,
-                        senderContent, status, amount, success, "Recipient", receiverAccountNumber);
+                        senderContent, status, amount, success, "Recipient", receiverAccountNumber, senderDirection);
+
+                // Send SMS Notification to Sender
+                sendSmsNotification(senderUserId, senderPreference, transactionId, senderTitle, senderContent,
+                        senderDirection, amount);
             }
 
             // ========== RECEIVER NOTIFICATION (Money Received) ==========
             // Only send to receiver if transaction is successful
-            if (success && notiWho == 0 || notiWho == 2) {
+            if ((success && notiWho == 0 || notiWho == 2)
+                    && claimDelivery(transactionId, eventType, "receiver:" + receiverUserId)) {
                 log.info("Processing receiver notification for user: {} (account: {})", receiverUserId, receiverAccountNumber);
 
-                UserPreference receiverPreference = userPreferenceRepo.findById(receiverUserId)
-                        .orElseGet(() -> {
-                            log.warn("User preference not found for receiver user: {}, using defaults", receiverUserId);
-                            return createDefaultPreference(receiverUserId);
-                        });
+                UserPreference receiverPreference = userPreferenceCache.get(receiverUserId);
 
                 // Build receiver notification (money received)
                 String receiverTitle = "Money Received";
                 String receiverContent = formatReceiverNotification(amount, senderAccountNumber);
 
                 // Send Push Notification to Receiver
-                sendPushNotification(receiverUserId, receiverPreference, transactionId, receiverTitle, receiverContent);
+                sendPushNotification(receiverUserId, receiverPreference, transactionId, receiverTitle, receiverContent,
+                        Direction.RECEIVED, amount);
 
                 // Send Email Notification to Receiver
                 sendEmailNotification(receiverUserId, receiverPreference, transactionId, receiverTitle,
-                        receiverContent, status, amount, true, "Sender", senderAccountNumber);
+                        receiverContent, status, amount, true, "Sender", senderAccountNumber, Direction.RECEIVED);
+
+                // Send SMS Notification to Receiver
+                sendSmsNotification(receiverUserId, receiverPreference, transactionId, receiverTitle, receiverContent,
+                        Direction.RECEIVED, amount);
             }
 
             log.info("Transaction notification processing completed for: {}", transactionId);
@@ -134,6 +167,14 @@ public class NotificationListener {
         }
     }
 
+    private boolean claimDelivery(String transactionId, String eventType, String recipient) {
+        if (deliveryDeduplicator.claim(transactionId, eventType, recipient)) {
+            return true;
+        }
+        log.info("Skipping duplicate {} notification for transaction {} to {}", eventType, transactionId, recipient);
+        return false;
+    }
+
     /**
      * Format sender notification message (money deducted)
      */
@@ -180,82 +221,152 @@ public class NotificationListener {
     }
 
     /**
-     * Send push notification to user
+     * Queue a push notification: the inbox row is stored once, the push is retried by the dispatcher
+     *
+     * @param direction set to let a burst be coalesced into a digest, null to always send
      */
     private void sendPushNotification(String userId, UserPreference userPreference,
-                                      String transactionId, String title, String content) {
+                                      String transactionId, String title, String content,
+                                      Direction direction, BigDecimal amount) {
         if (userPreference.isPushNotificationEnabled() &&
                 userPreference.getDeviceToken() != null &&
                 !userPreference.getDeviceToken().isEmpty()) {
 
-            try {
-                notificationService.sendTransactionNotification(
-                        userId,
-                        userPreference.getDeviceToken(),
-                        title,
-                        content
-                );
-                log.info("Push notification sent for transaction: {} to user: {} ({} devices)",
-                        transactionId, userId, userPreference.getDeviceToken());
-            } catch (Exception e) {
-                log.error("Failed to send push notification for transaction {} to user {}: {}",
-                        transactionId, userId, e.getMessage());
+            String deviceToken = userPreference.getDeviceToken();
+            if (coalesce(userPreference, NotificationChannel.PUSH, direction, amount, digest ->
+                    dispatchPush(userId, deviceToken, "digest to user " + userId,
+                            formatDigestTitle(digest), formatDigestContent(digest)))) {
+                return;
             }
+            dispatchPush(userId, deviceToken, "transaction " + transactionId + " to user " + userId, title, content);
         } else {
             log.info("Push notification not sent for user: {} - disabled or no device tokens", userId);
         }
     }
 
+    private void dispatchPush(String userId, String deviceToken, String description, String title, String content) {
+        AtomicBoolean saved = new AtomicBoolean();
+        channelDispatcher.dispatch(NotificationChannel.PUSH, description, () -> {
+            if (!saved.get()) {
+                notificationService.saveTransactionNotification(userId, deviceToken, title, content);
+                saved.set(true);
+            }
+            notificationService.deliverTransactionPush(userId, deviceToken, title, content);
+        });
+    }
+
     /**
-     * Send email notification to user
+     * Queue an email notification on the email channel
      */
     private void sendEmailNotification(String userId, UserPreference userPreference,
                                        String transactionId, String title, String content,
                                        String status, BigDecimal amount, boolean success,
-                                       String counterPartyLabel, String counterPartyAccountNumber) {
+                                       String counterPartyLabel, String counterPartyAccountNumber,
+                                       Direction direction) {
         if (userPreference.isEmailNotificationEnabled() &&
                 userPreference.getEmail() != null &&
                 !userPreference.getEmail().isEmpty()) {
 
-            try {
-                // Build additional info for email
-                List<EmailNotificationRequest.InfoRow> additionalInfo = new ArrayList<>();
-                additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
-                        .label("Transaction ID: ")
-                        .value(transactionId.substring(0, Math.min(16, transactionId.length())))
-                        .build());
-                additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
-                        .label("Amount: ")
-                        .value(amount != null ? amount.toString() + " VND" : "N/A")
-                        .build());
-                additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
-                        .label(counterPartyLabel + ": ")
-                        .value(counterPartyAccountNumber)
-                        .build());
-                additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
-                        .label("Status: ")
-                        .value(status)
-                        .build());
-
-                String badge = success ? "SUCCESS" : "FAILED";
-
-                notificationService.sendTransactionEmail(
-                        userPreference.getEmail(),
-                        title,
-                        content,
-                        badge,
-                        additionalInfo
-                );
-
-                log.info("Email notification sent for transaction: {} to user: {} ({})",
-                        transactionId, userId, userPreference.getEmail());
-            } catch (Exception e) {
-                log.error("Failed to send email notification for transaction {} to user {}: {}",
-                        transactionId, userId, e.getMessage());
+            String email = userPreference.getEmail();
+            if (coalesce(userPreference, NotificationChannel.EMAIL, direction, amount, digest ->
+                    channelDispatcher.dispatch(NotificationChannel.EMAIL, "digest to user " + userId,
+                            () -> notificationService.deliverTransactionEmail(email, formatDigestTitle(digest),
+                                    formatDigestContent(digest), "SUCCESS", digestInfo(digest))))) {
+                return;
+            }
+
+            // Build additional info for email
+            List<EmailNotificationRequest.InfoRow> additionalInfo = new ArrayList<>();
+            additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                    .label("Transaction ID: ")
+                    .value(transactionId.substring(0, Math.min(16, transactionId.length())))
+                    .build());
+            additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                    .label("Amount: ")
+                    .value(amount != null ? amount.toString() + " VND" : "N/A")
+                    .build());
+            additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                    .label(counterPartyLabel + ": ")
+                    .value(counterPartyAccountNumber)
+                    .build());
+            additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                    .label("Status: ")
+                    .value(status)
+                    .build());
+
+            String badge = success ? "SUCCESS" : "FAILED";
+
+            channelDispatcher.dispatch(NotificationChannel.EMAIL, "transaction " + transactionId + " to user " + userId,
+                    () -> notificationService.deliverTransactionEmail(email, title, content, badge, additionalInfo));
+        }
+    }
+
+    /**
+     * Queue an SMS notification on the SMS channel
+     */
+    private void sendSmsNotification(String userId, UserPreference userPreference,
+                                     String transactionId, String title, String content,
+                                     Direction direction, BigDecimal amount) {
+        if (userPreference.isSmsNotificationEnabled() &&
+                userPreference.getPhoneNumber() != null &&
+                !userPreference.getPhoneNumber().isEmpty()) {
+
+            String phoneNumber = userPreference.getPhoneNumber();
+            if (coalesce(userPreference, NotificationChannel.SMS, direction, amount, digest ->
+                    channelDispatcher.dispatch(NotificationChannel.SMS, "digest to user " + userId,
+                            () -> notificationService.deliverSms(phoneNumber,
+                                    "FortressBank: " + formatDigestTitle(digest) + "\n" + formatDigestContent(digest))))) {
+                return;
             }
+            channelDispatcher.dispatch(NotificationChannel.SMS, "transaction " + transactionId + " to user " + userId,
+                    () -> notificationService.deliverSms(phoneNumber, "FortressBank: " + title + "\n" + content));
         }
     }
 
+    /**
+     * Hand the event to the coalescer unless the user opted out of digests
+     *
+     * @return true if it joined a pending digest and must not be sent now
+     */
+    private boolean coalesce(UserPreference userPreference, NotificationChannel channel, Direction direction,
+                             BigDecimal amount, Consumer<Digest> sendDigest) {
+        return direction != null
+                && userPreference.isDigestEnabled()
+                && notificationCoalescer.offer(new Key(userPreference.getUserId(), channel, direction), amount, sendDigest);
+    }
+
+    private String formatDigestTitle(Digest digest) {
+        return digest.key().direction() == Direction.RECEIVED ? "Money Received" : "Money Sent Successfully";
+    }
+
+    /**
+     * Digest message, e.g. "You have received 137 more transfers. Total: +X VND"
+     */
+    private String formatDigestContent(Digest digest) {
+        boolean received = digest.key().direction() == Direction.RECEIVED;
+        StringBuilder sb = new StringBuilder();
+        sb.append(received ? "You have received " : "You have sent ")
+                .append(digest.count())
+                .append(digest.count() == 1 ? " more transfer.\n" : " more transfers.\n");
+        sb.append("Total: ").append(received ? "+" : "-").append(digest.total()).append(" VND\n");
+        sb.append("Between ").append(DIGEST_TIME_FORMATTER.format(Instant.ofEpochMilli(digest.firstAtMillis())))
+                .append(" and ").append(DIGEST_TIME_FORMATTER.format(Instant.ofEpochMilli(digest.lastAtMillis())));
+        return sb.toString();
+    }
+
+    private List<EmailNotificationRequest.InfoRow> digestInfo(Digest digest) {
+        List<EmailNotificationRequest.InfoRow> additionalInfo = new ArrayList<>();
+        additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                .label("Transfers: ")
+                .value(String.valueOf(digest.count()))
+                .build());
+        additionalInfo.add(EmailNotificationRequest.InfoRow.builder()
+                .label("Total: ")
+                .value(digest.total() + " VND")
+                .build());
+        return additionalInfo;
+    }
+
     /**
      * Format transaction notification message (legacy - kept for compatibility)
      */
@@ -281,21 +392,4 @@ public class NotificationListener {
 
         return sb.toString();
     }
-
-    /**
-     * Create default user preference if not found
-     * Saves to database for future use
-     */
-    private UserPreference createDefaultPreference(String userId) {
-        log.info("Creating and saving default preference for user: {}", userId);
-
-        UserPreference defaultPref = new UserPreference();
-        defaultPref.setUserId(userId);
-        defaultPref.setPushNotificationEnabled(true);
-        defaultPref.setSmsNotificationEnabled(false);
-        defaultPref.setEmailNotificationEnabled(false);
-
-        // Save to database so it persists
-        return userPreferenceRepo.save(defaultPref);
-    }
 }
@@ -3,5 +3,10 @@ package com.uit.notificationservice.repository;
 import com.uit.notificationservice.entity.UserPreference;
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
+import java.util.List;
+
 public interface UserPreferenceRepo extends JpaRepository<UserPreference, String> {
+
+    List<UserPreference> findByDeviceTokenIn(Collection<String> deviceTokens);
 }
@@ -1,21 +1,24 @@
 package com.uit.notificationservice.service;
 
 import com.uit.notificationservice.dto.EmailNotificationRequest;
+import com.uit.notificationservice.template.EmailTemplateEngine;
+import com.uit.notificationservice.template.SafeHtml;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ClassPathResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
@@ -24,6 +27,7 @@ public class EmailService {
 
 
     private final JavaMailSender mailSender;
+    private final EmailTemplateEngine templateEngine;
 
     @Value("${app.email.from-email:noreply@fortressbank.com}")
     private String fromEmail;
@@ -48,11 +52,9 @@ public class EmailService {
             log.info("From: {} <{}>", fromName, fromEmail);
             log.info("To: {}", request.getRecipientEmail());
 
-            // Load HTML template
-            String htmlTemplate = loadEmailTemplate();
-
-            // Build HTML content with template variables
-            String htmlContent = buildHtmlContent(htmlTemplate, request);
+            // Render the precompiled HTML template
+            String htmlContent = templateEngine.get(EmailTemplateEngine.EMAIL_NOTIFICATION)
+                    .render(buildModel(request));
 
             // Create and send email via SendGrid
             MimeMessage message = mailSender.createMimeMessage();
@@ -97,86 +99,37 @@ public class EmailService {
     }
 
     /**
-     * Load HTML email template from resources
-     * Uses InputStream to work with both file system and JAR files
-     */
-    private String loadEmailTemplate() {
-        try {
-            ClassPathResource resource = new ClassPathResource("templates/email-notification.html");
-            
-            // Use InputStream instead of getFile() to work with JAR files
-            try (var inputStream = resource.getInputStream()) {
-                byte[] bytes = inputStream.readAllBytes();
-                return new String(bytes, StandardCharsets.UTF_8);
-            }
-        } catch (Exception e) {
-            log.error("Failed to load email template: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to load email template", e);
-        }
-    }
-
-    /**
-     * Build HTML content by replacing template variables
-     * Simple string replacement - can be replaced with Thymeleaf/Freemarker for complex scenarios
+     * Build the template model; rendering escapes every plain string value
      */
-    private String buildHtmlContent(String template, EmailNotificationRequest request) {
-        String html = template;
-
-        // Replace basic fields
-        html = html.replace("{{title}}", escapeHtml(request.getTitle()));
-        html = html.replace("{{content}}", escapeHtml(request.getContent()).replace("\n", "<br>"));
-        html = html.replace("{{timestamp}}", LocalDateTime.now().format(TIMESTAMP_FORMATTER));
+    private Map<String, Object> buildModel(EmailNotificationRequest request) {
+        Map<String, Object> model = new HashMap<>();
+        model.put("title", request.getTitle());
+        // Escaped here rather than by the template so newlines can become <br>
+        model.put("content", new SafeHtml(escapeHtml(request.getContent()).replace("\n", "<br>")));
+        model.put("timestamp", LocalDateTime.now().format(TIMESTAMP_FORMATTER));
 
-        // Handle badge
         if (request.getBadge() != null && !request.getBadge().isEmpty()) {
-            String badgeClass = getBadgeClass(request.getBadge());
-            html = html.replace("{{#if badge}}", "");
-            html = html.replace("{{/if}}", "");
-            html = html.replace("{{badge}}", escapeHtml(request.getBadge()));
-            html = html.replace("{{badgeClass}}", badgeClass);
-        } else {
-            // Remove badge section if not present
-            html = removeConditionalBlock(html, "{{#if badge}}", "{{/if}}");
+            model.put("badge", request.getBadge());
+            model.put("badgeClass", getBadgeClass(request.getBadge()));
         }
 
-        // Handle additional info
         if (request.getAdditionalInfo() != null && !request.getAdditionalInfo().isEmpty()) {
-            String infoRows = buildInfoRows(request.getAdditionalInfo());
-            html = html.replace("{{#if additionalInfo}}", "");
-            html = html.replace("{{/if}}", "");
-            html = html.replace("{{#each additionalInfo}}", infoRows);
-            html = html.replace("{{/each}}", "");
-        } else {
-            html = removeConditionalBlock(html, "{{#if additionalInfo}}", "{{/if}}");
+            List<Map<String, String>> rows = new ArrayList<>(request.getAdditionalInfo().size());
+            for (EmailNotificationRequest.InfoRow row : request.getAdditionalInfo()) {
+                Map<String, String> item = new HashMap<>(4);
+                item.put("label", row.getLabel());
+                item.put("value", row.getValue());
+                rows.add(item);
+            }
+            model.put("additionalInfo", rows);
         }
 
-        // Handle CTA button
         if (request.getCtaUrl() != null && !request.getCtaUrl().isEmpty()) {
-            html = html.replace("{{#if ctaUrl}}", "");
-            html = html.replace("{{/if}}", "");
-            html = html.replace("{{ctaUrl}}", escapeHtml(request.getCtaUrl()));
-            html = html.replace("{{ctaText}}", escapeHtml(request.getCtaText() != null ? request.getCtaText() : "View Details"));
-        } else {
-            html = removeConditionalBlock(html, "{{#if ctaUrl}}", "{{/if}}");
+            model.put("ctaUrl", request.getCtaUrl());
+            model.put("ctaText", request.getCtaText() != null ? request.getCtaText() : "View Details");
         }
 
-        return html;
-    }
-
-    /**
-     * Build info rows HTML
-     */
-    private String buildInfoRows(List<EmailNotificationRequest.InfoRow> infoRows) {
-        StringBuilder sb = new StringBuilder();
-
-        for (EmailNotificationRequest.InfoRow row : infoRows) {
-            sb.append("<div class=\"info-row\">\n");
-            sb.append("    <span class=\"info-label\">").append(escapeHtml(row.getLabel())).append("</span>\n");
-            sb.append("    <span class=\"info-value\">").append(escapeHtml(row.getValue())).append("</span>\n");
-            sb.append("</div>\n");
-        }
-
-        return sb.toString();
+        return model;
     }
 
     /**
@@ -190,20 +143,6 @@ public class EmailService {
         };
     }
 
-    /**
-     * Remove conditional blocks from template
-     */
-    private String removeConditionalBlock(String html, String startMarker, String endMarker) {
-        int startIndex = html.indexOf(startMarker);
-        if (startIndex != -1) {
-            int endIndex = html.indexOf(endMarker, startIndex);
-            if (endIndex != -1) {
-                return html.substring(0, startIndex) + html.substring(endIndex + endMarker.length());
-            }
-        }
-        return html;
-    }
-
     /**
      * Escape HTML special characters to prevent XSS
      */
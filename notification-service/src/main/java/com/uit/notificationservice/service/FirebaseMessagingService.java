@@ -1,25 +1,59 @@
 package com.uit.notificationservice.service;
 
-import com.google.firebase.messaging.FirebaseMessaging;
 import com.google.firebase.messaging.FirebaseMessagingException;
 import com.google.firebase.messaging.Message;
 import com.google.firebase.messaging.Notification;
+import com.uit.notificationservice.dispatch.FcmBatcher;
 import com.uit.notificationservice.dto.SendNotificationRequest;
-import com.uit.notificationservice.entity.NotificationMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.util.List;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 
+/**
+ * Push sends go through {@link FcmBatcher}, which groups them into FCM batch calls
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class FirebaseMessagingService {
-    private final FirebaseMessaging firebaseMessaging;
+    private final FcmBatcher fcmBatcher;
 
     public void sendNotification(String deviceToken, SendNotificationRequest request) throws FirebaseMessagingException {
+        submit(deviceToken, request).whenComplete((messageId, error) -> {
+            if (error == null) {
+                log.info("Firebase messages sent successfully to {} devices", deviceToken);
+            } else {
+                log.error("Failed to send Firebase messages: {}", error.getMessage(), error);
+            }
+        });
+    }
+
+    /**
+     * Send and wait for FCM to accept the message; failures are thrown to the caller
+     */
+    public String sendNotificationSync(String deviceToken, SendNotificationRequest request) throws FirebaseMessagingException {
+        try {
+            return submit(deviceToken, request).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof FirebaseMessagingException fme) {
+                throw fme;
+            }
+            throw new IllegalStateException("Push to " + deviceToken + " failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sending push to " + deviceToken, e);
+        }
+    }
+
+    private CompletableFuture<String> submit(String deviceToken, SendNotificationRequest request) {
+        return fcmBatcher.submit(deviceToken, request.getTitle() + '\u0000' + request.getContent() + '\u0000' + request.getImage(),
+                buildMessage(deviceToken, request));
+    }
+
+    private Message buildMessage(String deviceToken, SendNotificationRequest request) {
         Notification notification = Notification
                 .builder()
                 .setTitle(request.getTitle())
@@ -27,19 +61,10 @@ public class FirebaseMessagingService {
                 .setImage(request.getImage())
                 .build();
 
-        Message message = Message
+        return Message
                 .builder()
                 .setToken(deviceToken)
                 .setNotification(notification)
                 .build();
-
-        CompletableFuture.runAsync(() -> {
-            try {
-                firebaseMessaging.send(message);
-                log.info("Firebase messages sent successfully to {} devices", deviceToken);
-            } catch (FirebaseMessagingException e) {
-                log.error("Failed to send Firebase messages: {}", e.getMessage(), e);
-            }
-        });
     }
 }
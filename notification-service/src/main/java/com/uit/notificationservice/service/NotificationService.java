@@ -1,6 +1,7 @@
 package com.uit.notificationservice.service;
 
 import com.google.firebase.messaging.FirebaseMessagingException;
+import com.uit.notificationservice.dispatch.FcmBatcher;
 import com.uit.notificationservice.dto.EmailNotificationRequest;
 import com.uit.notificationservice.dto.SendNotificationRequest;
 import com.uit.notificationservice.dto.TextBeeRequest;
@@ -50,6 +51,26 @@ public class NotificationService {
                 );
     }
 
+    /**
+     * Send an SMS and wait for the gateway to accept it.
+     * Blocking: call from a dispatcher thread, not a listener.
+     *
+     * @throws RuntimeException if the gateway rejects the message
+     */
+    public void deliverSms(String phoneNumber, String text) {
+        String url = "https://api.textbee.dev/api/v1/gateway/devices/" + deviceId + "/send-sms";
+
+        webClientBuilder.build()
+                .post()
+                .uri(url)
+                .header("x-api-key", apiKey)
+                .bodyValue(new TextBeeRequest(new String[]{phoneNumber}, text))
+                .retrieve()
+                .bodyToMono(Void.class)
+                .block();
+        log.info("SMS sent successfully to {}", phoneNumber);
+    }
+
     public List<NotificationMessage> getNotifications() {
         return notificationRepo.findAll();
     }
@@ -88,32 +109,10 @@ public class NotificationService {
         try {
             log.info("Sending transaction notification to user: {} on {} devices", userId, deviceToken);
 
-            // Create and save notification to database for each device
-            NotificationMessage notification = NotificationMessage.builder()
-                    .userId(userId)
-                    .title(title)
-                    .content(content)
-                    .type("TRANSACTION")
-                    .deviceToken(deviceToken)
-                    .isRead(false)
-                    .sentAt(new Date())
-                    .createdAt(new Date())
-                    .build();
-
-            notificationRepo.save(notification);
-            log.debug("Transaction notification saved to database for user: {}", userId);
+            saveTransactionNotification(userId, deviceToken, title, content);
 
             // Send push notification via Firebase
-            SendNotificationRequest request = SendNotificationRequest.builder()
-                    .userId(userId)
-                    .title(title)
-                    .content(content)
-                    .type("TRANSACTION")
-                    .isRead(false)
-                    .sentAt(new Date())
-                    .build();
-
-            firebaseMessagingService.sendNotification(deviceToken, request);
+            firebaseMessagingService.sendNotification(deviceToken, transactionPushRequest(userId, title, content));
             log.info("Transaction notification sent successfully to {} devices", deviceToken);
 
         } catch (
@@ -122,6 +121,56 @@ public class NotificationService {
         }
     }
 
+    /**
+     * Store a transaction notification in the user's inbox
+     */
+    public NotificationMessage saveTransactionNotification(String userId, String deviceToken,
+                                                           String title, String content) {
+        NotificationMessage notification = NotificationMessage.builder()
+                .userId(userId)
+                .title(title)
+                .content(content)
+                .type("TRANSACTION")
+                .deviceToken(deviceToken)
+                .isRead(false)
+                .sentAt(new Date())
+                .createdAt(new Date())
+                .build();
+
+        notificationRepo.save(notification);
+        log.debug("Transaction notification saved to database for user: {}", userId);
+        return notification;
+    }
+
+    /**
+     * Push a transaction notification and wait for Firebase to accept it.
+     * Blocking: call from a dispatcher thread, not a listener.
+     */
+    public void deliverTransactionPush(String userId, String deviceToken, String title, String content)
+            throws FirebaseMessagingException {
+        try {
+            firebaseMessagingService.sendNotificationSync(deviceToken, transactionPushRequest(userId, title, content));
+            log.info("Transaction push sent successfully to user {}", userId);
+        } catch (FirebaseMessagingException e) {
+            if (!FcmBatcher.isInvalidToken(e)) {
+                throw e;
+            }
+            // Not worth a retry; the batcher has already queued the token for pruning
+            log.warn("Device token of user {} is no longer valid: {}", userId, e.getMessagingErrorCode());
+        }
+    }
+
+    private SendNotificationRequest transactionPushRequest(String userId, String title, String content) {
+        return SendNotificationRequest.builder()
+                .userId(userId)
+                .title(title)
+                .content(content)
+                .type("TRANSACTION")
+                .isRead(false)
+                .sentAt(new Date())
+                .build();
+    }
+
     /**
      * Send email notification with optional info and CTA
      *
@@ -162,26 +211,34 @@ public class NotificationService {
     public void sendTransactionEmail(String recipientEmail, String title, String content,
                                      String badge, List<EmailNotificationRequest.InfoRow> additionalInfo) {
         try {
-            log.info("Sending transaction email to: {}", recipientEmail);
-
-            EmailNotificationRequest request = EmailNotificationRequest.builder()
-                    .recipientEmail(recipientEmail)
-                    .title(title)
-                    .content(content)
-                    .badge(badge)
-                    .additionalInfo(additionalInfo)
-                    .ctaUrl("https://fortressbank.com/transactions") // Link to transaction history
-                    .ctaText("View Transaction History")
-                    .build();
-
-            emailService.sendEmailNotification(request);
-            log.info("Transaction email sent successfully to: {}", recipientEmail);
-
+            deliverTransactionEmail(recipientEmail, title, content, badge, additionalInfo);
         } catch (Exception e) {
             log.error("Failed to send transaction email to {}: {}", recipientEmail, e.getMessage(), e);
         }
     }
 
+    /**
+     * Same as sendTransactionEmail, but failures propagate so the caller can retry.
+     * Blocking: call from a dispatcher thread, not a listener.
+     */
+    public void deliverTransactionEmail(String recipientEmail, String title, String content,
+                                        String badge, List<EmailNotificationRequest.InfoRow> additionalInfo) {
+        log.info("Sending transaction email to: {}", recipientEmail);
+
+        EmailNotificationRequest request = EmailNotificationRequest.builder()
+                .recipientEmail(recipientEmail)
+                .title(title)
+                .content(content)
+                .badge(badge)
+                .additionalInfo(additionalInfo)
+                .ctaUrl("https://fortressbank.com/transactions") // Link to transaction history
+                .ctaText("View Transaction History")
+                .build();
+
+        emailService.sendEmailNotification(request);
+        log.info("Transaction email sent successfully to: {}", recipientEmail);
+    }
+
     public NotificationMessage createAndSendNotification(SendNotificationRequest request) throws FirebaseMessagingException {
         NotificationMessage newNotification = NotificationMessage.builder()
                 .userId(request.getUserId())
@@ -0,0 +1,113 @@
+package com.uit.notificationservice.service;
+
+import com.uit.notificationservice.config.PriorityLaneProperties;
+import com.uit.notificationservice.dispatch.BulkThrottle;
+import com.uit.notificationservice.dto.TextBeeRequest;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OTP SMS delivery on the priority lane.
+ *
+ * Runs on the OTP listener threads and uses the OTP-only gateway connection
+ * pool. Latency is measured from the moment transaction-service published the
+ * event, against notification.priority.otp.slo-ms; the queue part of it feeds
+ * {@link BulkThrottle}.
+ */
+@Slf4j
+@Service
+public class OtpSmsSender {
+
+    private final WebClient otpSmsWebClient;
+    private final BulkThrottle bulkThrottle;
+    private final PriorityLaneProperties.Otp settings;
+
+    private final Timer queueLatency;
+    private final Timer deliveredLatency;
+    private final Timer failedLatency;
+    private final Counter sloBreaches;
+
+    @Value("${textbee.api.key}")
+    private String apiKey;
+
+    @Value("${textbee.device.id}")
+    private String deviceId;
+
+    public OtpSmsSender(WebClient otpSmsWebClient, BulkThrottle bulkThrottle,
+                        PriorityLaneProperties properties, MeterRegistry meterRegistry) {
+        this.otpSmsWebClient = otpSmsWebClient;
+        this.bulkThrottle = bulkThrottle;
+        this.settings = properties.getOtp();
+
+        Duration slo = Duration.ofMillis(settings.getSloMs());
+        this.queueLatency = latencyTimer(meterRegistry, "queue", "received", slo);
+        this.deliveredLatency = latencyTimer(meterRegistry, "end_to_end", "delivered", slo);
+        this.failedLatency = latencyTimer(meterRegistry, "end_to_end", "failed", slo);
+        this.sloBreaches = Counter.builder("notification.otp.slo.breaches")
+                .description("OTPs not handed to the SMS gateway within the SLO")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Send the OTP, retrying within maxAttempts. Blocks the calling listener thread.
+     *
+     * @param publishedAt epoch millis the event was published, or null for older publishers
+     * @return true once the gateway accepted the message
+     */
+    public boolean send(String transactionId, String phoneNumber, String otpCode, Long publishedAt) {
+        long received = System.currentTimeMillis();
+        long started = publishedAt != null ? Math.min(publishedAt, received) : received;
+        if (publishedAt != null) {
+            long waited = received - started;
+            queueLatency.record(waited, TimeUnit.MILLISECONDS);
+            bulkThrottle.recordOtpQueueLatency(waited);
+        }
+
+        TextBeeRequest request = new TextBeeRequest(new String[]{phoneNumber},
+                "Your FortressBank verification code is: " + otpCode);
+        for (int attempt = 1; attempt <= settings.getMaxAttempts(); attempt++) {
+            try {
+                otpSmsWebClient.post()
+                        .uri("https://api.textbee.dev/api/v1/gateway/devices/" + deviceId + "/send-sms")
+                        .header("x-api-key", apiKey)
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(Void.class)
+                        .block(Duration.ofMillis(settings.getSendTimeoutMs()));
+                record(deliveredLatency, started);
+                log.info("OTP SMS for transaction {} sent to {} (attempt {})", transactionId, phoneNumber, attempt);
+                return true;
+            } catch (Exception e) {
+                log.warn("OTP SMS attempt {} for transaction {} failed: {}", attempt, transactionId, e.getMessage());
+            }
+        }
+        record(failedLatency, started);
+        log.error("OTP SMS for transaction {} not delivered after {} attempts", transactionId, settings.getMaxAttempts());
+        return false;
+    }
+
+    private void record(Timer timer, long started) {
+        long elapsed = System.currentTimeMillis() - started;
+        timer.record(elapsed, TimeUnit.MILLISECONDS);
+        if (elapsed > settings.getSloMs()) {
+            sloBreaches.increment();
+        }
+    }
+
+    private static Timer latencyTimer(MeterRegistry registry, String stage, String outcome, Duration slo) {
+        return Timer.builder("notification.otp.latency")
+                .description("OTP latency since transaction-service published the event")
+                .tag("stage", stage)
+                .tag("outcome", outcome)
+                .serviceLevelObjectives(Duration.ofSeconds(1), slo, Duration.ofSeconds(90))
+                .register(registry);
+    }
+}
@@ -1,5 +1,8 @@
 package com.uit.notificationservice.service;
 
+import com.uit.notificationservice.cache.DefaultPreferenceWriter;
+import com.uit.notificationservice.cache.UserPreferenceCache;
+import com.uit.notificationservice.dispatch.InvalidDeviceTokensEvent;
 import com.uit.notificationservice.dto.UserPreferenceRequest;
 import com.uit.notificationservice.dto.UserPreferenceResponse;
 import com.uit.notificationservice.entity.UserPreference;
@@ -8,8 +11,11 @@ import com.uit.sharedkernel.exception.AppException;
 import com.uit.sharedkernel.exception.ErrorCode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -20,6 +26,8 @@ import java.util.List;
 public class UserPreferenceService {
 
     private final UserPreferenceRepo userPreferenceRepo;
+    private final UserPreferenceCache userPreferenceCache;
+    private final DefaultPreferenceWriter defaultPreferenceWriter;
 
     /**
      * Get user preference by userId
@@ -87,12 +95,52 @@ public class UserPreferenceService {
             preference.setEmailNotificationEnabled(request.getEmailNotificationEnabled());
         }
 
+        if (request.getDigestEnabled() != null) {
+            preference.setDigestEnabled(request.getDigestEnabled());
+        }
+
+        defaultPreferenceWriter.discard(userId);
         preference = userPreferenceRepo.save(preference);
+        evictAfterCommit(userId);
         log.info("User preference saved for user: {}", userId);
         
         return mapToResponse(preference);
     }
 
+    /**
+     * Drop device tokens FCM no longer accepts, so later pushes skip those users
+     * instead of failing on every send
+     */
+    @EventListener
+    @Transactional
+    public void pruneDeviceTokens(InvalidDeviceTokensEvent event) {
+        List<UserPreference> preferences = userPreferenceRepo.findByDeviceTokenIn(event.deviceTokens());
+        for (UserPreference preference : preferences) {
+            preference.setDeviceToken(null);
+            evictAfterCommit(preference.getUserId());
+        }
+        userPreferenceRepo.saveAll(preferences);
+        log.info("Pruned {} invalid device tokens from {} user preferences",
+                event.deviceTokens().size(), preferences.size());
+    }
+
+    /**
+     * Evict once the update commits, so a listener reloading right after the
+     * eviction already sees the new preference
+     */
+    private void evictAfterCommit(String userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    userPreferenceCache.evict(userId);
+                }
+            });
+        } else {
+            userPreferenceCache.evict(userId);
+        }
+    }
+
     /**
      * Map entity to response DTO
      */
@@ -105,6 +153,7 @@ public class UserPreferenceService {
                 .pushNotificationEnabled(preference.isPushNotificationEnabled())
                 .smsNotificationEnabled(preference.isSmsNotificationEnabled())
                 .emailNotificationEnabled(preference.isEmailNotificationEnabled())
+                .digestEnabled(preference.isDigestEnabled())
                 .build();
     }
 }
@@ -0,0 +1,183 @@
+package com.uit.notificationservice.template;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A template parsed once into a segment tree and rendered by appending into a
+ * single StringBuilder.
+ *
+ * Supported syntax: {{name}} (HTML-escaped unless the value is {@link SafeHtml}),
+ * {{#if name}}...{{/if}} (rendered when the value is non-null, non-empty),
+ * {{#each name}}...{{/each}} over a collection of maps, with {{this.key}} inside.
+ */
+public final class EmailTemplate {
+
+    private sealed interface Segment permits Text, Variable, If, Each {
+    }
+
+    private record Text(String text) implements Segment {
+    }
+
+    /**
+     * @param item true for this.key, resolved against the current each item
+     */
+    private record Variable(String name, boolean item) implements Segment {
+    }
+
+    private record If(String name, List<Segment> body) implements Segment {
+    }
+
+    private record Each(String name, List<Segment> body) implements Segment {
+    }
+
+    private final String name;
+    private final List<Segment> segments;
+    private final int staticLength;
+
+    private EmailTemplate(String name, List<Segment> segments, int staticLength) {
+        this.name = name;
+        this.segments = segments;
+        this.staticLength = staticLength;
+    }
+
+    /**
+     * @throws IllegalArgumentException on unbalanced or unknown block tags
+     */
+    public static EmailTemplate parse(String name, String source) {
+        Parser parser = new Parser(name, source);
+        List<Segment> segments = parser.parseBlock(null);
+        return new EmailTemplate(name, segments, parser.staticLength);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String render(Map<String, ?> model) {
+        StringBuilder out = new StringBuilder(staticLength + staticLength / 2);
+        render(segments, model, null, out);
+        return out.toString();
+    }
+
+    private static void render(List<Segment> segments, Map<String, ?> model, Map<?, ?> item, StringBuilder out) {
+        for (Segment segment : segments) {
+            switch (segment) {
+                case Text text -> out.append(text.text());
+                case Variable variable -> {
+                    Object value = variable.item() ? (item != null ? item.get(variable.name()) : null)
+                            : model.get(variable.name());
+                    if (value instanceof SafeHtml html) {
+                        out.append(html.html());
+                    } else if (value != null) {
+                        appendEscaped(value.toString(), out);
+                    }
+                }
+                case If block -> {
+                    if (isPresent(model.get(block.name()))) {
+                        render(block.body(), model, item, out);
+                    }
+                }
+                case Each block -> {
+                    if (model.get(block.name()) instanceof Collection<?> items) {
+                        for (Object each : items) {
+                            render(block.body(), model, each instanceof Map<?, ?> map ? map : null, out);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean isPresent(Object value) {
+        if (value == null) return false;
+        if (value instanceof CharSequence text) return !text.isEmpty();
+        if (value instanceof Collection<?> items) return !items.isEmpty();
+        if (value instanceof SafeHtml html) return !html.html().isEmpty();
+        return true;
+    }
+
+    static void appendEscaped(String text, StringBuilder out) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#x27;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    private static final class Parser {
+        private final String name;
+        private final String source;
+        private int position;
+        private int staticLength;
+
+        private Parser(String name, String source) {
+            this.name = name;
+            this.source = source;
+        }
+
+        /**
+         * Parse until the closing tag of the enclosing block, or the end for the root
+         */
+        private List<Segment> parseBlock(String closingTag) {
+            List<Segment> segments = new ArrayList<>();
+            while (position < source.length()) {
+                int open = source.indexOf("{{", position);
+                if (open < 0) {
+                    addText(segments, source.substring(position));
+                    position = source.length();
+                    break;
+                }
+                int close = source.indexOf("}}", open);
+                if (close < 0) {
+                    throw error("Unclosed tag", open);
+                }
+                addText(segments, source.substring(position, open));
+                String tag = source.substring(open + 2, close).trim();
+                position = close + 2;
+
+                if (tag.startsWith("#if ")) {
+                    String variable = tag.substring(4).trim();
+                    segments.add(new If(variable, parseBlock("/if")));
+                } else if (tag.startsWith("#each ")) {
+                    String variable = tag.substring(6).trim();
+                    segments.add(new Each(variable, parseBlock("/each")));
+                } else if (tag.startsWith("/")) {
+                    if (!tag.equals(closingTag)) {
+                        throw error("Unexpected {{" + tag + "}}", open);
+                    }
+                    return segments;
+                } else if (tag.startsWith("#")) {
+                    throw error("Unknown block {{" + tag + "}}", open);
+                } else if (tag.startsWith("this.")) {
+                    segments.add(new Variable(tag.substring(5), true));
+                } else {
+                    segments.add(new Variable(tag, false));
+                }
+            }
+            if (closingTag != null) {
+                throw error("Missing {{" + closingTag + "}}", source.length());
+            }
+            return segments;
+        }
+
+        private void addText(List<Segment> segments, String text) {
+            if (!text.isEmpty()) {
+                segments.add(new Text(text));
+                staticLength += text.length();
+            }
+        }
+
+        private IllegalArgumentException error(String message, int offset) {
+            return new IllegalArgumentException(message + " in template " + name + " at offset " + offset);
+        }
+    }
+}
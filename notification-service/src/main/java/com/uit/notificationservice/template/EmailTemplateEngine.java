@@ -0,0 +1,95 @@
+package com.uit.notificationservice.template;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Compiled email templates, loaded once and recompiled when their source changes.
+ *
+ * Templates are read from app.email.template-location (the bundled classpath
+ * templates by default; point it at a file: directory to edit them live). A
+ * scheduled check recompiles any template whose last-modified time moved; a
+ * template that no longer parses keeps serving the previous version.
+ */
+@Slf4j
+@Component
+public class EmailTemplateEngine {
+
+    public static final String EMAIL_NOTIFICATION = "email-notification.html";
+
+    private final ResourceLoader resourceLoader;
+    private final Map<String, Loaded> templates = new ConcurrentHashMap<>();
+
+    @Value("${app.email.template-location:classpath:templates/}")
+    private String templateLocation;
+
+    private record Loaded(EmailTemplate template, long lastModified) {
+    }
+
+    public EmailTemplateEngine(ResourceLoader resourceLoader) {
+        this.resourceLoader = resourceLoader;
+    }
+
+    /**
+     * Fail at startup rather than on the first email
+     */
+    @PostConstruct
+    void init() {
+        get(EMAIL_NOTIFICATION);
+    }
+
+    public EmailTemplate get(String name) {
+        return templates.computeIfAbsent(name, this::load).template();
+    }
+
+    @Scheduled(fixedDelayString = "${app.email.template-reload-ms:5000}")
+    void reloadChanged() {
+        templates.forEach((name, loaded) -> {
+            long lastModified = lastModified(resource(name));
+            if (lastModified == loaded.lastModified()) {
+                return;
+            }
+            try {
+                templates.put(name, load(name));
+                log.info("Reloaded email template {}", name);
+            } catch (Exception e) {
+                log.error("Failed to reload email template {}, keeping the previous version: {}", name, e.getMessage());
+            }
+        });
+    }
+
+    private Loaded load(String name) {
+        Resource resource = resource(name);
+        long lastModified = lastModified(resource);
+        try (InputStream inputStream = resource.getInputStream()) {
+            String source = new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            return new Loaded(EmailTemplate.parse(name, source), lastModified);
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to load email template " + name, e);
+        }
+    }
+
+    private Resource resource(String name) {
+        String location = templateLocation.endsWith("/") ? templateLocation : templateLocation + "/";
+        return resourceLoader.getResource(location + name);
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+}
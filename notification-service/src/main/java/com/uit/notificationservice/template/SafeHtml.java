@@ -0,0 +1,7 @@
+package com.uit.notificationservice.template;
+
+/**
+ * Model value that is already HTML and is written without escaping
+ */
+public record SafeHtml(String html) {
+}
@@ -0,0 +1,10 @@
+-- ============================================================================
+-- NOTIFICATION SERVICE - DIGEST OPT-OUT
+-- ============================================================================
+-- Version: V3
+-- Description: Per-user switch for coalescing bursts of transfer
+--              notifications into one digest per channel
+-- ============================================================================
+
+ALTER TABLE user_preference
+    ADD COLUMN digest_enabled BOOLEAN NOT NULL DEFAULT TRUE;
@@ -0,0 +1,83 @@
+package com.uit.notificationservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("DeliveryDeduplicator Unit Tests")
+class DeliveryDeduplicatorTest {
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplateProvider;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    @DisplayName("Repeats on the same instance are dropped without Redis")
+    void testLocalDuplicate() {
+        DeliveryDeduplicator deduplicator = new DeliveryDeduplicator(redisTemplateProvider, meterRegistry, 600, 100, false);
+
+        assertThat(deduplicator.claim("tx-1", "COMPLETED", "receiver:user-1")).isTrue();
+        assertThat(deduplicator.claim("tx-1", "COMPLETED", "receiver:user-1")).isFalse();
+        assertThat(deduplicator.claim("tx-1", "COMPLETED", "sender:user-1")).isTrue();
+        assertThat(deduplicator.claim("tx-1", "FAILED", "receiver:user-1")).isTrue();
+        assertThat(meterRegistry.get("notification.dedupe").tag("result", "duplicate_local").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("A delivery claimed by another replica is dropped")
+    void testRedisDuplicate() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), eq("1"), any(Duration.class))).thenReturn(false);
+        DeliveryDeduplicator deduplicator = new DeliveryDeduplicator(redisTemplateProvider, meterRegistry, 600, 100, true);
+
+        assertThat(deduplicator.claim("tx-2", "COMPLETED", "receiver:user-1")).isFalse();
+        verify(valueOperations, times(1)).setIfAbsent(
+                DeliveryDeduplicator.REDIS_KEY_PREFIX + "tx-2:COMPLETED:receiver:user-1", "1", Duration.ofSeconds(600));
+    }
+
+    @Test
+    @DisplayName("Redis outages fail open so notifications still go out")
+    void testRedisFailureFailsOpen() {
+        when(redisTemplateProvider.getIfAvailable()).thenReturn(redisTemplate);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        DeliveryDeduplicator deduplicator = new DeliveryDeduplicator(redisTemplateProvider, meterRegistry, 600, 100, true);
+
+        assertThat(deduplicator.claim("tx-3", "COMPLETED", "receiver:user-1")).isTrue();
+        assertThat(deduplicator.claim("tx-3", "COMPLETED", "receiver:user-1")).isFalse();
+    }
+}
@@ -0,0 +1,92 @@
+package com.uit.notificationservice.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.notificationservice.entity.UserPreference;
+import com.uit.notificationservice.repository.UserPreferenceRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserPreferenceCache Unit Tests")
+class UserPreferenceCacheTest {
+
+    @Mock
+    private UserPreferenceRepo userPreferenceRepo;
+
+    @Mock
+    private DefaultPreferenceWriter defaultPreferenceWriter;
+
+    @Mock
+    private ObjectProvider<StringRedisTemplate> redisTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserPreferenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new UserPreferenceCache(userPreferenceRepo, defaultPreferenceWriter, redisTemplate,
+                new ObjectMapper(), meterRegistry, 100, 60, false, 600);
+    }
+
+    @Test
+    @DisplayName("Loads a stored preference once, then serves it from the near-cache")
+    void testLoadThenNearHit() {
+        UserPreference stored = UserPreference.builder().userId("user-1").email("a@b.c").emailNotificationEnabled(true).build();
+        when(userPreferenceRepo.findById("user-1")).thenReturn(Optional.of(stored));
+
+        UserPreference first = cache.get("user-1");
+        UserPreference second = cache.get("user-1");
+
+        assertThat(first).isSameAs(stored);
+        assertThat(second).isSameAs(stored);
+        verify(userPreferenceRepo, times(1)).findById("user-1");
+        verifyNoInteractions(defaultPreferenceWriter);
+        assertThat(meterRegistry.get("notification.preference.cache").tags("level", "near", "result", "hit").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Unknown users get defaults at once; the insert is queued, not run inline")
+    void testDefaultWriteBehind() {
+        when(userPreferenceRepo.findById("new-user")).thenReturn(Optional.empty());
+
+        UserPreference preference = cache.get("new-user");
+        cache.get("new-user");
+
+        assertThat(preference.isPushNotificationEnabled()).isTrue();
+        assertThat(preference.isEmailNotificationEnabled()).isFalse();
+        ArgumentCaptor<UserPreference> queued = ArgumentCaptor.forClass(UserPreference.class);
+        verify(defaultPreferenceWriter, times(1)).enqueue(queued.capture());
+        assertThat(queued.getValue().getUserId()).isEqualTo("new-user");
+        verify(userPreferenceRepo, times(1)).findById("new-user");
+    }
+
+    @Test
+    @DisplayName("Eviction forces a reload")
+    void testEvict() {
+        when(userPreferenceRepo.findById("user-2")).thenReturn(Optional.of(UserPreference.builder().userId("user-2").build()));
+
+        cache.get("user-2");
+        cache.evict("user-2");
+        cache.get("user-2");
+
+        verify(userPreferenceRepo, times(2)).findById("user-2");
+    }
+}
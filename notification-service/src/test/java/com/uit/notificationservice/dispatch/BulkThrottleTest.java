@@ -0,0 +1,96 @@
+package com.uit.notificationservice.dispatch;
+
+import com.uit.notificationservice.config.DispatchProperties;
+import com.uit.notificationservice.config.PriorityLaneConfig;
+import com.uit.notificationservice.config.PriorityLaneProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistry;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("BulkThrottle Unit Tests")
+class BulkThrottleTest {
+
+    private ChannelDispatcher dispatcher;
+    private SimpleMessageListenerContainer bulkContainer;
+    private BulkThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        DispatchProperties dispatchProperties = new DispatchProperties();
+        dispatchProperties.getEmail().setMaxConcurrency(16);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new ChannelDispatcher(dispatchProperties, meterRegistry);
+
+        PriorityLaneProperties properties = new PriorityLaneProperties();
+        properties.getBulk().setConsumers(4);
+        properties.getBulk().setMaxConsumers(8);
+        properties.getThrottle().setOtpQueueLatencyThresholdMs(2000);
+        properties.getThrottle().setMinFactor(0.25);
+        properties.getThrottle().setRecoveryStep(0.25);
+
+        bulkContainer = mock(SimpleMessageListenerContainer.class);
+        RabbitListenerEndpointRegistry registry = mock(RabbitListenerEndpointRegistry.class);
+        when(registry.getListenerContainer(PriorityLaneConfig.BULK_LISTENER_ID)).thenReturn(bulkContainer);
+
+        throttle = new BulkThrottle(dispatcher, registry, properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("Slow OTP queue halves bulk concurrency down to the floor")
+    void testThrottlesOnOtpLatency() {
+        throttle.recordOtpQueueLatency(500);
+        throttle.recordOtpQueueLatency(3000);
+        throttle.adjust();
+
+        assertThat(throttle.getFactor()).isEqualTo(0.5);
+        assertThat(dispatcher.concurrencyLimit(NotificationChannel.EMAIL)).isEqualTo(8);
+        var order = inOrder(bulkContainer);
+        order.verify(bulkContainer).setConcurrentConsumers(2);
+        order.verify(bulkContainer).setMaxConcurrentConsumers(4);
+
+        for (int i = 0; i < 3; i++) {
+            throttle.recordOtpQueueLatency(5000);
+            throttle.adjust();
+        }
+        assertThat(throttle.getFactor()).isEqualTo(0.25);
+        assertThat(dispatcher.concurrencyLimit(NotificationChannel.EMAIL)).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("Calm intervals restore bulk concurrency step by step")
+    void testRecoversWhenOtpIsFast() {
+        throttle.recordOtpQueueLatency(5000);
+        throttle.adjust();
+        throttle.recordOtpQueueLatency(5000);
+        throttle.adjust();
+        assertThat(throttle.getFactor()).isEqualTo(0.25);
+        clearInvocations(bulkContainer);
+
+        throttle.recordOtpQueueLatency(100);
+        throttle.adjust();
+        assertThat(throttle.getFactor()).isEqualTo(0.5);
+        var order = inOrder(bulkContainer);
+        order.verify(bulkContainer).setMaxConcurrentConsumers(4);
+        order.verify(bulkContainer).setConcurrentConsumers(2);
+
+        throttle.adjust();
+        throttle.adjust();
+        assertThat(throttle.getFactor()).isEqualTo(1.0);
+        assertThat(dispatcher.concurrencyLimit(NotificationChannel.EMAIL)).isEqualTo(16);
+    }
+}
@@ -0,0 +1,78 @@
+package com.uit.notificationservice.dispatch;
+
+import com.uit.notificationservice.config.DispatchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ChannelDispatcher Unit Tests")
+class ChannelDispatcherTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ChannelDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        DispatchProperties properties = new DispatchProperties();
+        properties.getEmail().setMaxConcurrency(1);
+        properties.getEmail().setTimeoutMs(200);
+        properties.getEmail().setRetryBackoffMs(10);
+        properties.getPush().setRetryBackoffMs(10);
+        meterRegistry = new SimpleMeterRegistry();
+        dispatcher = new ChannelDispatcher(properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    @DisplayName("A stalled email channel does not delay push")
+    void testChannelsAreIsolated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        dispatcher.dispatch(NotificationChannel.EMAIL, "stalled email", release::await);
+
+        CompletableFuture<Boolean> push = dispatcher.dispatch(NotificationChannel.PUSH, "push", () -> { });
+
+        assertThat(push.get(1, TimeUnit.SECONDS)).isTrue();
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Failed attempts are retried until one succeeds")
+    void testRetryUntilSuccess() throws Exception {
+        AtomicInteger attempts = new AtomicInteger();
+
+        CompletableFuture<Boolean> push = dispatcher.dispatch(NotificationChannel.PUSH, "flaky push", () -> {
+            if (attempts.incrementAndGet() < 3) {
+                throw new IllegalStateException("FCM unavailable");
+            }
+        });
+
+        assertThat(push.get(2, TimeUnit.SECONDS)).isTrue();
+        assertThat(attempts).hasValue(3);
+        assertThat(meterRegistry.get("notification.dispatch.retries").tag("channel", "push").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    @DisplayName("Attempts past the channel timeout are interrupted and give up after maxAttempts")
+    void testTimeoutExhaustsAttempts() throws Exception {
+        CompletableFuture<Boolean> email = dispatcher.dispatch(NotificationChannel.EMAIL, "slow email",
+                () -> Thread.sleep(5_000));
+
+        assertThat(email.get(5, TimeUnit.SECONDS)).isFalse();
+        assertThat(meterRegistry.get("notification.dispatch.latency")
+                .tags("channel", "email", "outcome", "timeout").timer().count()).isEqualTo(3);
+    }
+}
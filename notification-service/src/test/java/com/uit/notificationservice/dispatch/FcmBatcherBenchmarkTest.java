@@ -0,0 +1,129 @@
+package com.uit.notificationservice.dispatch;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.SendResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Throughput benchmark for FcmBatcher against a local FCM stub where every sendEach
+ * call costs one simulated HTTPS round trip, whatever its size.
+ *
+ * Pushes the same PUSHES distinct messages through the batcher twice with the same
+ * workers: capped at one message per call, which is one round trip per token, and
+ * with the 500-message FCM cap. Logs pushes/sec for both.
+ *
+ * Runs only with -Pbenchmark; scale it with -Dfcm.benchmark.pushes=20000 -Dfcm.benchmark.roundTripMs=50.
+ */
+@Tag("benchmark")
+@DisplayName("FcmBatcher Throughput Benchmark")
+class FcmBatcherBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(FcmBatcherBenchmarkTest.class);
+
+    private static final int PUSHES = Integer.getInteger("fcm.benchmark.pushes", 2_000);
+    private static final long ROUND_TRIP_MS = Long.getLong("fcm.benchmark.roundTripMs", 5L);
+    private static final int WORKERS = 2;
+
+    @Test
+    @DisplayName("Batched sendEach calls beat one round trip per token")
+    void testThroughputAgainstStub() throws Exception {
+        Run perToken = run(1);
+        Run batched = run(FcmBatcher.FCM_MAX_BATCH);
+
+        log.info("[fcm] {} pushes, {} ms stub, {} workers: per-token {} pushes/s in {} calls, batched {} pushes/s in {} calls (x{})",
+                PUSHES, ROUND_TRIP_MS, WORKERS,
+                Math.round(perToken.pushesPerSecond()), perToken.calls(),
+                Math.round(batched.pushesPerSecond()), batched.calls(),
+                String.format("%.1f", batched.pushesPerSecond() / perToken.pushesPerSecond()));
+
+        assertThat(perToken.calls()).isEqualTo(PUSHES);
+        assertThat(batched.calls()).isLessThanOrEqualTo(PUSHES / 100 + 4);
+        assertThat(batched.pushesPerSecond()).isGreaterThan(perToken.pushesPerSecond());
+    }
+
+    private record Run(double pushesPerSecond, int calls) {
+    }
+
+    private static Run run(int maxBatchSize) throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        FcmBatcher batcher = new FcmBatcher(stub(calls), mock(ApplicationEventPublisher.class));
+        ReflectionTestUtils.setField(batcher, "windowMs", 20L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(batcher, "workerCount", WORKERS);
+        batcher.start();
+        try {
+            long started = System.nanoTime();
+            List<CompletableFuture<String>> results = new ArrayList<>(PUSHES);
+            for (int i = 0; i < PUSHES; i++) {
+                results.add(batcher.submit("token-" + i, "salary", message("token-" + i)));
+            }
+            CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(10, TimeUnit.MINUTES);
+            double seconds = (System.nanoTime() - started) / 1e9;
+
+            assertThat(results).allSatisfy(result -> assertThat(result.get()).startsWith("msg-"));
+            return new Run(PUSHES / seconds, calls.get());
+        } finally {
+            batcher.stop();
+        }
+    }
+
+    /**
+     * stubOnly: a recording mock would keep every batch it was called with
+     */
+    private static FirebaseMessaging stub(AtomicInteger calls) throws FirebaseMessagingException {
+        FirebaseMessaging firebaseMessaging = mock(FirebaseMessaging.class, withSettings().stubOnly());
+        SendResponse success = mock(SendResponse.class, withSettings().stubOnly());
+        when(success.isSuccessful()).thenReturn(true);
+        when(success.getMessageId()).thenReturn("msg-stub");
+
+        when(firebaseMessaging.sendEach(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            calls.incrementAndGet();
+            Thread.sleep(ROUND_TRIP_MS);
+            List<SendResponse> responses = Collections.nCopies(messages.size(), success);
+            return new BatchResponse() {
+                @Override
+                public List<SendResponse> getResponses() {
+                    return responses;
+                }
+
+                @Override
+                public int getSuccessCount() {
+                    return responses.size();
+                }
+
+                @Override
+                public int getFailureCount() {
+                    return 0;
+                }
+            };
+        });
+        return firebaseMessaging;
+    }
+
+    private static Message message(String token) {
+        return Message.builder().setToken(token).putData("kind", "benchmark").build();
+    }
+}
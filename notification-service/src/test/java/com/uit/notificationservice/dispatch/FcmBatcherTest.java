@@ -0,0 +1,156 @@
+package com.uit.notificationservice.dispatch;
+
+import com.google.firebase.messaging.BatchResponse;
+import com.google.firebase.messaging.FirebaseMessaging;
+import com.google.firebase.messaging.FirebaseMessagingException;
+import com.google.firebase.messaging.Message;
+import com.google.firebase.messaging.MessagingErrorCode;
+import com.google.firebase.messaging.SendResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * FcmBatcher against a stubbed FirebaseMessaging: every batch call costs one
+ * simulated HTTPS round trip.
+ */
+@DisplayName("FcmBatcher Unit Tests")
+class FcmBatcherTest {
+
+    private static final int PUSHES = 2_000;
+    private static final long ROUND_TRIP_MS = 5;
+
+    private FirebaseMessaging firebaseMessaging;
+    private ApplicationEventPublisher eventPublisher;
+    private FcmBatcher batcher;
+    private final AtomicInteger batchCalls = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        firebaseMessaging = mock(FirebaseMessaging.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        stubSendEach(i -> true);
+        batcher = new FcmBatcher(firebaseMessaging, eventPublisher);
+        ReflectionTestUtils.setField(batcher, "windowMs", 20L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 500);
+        ReflectionTestUtils.setField(batcher, "workerCount", 1);
+        batcher.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @DisplayName("Identical pushes to one token within a window are sent once")
+    void testCoalescing() throws Exception {
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(batcher.submit("token-1", "Money Received|+100", message("token-1")));
+        }
+        results.add(batcher.submit("token-2", "Money Received|+100", message("token-2")));
+
+        for (CompletableFuture<String> result : results) {
+            assertThat(result.get(1, TimeUnit.SECONDS)).startsWith("msg-");
+        }
+        assertThat(batchCalls).hasValue(1);
+        assertThat(results.get(0).get()).isEqualTo(results.get(2).get()).isNotEqualTo(results.get(3).get());
+    }
+
+    @Test
+    @DisplayName("A token FCM reports unregistered fails only its own caller and is published for pruning")
+    void testInvalidTokenIsReportedAndPruned() throws Exception {
+        stubSendEach(i -> i != 1);
+
+        CompletableFuture<String> good = batcher.submit("token-ok", "a", message("token-ok"));
+        CompletableFuture<String> bad = batcher.submit("token-gone", "a", message("token-gone"));
+
+        assertThat(good.get(1, TimeUnit.SECONDS)).startsWith("msg-");
+        assertThatThrownBy(() -> bad.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(FirebaseMessagingException.class);
+        verify(eventPublisher).publishEvent(new InvalidDeviceTokensEvent(Set.of("token-gone")));
+    }
+
+    @Test
+    @DisplayName("Distinct pushes inside a window share sendEach calls of at most 500 messages")
+    void testDistinctPushesAreBatched() throws Exception {
+        List<CompletableFuture<String>> results = new ArrayList<>(PUSHES);
+        for (int i = 0; i < PUSHES; i++) {
+            results.add(batcher.submit("token-" + i, "salary", message("token-" + i)));
+        }
+        CompletableFuture.allOf(results.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+
+        assertThat(results).allSatisfy(result -> assertThat(result.get()).startsWith("msg-"));
+        // Full batches plus at most a partial one per window the submissions spanned
+        assertThat(batchCalls.get()).isBetween(PUSHES / FcmBatcher.FCM_MAX_BATCH, PUSHES / 100 + 4);
+    }
+
+    private void stubSendEach(IntPredicate succeeds) throws FirebaseMessagingException {
+        when(firebaseMessaging.sendEach(anyList())).thenAnswer(invocation -> {
+            List<Message> messages = invocation.getArgument(0);
+            assertThat(messages).hasSizeLessThanOrEqualTo(FcmBatcher.FCM_MAX_BATCH);
+            int call = batchCalls.incrementAndGet();
+            Thread.sleep(ROUND_TRIP_MS);
+
+            List<SendResponse> responses = new ArrayList<>();
+            for (int i = 0; i < messages.size(); i++) {
+                SendResponse response = mock(SendResponse.class);
+                if (succeeds.test(i)) {
+                    when(response.isSuccessful()).thenReturn(true);
+                    when(response.getMessageId()).thenReturn("msg-" + call + "-" + i);
+                } else {
+                    FirebaseMessagingException error = mock(FirebaseMessagingException.class);
+                    when(error.getMessagingErrorCode()).thenReturn(MessagingErrorCode.UNREGISTERED);
+                    when(response.getException()).thenReturn(error);
+                }
+                responses.add(response);
+            }
+            return batchResponse(responses);
+        });
+    }
+
+    private static BatchResponse batchResponse(List<SendResponse> responses) {
+        int successes = (int) responses.stream().filter(SendResponse::isSuccessful).count();
+        return new BatchResponse() {
+            @Override
+            public List<SendResponse> getResponses() {
+                return responses;
+            }
+
+            @Override
+            public int getSuccessCount() {
+                return successes;
+            }
+
+            @Override
+            public int getFailureCount() {
+                return responses.size() - successes;
+            }
+        };
+    }
+
+    private static Message message(String token) {
+        return Message.builder().setToken(token).putData("kind", "benchmark").build();
+    }
+}
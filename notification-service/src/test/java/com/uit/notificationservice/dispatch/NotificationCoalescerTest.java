@@ -0,0 +1,97 @@
+package com.uit.notificationservice.dispatch;
+
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Digest;
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Direction;
+import com.uit.notificationservice.dispatch.NotificationCoalescer.Key;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("NotificationCoalescer Unit Tests")
+class NotificationCoalescerTest {
+
+    private static final Key PUSH_KEY = new Key("merchant-1", NotificationChannel.PUSH, Direction.RECEIVED);
+
+    private NotificationCoalescer coalescer;
+    private final List<Digest> sent = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new NotificationCoalescer(new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(coalescer, "enabled", true);
+        ReflectionTestUtils.setField(coalescer, "windowMs", 60_000L);
+    }
+
+    @Test
+    @DisplayName("First event goes out, the rest of the burst becomes one digest")
+    void testBurstBecomesDigest() {
+        assertThat(coalescer.offer(PUSH_KEY, new BigDecimal("100"), sent::add)).isFalse();
+        for (int i = 0; i < 137; i++) {
+            assertThat(coalescer.offer(PUSH_KEY, new BigDecimal("10"), sent::add)).isTrue();
+        }
+
+        coalescer.flushExpired();
+        assertThat(sent).isEmpty();
+
+        ReflectionTestUtils.setField(coalescer, "windowMs", 0L);
+        coalescer.flushExpired();
+
+        assertThat(sent).singleElement().satisfies(digest -> {
+            assertThat(digest.count()).isEqualTo(137);
+            assertThat(digest.total()).isEqualByComparingTo("1370");
+            assertThat(digest.key()).isEqualTo(PUSH_KEY);
+        });
+    }
+
+    @Test
+    @DisplayName("A lone event opens a window but produces no digest")
+    void testSingleEventHasNoDigest() {
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isFalse();
+
+        ReflectionTestUtils.setField(coalescer, "windowMs", 0L);
+        coalescer.flushExpired();
+
+        assertThat(sent).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Channels and directions are coalesced independently")
+    void testKeysAreIndependent() {
+        Key email = new Key("merchant-1", NotificationChannel.EMAIL, Direction.RECEIVED);
+        Key sentPush = new Key("merchant-1", NotificationChannel.PUSH, Direction.SENT);
+
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isFalse();
+        assertThat(coalescer.offer(email, BigDecimal.ONE, sent::add)).isFalse();
+        assertThat(coalescer.offer(sentPush, BigDecimal.ONE, sent::add)).isFalse();
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isTrue();
+    }
+
+    @Test
+    @DisplayName("An event after the window closes flushes the old digest and is sent itself")
+    void testExpiredWindowFlushesOnNextEvent() {
+        coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add);
+        coalescer.offer(PUSH_KEY, BigDecimal.TEN, sent::add);
+
+        ReflectionTestUtils.setField(coalescer, "windowMs", 0L);
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isFalse();
+
+        assertThat(sent).singleElement().satisfies(digest -> assertThat(digest.count()).isEqualTo(1));
+    }
+
+    @Test
+    @DisplayName("Disabled coalescing lets every event through")
+    void testDisabled() {
+        ReflectionTestUtils.setField(coalescer, "enabled", false);
+
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isFalse();
+        assertThat(coalescer.offer(PUSH_KEY, BigDecimal.ONE, sent::add)).isFalse();
+    }
+}
@@ -0,0 +1,141 @@
+package com.uit.notificationservice.template;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Email rendering before and after the compiled template engine.
+ *
+ * legacy* is the former EmailService path: classpath read on every send, then
+ * chained String.replace passes. compiled* renders the parsed template. Run
+ * with the GC profiler for allocation per render (gc.alloc.rate.norm):
+ *
+ *   mvn test-compile exec:java -Dexec.classpathScope=test \
+ *       -Dexec.mainClass=com.uit.notificationservice.template.EmailTemplateBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EmailTemplateBenchmark {
+
+    private static final String TIMESTAMP = "01 Jan 2026, 10:00:00";
+
+    private EmailTemplate compiled;
+    private Map<String, Object> model;
+
+    private final String title = "Money received";
+    private final String content = "You received 1,500,000 VND from NGUYEN VAN A.\nNew balance: 3,250,000 VND";
+    private final String badge = "SUCCESS";
+    private final List<String[]> rows = List.of(
+            new String[]{"Transaction ID", "TX-20260101-000123"},
+            new String[]{"Amount", "1,500,000 VND"},
+            new String[]{"From", "NGUYEN VAN A"},
+            new String[]{"Message", "Tien an trua <3"});
+    private final String ctaUrl = "https://fortressbank.com/transactions/TX-20260101-000123";
+
+    @Setup
+    public void setUp() {
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(engine, "templateLocation", "classpath:templates/");
+        engine.init();
+        compiled = engine.get(EmailTemplateEngine.EMAIL_NOTIFICATION);
+        model = Map.of(
+                "title", title,
+                "content", new SafeHtml(escapeHtml(content).replace("\n", "<br>")),
+                "timestamp", TIMESTAMP,
+                "badge", badge,
+                "badgeClass", "success-badge",
+                "additionalInfo", rows.stream().map(r -> Map.of("label", r[0], "value", r[1])).toList(),
+                "ctaUrl", ctaUrl,
+                "ctaText", "View Details");
+    }
+
+    @Benchmark
+    public String legacyLoadAndReplace() throws IOException {
+        return legacyRender(loadTemplate());
+    }
+
+    @Benchmark
+    public String compiledRender() {
+        return compiled.render(model);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(EmailTemplateBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+
+    private static String loadTemplate() throws IOException {
+        try (InputStream inputStream = new ClassPathResource("templates/email-notification.html").getInputStream()) {
+            return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * The replaced EmailService.buildHtmlContent, kept as the baseline
+     */
+    private String legacyRender(String template) {
+        String html = template;
+        html = html.replace("{{title}}", escapeHtml(title));
+        html = html.replace("{{content}}", escapeHtml(content).replace("\n", "<br>"));
+        html = html.replace("{{timestamp}}", TIMESTAMP);
+
+        html = html.replace("{{#if badge}}", "");
+        html = html.replace("{{/if}}", "");
+        html = html.replace("{{badge}}", escapeHtml(badge));
+        html = html.replace("{{badgeClass}}", "success-badge");
+
+        StringBuilder infoRows = new StringBuilder();
+        for (String[] row : rows) {
+            infoRows.append("<div class=\"info-row\">\n");
+            infoRows.append("    <span class=\"info-label\">").append(escapeHtml(row[0])).append("</span>\n");
+            infoRows.append("    <span class=\"info-value\">").append(escapeHtml(row[1])).append("</span>\n");
+            infoRows.append("</div>\n");
+        }
+        html = html.replace("{{#if additionalInfo}}", "");
+        html = html.replace("{{/if}}", "");
+        html = html.replace("{{#each additionalInfo}}", infoRows.toString());
+        html = html.replace("{{/each}}", "");
+
+        html = html.replace("{{#if ctaUrl}}", "");
+        html = html.replace("{{/if}}", "");
+        html = html.replace("{{ctaUrl}}", escapeHtml(ctaUrl));
+        html = html.replace("{{ctaText}}", escapeHtml("View Details"));
+        return html;
+    }
+
+    private static String escapeHtml(String text) {
+        return text.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&#x27;");
+    }
+}
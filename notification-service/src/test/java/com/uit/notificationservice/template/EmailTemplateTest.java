@@ -0,0 +1,118 @@
+package com.uit.notificationservice.template;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("EmailTemplate Unit Tests")
+class EmailTemplateTest {
+
+    @Test
+    @DisplayName("Variables are HTML-escaped unless SafeHtml")
+    void variables_AreEscaped() {
+        EmailTemplate template = EmailTemplate.parse("t", "<h1>{{title}}</h1><p>{{content}}</p>");
+
+        String html = template.render(Map.of(
+                "title", "<script>alert('x')</script>",
+                "content", new SafeHtml("line 1<br>line 2")));
+
+        assertThat(html).isEqualTo(
+                "<h1>&lt;script&gt;alert(&#x27;x&#x27;)&lt;/script&gt;</h1><p>line 1<br>line 2</p>");
+    }
+
+    @Test
+    @DisplayName("Each conditional block closes at its own {{/if}}")
+    void conditionals_AreIndependent() {
+        EmailTemplate template = EmailTemplate.parse("t",
+                "A{{#if badge}}[{{badge}}]{{/if}}B{{#if ctaUrl}}<a href=\"{{ctaUrl}}\">go</a>{{/if}}C");
+
+        assertThat(template.render(Map.of("badge", "NEW"))).isEqualTo("A[NEW]BC");
+        assertThat(template.render(Map.of("ctaUrl", "https://x"))).isEqualTo("AB<a href=\"https://x\">go</a>C");
+        assertThat(template.render(Map.of("badge", ""))).isEqualTo("ABC");
+    }
+
+    @Test
+    @DisplayName("Each loop renders its body per item with this.key")
+    void eachLoop_RendersItems() {
+        EmailTemplate template = EmailTemplate.parse("t",
+                "{{#if rows}}<ul>{{#each rows}}<li>{{this.label}}={{this.value}}</li>{{/each}}</ul>{{/if}}");
+        Map<String, String> nullValue = new HashMap<>();
+        nullValue.put("label", "Note");
+        nullValue.put("value", null);
+
+        String html = template.render(Map.of("rows", List.of(
+                Map.of("label", "Amount", "value", "1 < 2"),
+                nullValue)));
+
+        assertThat(html).isEqualTo("<ul><li>Amount=1 &lt; 2</li><li>Note=</li></ul>");
+        assertThat(template.render(Map.of("rows", List.of()))).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Unbalanced blocks fail at parse time")
+    void unbalancedBlocks_Fail() {
+        assertThatThrownBy(() -> EmailTemplate.parse("t", "{{#if a}}x"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Missing {{/if}}");
+        assertThatThrownBy(() -> EmailTemplate.parse("t", "{{#if a}}x{{/each}}"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> EmailTemplate.parse("t", "{{title"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @DisplayName("Bundled template compiles and renders every section")
+    void bundledTemplate_Renders() {
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(engine, "templateLocation", "classpath:templates/");
+        engine.init();
+
+        String html = engine.get(EmailTemplateEngine.EMAIL_NOTIFICATION).render(Map.of(
+                "title", "Transfer received",
+                "content", new SafeHtml("You received 100 USD"),
+                "timestamp", "01 Jan 2026, 10:00:00",
+                "badge", "SUCCESS",
+                "badgeClass", "success-badge",
+                "additionalInfo", List.of(Map.of("label", "Amount", "value", "100 USD")),
+                "ctaUrl", "https://fortressbank.com",
+                "ctaText", "View Details"));
+
+        assertThat(html)
+                .contains("<span class=\"success-badge\">SUCCESS</span>")
+                .contains("<span class=\"info-value\">100 USD</span>")
+                .contains("<a href=\"https://fortressbank.com\" class=\"cta-button\">View Details</a>")
+                .doesNotContain("{{");
+    }
+
+    @Test
+    @DisplayName("Changed templates are recompiled; broken ones keep the previous version")
+    void reloadChanged_RecompilesModifiedTemplate(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve(EmailTemplateEngine.EMAIL_NOTIFICATION);
+        Files.writeString(file, "v1 {{title}}");
+        EmailTemplateEngine engine = new EmailTemplateEngine(new DefaultResourceLoader());
+        ReflectionTestUtils.setField(engine, "templateLocation", dir.toUri().toString());
+        engine.init();
+
+        Files.writeString(file, "v2 {{title}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+        engine.reloadChanged();
+        assertThat(engine.get(EmailTemplateEngine.EMAIL_NOTIFICATION).render(Map.of("title", "x"))).isEqualTo("v2 x");
+
+        Files.writeString(file, "v3 {{#if title}}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 20_000));
+        engine.reloadChanged();
+        assertThat(engine.get(EmailTemplateEngine.EMAIL_NOTIFICATION).render(Map.of("title", "x"))).isEqualTo("v2 x");
+    }
+}
@@ -1,59 +1,159 @@
 package com.uit.riskengine.client;
 
-import lombok.RequiredArgsConstructor;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
 
 /**
  * Client to fetch user risk profile data from user-service.
  * This provides known devices, locations, and transaction history for fraud detection.
+ *
+ * Profiles are cached with a bounded size. Once an entry is older than
+ * refresh-after-write, the next read returns it at once and reloads it in the
+ * background, so a hot user only waits on user-service for the first
+ * assessment. If the reload fails the cached profile keeps being served
+ * (stale-while-revalidate) until expire-after-write.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class UserRiskProfileClient {
 
     private final WebClient.Builder webClientBuilder;
+    private final LoadingCache<String, UserRiskProfileData> profiles;
+    private final Duration timeout;
+
+    private final Timer lookupLatency;
+    private final Timer fetchSuccess;
+    private final Timer fetchNotFound;
+    private final Timer fetchFailure;
+
+    @Autowired
+    public UserRiskProfileClient(WebClient.Builder webClientBuilder,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${risk.profile-cache.max-size:100000}") long maxSize,
+                                 @Value("${risk.profile-cache.refresh-after-write-seconds:60}") long refreshSeconds,
+                                 @Value("${risk.profile-cache.expire-after-write-seconds:3600}") long expireSeconds,
+                                 @Value("${risk.profile-cache.fetch-timeout-ms:2000}") long timeoutMs) {
+        this(webClientBuilder, meterRegistry, maxSize, Duration.ofSeconds(refreshSeconds),
+                Duration.ofSeconds(expireSeconds), Duration.ofMillis(timeoutMs),
+                Executors.newVirtualThreadPerTaskExecutor(), Ticker.systemTicker());
+    }
+
+    UserRiskProfileClient(WebClient.Builder webClientBuilder, MeterRegistry meterRegistry, long maxSize,
+                          Duration refreshAfterWrite, Duration expireAfterWrite, Duration timeout,
+                          Executor refreshExecutor, Ticker ticker) {
+        this.webClientBuilder = webClientBuilder;
+        this.timeout = timeout;
+        this.profiles = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .refreshAfterWrite(refreshAfterWrite)
+                .expireAfterWrite(expireAfterWrite)
+                .executor(refreshExecutor)
+                .ticker(ticker)
+                .recordStats()
+                .build(this::fetchRiskProfile);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, profiles, "userRiskProfile");
+        this.lookupLatency = Timer.builder("risk.profile.lookup")
+                .description("Risk profile lookup latency per assessment, cache hits included")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.fetchSuccess = fetchTimer(meterRegistry, "success");
+        this.fetchNotFound = fetchTimer(meterRegistry, "not_found");
+        this.fetchFailure = fetchTimer(meterRegistry, "failure");
+    }
 
     /**
      * Fetch user risk profile with known devices and locations.
-     * Returns null if service is unavailable (fail-safe approach).
+     * Returns an empty profile if user-service is unavailable and nothing is cached (fail-safe approach).
      */
-    @SuppressWarnings("unchecked")
     public UserRiskProfileData getUserRiskProfile(String userId) {
+        long started = System.nanoTime();
+        try {
+            return profiles.get(userId);
+        } catch (Exception e) {
+            log.error("Failed to fetch risk profile for user {}: {}", userId, e.getMessage());
+            // Fail-safe: return empty profile rather than blocking transaction; not cached, so the next call retries
+            return new UserRiskProfileData();
+        } finally {
+            lookupLatency.record(Duration.ofNanos(System.nanoTime() - started));
+        }
+    }
+
+    /**
+     * Drop a cached profile, e.g. after the user registers a new device
+     */
+    public void evict(String userId) {
+        profiles.invalidate(userId);
+    }
+
+    /**
+     * One call to user-service; throws on failure so the cache keeps the previous profile
+     */
+    @SuppressWarnings("unchecked")
+    UserRiskProfileData fetchRiskProfile(String userId) {
+        long started = System.nanoTime();
         try {
             Map<String, Object> response = webClientBuilder.build()
                     .get()
-                    .uri("http://user-service:4000/users/{userId}/risk-profile", userId)
+                    .uri("http://user-service:4000/users/internal/{userId}/risk-profile", userId)
                     .retrieve()
                     .bodyToMono(Map.class)
-                    .block();
+                    .block(timeout);
 
             if (response == null || response.get("data") == null) {
                 log.warn("No risk profile found for user: {}", userId);
+                fetchNotFound.record(Duration.ofNanos(System.nanoTime() - started));
                 return new UserRiskProfileData();
             }
 
             Map<String, Object> data = (Map<String, Object>) response.get("data");
-            
+
             UserRiskProfileData profile = new UserRiskProfileData();
-            profile.setKnownDevices((List<String>) data.get("knownDevices"));
-            profile.setKnownLocations((List<String>) data.get("knownLocations"));
-            profile.setKnownPayees((List<String>) data.get("knownPayees"));
-            
+            profile.setKnownDevices(orEmpty((List<String>) data.get("knownDevices")));
+            profile.setKnownLocations(orEmpty((List<String>) data.get("knownLocations")));
+            profile.setKnownPayees(orEmpty((List<String>) data.get("knownPayees")));
+
+            fetchSuccess.record(Duration.ofNanos(System.nanoTime() - started));
             return profile;
-            
-        } catch (Exception e) {
-            log.error("Failed to fetch risk profile for user {}: {}", userId, e.getMessage());
-            // Fail-safe: return empty profile rather than blocking transaction
+
+        } catch (WebClientResponseException.NotFound e) {
+            log.warn("No risk profile found for user: {}", userId);
+            fetchNotFound.record(Duration.ofNanos(System.nanoTime() - started));
             return new UserRiskProfileData();
+        } catch (RuntimeException e) {
+            fetchFailure.record(Duration.ofNanos(System.nanoTime() - started));
+            throw e;
         }
     }
 
+    private static List<String> orEmpty(List<String> values) {
+        return values != null ? values : List.of();
+    }
+
+    private static Timer fetchTimer(MeterRegistry registry, String outcome) {
+        return Timer.builder("risk.profile.fetch")
+                .description("user-service risk profile call latency")
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+
     /**
      * DTO for user risk profile data
      */
@@ -0,0 +1,98 @@
+package com.uit.riskengine.client;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * UserRiskProfileClient against a stubbed user-service, with a manual clock
+ * and refreshes run inline so stale-while-revalidate is deterministic
+ */
+@DisplayName("UserRiskProfileClient Unit Tests")
+class UserRiskProfileClientTest {
+
+    private final AtomicInteger calls = new AtomicInteger();
+    private final AtomicReference<String> device = new AtomicReference<>("device-1");
+    private final AtomicReference<HttpStatus> status = new AtomicReference<>(HttpStatus.OK);
+    private final AtomicLong nanos = new AtomicLong();
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserRiskProfileClient client;
+
+    @BeforeEach
+    void setUp() {
+        WebClient.Builder builder = WebClient.builder().exchangeFunction(request -> {
+            calls.incrementAndGet();
+            String body = "{\"data\":{\"knownDevices\":[\"" + device.get() + "\"],"
+                    + "\"knownLocations\":[\"Hanoi\"],\"knownPayees\":[]}}";
+            return Mono.just(ClientResponse.create(status.get())
+                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .body(status.get().is2xxSuccessful() ? body : "{}")
+                    .build());
+        });
+        meterRegistry = new SimpleMeterRegistry();
+        client = new UserRiskProfileClient(builder, meterRegistry, 100, Duration.ofSeconds(60),
+                Duration.ofHours(1), Duration.ofSeconds(1), Runnable::run, nanos::get);
+    }
+
+    @Test
+    @DisplayName("Repeat assessments are served from the cache")
+    void testCacheHit() {
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-1");
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-1");
+
+        assertThat(calls).hasValue(1);
+        assertThat(meterRegistry.get("risk.profile.fetch").tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("risk.profile.lookup").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("After refresh-after-write the cached profile is returned while it reloads")
+    void testRefreshAfterWrite() {
+        client.getUserRiskProfile("user-1");
+        device.set("device-2");
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-1");
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-2");
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("A failed refresh keeps serving the stale profile")
+    void testStaleWhileUserServiceDown() {
+        client.getUserRiskProfile("user-1");
+        status.set(HttpStatus.SERVICE_UNAVAILABLE);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(61));
+
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-1");
+        assertThat(client.getUserRiskProfile("user-1").getKnownDevices()).containsExactly("device-1");
+        assertThat(meterRegistry.get("risk.profile.fetch").tag("outcome", "failure").timer().count()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Without a cached profile a failure returns an empty one that is not cached")
+    void testColdFailureFailsSafe() {
+        status.set(HttpStatus.SERVICE_UNAVAILABLE);
+
+        assertThat(client.getUserRiskProfile("user-2").getKnownDevices()).isEmpty();
+
+        status.set(HttpStatus.OK);
+        assertThat(client.getUserRiskProfile("user-2").getKnownDevices()).containsExactly("device-1");
+    }
+}
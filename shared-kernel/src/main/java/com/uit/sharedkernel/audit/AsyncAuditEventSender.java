@@ -0,0 +1,440 @@
+package com.uit.sharedkernel.audit;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Async mode of {@link AuditEventPublisher}.
+ *
+ * Business threads only put the event into a bounded lock-free ring buffer; a
+ * dedicated publisher thread drains it in batches, waiting up to linger-ms for
+ * a batch to fill. Each batch is one AMQP message with a JSON array payload and
+ * one publisher confirm; when the broker nacks it or the confirm times out, the
+ * whole batch is spilled or dropped. A batch is only ever re-sent whole, so the
+ * consumer sees each message either complete or not at all.
+ *
+ * When the buffer is full the overflow policy decides: drop, block briefly, or
+ * spill to a local file that is replayed once the publisher is idle. The spill
+ * file is named after the instance and locked while the sender runs, so two
+ * instances sharing a directory never write to the same file, and it is capped
+ * at spill-max-bytes; events that would grow it further are dropped.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "audit.publisher.async.enabled", havingValue = "true")
+public class AsyncAuditEventSender implements SmartLifecycle {
+
+    /** Stop after the web server and message listeners so their last events are still flushed */
+    static final int PHASE = SmartLifecycle.DEFAULT_PHASE - 4096;
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final AuditRingBuffer<AuditEventDto> buffer;
+    private final AuditOverflowPolicy overflowPolicy;
+    private final int batchSize;
+    private final long lingerNanos;
+    private final long blockTimeoutNanos;
+    private final long confirmTimeoutNanos;
+    private final Path spillDir;
+    private final String instanceId;
+    private final long spillMaxBytes;
+    private final Object spillLock = new Object();
+
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+
+    private volatile Path spillFile;
+    private volatile Path replayFile;
+    private FileChannel spillLockChannel;
+
+    private volatile Thread publisherThread;
+    private volatile boolean running;
+    private volatile boolean idle;
+
+    public AsyncAuditEventSender(RabbitTemplate rabbitTemplate,
+                                 ObjectMapper objectMapper,
+                                 ObjectProvider<MeterRegistry> meterRegistry,
+                                 @Value("${audit.publisher.async.capacity:8192}") int capacity,
+                                 @Value("${audit.publisher.async.batch-size:100}") int batchSize,
+                                 @Value("${audit.publisher.async.linger-ms:20}") long lingerMs,
+                                 @Value("${audit.publisher.async.overflow-policy:DROP}") AuditOverflowPolicy overflowPolicy,
+                                 @Value("${audit.publisher.async.block-timeout-ms:50}") long blockTimeoutMs,
+                                 @Value("${audit.publisher.async.confirm-timeout-ms:5000}") long confirmTimeoutMs,
+                                 @Value("${audit.publisher.async.spill-dir:${java.io.tmpdir}/audit-spill}") String spillDir,
+                                 @Value("${audit.publisher.async.instance-id:${spring.application.name:app}-${HOSTNAME:local}}") String instanceId,
+                                 @Value("${audit.publisher.async.spill-max-bytes:67108864}") long spillMaxBytes) {
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.buffer = new AuditRingBuffer<>(capacity);
+        this.batchSize = batchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(blockTimeoutMs);
+        this.confirmTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        this.spillDir = Path.of(spillDir);
+        this.instanceId = instanceId.replaceAll("[^A-Za-z0-9._-]", "_");
+        this.spillMaxBytes = spillMaxBytes;
+
+        meterRegistry.ifAvailable(this::bindMetrics);
+    }
+
+    @Override
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        if (overflowPolicy == AuditOverflowPolicy.SPILL) {
+            claimSpillFile();
+        }
+        running = true;
+        Thread thread = new Thread(this::run, "audit-publisher");
+        thread.setDaemon(true);
+        publisherThread = thread;
+        thread.start();
+        log.info("Async audit publishing started - capacity: {}, batch-size: {}, overflow-policy: {}, spill-file: {}",
+                buffer.capacity(), batchSize, overflowPolicy, spillFile);
+    }
+
+    /**
+     * Flush what is buffered before the context goes away.
+     */
+    @Override
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        Thread thread = publisherThread;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (buffer.size() > 0) {
+            log.warn("Audit publisher stopped with {} events still buffered", buffer.size());
+        }
+        releaseSpillFile();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return PHASE;
+    }
+
+    /**
+     * Hand the event to the publisher thread. Never blocks longer than the
+     * BLOCK policy allows and never throws. Events submitted before start()
+     * wait in the buffer.
+     */
+    public void submit(AuditEventDto event) {
+        if (buffer.offer(event)) {
+            if (idle) {
+                LockSupport.unpark(publisherThread);
+            }
+            return;
+        }
+
+        switch (overflowPolicy) {
+            case BLOCK -> offerWithin(event, blockTimeoutNanos);
+            case SPILL -> spill(List.of(event));
+            default -> drop(1);
+        }
+    }
+
+    private void offerWithin(AuditEventDto event, long timeoutNanos) {
+        long deadline = System.nanoTime() + timeoutNanos;
+        while (System.nanoTime() < deadline) {
+            if (buffer.offer(event)) {
+                return;
+            }
+            LockSupport.parkNanos(BLOCK_PARK_NANOS);
+        }
+        drop(1);
+    }
+
+    private void run() {
+        List<AuditEventDto> batch = new ArrayList<>(batchSize);
+        while (running || buffer.size() > 0) {
+            buffer.drainTo(batch, batchSize);
+
+            if (batch.isEmpty()) {
+                replaySpill();
+                idle = true;
+                // Re-check after announcing idle so an offer racing with it is not left waiting
+                if (buffer.size() == 0 && running) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+                idle = false;
+                continue;
+            }
+
+            // Linger so a burst shares one round of confirms
+            long deadline = System.nanoTime() + lingerNanos;
+            long remaining;
+            while (batch.size() < batchSize && running && (remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(1)));
+                buffer.drainTo(batch, batchSize - batch.size());
+            }
+
+            send(batch);
+            batch = new ArrayList<>(batchSize);
+        }
+    }
+
+    private void send(List<AuditEventDto> batch) {
+        if (publish(batch)) {
+            return;
+        }
+        log.warn("Failed to publish batch of {} audit events (non-critical)", batch.size());
+        if (overflowPolicy == AuditOverflowPolicy.SPILL) {
+            spill(batch);
+        } else {
+            drop(batch.size());
+        }
+    }
+
+    /**
+     * Send the batch as one array message and wait up to confirm-timeout-ms for
+     * the broker to confirm it.
+     *
+     * @return whether the broker accepted the batch
+     */
+    private boolean publish(List<AuditEventDto> events) {
+        CorrelationData correlation = new CorrelationData();
+        try {
+            rabbitTemplate.convertAndSend(RabbitMQConstants.AUDIT_EXCHANGE, RabbitMQConstants.AUDIT_LOG, events, correlation);
+        } catch (Exception e) {
+            log.debug("Failed to send audit batch: {}", e.getMessage());
+            return false;
+        }
+
+        // Without publisher confirms on the connection factory a successful send is all we get
+        if (rabbitTemplate.getConnectionFactory().isPublisherConfirms() && !isAcked(correlation)) {
+            return false;
+        }
+        published.addAndGet(events.size());
+        return true;
+    }
+
+    private boolean isAcked(CorrelationData correlation) {
+        try {
+            CorrelationData.Confirm confirm = correlation.getFuture().get(confirmTimeoutNanos, TimeUnit.NANOSECONDS);
+            if (!confirm.isAck()) {
+                log.debug("Audit batch nacked: {}", confirm.getReason());
+            }
+            return confirm.isAck();
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Take the spill file for this instance, or one suffixed with the pid when
+     * another process in the same directory already holds it. Without a file
+     * the SPILL policy drops.
+     */
+    private void claimSpillFile() {
+        try {
+            Files.createDirectories(spillDir);
+            for (String name : List.of(instanceId, instanceId + "-" + ProcessHandle.current().pid())) {
+                FileChannel channel = FileChannel.open(spillDir.resolve(name + ".lock"),
+                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                FileLock lock;
+                try {
+                    lock = channel.tryLock();
+                } catch (OverlappingFileLockException e) {
+                    lock = null;
+                }
+                if (lock != null) {
+                    spillLockChannel = channel;
+                    replayFile = spillDir.resolve(name + ".spill.replay");
+                    spillFile = spillDir.resolve(name + ".spill");
+                    return;
+                }
+                channel.close();
+            }
+            log.warn("Audit spill files in {} are held by other instances, overflow will be dropped", spillDir);
+        } catch (IOException e) {
+            log.warn("Cannot use audit spill directory {}, overflow will be dropped: {}", spillDir, e.getMessage());
+        }
+    }
+
+    private void releaseSpillFile() {
+        if (spillLockChannel == null) {
+            return;
+        }
+        synchronized (spillLock) {
+            spillFile = null;
+        }
+        try {
+            // Closing the channel releases the lock; the files stay for the next start
+            spillLockChannel.close();
+        } catch (IOException e) {
+            log.warn("Failed to release audit spill lock in {}: {}", spillDir, e.getMessage());
+        }
+        spillLockChannel = null;
+    }
+
+    private void spill(List<AuditEventDto> events) {
+        StringBuilder lines = new StringBuilder();
+        try {
+            for (AuditEventDto event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append('\n');
+            }
+            byte[] bytes = lines.toString().getBytes(StandardCharsets.UTF_8);
+            synchronized (spillLock) {
+                Path file = spillFile;
+                if (file == null || spillSize(file) + bytes.length > spillMaxBytes) {
+                    drop(events.size());
+                    return;
+                }
+                Files.write(file, bytes, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            spilled.addAndGet(events.size());
+        } catch (IOException e) {
+            log.warn("Failed to spill {} audit events to {}: {}", events.size(), spillFile, e.getMessage());
+            drop(events.size());
+        }
+    }
+
+    // Events waiting for replay count against the cap too
+    private long spillSize(Path file) throws IOException {
+        long size = Files.exists(file) ? Files.size(file) : 0;
+        Path replay = replayFile;
+        return replay != null && Files.exists(replay) ? size + Files.size(replay) : size;
+    }
+
+    // Runs on the publisher thread only, while the buffer is empty
+    private void replaySpill() {
+        Path replay = replayFile;
+        if (replay == null) {
+            return;
+        }
+        try {
+            if (!Files.exists(replay)) {
+                synchronized (spillLock) {
+                    Path file = spillFile;
+                    if (file == null || !Files.exists(file) || Files.size(file) == 0) {
+                        return;
+                    }
+                    Files.move(file, replay, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+
+            List<String> lines = Files.readAllLines(replay, StandardCharsets.UTF_8);
+            log.info("Replaying {} spilled audit events from {}", lines.size(), replay);
+            for (int from = 0; from < lines.size(); from += batchSize) {
+                List<String> chunk = new ArrayList<>(batchSize);
+                List<AuditEventDto> batch = new ArrayList<>(batchSize);
+                for (String line : lines.subList(from, Math.min(from + batchSize, lines.size()))) {
+                    if (line.isBlank()) {
+                        continue;
+                    }
+                    try {
+                        batch.add(objectMapper.readValue(line, AuditEventDto.class));
+                        chunk.add(line);
+                    } catch (JsonProcessingException e) {
+                        log.warn("Skipping unreadable spilled audit event: {}", e.getOriginalMessage());
+                        drop(1);
+                    }
+                }
+
+                if (!batch.isEmpty() && !publish(batch)) {
+                    // Keep this chunk and everything after it for the next idle cycle
+                    List<String> left = new ArrayList<>(chunk);
+                    left.addAll(lines.subList(Math.min(from + batchSize, lines.size()), lines.size()));
+                    Files.write(replay, left, StandardCharsets.UTF_8);
+                    log.warn("Audit spill replay paused with {} events left, broker unavailable", left.size());
+                    return;
+                }
+            }
+            Files.deleteIfExists(replay);
+        } catch (IOException e) {
+            log.warn("Failed to replay spilled audit events from {}: {}", replay, e.getMessage());
+        }
+    }
+
+    private void drop(int count) {
+        long total = dropped.addAndGet(count);
+        if (total == count || total % 1000 < count) {
+            log.warn("Audit publisher dropped {} events so far (buffer capacity {})", total, buffer.capacity());
+        }
+    }
+
+    private void bindMetrics(MeterRegistry registry) {
+        Gauge.builder("audit.publisher.queue.depth", buffer, AuditRingBuffer::size)
+                .description("Audit events waiting in the async publisher buffer")
+                .register(registry);
+        Gauge.builder("audit.publisher.queue.capacity", buffer, AuditRingBuffer::capacity)
+                .register(registry);
+        FunctionCounter.builder("audit.publisher.dropped", dropped, AtomicLong::get)
+                .description("Audit events discarded because the buffer or spill file was full or the broker failed")
+                .register(registry);
+        FunctionCounter.builder("audit.publisher.spilled", spilled, AtomicLong::get)
+                .register(registry);
+        FunctionCounter.builder("audit.publisher.published", published, AtomicLong::get)
+                .register(registry);
+    }
+
+    long getDropped() {
+        return dropped.get();
+    }
+
+    long getPublished() {
+        return published.get();
+    }
+
+    long getSpilled() {
+        return spilled.get();
+    }
+
+    int getQueueDepth() {
+        return buffer.size();
+    }
+
+    Path getSpillFile() {
+        return spillFile;
+    }
+}
@@ -4,6 +4,7 @@ import com.uit.sharedkernel.amqp.RabbitMQMessageProducer;
 import com.uit.sharedkernel.constants.RabbitMQConstants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -15,6 +16,9 @@ import java.time.LocalDateTime;
  * Note: Audit events are sent directly (not via Outbox) since they are non-critical.
  * If an audit log is lost, it won't affect business operations.
  * Use Outbox pattern only for critical business events (transactions, transfers, etc.)
+ *
+ * With audit.publisher.async.enabled=true events are handed to {@link AsyncAuditEventSender}
+ * and published in batches from a background thread instead of on the caller's thread.
  */
 @Component
 @RequiredArgsConstructor
@@ -22,6 +26,7 @@ import java.time.LocalDateTime;
 public class AuditEventPublisher {
 
     private final RabbitMQMessageProducer messageProducer;
+    private final ObjectProvider<AsyncAuditEventSender> asyncSender;
 
     /**
      * Publish an audit event directly to RabbitMQ
@@ -35,6 +40,12 @@ public class AuditEventPublisher {
                 auditEvent.setTimestamp(LocalDateTime.now());
             }
 
+            AsyncAuditEventSender sender = asyncSender.getIfAvailable();
+            if (sender != null) {
+                sender.submit(auditEvent);
+                return;
+            }
+
             // Publish directly to RabbitMQ
             messageProducer.publish(
                 auditEvent,
@@ -0,0 +1,10 @@
+package com.uit.sharedkernel.audit;
+
+/**
+ * What the async audit publisher does when its buffer is full
+ */
+public enum AuditOverflowPolicy {
+    DROP,   // Discard the event and count it
+    BLOCK,  // Wait for space, up to audit.publisher.async.block-timeout-ms, then drop
+    SPILL   // Append the event to a local file, replayed once the buffer has room
+}
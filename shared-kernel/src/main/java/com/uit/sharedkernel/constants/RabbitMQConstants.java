@@ -15,12 +15,17 @@ public class RabbitMQConstants {
     // Queues
     public static final String TRANSACTION_QUEUE = "transaction-queue";
     public static final String AUDIT_QUEUE = "audit.queue";
+    public static final String AUDIT_DLQ = "audit.queue.dlq";
     public static final String OTP_QUEUE = "notification.otp.queue";
+    public static final String USER_RISK_PROFILE_QUEUE = "user.risk-profile.queue";
 
     public static final String INTERNAL_EXCHANGE = "internal.exchange";
     public static final String USER_CREATED_QUEUE = "user.created.queue";
     public static final String USER_CREATED_ROUTING_KEY = "user.created";
 
+    public static final String ACCOUNT_EXCHANGE = "account.exchange";
+    public static final String ACCOUNT_CHANGED_ROUTING_KEY = "account.changed";
+
     private RabbitMQConstants() {
         // Prevent instantiation
     }
@@ -19,6 +19,7 @@ public class NotificationEventDto implements Serializable {
     private String receiverUserId;
     private String receiverAccountNumber;
     private BigDecimal amount;
+    private String transactionType; // TransactionType name, e.g. INTERNAL_TRANSFER, DEPOSIT
     private String status;
     private boolean success;
     private String message;
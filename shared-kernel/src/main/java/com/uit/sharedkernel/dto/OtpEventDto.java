@@ -15,4 +15,6 @@ public class OtpEventDto implements Serializable {
     private String transactionId;
     private String phoneNumber;
     private String otpCode;
+    /** Epoch millis at publish; notification-service measures OTP queue latency from it */
+    private Long createdAt;
 }
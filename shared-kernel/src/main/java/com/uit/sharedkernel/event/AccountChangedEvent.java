@@ -0,0 +1,21 @@
+package com.uit.sharedkernel.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Published by account-service when an account's lookup data changes
+ * (close, status change). Consumers drop any cached copy of the account.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountChangedEvent {
+    private String accountId;
+    private String accountNumber;
+    private String status;
+    private String reason;
+}
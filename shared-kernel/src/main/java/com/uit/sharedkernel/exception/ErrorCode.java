@@ -24,6 +24,7 @@ public enum ErrorCode {
     /* Transaction */
     TRANSACTION_NOT_FOUND(404, "Transaction not found", HttpStatus.NOT_FOUND),
     TRANSACTION_STATUS_CONFLICT(409, "Transaction is not in a valid state for this operation", HttpStatus.CONFLICT),
+    DUPLICATE_TRANSACTION(409, "Transaction has already been processed with different parameters", HttpStatus.CONFLICT),
 
     /* OTP */
     OTP_NOT_FOUND(404, "OTP data not found or already used", HttpStatus.NOT_FOUND),
@@ -0,0 +1,102 @@
+package com.uit.sharedkernel.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Writes export rows one at a time as NDJSON or CSV, so an export never holds
+ * more than the row being written. Does not close the target stream.
+ */
+public final class ExportWriter<T> implements Closeable {
+
+    private final ExportFormat format;
+    private final Writer writer;
+    private final SequenceWriter json;
+    private final Function<T, List<?>> csvRow;
+    private long rowCount;
+
+    private ExportWriter(ExportFormat format, Writer writer, SequenceWriter json, Function<T, List<?>> csvRow) {
+        this.format = format;
+        this.writer = writer;
+        this.json = json;
+        this.csvRow = csvRow;
+    }
+
+    /**
+     * @param csvHeader column names, written first in CSV mode
+     * @param csvRow    column values of a row, in header order (CSV mode only)
+     */
+    public static <T> ExportWriter<T> open(ExportFormat format, OutputStream out, ObjectMapper objectMapper,
+                                           List<String> csvHeader, Function<T, List<?>> csvRow) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == ExportFormat.NDJSON) {
+            SequenceWriter json = objectMapper.writer()
+                    .withRootValueSeparator("\n")
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .writeValues(writer);
+            return new ExportWriter<>(format, writer, json, csvRow);
+        }
+        ExportWriter<T> csv = new ExportWriter<>(format, writer, null, csvRow);
+        csv.writeCsvLine(csvHeader);
+        return csv;
+    }
+
+    public void write(T row) throws IOException {
+        if (format == ExportFormat.NDJSON) {
+            json.write(row);
+        } else {
+            writeCsvLine(csvRow.apply(row));
+        }
+        rowCount++;
+    }
+
+    public long getRowCount() {
+        return rowCount;
+    }
+
+    private void writeCsvLine(List<?> values) throws IOException {
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = values.get(i);
+            if (value != null) {
+                writer.write(csvEscape(value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static String csvEscape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    /**
+     * Flushes buffered rows; the underlying stream stays open.
+     */
+    @Override
+    public void close() throws IOException {
+        if (json != null) {
+            json.flush();
+            // Rows are separated, not terminated, by the separator; end the last line too
+            if (rowCount > 0) {
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+}
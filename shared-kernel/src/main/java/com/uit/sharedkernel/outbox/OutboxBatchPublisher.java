@@ -0,0 +1,136 @@
+package com.uit.sharedkernel.outbox;
+
+import com.uit.sharedkernel.outbox.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Publishes one claimed batch of outbox events per transaction.
+ *
+ * The batch is claimed with FOR UPDATE SKIP LOCKED and the row locks are held
+ * until the broker has confirmed every message, so another relay can never
+ * pick up the same events. Outcomes are written back with one bulk update per
+ * result instead of a save() per event.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.scheduler.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxBatchPublisher {
+
+    static final int MAX_RETRY_COUNT = 3;
+    private static final int RETRY_MINUTES_DELAY = 5;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final int batchSize;
+    private final long confirmTimeoutMs;
+
+    public OutboxBatchPublisher(OutboxEventRepository outboxEventRepository,
+                                RabbitTemplate rabbitTemplate,
+                                @Value("${outbox.relay.batch-size:100}") int batchSize,
+                                @Value("${outbox.relay.confirm-timeout-ms:5000}") long confirmTimeoutMs) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.batchSize = batchSize;
+        this.confirmTimeoutMs = confirmTimeoutMs;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Claim, publish and settle the next batch.
+     *
+     * @return number of events confirmed; a full batch means more may be waiting
+     */
+    @Transactional
+    public int publishNextBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.claimBatch(
+                OutboxEventStatus.PENDING,
+                OutboxEventStatus.FAILED,
+                LocalDateTime.now().minusMinutes(RETRY_MINUTES_DELAY),
+                MAX_RETRY_COUNT,
+                PageRequest.of(0, batchSize));
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Map<UUID, CorrelationData> inFlight = new LinkedHashMap<>();
+        Map<String, List<UUID>> failed = new LinkedHashMap<>();
+        for (OutboxEvent event : batch) {
+            try {
+                CorrelationData correlation = new CorrelationData(event.getEventId().toString());
+                rabbitTemplate.convertAndSend(event.getExchange(), event.getRoutingKey(), event.getPayload(), correlation);
+                inFlight.put(event.getEventId(), correlation);
+            } catch (Exception e) {
+                log.error("Failed to publish event ID: {}. Error: {}", event.getEventId(), e.getMessage());
+                failed.computeIfAbsent(String.valueOf(e.getMessage()), k -> new ArrayList<>()).add(event.getEventId());
+            }
+        }
+
+        List<UUID> completed = awaitConfirms(inFlight, failed);
+
+        if (!completed.isEmpty()) {
+            outboxEventRepository.markCompleted(completed, LocalDateTime.now());
+        }
+        failed.forEach((error, ids) -> outboxEventRepository.markFailed(ids, error));
+
+        batch.stream()
+                .filter(event -> !completed.contains(event.getEventId()))
+                .filter(event -> event.getRetryCount() != null && event.getRetryCount() + 1 >= MAX_RETRY_COUNT)
+                .forEach(event -> log.error("Event ID: {} has exceeded max retry count. Manual intervention required.",
+                        event.getEventId()));
+
+        log.info("Outbox batch published - claimed: {}, confirmed: {}, failed: {}",
+                batch.size(), completed.size(), batch.size() - completed.size());
+        return completed.size();
+    }
+
+    private List<UUID> awaitConfirms(Map<UUID, CorrelationData> inFlight, Map<String, List<UUID>> failed) {
+        // Without publisher confirms on the connection factory a successful send is all we get
+        if (!rabbitTemplate.getConnectionFactory().isPublisherConfirms()) {
+            return new ArrayList<>(inFlight.keySet());
+        }
+
+        List<UUID> confirmed = new ArrayList<>();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(confirmTimeoutMs);
+        for (Map.Entry<UUID, CorrelationData> entry : inFlight.entrySet()) {
+            String error;
+            try {
+                CorrelationData.Confirm confirm = entry.getValue().getFuture()
+                        .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(entry.getKey());
+                    continue;
+                }
+                error = "Broker nack: " + confirm.getReason();
+            } catch (TimeoutException e) {
+                error = "Publisher confirm timed out";
+            } catch (ExecutionException e) {
+                error = String.valueOf(e.getCause().getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                error = "Interrupted while waiting for publisher confirm";
+            }
+            failed.computeIfAbsent(error, k -> new ArrayList<>()).add(entry.getKey());
+        }
+        return confirmed;
+    }
+}
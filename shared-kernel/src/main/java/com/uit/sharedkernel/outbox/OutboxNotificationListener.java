@@ -0,0 +1,128 @@
+package com.uit.sharedkernel.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Wakes the outbox relay as soon as events are committed.
+ *
+ * The outbox_events insert trigger issues pg_notify on {@link #CHANNEL}.
+ * This listener holds one dedicated connection (outside the Hikari pool)
+ * with LISTEN on that channel and asks {@link OutboxScheduler} for a drain
+ * whenever a notification arrives. Only active against PostgreSQL; on any
+ * connection error it reconnects after a back-off while polling covers the gap.
+ */
+@Slf4j
+@Component
+@ConditionalOnClass(name = "org.postgresql.PGConnection")
+@ConditionalOnProperty(name = {"outbox.scheduler.enabled", "outbox.notify.enabled"}, havingValue = "true", matchIfMissing = true)
+public class OutboxNotificationListener {
+
+    /**
+     * Fixed, not configurable: it must match the pg_notify call in each service's
+     * Add_Outbox_Notify_Trigger migration, and it is sent unquoted in LISTEN.
+     */
+    public static final String CHANNEL = "outbox_events";
+
+    private final OutboxScheduler outboxScheduler;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final int pollTimeoutMs;
+    private final long reconnectDelayMs;
+
+    private volatile boolean running;
+    private volatile Connection connection;
+    private Thread listenerThread;
+
+    public OutboxNotificationListener(OutboxScheduler outboxScheduler,
+                                      @Value("${spring.datasource.url:}") String url,
+                                      @Value("${spring.datasource.username:}") String username,
+                                      @Value("${spring.datasource.password:}") String password,
+                                      @Value("${outbox.notify.poll-timeout-ms:10000}") int pollTimeoutMs,
+                                      @Value("${outbox.notify.reconnect-delay-ms:5000}") long reconnectDelayMs) {
+        this.outboxScheduler = outboxScheduler;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollTimeoutMs = pollTimeoutMs;
+        this.reconnectDelayMs = reconnectDelayMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!url.startsWith("jdbc:postgresql:")) {
+            log.info("Outbox LISTEN/NOTIFY disabled - datasource is not PostgreSQL, relying on polling");
+            return;
+        }
+        running = true;
+        listenerThread = new Thread(this::listen, "outbox-notify-listener");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection conn = DriverManager.getConnection(url, username, password)) {
+                connection = conn;
+                try (Statement statement = conn.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                log.info("Listening for outbox notifications on channel '{}'", CHANNEL);
+                // Catch anything committed while we were not listening
+                outboxScheduler.requestDrain();
+
+                PGConnection pgConnection = conn.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        outboxScheduler.requestDrain();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox notification listener lost its connection: {}. Reconnecting in {} ms",
+                        e.getMessage(), reconnectDelayMs);
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            } finally {
+                connection = null;
+            }
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Connection conn = connection;
+        if (conn != null) {
+            try {
+                conn.close();
+            } catch (SQLException e) {
+                log.debug("Error closing outbox notification connection: {}", e.getMessage());
+            }
+        }
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+    }
+}
@@ -1,81 +1,117 @@
 package com.uit.sharedkernel.outbox;
 
-import com.uit.sharedkernel.amqp.RabbitMQMessageProducer;
-import com.uit.sharedkernel.outbox.repository.OutboxEventRepository;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Stream;
-
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Outbox relay. Each run starts several workers that keep claiming batches
+ * through {@link OutboxBatchPublisher} until the outbox is drained; SKIP LOCKED
+ * keeps workers on this and other replicas from publishing the same event twice.
+ * Runs are triggered by {@link OutboxNotificationListener} as soon as events are
+ * committed; the fixed-delay schedule remains as a fallback.
+ */
 @Slf4j
 @Component
-@RequiredArgsConstructor
 @ConditionalOnProperty(name = "outbox.scheduler.enabled", havingValue = "true", matchIfMissing = true)
 public class OutboxScheduler {
 
-    private final OutboxEventRepository outboxEventRepository;
-    private final RabbitMQMessageProducer rabbitMQMessageProducer;
-
-    private static final int MAX_RETRY_COUNT = 3;
-    private static final int RETRY_MINUTES_DELAY = 5;
+    private final OutboxBatchPublisher outboxBatchPublisher;
+    private final int workers;
+    private final ExecutorService executor;
+    private final AtomicBoolean draining = new AtomicBoolean();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+
+    public OutboxScheduler(OutboxBatchPublisher outboxBatchPublisher,
+                           @Value("${outbox.relay.workers:2}") int workers) {
+        this.outboxBatchPublisher = outboxBatchPublisher;
+        this.workers = workers;
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-relay-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
 
     @Scheduled(fixedDelayString = "${outbox.scheduler.fixed-delay:5000}", initialDelayString = "${outbox.scheduler.initial-delay:10000}")
-    @Transactional
     public void processOutboxEvents() {
         log.debug("Starting outbox scheduler job...");
 
-        List<OutboxEvent> pendingEvents = outboxEventRepository.findByStatus(OutboxEventStatus.PENDING);
-        List<OutboxEvent> failedEventsToRetry = outboxEventRepository
-                .findByStatusAndCreatedAtBefore(OutboxEventStatus.FAILED, LocalDateTime.now().minusMinutes(RETRY_MINUTES_DELAY));
+        List<Future<Integer>> runs = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            runs.add(executor.submit(this::drain));
+        }
 
-        if (pendingEvents.isEmpty() && failedEventsToRetry.isEmpty()) {
-            log.debug("No outbox events to publish.");
-            return;
+        int published = 0;
+        for (Future<Integer> run : runs) {
+            try {
+                published += run.get();
+            } catch (ExecutionException e) {
+                log.error("Outbox relay worker failed: {}", e.getCause().getMessage(), e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
         }
 
-        log.info("Found {} PENDING and {} FAILED events to process.", pendingEvents.size(), failedEventsToRetry.size());
+        if (published > 0) {
+            log.info("Outbox relay published {} events with {} workers.", published, workers);
+        } else {
+            log.debug("No outbox events to publish.");
+        }
+    }
 
-        Stream.concat(pendingEvents.stream(), failedEventsToRetry.stream())
-                .filter(event -> event.getRetryCount() == null || event.getRetryCount() < MAX_RETRY_COUNT)
-                .forEach(this::publishEvent);
+    /**
+     * Drain the outbox now, off the caller's thread. Requests arriving while a
+     * drain is running are coalesced into one more run.
+     */
+    public void requestDrain() {
+        drainRequested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            Thread.ofVirtual().name("outbox-relay-wakeup").start(this::drainWhileRequested);
+        }
     }
 
-    private void publishEvent(OutboxEvent event) {
+    private void drainWhileRequested() {
         try {
-            log.info("Processing event ID: {}, Type: {}", event.getEventId(), event.getEventType());
-
-            event.setStatus(OutboxEventStatus.PROCESSING);
-            outboxEventRepository.save(event);
-
-            rabbitMQMessageProducer.publish(
-                    event.getPayload(),
-                    event.getExchange(),
-                    event.getRoutingKey()
-            );
-
-            event.setStatus(OutboxEventStatus.COMPLETED);
-            event.setProcessedAt(LocalDateTime.now());
-            outboxEventRepository.save(event);
-
-            log.info("Successfully published event ID: {}", event.getEventId());
-
-        } catch (Exception e) {
-            log.error("Failed to publish event ID: {}. Error: {}", event.getEventId(), e.getMessage(), e);
-
-            event.setStatus(OutboxEventStatus.FAILED);
-            event.setRetryCount(event.getRetryCount() == null ? 1 : event.getRetryCount() + 1);
-            event.setErrorMessage(e.getMessage());
-            outboxEventRepository.save(event);
-
-            if (event.getRetryCount() >= MAX_RETRY_COUNT) {
-                log.error("Event ID: {} has exceeded max retry count. Manual intervention required.", event.getEventId());
+            while (drainRequested.getAndSet(false)) {
+                processOutboxEvents();
             }
+        } finally {
+            draining.set(false);
         }
+        // A request that slipped in after the last check still gets its run
+        if (drainRequested.get()) {
+            requestDrain();
+        }
+    }
+
+    // Stops on a short or partly failed batch, so failures wait for the next run instead of spinning
+    private int drain() {
+        int total = 0;
+        int confirmed;
+        do {
+            confirmed = outboxBatchPublisher.publishNextBatch();
+            total += confirmed;
+        } while (confirmed >= outboxBatchPublisher.getBatchSize());
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
     }
 }
@@ -2,11 +2,21 @@ package com.uit.sharedkernel.outbox.repository;
 
 import com.uit.sharedkernel.outbox.OutboxEvent;
 import com.uit.sharedkernel.outbox.OutboxEventStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
 public interface OutboxEventRepository extends JpaRepository<OutboxEvent, java.util.UUID> {
@@ -20,4 +30,30 @@ public interface OutboxEventRepository extends JpaRepository<OutboxEvent, java.u
     List<OutboxEvent> findByEventType(String eventType);
 
     List<OutboxEvent> findByAggregateTypeAndStatusOrderByCreatedAtAsc(String aggregateType, OutboxEventStatus status);
+
+    /**
+     * Claim the oldest publishable events: PENDING, or FAILED ones due for a retry.
+     * FOR UPDATE SKIP LOCKED, so concurrent relays (threads or replicas) get disjoint batches.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = :pending " +
+           "OR (e.status = :failed AND e.createdAt < :retryBefore " +
+           "AND (e.retryCount IS NULL OR e.retryCount < :maxRetries)) " +
+           "ORDER BY e.createdAt")
+    List<OutboxEvent> claimBatch(@Param("pending") OutboxEventStatus pending,
+                                 @Param("failed") OutboxEventStatus failed,
+                                 @Param("retryBefore") LocalDateTime retryBefore,
+                                 @Param("maxRetries") int maxRetries,
+                                 Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.uit.sharedkernel.outbox.OutboxEventStatus.COMPLETED, " +
+           "e.processedAt = :processedAt, e.errorMessage = NULL WHERE e.eventId IN :ids")
+    int markCompleted(@Param("ids") Collection<UUID> ids, @Param("processedAt") LocalDateTime processedAt);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = com.uit.sharedkernel.outbox.OutboxEventStatus.FAILED, " +
+           "e.retryCount = COALESCE(e.retryCount, 0) + 1, e.errorMessage = :errorMessage WHERE e.eventId IN :ids")
+    int markFailed(@Param("ids") Collection<UUID> ids, @Param("errorMessage") String errorMessage);
 }
@@ -0,0 +1,236 @@
+package com.uit.sharedkernel.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.ObjectProvider;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AsyncAuditEventSender Unit Tests")
+class AsyncAuditEventSenderTest {
+
+    private static final long SPILL_MAX_BYTES = 64 * 1024;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private ObjectProvider<MeterRegistry> meterRegistry;
+
+    @TempDir
+    Path spillDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<AsyncAuditEventSender> senders = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        senders.forEach(AsyncAuditEventSender::stop);
+    }
+
+    @Test
+    @DisplayName("Submitting does not wait on a slow broker, and events go out as array batches")
+    void testPublishesOffCallerThread() throws InterruptedException {
+        AtomicInteger sent = new AtomicInteger();
+        AtomicInteger messages = new AtomicInteger();
+        CountDownLatch allSent = new CountDownLatch(1);
+        doAnswer(inv -> {
+            List<AuditEventDto> batch = inv.getArgument(2);
+            Thread.sleep(1);
+            messages.incrementAndGet();
+            if (sent.addAndGet(batch.size()) == 500) {
+                allSent.countDown();
+            }
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        AsyncAuditEventSender sender = started(1024, AuditOverflowPolicy.DROP, SPILL_MAX_BYTES, "account-service-a");
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 500; i++) {
+            sender.submit(event(i));
+        }
+        long submitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertThat(allSent.await(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(submitMillis).isLessThan(50);
+        awaitUntil(() -> sender.getPublished() == 500);
+        assertThat(sender.getDropped()).isZero();
+        // batch-size is 100, so at least five events share each message
+        assertThat(messages.get()).isBetween(5, 100);
+    }
+
+    @Test
+    @DisplayName("DROP policy counts events rejected by a full buffer")
+    void testDropWhenFull() {
+        CountDownLatch brokerStuck = new CountDownLatch(1);
+        doAnswer(inv -> {
+            brokerStuck.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        AsyncAuditEventSender sender = started(8, AuditOverflowPolicy.DROP, SPILL_MAX_BYTES, "account-service-a");
+
+        for (int i = 0; i < 100; i++) {
+            sender.submit(event(i));
+        }
+
+        assertThat(sender.getDropped()).isPositive();
+        assertThat(sender.getQueueDepth()).isLessThanOrEqualTo(8);
+        brokerStuck.countDown();
+    }
+
+    @Test
+    @DisplayName("Nothing is published before the lifecycle starts the sender")
+    void testStartsWithLifecycle() {
+        AsyncAuditEventSender sender = sender(64, AuditOverflowPolicy.DROP, SPILL_MAX_BYTES, "account-service-a");
+        sender.submit(event(1));
+
+        assertThat(sender.isRunning()).isFalse();
+        assertThat(sender.getQueueDepth()).isEqualTo(1);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        sender.start();
+        senders.add(sender);
+
+        awaitUntil(() -> sender.getPublished() == 1);
+        assertThat(sender.getPhase()).isLessThan(Integer.MAX_VALUE);
+    }
+
+    @Test
+    @DisplayName("A nacked batch is spilled whole and replayed as one message")
+    void testNackedBatchSpilledAndReplayed() {
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        List<List<String>> sends = new CopyOnWriteArrayList<>();
+        doAnswer(inv -> {
+            List<AuditEventDto> batch = inv.getArgument(2);
+            CorrelationData correlation = inv.getArgument(3);
+            sends.add(batch.stream().map(AuditEventDto::getEntityId).toList());
+            boolean ack = sends.size() > 1;
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        AsyncAuditEventSender sender = sender(64, AuditOverflowPolicy.SPILL, SPILL_MAX_BYTES, "account-service-a");
+        for (int i = 0; i < 5; i++) {
+            sender.submit(event(i));
+        }
+
+        sender.start();
+        senders.add(sender);
+
+        awaitUntil(() -> sender.getPublished() == 5);
+        List<String> expected = List.of("acc-0", "acc-1", "acc-2", "acc-3", "acc-4");
+        assertThat(sender.getSpilled()).isEqualTo(5);
+        assertThat(sends).containsExactly(expected, expected);
+        assertThat(sender.getDropped()).isZero();
+    }
+
+    @Test
+    @DisplayName("SPILL policy stops writing at the size cap and drops the rest")
+    void testSpillFileIsCapped() throws Exception {
+        doThrow(new AmqpConnectException(new ConnectException("broker down")))
+                .when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+        AsyncAuditEventSender sender = started(16, AuditOverflowPolicy.SPILL, 2048, "account-service-a");
+        Path spillFile = sender.getSpillFile();
+
+        for (int i = 0; i < 200; i++) {
+            sender.submit(event(i));
+        }
+        awaitUntil(() -> sender.getDropped() + sender.getSpilled() == 200);
+
+        assertThat(sender.getSpilled()).isPositive();
+        assertThat(sender.getDropped()).isPositive();
+        // Pending events are either still in the spill file or moved aside for replay
+        assertThat(sizeOf(spillFile) + sizeOf(Path.of(spillFile + ".replay"))).isPositive().isLessThanOrEqualTo(2048);
+    }
+
+    @Test
+    @DisplayName("Two instances with the same id in one directory get separate spill files")
+    void testSpillFilePerInstance() {
+        AsyncAuditEventSender first = started(16, AuditOverflowPolicy.SPILL, SPILL_MAX_BYTES, "account-service-a");
+        AsyncAuditEventSender second = started(16, AuditOverflowPolicy.SPILL, SPILL_MAX_BYTES, "account-service-a");
+        AsyncAuditEventSender other = started(16, AuditOverflowPolicy.SPILL, SPILL_MAX_BYTES, "account-service-b");
+
+        assertThat(first.getSpillFile()).isEqualTo(spillDir.resolve("account-service-a.spill"));
+        assertThat(second.getSpillFile()).isNotNull().isNotEqualTo(first.getSpillFile());
+        assertThat(other.getSpillFile()).isEqualTo(spillDir.resolve("account-service-b.spill"));
+    }
+
+    private AsyncAuditEventSender started(int capacity, AuditOverflowPolicy policy, long spillMaxBytes, String instanceId) {
+        AsyncAuditEventSender sender = sender(capacity, policy, spillMaxBytes, instanceId);
+        sender.start();
+        senders.add(sender);
+        return sender;
+    }
+
+    private AsyncAuditEventSender sender(int capacity, AuditOverflowPolicy policy, long spillMaxBytes, String instanceId) {
+        return new AsyncAuditEventSender(rabbitTemplate, objectMapper, meterRegistry, capacity, 100, 20, policy, 10,
+                200, spillDir.toString(), instanceId, spillMaxBytes);
+    }
+
+    private static long sizeOf(Path file) throws IOException {
+        return Files.exists(file) ? Files.size(file) : 0;
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertThat(System.nanoTime()).as("condition not met within 5s").isLessThan(deadline);
+            try {
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private static AuditEventDto event(int i) {
+        return AuditEventDto.builder()
+                .serviceName("account-service")
+                .entityType("Account")
+                .entityId("acc-" + i)
+                .action("TRANSFER")
+                .result("SUCCESS")
+                .build();
+    }
+}
@@ -0,0 +1,112 @@
+package com.uit.sharedkernel.outbox;
+
+import com.uit.sharedkernel.outbox.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxBatchPublisher Unit Tests")
+class OutboxBatchPublisherTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    private OutboxBatchPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        publisher = new OutboxBatchPublisher(outboxEventRepository, rabbitTemplate, 10, 200);
+    }
+
+    @Test
+    @DisplayName("Acked events are completed and nacked events failed, each in one bulk update")
+    void testBulkSettleByConfirm() {
+        OutboxEvent acked = event("ok");
+        OutboxEvent nacked = event("rejected");
+        claim(acked, nacked);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        doAnswer(inv -> {
+            CorrelationData correlation = inv.getArgument(3);
+            boolean ack = !"rejected".equals(inv.getArgument(1));
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+
+        int confirmed = publisher.publishNextBatch();
+
+        assertThat(confirmed).isEqualTo(1);
+        verify(outboxEventRepository).markCompleted(eq(List.of(acked.getEventId())), any(LocalDateTime.class));
+        verify(outboxEventRepository).markFailed(List.of(nacked.getEventId()), "Broker nack: queue full");
+    }
+
+    @Test
+    @DisplayName("A missing confirm fails the event once the timeout passes")
+    void testConfirmTimeout() {
+        OutboxEvent event = event("ok");
+        claim(event);
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+
+        int confirmed = publisher.publishNextBatch();
+
+        assertThat(confirmed).isZero();
+        verify(outboxEventRepository, never()).markCompleted(any(), any());
+        verify(outboxEventRepository).markFailed(List.of(event.getEventId()), "Publisher confirm timed out");
+    }
+
+    @Test
+    @DisplayName("An empty claim publishes nothing")
+    void testEmptyClaim() {
+        claim();
+
+        assertThat(publisher.publishNextBatch()).isZero();
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class), any(CorrelationData.class));
+    }
+
+    private void claim(OutboxEvent... events) {
+        when(outboxEventRepository.claimBatch(eq(OutboxEventStatus.PENDING), eq(OutboxEventStatus.FAILED),
+                any(LocalDateTime.class), anyInt(), any(Pageable.class))).thenReturn(List.of(events));
+    }
+
+    private static OutboxEvent event(String routingKey) {
+        return OutboxEvent.builder()
+                .eventId(UUID.randomUUID())
+                .aggregateType("Transaction")
+                .aggregateId("tx-1")
+                .eventType("TransactionCompleted")
+                .exchange("transaction.exchange")
+                .routingKey(routingKey)
+                .payload("{}")
+                .status(OutboxEventStatus.PENDING)
+                .build();
+    }
+}
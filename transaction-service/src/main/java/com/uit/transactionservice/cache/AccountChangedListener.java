@@ -0,0 +1,27 @@
+package com.uit.transactionservice.cache;
+
+import com.uit.sharedkernel.event.AccountChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Drops cached account lookups when account-service reports a close/status change.
+ * Every instance has its own auto-delete queue, so each near-cache is invalidated.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class AccountChangedListener {
+
+    private final AccountLookupCache accountLookupCache;
+
+    @RabbitListener(queues = "#{accountChangedQueue.name}")
+    public void handleAccountChanged(AccountChangedEvent event) {
+        log.info("Account {} changed ({}), evicting lookup cache", event.getAccountNumber(), event.getReason());
+        if (event.getAccountNumber() != null) {
+            accountLookupCache.evict(event.getAccountNumber());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.uit.transactionservice.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Two-level cache for account-number lookups.
+ *
+ * L1 is a per-instance Caffeine near-cache, L2 a Redis cache shared by all
+ * transaction-service instances. Only the lookup projection
+ * {accountId, accountNumber, userId, status, fullName} is cached, never balances.
+ * Entries are dropped on AccountChangedEvent from account-service; TTLs bound
+ * staleness if an invalidation is missed.
+ */
+@Slf4j
+@Component
+public class AccountLookupCache {
+
+    static final String REDIS_KEY_PREFIX = "account-lookup:";
+    private static final String[] PROJECTION = {"accountId", "accountNumber", "userId", "accountStatus", "fullName"};
+
+    private final Cache<String, Map<String, Object>> nearCache;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Duration redisTtl;
+
+    private final Counter nearHits;
+    private final Counter nearMisses;
+    private final Counter redisHits;
+    private final Counter redisMisses;
+
+    public AccountLookupCache(RedisTemplate<String, Object> redisTemplate,
+                              MeterRegistry meterRegistry,
+                              @Value("${account-lookup.cache.near.max-size:10000}") long nearMaxSize,
+                              @Value("${account-lookup.cache.near.ttl-seconds:60}") long nearTtlSeconds,
+                              @Value("${account-lookup.cache.redis.ttl-seconds:600}") long redisTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.redisTtl = Duration.ofSeconds(redisTtlSeconds);
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(nearMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(nearTtlSeconds))
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "accountLookup");
+        this.nearHits = lookupCounter(meterRegistry, "near", "hit");
+        this.nearMisses = lookupCounter(meterRegistry, "near", "miss");
+        this.redisHits = lookupCounter(meterRegistry, "redis", "hit");
+        this.redisMisses = lookupCounter(meterRegistry, "redis", "miss");
+    }
+
+    /**
+     * Near-cache, then Redis, then the loader. A null from the loader (not found)
+     * is returned as-is and not cached.
+     */
+    public Map<String, Object> get(String accountNumber, Function<String, Map<String, Object>> loader) {
+        Map<String, Object> cached = nearCache.getIfPresent(accountNumber);
+        if (cached != null) {
+            nearHits.increment();
+            return cached;
+        }
+        nearMisses.increment();
+
+        Map<String, Object> shared = readRedis(accountNumber);
+        if (shared != null) {
+            redisHits.increment();
+            nearCache.put(accountNumber, shared);
+            return shared;
+        }
+        redisMisses.increment();
+
+        Map<String, Object> loaded = loader.apply(accountNumber);
+        if (loaded == null) {
+            return null;
+        }
+        Map<String, Object> projection = project(loaded);
+        nearCache.put(accountNumber, projection);
+        writeRedis(accountNumber, projection);
+        return projection;
+    }
+
+    public void evict(String accountNumber) {
+        nearCache.invalidate(accountNumber);
+        try {
+            redisTemplate.delete(REDIS_KEY_PREFIX + accountNumber);
+        } catch (Exception e) {
+            log.warn("Failed to evict account lookup {} from Redis: {}", accountNumber, e.getMessage());
+        }
+    }
+
+    private Map<String, Object> project(Map<String, Object> account) {
+        Map<String, Object> projection = new HashMap<>();
+        for (String field : PROJECTION) {
+            if (account.get(field) != null) {
+                projection.put(field, account.get(field));
+            }
+        }
+        return Map.copyOf(projection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readRedis(String accountNumber) {
+        try {
+            Object value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + accountNumber);
+            return value instanceof Map<?, ?> map ? Map.copyOf((Map<String, Object>) map) : null;
+        } catch (Exception e) {
+            log.warn("Redis account lookup failed for {}: {}", accountNumber, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeRedis(String accountNumber, Map<String, Object> projection) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + accountNumber, new HashMap<>(projection), redisTtl);
+        } catch (Exception e) {
+            log.warn("Failed to cache account lookup {} in Redis: {}", accountNumber, e.getMessage());
+        }
+    }
+
+    private static Counter lookupCounter(MeterRegistry registry, String level, String result) {
+        return Counter.builder("account.lookup.cache")
+                .description("Account-number lookups by cache level and outcome")
+                .tag("level", level)
+                .tag("result", result)
+                .register(registry);
+    }
+}
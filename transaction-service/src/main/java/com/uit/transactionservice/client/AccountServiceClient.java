@@ -1,19 +1,27 @@
 package com.uit.transactionservice.client;
 
+import com.uit.transactionservice.cache.AccountLookupCache;
 import com.uit.transactionservice.client.dto.AccountBalanceRequest;
 import com.uit.transactionservice.client.dto.AccountBalanceResponse;
 import com.uit.transactionservice.client.dto.InternalTransferRequest;
 import com.uit.transactionservice.client.dto.InternalTransferResponse;
+import com.uit.transactionservice.client.dto.TransferFailureCode;
 import com.uit.transactionservice.exception.AccountServiceException;
 import com.uit.transactionservice.exception.InsufficientBalanceException;
+import com.uit.transactionservice.exception.TransferOutcomeUnknownException;
 import feign.FeignException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Client for synchronous communication with Account Service
@@ -25,6 +33,11 @@ import java.util.Map;
 public class AccountServiceClient {
 
     private final AccountServiceFeignClient accountServiceFeignClient;
+    private final InternalTransferBatcher internalTransferBatcher;
+    private final AccountLookupCache accountLookupCache;
+
+    @Value("${services.account-service.timeout:5000}")
+    private long batchTimeoutMs;
 
     /**
      * Debit (subtract) amount from an account
@@ -138,8 +151,14 @@ public class AccountServiceClient {
     /**
      * Get account details by account number.
      * Returns Map with account info if found, or null if not found (404).
+     * Served from the two-level account lookup cache; only the lookup projection
+     * (accountId, accountNumber, userId, accountStatus, fullName) is returned.
      */
     public Map<String, Object> getAccountByNumber(String accountNumber) {
+        return accountLookupCache.get(accountNumber, this::fetchAccountByNumber);
+    }
+
+    private Map<String, Object> fetchAccountByNumber(String accountNumber) {
         log.info("Resolving account number: {}", accountNumber);
 
         try {
@@ -215,7 +234,17 @@ public class AccountServiceClient {
                 fromAccountId, toAccountId, amount, transactionId);
 
         try {
-            InternalTransferResponse response = accountServiceFeignClient.executeInternalTransfer(request);
+            InternalTransferResponse response = internalTransferBatcher.isEnabled()
+                    ? awaitBatchedTransfer(request)
+                    : accountServiceFeignClient.executeInternalTransfer(request);
+
+            if (!response.isSuccess()) {
+                log.error("Internal transfer {} rejected: {} ({})", transactionId, response.getFailureCode(), response.getMessage());
+                if (response.getFailureCode() == TransferFailureCode.INSUFFICIENT_FUNDS) {
+                    throw new InsufficientBalanceException("Insufficient balance in sender account");
+                }
+                throw new AccountServiceException("Failed to execute internal transfer: " + response.getMessage());
+            }
 
             log.info("Internal transfer completed - TxID: {} - Sender new balance: {} - Receiver new balance: {}",
                     transactionId,
@@ -223,6 +252,9 @@ public class AccountServiceClient {
                     response.getReceiverAccountNewBalance());
             return response;
 
+        } catch (InsufficientBalanceException | AccountServiceException | TransferOutcomeUnknownException e) {
+            throw e;
+
         } catch (FeignException.BadRequest e) {
             log.error("Bad request during internal transfer: {} - {}", e.status(), e.getMessage());
 
@@ -249,4 +281,41 @@ public class AccountServiceClient {
             throw new AccountServiceException("Unexpected error: " + e.getMessage(), e);
         }
     }
+
+    /**
+     * Whether an internal transfer committed, for transfers whose result was lost.
+     * success = true means it was applied; failureCode NOT_FOUND means it never committed.
+     */
+    public InternalTransferResponse getInternalTransferOutcome(String transactionId, String senderAccountId) {
+        try {
+            return accountServiceFeignClient.getInternalTransferOutcome(transactionId, senderAccountId);
+        } catch (FeignException e) {
+            log.error("Failed to look up internal transfer {}: {} - {}", transactionId, e.status(), e.getMessage());
+            throw new AccountServiceException("Failed to look up internal transfer: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Wait for the micro-batched result of one transfer.
+     * Rejections of the whole batch are rethrown as-is so they map like a direct call.
+     * On timeout the transfer is failed only if it can still be taken out of the queue;
+     * once sent, its outcome is unknown until reconciled.
+     */
+    private InternalTransferResponse awaitBatchedTransfer(InternalTransferRequest request) throws Exception {
+        CompletableFuture<InternalTransferResponse> result = internalTransferBatcher.submit(request);
+        try {
+            return result.get(batchTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception cause) {
+                throw cause;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            if (internalTransferBatcher.withdraw(result)) {
+                throw new AccountServiceException("Timed out queueing internal transfer " + request.getTransactionId(), e);
+            }
+            throw new TransferOutcomeUnknownException(
+                    "Timed out waiting for batched internal transfer " + request.getTransactionId(), e);
+        }
+    }
 }
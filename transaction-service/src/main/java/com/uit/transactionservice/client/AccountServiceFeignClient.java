@@ -2,6 +2,8 @@ package com.uit.transactionservice.client;
 
 import com.uit.transactionservice.client.dto.AccountBalanceRequest;
 import com.uit.transactionservice.client.dto.AccountBalanceResponse;
+import com.uit.transactionservice.client.dto.BatchInternalTransferRequest;
+import com.uit.transactionservice.client.dto.BatchInternalTransferResponse;
 import com.uit.transactionservice.client.dto.InternalTransferRequest;
 import com.uit.transactionservice.client.dto.InternalTransferResponse;
 import org.springframework.cloud.openfeign.FeignClient;
@@ -63,4 +65,23 @@ public interface AccountServiceFeignClient {
     InternalTransferResponse executeInternalTransfer(
             @RequestBody InternalTransferRequest request
     );
+
+    /**
+     * Execute many internal transfers in one DB transaction (group commit)
+     * Returns one result per transfer, in request order
+     */
+    @PostMapping("/accounts/internal/transfer/batch")
+    BatchInternalTransferResponse executeInternalTransferBatch(
+            @RequestBody BatchInternalTransferRequest request
+    );
+
+    /**
+     * Whether an internal transfer committed, by transactionId
+     * success = true if it was applied; failureCode NOT_FOUND if it never committed
+     */
+    @GetMapping("/accounts/internal/transfer/{transactionId}")
+    InternalTransferResponse getInternalTransferOutcome(
+            @PathVariable("transactionId") String transactionId,
+            @RequestParam("senderAccountId") String senderAccountId
+    );
 }
@@ -0,0 +1,182 @@
+package com.uit.transactionservice.client;
+
+import com.uit.transactionservice.client.dto.BatchInternalTransferRequest;
+import com.uit.transactionservice.client.dto.BatchInternalTransferResponse;
+import com.uit.transactionservice.client.dto.InternalTransferRequest;
+import com.uit.transactionservice.client.dto.InternalTransferResponse;
+import com.uit.transactionservice.exception.AccountServiceException;
+import com.uit.transactionservice.exception.TransferOutcomeUnknownException;
+import feign.FeignException;
+import feign.RetryableException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micro-batching front for the account-service internal transfer endpoint.
+ *
+ * Verified internal transfers that arrive within a few milliseconds of each other are
+ * sent as one /accounts/internal/transfer/batch call, so account-service locks and
+ * commits them together instead of paying one round trip and one commit per transfer.
+ * Callers still get their own result through a CompletableFuture.
+ *
+ * A transfer whose batch was sent but got no usable answer (I/O error, read timeout,
+ * 5xx, malformed response) fails with {@link TransferOutcomeUnknownException}: the
+ * batch may have committed, so the caller must reconcile instead of failing it.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InternalTransferBatcher {
+
+    private final AccountServiceFeignClient accountServiceFeignClient;
+
+    private final BlockingQueue<PendingTransfer> queue = new LinkedBlockingQueue<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    @Value("${services.account-service.transfer-batch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${services.account-service.transfer-batch.window-ms:5}")
+    private long windowMs;
+
+    @Value("${services.account-service.transfer-batch.max-size:200}")
+    private int maxBatchSize;
+
+    @Value("${services.account-service.transfer-batch.workers:2}")
+    private int workerCount;
+
+    private record PendingTransfer(InternalTransferRequest request,
+                                   CompletableFuture<InternalTransferResponse> result) {
+    }
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            log.info("Internal transfer micro-batching disabled");
+            return;
+        }
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofPlatform()
+                    .name("internal-transfer-batcher-" + i)
+                    .daemon()
+                    .start(this::drainLoop));
+        }
+        log.info("Internal transfer micro-batching started - window: {}ms, max size: {}, workers: {}",
+                windowMs, maxBatchSize, workerCount);
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        List<PendingTransfer> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(p -> p.result().completeExceptionally(
+                new AccountServiceException("Transaction service is shutting down")));
+    }
+
+    public boolean isEnabled() {
+        return running;
+    }
+
+    /**
+     * Queue a transfer for the next batch. The future fails with the Feign exception if
+     * account-service rejected the whole batch, or with TransferOutcomeUnknownException
+     * if the batch was sent but its outcome is unknown.
+     */
+    public CompletableFuture<InternalTransferResponse> submit(InternalTransferRequest request) {
+        CompletableFuture<InternalTransferResponse> result = new CompletableFuture<>();
+        queue.add(new PendingTransfer(request, result));
+        return result;
+    }
+
+    /**
+     * Take a transfer back out of the queue, e.g. after its caller timed out.
+     * Returns false if a worker already picked it up, i.e. it may have been sent.
+     */
+    public boolean withdraw(CompletableFuture<InternalTransferResponse> result) {
+        return queue.removeIf(p -> p.result() == result);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                List<PendingTransfer> batch = new ArrayList<>();
+                batch.add(queue.take());
+
+                // Give concurrent requests a short window to join this batch
+                long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(windowMs);
+                while (batch.size() < maxBatchSize) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        queue.drainTo(batch, maxBatchSize - batch.size());
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void dispatch(List<PendingTransfer> batch) {
+        try {
+            BatchInternalTransferResponse response = accountServiceFeignClient.executeInternalTransferBatch(
+                    BatchInternalTransferRequest.builder()
+                            .transfers(batch.stream().map(PendingTransfer::request).toList())
+                            .build());
+
+            List<InternalTransferResponse> results = response.getResults();
+            if (results == null || results.size() != batch.size()) {
+                // The batch ran, but results cannot be matched to transfers
+                throw new TransferOutcomeUnknownException("Batch transfer returned "
+                        + (results == null ? 0 : results.size()) + " results for " + batch.size() + " transfers");
+            }
+
+            log.debug("Internal transfer batch of {} completed - {} succeeded, {} failed",
+                    batch.size(), response.getSucceeded(), response.getFailed());
+
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).result().complete(results.get(i));
+            }
+        } catch (Exception e) {
+            log.error("Internal transfer batch of {} failed: {}", batch.size(), e.getMessage());
+            Exception failure = outcomeUnknown(e)
+                    ? new TransferOutcomeUnknownException("Internal transfer batch outcome unknown: " + e.getMessage(), e)
+                    : e;
+            batch.forEach(p -> p.result().completeExceptionally(failure));
+        }
+    }
+
+    /**
+     * Whether the batch may have committed despite the failure. A 4xx answer means
+     * account-service rejected it; no answer or a 5xx (e.g. from a proxy) says nothing.
+     */
+    private static boolean outcomeUnknown(Exception e) {
+        if (e instanceof TransferOutcomeUnknownException || e instanceof RetryableException) {
+            return true;
+        }
+        return !(e instanceof FeignException feign) || feign.status() < 0 || feign.status() >= 500;
+    }
+}
@@ -0,0 +1,18 @@
+package com.uit.transactionservice.client.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchInternalTransferResponse {
+    private List<InternalTransferResponse> results;
+    private int succeeded;
+    private int failed;
+}
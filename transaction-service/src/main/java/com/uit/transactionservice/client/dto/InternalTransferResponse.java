@@ -22,4 +22,5 @@ public class InternalTransferResponse {
     private BigDecimal amount;
     private boolean success;
     private String message;
+    private TransferFailureCode failureCode;
 }
@@ -0,0 +1,15 @@
+package com.uit.transactionservice.client.dto;
+
+/**
+ * Why account-service did not apply an internal transfer (mirrors account-service).
+ */
+public enum TransferFailureCode {
+    INVALID_REQUEST,
+    DUPLICATE_TRANSACTION,
+    SAME_ACCOUNT,
+    SENDER_NOT_FOUND,
+    RECEIVER_NOT_FOUND,
+    INSUFFICIENT_FUNDS,
+    PROCESSING_ERROR,
+    NOT_FOUND
+}
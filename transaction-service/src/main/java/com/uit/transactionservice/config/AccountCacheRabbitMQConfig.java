@@ -0,0 +1,36 @@
+package com.uit.transactionservice.config;
+
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Broadcast wiring for account lookup cache invalidation: one exclusive,
+ * auto-delete queue per instance bound to account.exchange.
+ */
+@Configuration
+public class AccountCacheRabbitMQConfig {
+
+    @Bean
+    public TopicExchange accountExchange() {
+        return new TopicExchange(RabbitMQConstants.ACCOUNT_EXCHANGE);
+    }
+
+    @Bean
+    public Queue accountChangedQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding accountChangedBinding(Queue accountChangedQueue, TopicExchange accountExchange) {
+        return BindingBuilder
+                .bind(accountChangedQueue)
+                .to(accountExchange)
+                .with(RabbitMQConstants.ACCOUNT_CHANGED_ROUTING_KEY);
+    }
+}
@@ -0,0 +1,18 @@
+package com.uit.transactionservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Clock;
+
+@Configuration
+public class AppConfig {
+
+    /**
+     * Time source for period-based logic such as transaction limits; tests pass a fixed clock.
+     */
+    @Bean
+    public Clock clock() {
+        return Clock.systemUTC();
+    }
+}
@@ -1,6 +1,8 @@
 package com.uit.transactionservice.controller;
 
 import com.uit.sharedkernel.api.ApiResponse;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.sharedkernel.export.ExportResponses;
 import com.uit.transactionservice.dto.VerifyOTPRequest;
 import com.uit.transactionservice.dto.request.CreateTransferRequest;
 import com.uit.transactionservice.dto.request.ResendOtpRequest;
@@ -8,6 +10,7 @@ import com.uit.transactionservice.dto.response.TransactionLimitResponse;
 import com.uit.transactionservice.dto.response.TransactionResponse;
 import com.uit.transactionservice.entity.TransactionStatus;
 import com.uit.transactionservice.security.RequireRole;
+import com.uit.transactionservice.service.TransactionExportService;
 import com.uit.transactionservice.service.TransactionLimitService;
 import com.uit.transactionservice.service.TransactionService;
 import jakarta.servlet.http.HttpServletRequest;
@@ -18,10 +21,14 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.Map;
 import java.util.UUID;
 
@@ -33,6 +40,7 @@ public class TransactionController {
 
     private final TransactionService transactionService;
     private final TransactionLimitService transactionLimitService;
+    private final TransactionExportService transactionExportService;
 
     /**
      * Create a new transfer transaction (with OTP)
@@ -157,6 +165,23 @@ public class TransactionController {
         return ResponseEntity.ok(ApiResponse.success(transactions));
     }
 
+    /**
+     * Download an account statement as NDJSON or CSV, streamed (gzip if accepted)
+     * GET /transactions/{accountNumber}/statement/export?from=...&to=...&format=CSV
+     */
+    @GetMapping("/{accountNumber}/statement/export")
+    // @RequireRole("user")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable String accountNumber,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "NDJSON") ExportFormat format,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        return ExportResponses.attachment("statement-" + accountNumber, format, acceptEncoding,
+                out -> transactionExportService.exportStatement(accountNumber, from, to, format, out));
+    }
+
     /**
      * Get transaction by ID
      * GET /transactions/{txId}
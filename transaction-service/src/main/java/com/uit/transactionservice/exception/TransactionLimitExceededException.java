@@ -0,0 +1,11 @@
+package com.uit.transactionservice.exception;
+
+/**
+ * Exception thrown when a transfer would exceed the daily or monthly limit
+ */
+public class TransactionLimitExceededException extends RuntimeException {
+
+    public TransactionLimitExceededException(String message) {
+        super(message);
+    }
+}
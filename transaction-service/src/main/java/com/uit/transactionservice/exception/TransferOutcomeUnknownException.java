@@ -0,0 +1,16 @@
+package com.uit.transactionservice.exception;
+
+/**
+ * Exception thrown when an internal transfer was sent to account service but no
+ * result came back, so it may or may not have been applied
+ */
+public class TransferOutcomeUnknownException extends RuntimeException {
+
+    public TransferOutcomeUnknownException(String message) {
+        super(message);
+    }
+
+    public TransferOutcomeUnknownException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
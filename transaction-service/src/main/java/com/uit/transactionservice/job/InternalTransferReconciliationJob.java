@@ -0,0 +1,61 @@
+package com.uit.transactionservice.job;
+
+import com.uit.transactionservice.entity.SagaStep;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.entity.TransactionStatus;
+import com.uit.transactionservice.repository.TransactionRepository;
+import com.uit.transactionservice.service.TransactionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Reconciliation job for internal transfers with an unknown outcome
+ *
+ * A verified internal transfer whose batched account-service call timed out after it
+ * was sent is left PROCESSING (step OTP_VERIFIED) with its limit still charged, since
+ * the batch may yet commit. This job asks account-service whether each such transfer
+ * was applied and completes or fails it accordingly.
+ *
+ * Transfers are only picked up after a grace period well beyond the Feign read timeout,
+ * so the original batch request has either committed or rolled back by then.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class InternalTransferReconciliationJob {
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionService transactionService;
+
+    @Value("${transaction.internal-transfer.reconcile-after-ms:60000}")
+    private long reconcileAfterMs;
+
+    @Scheduled(fixedDelayString = "${transaction.internal-transfer.reconcile-interval-ms:30000}")
+    public void reconcileUnknownTransfers() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(Duration.ofMillis(reconcileAfterMs));
+        List<Transaction> unresolved = transactionRepository.findByStatusAndCurrentStepAndUpdatedAtBefore(
+                TransactionStatus.PROCESSING, SagaStep.OTP_VERIFIED, cutoff);
+
+        if (unresolved.isEmpty()) {
+            return;
+        }
+        log.warn("Reconciling {} internal transfers with unknown outcome", unresolved.size());
+
+        for (Transaction transaction : unresolved) {
+            try {
+                transactionService.reconcileInternalTransfer(transaction);
+            } catch (Exception e) {
+                // Left PROCESSING; retried on the next run
+                log.error("Failed to reconcile internal transfer {}: {}",
+                        transaction.getTransactionId(), e.getMessage());
+            }
+        }
+    }
+}
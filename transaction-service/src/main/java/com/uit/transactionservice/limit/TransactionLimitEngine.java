@@ -0,0 +1,280 @@
+package com.uit.transactionservice.limit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.uit.transactionservice.entity.TransactionLimit;
+import com.uit.transactionservice.exception.TransactionLimitExceededException;
+import com.uit.transactionservice.repository.TransactionLimitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Daily and monthly transfer limits backed by Redis counters.
+ *
+ * Usage is kept per calendar day and calendar month (in transaction.limit.zone)
+ * as integer minor units. reserve() checks and charges both counters in one Lua
+ * script, so concurrent transfers from the same account cannot overshoot a limit.
+ * release() gives a reservation back when the transfer fails. Counters are
+ * written back to transaction_limits on a schedule; the table stays the source
+ * of the configured limits and seeds a counter the first time a period is used.
+ */
+@Slf4j
+@Component
+public class TransactionLimitEngine {
+
+    static final String KEY_PREFIX = "txlimit:";
+    private static final DateTimeFormatter DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final long KEY_GRACE_SECONDS = Duration.ofDays(1).toSeconds();
+    private static final long RESERVED = 1;
+    private static final long DAILY_EXCEEDED = -1;
+
+    private final StringRedisTemplate redisTemplate;
+    private final TransactionLimitRepository transactionLimitRepository;
+    private final Clock clock;
+    private final Duration reservationTtl;
+    private final Cache<String, TransactionLimit> limits;
+    private final Set<String> dirtyAccounts = ConcurrentHashMap.newKeySet();
+    private final DefaultRedisScript<Long> reserveScript;
+    private final DefaultRedisScript<Long> releaseScript;
+
+    public TransactionLimitEngine(StringRedisTemplate redisTemplate,
+                                  TransactionLimitRepository transactionLimitRepository,
+                                  Clock clock,
+                                  @Value("${transaction.limit.zone:UTC}") String zone,
+                                  @Value("${transaction.limit.reservation-ttl-days:35}") long reservationTtlDays,
+                                  @Value("${transaction.limit.cache.max-size:10000}") long cacheMaxSize,
+                                  @Value("${transaction.limit.cache.ttl-seconds:300}") long cacheTtlSeconds) {
+        this.redisTemplate = redisTemplate;
+        this.transactionLimitRepository = transactionLimitRepository;
+        this.clock = clock.withZone(ZoneId.of(zone));
+        this.reservationTtl = Duration.ofDays(reservationTtlDays);
+        this.limits = Caffeine.newBuilder()
+                .maximumSize(cacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(cacheTtlSeconds))
+                .build();
+        this.reserveScript = script("scripts/transaction-limit-reserve.lua");
+        this.releaseScript = script("scripts/transaction-limit-release.lua");
+    }
+
+    /**
+     * Fail fast if the amount would not fit today. Does not reserve anything;
+     * the authoritative check is reserve().
+     */
+    public void check(String accountId, BigDecimal amount) {
+        TransactionLimit limit = getLimit(accountId);
+        Periods periods = currentPeriods(accountId);
+        List<String> used = redisTemplate.opsForValue().multiGet(List.of(periods.dailyKey(), periods.monthlyKey()));
+        long dailyUsed = counterOrSeed(used, 0, dailySeed(limit, periods));
+        long monthlyUsed = counterOrSeed(used, 1, monthlySeed(limit, periods));
+        long cents = toMinorUnits(amount);
+
+        if (dailyUsed + cents > toMinorUnits(limit.getDailyLimit())) {
+            throw new TransactionLimitExceededException("Daily transaction limit exceeded");
+        }
+        if (monthlyUsed + cents > toMinorUnits(limit.getMonthlyLimit())) {
+            throw new TransactionLimitExceededException("Monthly transaction limit exceeded");
+        }
+    }
+
+    /**
+     * Atomically check both limits and charge the amount to them.
+     * Reserving the same transaction twice is a no-op.
+     */
+    public void reserve(String accountId, UUID transactionId, BigDecimal amount) {
+        TransactionLimit limit = getLimit(accountId);
+        Periods periods = currentPeriods(accountId);
+
+        Long result = redisTemplate.execute(reserveScript,
+                List.of(periods.dailyKey(), periods.monthlyKey(), reservationKey(accountId, transactionId)),
+                String.valueOf(toMinorUnits(amount)),
+                String.valueOf(toMinorUnits(limit.getDailyLimit())),
+                String.valueOf(toMinorUnits(limit.getMonthlyLimit())),
+                String.valueOf(dailySeed(limit, periods)),
+                String.valueOf(monthlySeed(limit, periods)),
+                String.valueOf(periods.dailyTtlSeconds()),
+                String.valueOf(periods.monthlyTtlSeconds()),
+                String.valueOf(reservationTtl.toSeconds()));
+
+        if (result == null || result != RESERVED) {
+            throw new TransactionLimitExceededException(result != null && result == DAILY_EXCEEDED
+                    ? "Daily transaction limit exceeded"
+                    : "Monthly transaction limit exceeded");
+        }
+        dirtyAccounts.add(accountId);
+        log.debug("Reserved {} against limits of account {} for transaction {}", amount, accountId, transactionId);
+    }
+
+    /**
+     * Give a reservation back after the transfer failed. Safe to call when
+     * nothing was reserved; never throws, a failed release only over-counts.
+     */
+    public void release(String accountId, UUID transactionId) {
+        try {
+            Long released = redisTemplate.execute(releaseScript, List.of(reservationKey(accountId, transactionId)));
+            if (released != null && released == 1) {
+                dirtyAccounts.add(accountId);
+                log.info("Released limit reservation of account {} for transaction {}", accountId, transactionId);
+            }
+        } catch (Exception e) {
+            log.error("Failed to release limit reservation of account {} for transaction {}: {}",
+                    accountId, transactionId, e.getMessage());
+        }
+    }
+
+    /**
+     * The transfer went through; the usage stays and the reservation record is dropped.
+     */
+    public void commit(String accountId, UUID transactionId) {
+        try {
+            redisTemplate.delete(reservationKey(accountId, transactionId));
+        } catch (Exception e) {
+            log.warn("Failed to drop limit reservation of account {} for transaction {}: {}",
+                    accountId, transactionId, e.getMessage());
+        }
+    }
+
+    /**
+     * Configured limits with live usage for the current day and month.
+     */
+    public TransactionLimit snapshot(String accountId) {
+        TransactionLimit limit = getLimit(accountId);
+        Periods periods = currentPeriods(accountId);
+        List<String> used = redisTemplate.opsForValue().multiGet(List.of(periods.dailyKey(), periods.monthlyKey()));
+
+        return TransactionLimit.builder()
+                .accountId(accountId)
+                .dailyLimit(limit.getDailyLimit())
+                .monthlyLimit(limit.getMonthlyLimit())
+                .dailyUsed(fromMinorUnits(counterOrSeed(used, 0, dailySeed(limit, periods))))
+                .monthlyUsed(fromMinorUnits(counterOrSeed(used, 1, monthlySeed(limit, periods))))
+                .lastDailyReset(periods.dayStart())
+                .lastMonthlyReset(periods.monthStart())
+                .build();
+    }
+
+    /**
+     * Persist the Redis counters of accounts touched since the last run.
+     */
+    @Scheduled(fixedDelayString = "${transaction.limit.write-back-interval-ms:5000}")
+    @Transactional
+    public void writeBack() {
+        if (dirtyAccounts.isEmpty()) {
+            return;
+        }
+        List<String> accounts = new ArrayList<>(dirtyAccounts);
+        dirtyAccounts.removeAll(accounts);
+
+        for (String accountId : accounts) {
+            try {
+                TransactionLimit live = snapshot(accountId);
+                TransactionLimit limit = transactionLimitRepository.findById(accountId)
+                        .orElseGet(() -> defaultLimit(accountId));
+                limit.setDailyUsed(live.getDailyUsed());
+                limit.setMonthlyUsed(live.getMonthlyUsed());
+                limit.setLastDailyReset(live.getLastDailyReset());
+                limit.setLastMonthlyReset(live.getLastMonthlyReset());
+                limits.put(accountId, transactionLimitRepository.save(limit));
+            } catch (Exception e) {
+                dirtyAccounts.add(accountId);
+                log.error("Failed to write back transaction limit usage for account {}: {}", accountId, e.getMessage());
+            }
+        }
+        log.debug("Wrote back transaction limit usage for {} accounts", accounts.size());
+    }
+
+    private TransactionLimit getLimit(String accountId) {
+        return limits.get(accountId, id -> transactionLimitRepository.findById(id)
+                .orElseGet(() -> transactionLimitRepository.save(defaultLimit(id))));
+    }
+
+    private TransactionLimit defaultLimit(String accountId) {
+        LocalDateTime now = LocalDateTime.now(clock);
+        return TransactionLimit.builder()
+                .accountId(accountId)
+                .dailyLimit(BigDecimal.valueOf(50000)) // Default $50,000
+                .monthlyLimit(BigDecimal.valueOf(200000)) // Default $200,000
+                .dailyUsed(BigDecimal.ZERO)
+                .monthlyUsed(BigDecimal.ZERO)
+                .lastDailyReset(now)
+                .lastMonthlyReset(now)
+                .build();
+    }
+
+    // Persisted usage only counts if it was recorded in the current period
+    private long dailySeed(TransactionLimit limit, Periods periods) {
+        LocalDateTime reset = limit.getLastDailyReset();
+        return reset != null && !reset.isBefore(periods.dayStart()) ? toMinorUnits(limit.getDailyUsed()) : 0;
+    }
+
+    private long monthlySeed(TransactionLimit limit, Periods periods) {
+        LocalDateTime reset = limit.getLastMonthlyReset();
+        return reset != null && !reset.isBefore(periods.monthStart()) ? toMinorUnits(limit.getMonthlyUsed()) : 0;
+    }
+
+    private static long counterOrSeed(List<String> values, int index, long seed) {
+        String value = values != null ? values.get(index) : null;
+        return value != null ? Long.parseLong(value) : seed;
+    }
+
+    private Periods currentPeriods(String accountId) {
+        ZonedDateTime now = ZonedDateTime.now(clock);
+        LocalDate today = now.toLocalDate();
+        ZonedDateTime nextDay = today.plusDays(1).atStartOfDay(clock.getZone());
+        ZonedDateTime nextMonth = today.withDayOfMonth(1).plusMonths(1).atStartOfDay(clock.getZone());
+        // The {accountId} hash tag keeps all keys of one account in the same cluster slot
+        String prefix = KEY_PREFIX + "{" + accountId + "}:";
+        return new Periods(
+                prefix + "d:" + today.format(DAY),
+                prefix + "m:" + today.format(MONTH),
+                Duration.between(now, nextDay).toSeconds() + KEY_GRACE_SECONDS,
+                Duration.between(now, nextMonth).toSeconds() + KEY_GRACE_SECONDS,
+                today.atStartOfDay(),
+                today.withDayOfMonth(1).atStartOfDay());
+    }
+
+    static String reservationKey(String accountId, UUID transactionId) {
+        return KEY_PREFIX + "{" + accountId + "}:tx:" + transactionId;
+    }
+
+    static long toMinorUnits(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.UP).movePointRight(2).longValueExact();
+    }
+
+    private static BigDecimal fromMinorUnits(long value) {
+        return BigDecimal.valueOf(value, 2);
+    }
+
+    private static DefaultRedisScript<Long> script(String path) {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setLocation(new ClassPathResource(path));
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    private record Periods(String dailyKey, String monthlyKey,
+                           long dailyTtlSeconds, long monthlyTtlSeconds,
+                           LocalDateTime dayStart, LocalDateTime monthStart) {
+    }
+}
@@ -2,16 +2,19 @@ package com.uit.transactionservice.repository;
 
 import com.uit.transactionservice.entity.Transaction;
 import com.uit.transactionservice.entity.TransactionStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 
 @Repository
@@ -30,6 +33,21 @@ public interface TransactionRepository extends JpaRepository<Transaction, java.u
 
     List<Transaction> findByCreatedAtBetween(LocalDateTime start, LocalDateTime end);
 
+    /**
+     * Statement rows of an account, oldest first, read through a JDBC cursor.
+     * Must be consumed inside a transaction; Postgres only honours the fetch size there.
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT t FROM Transaction t " +
+           "WHERE (t.senderAccountNumber = :accountNumber OR t.receiverAccountNumber = :accountNumber) " +
+           "AND t.createdAt BETWEEN :from AND :to ORDER BY t.createdAt")
+    Stream<Transaction> streamStatement(@Param("accountNumber") String accountNumber,
+                                        @Param("from") LocalDateTime from,
+                                        @Param("to") LocalDateTime to);
+
     @Query(value = "SELECT COALESCE(SUM(amount + fee_amount), 0) FROM transactions " +
            "WHERE sender_account_id = :accountId " +
            "AND DATE(created_at) = CURRENT_DATE " +
@@ -62,4 +80,15 @@ public interface TransactionRepository extends JpaRepository<Transaction, java.u
             @Param("step") com.uit.transactionservice.entity.SagaStep step,
             @Param("createdBefore") LocalDateTime createdBefore
     );
+
+    /**
+     * Find transactions that have not moved since the given time, e.g. internal transfers
+     * left PROCESSING after a timeout. Used by InternalTransferReconciliationJob
+     */
+    @Query("SELECT t FROM Transaction t WHERE t.status = :status AND t.currentStep = :step AND t.updatedAt < :updatedBefore")
+    List<Transaction> findByStatusAndCurrentStepAndUpdatedAtBefore(
+            @Param("status") TransactionStatus status,
+            @Param("step") com.uit.transactionservice.entity.SagaStep step,
+            @Param("updatedBefore") LocalDateTime updatedBefore
+    );
 }
@@ -0,0 +1,72 @@
+package com.uit.transactionservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.sharedkernel.export.ExportWriter;
+import com.uit.transactionservice.dto.response.TransactionResponse;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.mapper.TransactionMapper;
+import com.uit.transactionservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Streams account statements straight from a database cursor to the response,
+ * one row at a time, so memory stays flat however long the statement is.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TransactionExportService {
+
+    static final List<String> CSV_HEADER = List.of("transactionId", "createdAt", "senderAccountNumber",
+            "receiverAccountNumber", "amount", "feeAmount", "transactionType", "status", "description", "completedAt");
+
+    private final TransactionRepository transactionRepository;
+    private final TransactionMapper transactionMapper;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportStatement(String accountNumber, LocalDateTime from, LocalDateTime to,
+                                ExportFormat format, OutputStream out) throws IOException {
+        long started = System.currentTimeMillis();
+        try (Stream<Transaction> rows = transactionRepository.streamStatement(accountNumber, from, to);
+             ExportWriter<TransactionResponse> writer = ExportWriter.open(format, out, objectMapper, CSV_HEADER,
+                     TransactionExportService::csvRow)) {
+            Iterator<Transaction> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                Transaction transaction = iterator.next();
+                writer.write(transactionMapper.toResponse(transaction));
+                // Otherwise the persistence context keeps every exported row
+                entityManager.detach(transaction);
+            }
+            log.info("Exported {} transactions for account {} as {} in {} ms",
+                    writer.getRowCount(), accountNumber, format, System.currentTimeMillis() - started);
+            return writer.getRowCount();
+        }
+    }
+
+    private static List<?> csvRow(TransactionResponse tx) {
+        return Arrays.asList(tx.getTransactionId(), tx.getCreatedAt(), tx.getSenderAccountNumber(),
+                tx.getReceiverAccountNumber(), tx.getAmount(), tx.getFeeAmount(), tx.getTransactionType(),
+                tx.getStatus(), tx.getDescription(), tx.getCompletedAt());
+    }
+}
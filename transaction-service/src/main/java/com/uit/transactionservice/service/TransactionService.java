@@ -11,14 +11,17 @@ import com.uit.sharedkernel.notification.NotificationEventPublisher;
 import com.uit.transactionservice.client.AccountServiceClient;
 import com.uit.transactionservice.client.dto.AccountBalanceResponse;
 import com.uit.transactionservice.client.dto.InternalTransferResponse;
+import com.uit.transactionservice.client.dto.TransferFailureCode;
 import com.uit.transactionservice.dto.request.CreateTransferRequest;
 import com.uit.transactionservice.dto.response.TransactionResponse;
 import com.uit.transactionservice.entity.*;
 import com.uit.transactionservice.exception.AccountServiceException;
 import com.uit.transactionservice.exception.InsufficientBalanceException;
+import com.uit.transactionservice.exception.TransactionLimitExceededException;
+import com.uit.transactionservice.exception.TransferOutcomeUnknownException;
+import com.uit.transactionservice.limit.TransactionLimitEngine;
 import com.uit.transactionservice.mapper.TransactionMapper;
 import com.uit.transactionservice.repository.TransactionFeeRepository;
-import com.uit.transactionservice.repository.TransactionLimitRepository;
 import com.uit.transactionservice.repository.TransactionRepository;
 import com.uit.transactionservice.dto.stripe.StripeTransferRequest;
 import com.uit.transactionservice.dto.stripe.StripeTransferResponse;
@@ -29,6 +32,7 @@ import com.uit.sharedkernel.audit.AuditEventPublisher;
 import com.stripe.exception.StripeException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -37,10 +41,12 @@ import com.uit.sharedkernel.dto.*;
 import com.uit.transactionservice.dto.request.AdminDepositRequest;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.Future;
 
 @Service
 @RequiredArgsConstructor
@@ -50,7 +56,7 @@ public class TransactionService {
     private final TransactionRepository transactionRepository;
     private final OutboxEventRepository outboxEventRepository;
     private final TransactionFeeRepository transactionFeeRepository;
-    private final TransactionLimitRepository transactionLimitRepository;
+    private final TransactionLimitEngine transactionLimitEngine;
     private final TransactionMapper transactionMapper;
     private final ObjectMapper objectMapper;
     private final OTPService otpService;
@@ -59,6 +65,9 @@ public class TransactionService {
     private final TransactionSseService sseService;
     private final AuditEventPublisher auditEventPublisher;
     private final NotificationEventPublisher notificationEventPublisher;
+
+    @Value("${transaction.validation.timeout-ms:3000}")
+    private long validationTimeoutMs;
     
     /**
      * Handle SePay webhook for Top-up (Deposit)
@@ -271,72 +280,96 @@ public class TransactionService {
         log.info("Creating transfer from {} to {} with OTP", request.getSenderAccountNumber(), request.getReceiverAccountNumber());
 
         String senderUserId = null;
+        String receiverAccountNumber = request.getReceiverAccountNumber();
+        String receiverAccountId = null;
+        String receiverUserId = null;
 
-        // 1. Validate Sender Account Exists (Always)
-        try {
-            Map<String, Object> senderInfo = accountServiceClient.getAccountByNumber(request.getSenderAccountNumber());
-            if (senderInfo == null) {
-                 throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Sender account not found: " + request.getSenderAccountNumber());
+        // 1-3. Sender lookup, receiver validation and the limit check are independent.
+        // The remote calls run concurrently on virtual threads under one deadline while the
+        // limit pre-check runs on this thread (a first-use default limit is saved in this transaction).
+        // Failures are still reported in the original order: sender, receiver, then limit.
+        try (ValidationScope scope = new ValidationScope(Duration.ofMillis(validationTimeoutMs))) {
+            Future<Map<String, Object>> senderLookup = scope.fork(
+                    () -> accountServiceClient.getAccountByNumber(request.getSenderAccountNumber()));
+            Future<Map<String, Object>> receiverLookup = null;
+            Future<Boolean> stripeValidation = null;
+            if (request.getTransactionType() == TransactionType.INTERNAL_TRANSFER) {
+                // INTERNAL: Check against local Account Service
+                log.info("Validating INTERNAL receiver - AccountNumber: {}", receiverAccountNumber);
+                receiverLookup = scope.fork(() -> accountServiceClient.getAccountByNumber(receiverAccountNumber));
+            } else if (request.getTransactionType() == TransactionType.EXTERNAL_TRANSFER) {
+                // EXTERNAL: Validate via Stripe, do NOT check local Account Service
+                log.info("Validating EXTERNAL receiver via Stripe - Account: {}", receiverAccountNumber);
+                stripeValidation = scope.fork(() -> stripeTransferService.validateConnectedAccount(receiverAccountNumber));
             }
 
-            Object senderUserIdObj = senderInfo.get("userId");
-            if (senderUserIdObj != null) {
-                senderUserId = senderUserIdObj.toString();
-                log.info("Sender account validated - AccountNumber: {}, UserId: {}",
-                    request.getSenderAccountNumber(), senderUserId);
-            } else {
-                log.warn("Sender account has no userId: {}", request.getSenderAccountNumber());
+            RuntimeException limitFailure = null;
+            try {
+                transactionLimitEngine.check(request.getSenderAccountId(), request.getAmount());
+            } catch (RuntimeException e) {
+                limitFailure = e;
             }
-        } catch (Exception e) {
-             log.error("Failed to validate sender account: {}", e.getMessage());
-             throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Sender account validation failed");
-        }
-
-
-        // 2. Validate Receiver based on Transaction Type
-        String receiverAccountNumber = request.getReceiverAccountNumber();
-        String receiverAccountId = null;
-        String receiverUserId = null;
 
-        if (request.getTransactionType() == TransactionType.INTERNAL_TRANSFER) {
-            // INTERNAL: Check against local Account Service
-            log.info("Validating INTERNAL receiver - AccountNumber: {}", receiverAccountNumber);
+            // 1. Validate Sender Account Exists (Always)
             try {
-                Map<String, Object> accountMap = accountServiceClient.getAccountByNumber(receiverAccountNumber);
-                if (accountMap != null) {
-                    receiverAccountId = (String) accountMap.get("accountId");
-                    Object rUserId = accountMap.get("userId");
-                    if (rUserId != null) {
-                        receiverUserId = rUserId.toString();
-                    }
-                    log.info("Receiver found locally - ID: {}, UserID: {}", receiverAccountId, receiverUserId);
+                Map<String, Object> senderInfo = scope.join(senderLookup);
+                if (senderInfo == null) {
+                     throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Sender account not found: " + request.getSenderAccountNumber());
+                }
+
+                Object senderUserIdObj = senderInfo.get("userId");
+                if (senderUserIdObj != null) {
+                    senderUserId = senderUserIdObj.toString();
+                    log.info("Sender account validated - AccountNumber: {}, UserId: {}",
+                        request.getSenderAccountNumber(), senderUserId);
                 } else {
-                    throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Receiver account not found for internal transfer");
+                    log.warn("Sender account has no userId: {}", request.getSenderAccountNumber());
                 }
             } catch (Exception e) {
-                log.warn("Failed to check local DB for receiver: {}", e.getMessage());
-                throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Receiver account not found: " + e.getMessage());
+                 log.error("Failed to validate sender account: {}", e.getMessage());
+                 throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Sender account validation failed");
             }
-        
-        } else if (request.getTransactionType() == TransactionType.EXTERNAL_TRANSFER) {
-            // EXTERNAL: Validate via Stripe, do NOT check local Account Service
-            log.info("Validating EXTERNAL receiver via Stripe - Account: {}", receiverAccountNumber);
-            try {
-                boolean isValidInStripe = stripeTransferService.validateConnectedAccount(receiverAccountNumber);
+
+            // 2. Validate Receiver based on Transaction Type
+            if (receiverLookup != null) {
+                try {
+                    Map<String, Object> accountMap = scope.join(receiverLookup);
+                    if (accountMap != null) {
+                        receiverAccountId = (String) accountMap.get("accountId");
+                        Object rUserId = accountMap.get("userId");
+                        if (rUserId != null) {
+                            receiverUserId = rUserId.toString();
+                        }
+                        log.info("Receiver found locally - ID: {}, UserID: {}", receiverAccountId, receiverUserId);
+                    } else {
+                        throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Receiver account not found for internal transfer");
+                    }
+                } catch (Exception e) {
+                    log.warn("Failed to check local DB for receiver: {}", e.getMessage());
+                    throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "Receiver account not found: " + e.getMessage());
+                }
+            } else if (stripeValidation != null) {
+                boolean isValidInStripe;
+                try {
+                    isValidInStripe = scope.join(stripeValidation);
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    log.error("Failed to validate receiver account with Stripe: {}", e.getMessage());
+                    throw new RuntimeException("Failed to validate external receiver account", e);
+                }
                 if (!isValidInStripe) {
                     log.error("Receiver account invalid in Stripe - Account: {}", receiverAccountNumber);
                     throw new AppException(ErrorCode.ACCOUNT_NOT_FOUND, "External receiver account invalid");
                 }
                 log.info("Receiver account validated in Stripe");
-                
-            } catch (com.stripe.exception.StripeException e) {
-                log.error("Failed to validate receiver account with Stripe: {}", e.getMessage());
-                throw new RuntimeException("Failed to validate external receiver account", e);
             }
-        }
 
-        // 3. Check transaction limit using Sender Account ID
-        checkTransactionLimit(request.getSenderAccountId(), request.getAmount());
+            // 3. Check transaction limit using Sender Account ID
+            if (limitFailure != null) {
+                throw limitFailure;
+            }
+        }
 
         // 4. Fee is temporarily set to ZERO (no transaction fee for now)
         BigDecimal fee = BigDecimal.ZERO;
@@ -480,81 +513,6 @@ public class TransactionService {
         return BigDecimal.ZERO;
     }
 
-    /**
-     * Check if transaction exceeds limits
-     */
-    private void checkTransactionLimit(String accountId, BigDecimal amount) {
-        TransactionLimit limit = transactionLimitRepository.findById(accountId)
-                .orElseGet(() -> createDefaultLimit(accountId));
-
-        // Reset limits if necessary
-        resetLimitsIfNeeded(limit);
-
-        // Check daily limit
-        BigDecimal newDailyUsed = limit.getDailyUsed().add(amount);
-        if (newDailyUsed.compareTo(limit.getDailyLimit()) > 0) {
-            throw new RuntimeException("Daily transaction limit exceeded");
-        }
-
-        // Check monthly limit
-        BigDecimal newMonthlyUsed = limit.getMonthlyUsed().add(amount);
-        if (newMonthlyUsed.compareTo(limit.getMonthlyLimit()) > 0) {
-            throw new RuntimeException("Monthly transaction limit exceeded");
-        }
-    }
-
-    /**
-     * Update transaction limit after successful transaction
-     */
-    private void updateTransactionLimit(String accountId, BigDecimal amount) {
-        TransactionLimit limit = transactionLimitRepository.findById(accountId)
-                .orElseGet(() -> createDefaultLimit(accountId));
-
-        resetLimitsIfNeeded(limit);
-
-        limit.setDailyUsed(limit.getDailyUsed().add(amount));
-        limit.setMonthlyUsed(limit.getMonthlyUsed().add(amount));
-        transactionLimitRepository.save(limit);
-
-        log.debug("Updated transaction limit for account: {}", accountId);
-    }
-
-    /**
-     * Create default transaction limit
-     */
-    private TransactionLimit createDefaultLimit(String accountId) {
-        TransactionLimit limit = TransactionLimit.builder()
-                .accountId(accountId)
-                .dailyLimit(BigDecimal.valueOf(50000)) // Default $50,000
-                .monthlyLimit(BigDecimal.valueOf(200000)) // Default $200,000
-                .dailyUsed(BigDecimal.ZERO)
-                .monthlyUsed(BigDecimal.ZERO)
-                .lastDailyReset(LocalDateTime.now())
-                .lastMonthlyReset(LocalDateTime.now())
-                .build();
-
-        return transactionLimitRepository.save(limit);
-    }
-
-    /**
-     * Reset limits if period has passed
-     */
-    private void resetLimitsIfNeeded(TransactionLimit limit) {
-        LocalDateTime now = LocalDateTime.now();
-
-        // Reset daily if more than 24 hours
-        if (limit.getLastDailyReset().plusDays(1).isBefore(now)) {
-            limit.setDailyUsed(BigDecimal.ZERO);
-            limit.setLastDailyReset(now);
-        }
-
-        // Reset monthly if more than 30 days
-        if (limit.getLastMonthlyReset().plusDays(30).isBefore(now)) {
-            limit.setMonthlyUsed(BigDecimal.ZERO);
-            limit.setLastMonthlyReset(now);
-        }
-    }
-
     /**
      * Send OTP notification via event
      */
@@ -585,6 +543,7 @@ public class TransactionService {
                     .transactionId(transactionId.toString())
                     .phoneNumber(phoneNumber)
                     .otpCode(otpCode)
+                    .createdAt(System.currentTimeMillis())
                     .build();
                 
             // Publish OTP event directly
@@ -666,6 +625,9 @@ public class TransactionService {
         BigDecimal totalAmount = transaction.getAmount();
         
         try {
+            // Charge the daily/monthly limits first; released again if the transfer fails
+            transactionLimitEngine.reserve(transaction.getSenderAccountId(), transaction.getTransactionId(), totalAmount);
+
             // Use atomic internal transfer endpoint (recommended approach)
             log.info("Executing atomic internal transfer - From: {} To: {} Amount: {}", 
                     transaction.getSenderAccountId(), 
@@ -686,8 +648,8 @@ public class TransactionService {
             transaction.setCompletedAt(LocalDateTime.now());
             transaction = transactionRepository.save(transaction);
 
-            // Update transaction limit
-            updateTransactionLimit(transaction.getSenderAccountId(), totalAmount);
+            // Limit usage stays charged
+            transactionLimitEngine.commit(transaction.getSenderAccountId(), transaction.getTransactionId());
             
             // Send success notification ASYNCHRONOUSLY (non-critical)
             sendTransactionNotification(transaction, "TransactionCompleted", true,0);
@@ -697,30 +659,33 @@ public class TransactionService {
                     transferResponse.getSenderAccountNewBalance(),
                     transferResponse.getReceiverAccountNewBalance());
             
-            // Centralized Audit Log
-            AuditEventDto auditEvent = AuditEventDto.builder()
-                    .serviceName("transaction-service")
-                    .entityType("Transaction")
-                    .entityId(transaction.getTransactionId().toString())
-                    .action("INTERNAL_TRANSFER")
-                    .userId(transaction.getSenderUserId())
-                    .newValues(Map.of(
-                        "senderAccountId", transaction.getSenderAccountId(),
-                        "receiverAccountId", transaction.getReceiverAccountId(),
-                        "amount", totalAmount,
-                        "status", TransactionStatus.COMPLETED.toString()
-                    ))
-                    .changes("Internal transfer completed")
-                    .result("SUCCESS")
-                    .build();
-            auditEventPublisher.publishAuditEvent(auditEvent);
+            publishInternalTransferAudit(transaction);
 
+            return transactionMapper.toResponse(transaction);
 
+        } catch (TransferOutcomeUnknownException e) {
+            // The transfer was sent and may still commit: leave it PROCESSING with the limit
+            // charged, and let InternalTransferReconciliationJob settle it
+            log.warn("Internal transfer {} outcome unknown, left for reconciliation: {}",
+                    transaction.getTransactionId(), e.getMessage());
+            transaction.setStatus(TransactionStatus.PROCESSING);
+            transaction = transactionRepository.save(transaction);
             return transactionMapper.toResponse(transaction);
 
+        } catch (TransactionLimitExceededException e) {
+            log.warn("Internal transfer {} rejected: {}", transaction.getTransactionId(), e.getMessage());
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setCurrentStep(SagaStep.FAILED);
+            transaction.setFailureReason(e.getMessage());
+            transactionRepository.save(transaction);
+
+            sendTransactionNotification(transaction, "TransactionFailed", false,0);
+            throw e;
+
         } catch (InsufficientBalanceException e) {
             // Business logic error: insufficient balance
             log.error("Internal transfer {} failed: Insufficient balance", transaction.getTransactionId(), e);
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setCurrentStep(SagaStep.FAILED);
             transaction.setFailureReason("Insufficient balance");
@@ -732,6 +697,7 @@ public class TransactionService {
         } catch (AccountServiceException e) {
             // Technical error: account service unavailable or error
             log.error("Internal transfer {} failed: Account service error", transaction.getTransactionId(), e);
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setCurrentStep(SagaStep.FAILED);
             transaction.setFailureReason("Account service error: " + e.getMessage());
@@ -743,6 +709,7 @@ public class TransactionService {
         } catch (Exception e) {
             // Unexpected error
             log.error("Unexpected error during internal transfer: {}", transaction.getTransactionId(), e);
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setCurrentStep(SagaStep.FAILED);
             transaction.setFailureReason("Unexpected error: " + e.getMessage());
@@ -754,6 +721,65 @@ public class TransactionService {
     }
 
 
+    /**
+     * Settle an internal transfer left PROCESSING after its account-service call timed out.
+     * Completes it if account-service committed it, fails it and releases the limit if
+     * account-service never did, and otherwise leaves it for the next run.
+     */
+    @Transactional
+    public void reconcileInternalTransfer(Transaction transaction) {
+        InternalTransferResponse outcome = accountServiceClient.getInternalTransferOutcome(
+                transaction.getTransactionId().toString(), transaction.getSenderAccountId());
+
+        if (outcome.isSuccess()) {
+            log.info("Reconciled internal transfer {} - applied by account service", transaction.getTransactionId());
+            transaction.setCurrentStep(SagaStep.COMPLETED);
+            transaction.setStatus(TransactionStatus.COMPLETED);
+            transaction.setCompletedAt(LocalDateTime.now());
+            transaction = transactionRepository.save(transaction);
+
+            transactionLimitEngine.commit(transaction.getSenderAccountId(), transaction.getTransactionId());
+            sendTransactionNotification(transaction, "TransactionCompleted", true, 0);
+            publishInternalTransferAudit(transaction);
+
+        } else if (outcome.getFailureCode() == TransferFailureCode.NOT_FOUND) {
+            log.warn("Reconciled internal transfer {} - never applied by account service", transaction.getTransactionId());
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setCurrentStep(SagaStep.FAILED);
+            transaction.setFailureReason("Account service did not apply the transfer");
+            transactionRepository.save(transaction);
+
+            sendTransactionNotification(transaction, "TransactionFailed", false, 0);
+
+        } else {
+            log.warn("Internal transfer {} still unresolved: {} ({})", transaction.getTransactionId(),
+                    outcome.getFailureCode(), outcome.getMessage());
+        }
+    }
+
+    /**
+     * Centralized audit log for a completed internal transfer.
+     */
+    private void publishInternalTransferAudit(Transaction transaction) {
+        AuditEventDto auditEvent = AuditEventDto.builder()
+                .serviceName("transaction-service")
+                .entityType("Transaction")
+                .entityId(transaction.getTransactionId().toString())
+                .action("INTERNAL_TRANSFER")
+                .userId(transaction.getSenderUserId())
+                .newValues(Map.of(
+                    "senderAccountId", transaction.getSenderAccountId(),
+                    "receiverAccountId", transaction.getReceiverAccountId(),
+                    "amount", transaction.getAmount(),
+                    "status", TransactionStatus.COMPLETED.toString()
+                ))
+                .changes("Internal transfer completed")
+                .result("SUCCESS")
+                .build();
+        auditEventPublisher.publishAuditEvent(auditEvent);
+    }
+
     private TransactionResponse processExternalTransfer(Transaction transaction) {
         log.info("Processing EXTERNAL transfer - TxID: {} - To Bank: {}", 
                 transaction.getTransactionId(), transaction.getDestinationBankCode());
@@ -762,6 +788,9 @@ public class TransactionService {
         BigDecimal totalAmount = transaction.getAmount();
         
         try {
+            // Charge the daily/monthly limits first; held until the Stripe webhook settles the transfer
+            transactionLimitEngine.reserve(transaction.getSenderAccountId(), transaction.getTransactionId(), totalAmount);
+
             // Step 1: Debit sender account first (sync)
             log.info("Step 1: Debiting sender account {} - Amount: {}", 
                     transaction.getSenderAccountId(), totalAmount);
@@ -844,9 +873,6 @@ public class TransactionService {
                 throw new RuntimeException("Stripe transfer failed: " + e.getMessage(), e);
             }
 
-            // Update transaction limit
-            updateTransactionLimit(transaction.getSenderAccountId(), totalAmount);
-
             // Send notification that transfer is being processed
             sendTransactionNotification(transaction, "ExternalTransferInitiated", false,1);
             
@@ -872,8 +898,19 @@ public class TransactionService {
 
             return transactionMapper.toResponse(transaction);
 
+        } catch (TransactionLimitExceededException e) {
+            log.warn("External transfer {} rejected: {}", transaction.getTransactionId(), e.getMessage());
+            transaction.setStatus(TransactionStatus.FAILED);
+            transaction.setCurrentStep(SagaStep.FAILED);
+            transaction.setFailureReason(e.getMessage());
+            transactionRepository.save(transaction);
+
+            sendTransactionNotification(transaction, "TransactionFailed", false,1);
+            throw e;
+
         } catch (InsufficientBalanceException e) {
             log.error("External transfer {} failed: Insufficient balance", transaction.getTransactionId(), e);
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setCurrentStep(SagaStep.FAILED);
             transaction.setFailureReason("Insufficient balance");
@@ -885,6 +922,7 @@ public class TransactionService {
         } catch (Exception e) {
             // Unexpected error during processing
             log.error("External transfer {} failed during processing", transaction.getTransactionId(), e);
+            transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
             
             transaction.setStatus(TransactionStatus.FAILED);
             transaction.setCurrentStep(SagaStep.FAILED);
@@ -944,6 +982,7 @@ public class TransactionService {
                     .senderAccountNumber(transaction.getSenderAccountNumber())
                     .receiverAccountNumber(transaction.getReceiverAccountNumber())
                     .amount(transaction.getAmount())
+                    .transactionType(transaction.getTransactionType() != null ? transaction.getTransactionType().name() : null)
                     .status(transaction.getStatus().toString())
                     .success(success)
                     .message(success ? "Transaction completed successfully" : "Transaction failed: " + transaction.getFailureReason())
@@ -1034,6 +1073,7 @@ public class TransactionService {
         transaction.setWebhookReceivedAt(LocalDateTime.now());
         transaction.setCompletedAt(LocalDateTime.now());
         transactionRepository.save(transaction);
+        transactionLimitEngine.commit(transaction.getSenderAccountId(), transaction.getTransactionId());
 
         log.info(" Transaction COMPLETED - Transfer succeeded - TxID: {} - TransferID: {}", 
                 transaction.getTransactionId(), transaction.getStripeTransferId());
@@ -1168,6 +1208,7 @@ public class TransactionService {
 
         transaction.setFailureReason("Stripe transfer failed: " + failureMessage);
         transactionRepository.save(transaction);
+        transactionLimitEngine.release(transaction.getSenderAccountId(), transaction.getTransactionId());
         
         // Push SSE update to client
         TransactionStatusUpdate sseUpdate = TransactionStatusUpdate.failed(
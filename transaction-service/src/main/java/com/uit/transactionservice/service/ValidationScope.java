@@ -0,0 +1,69 @@
+package com.uit.transactionservice.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Fan-out of independent validation calls on virtual threads, bounded by one deadline.
+ * The first failure (or the deadline) cancels the remaining forks, and closing the scope
+ * cancels anything still running, so no call outlives the request.
+ * Stands in for StructuredTaskScope, which is still a preview API on Java 21.
+ */
+final class ValidationScope implements AutoCloseable {
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final List<Future<?>> forks = new CopyOnWriteArrayList<>();
+    private final long deadlineNanos;
+
+    ValidationScope(Duration timeout) {
+        this.deadlineNanos = System.nanoTime() + timeout.toNanos();
+    }
+
+    <T> Future<T> fork(Callable<T> task) {
+        Future<T> future = executor.submit(task);
+        forks.add(future);
+        return future;
+    }
+
+    /**
+     * Wait for a fork within the remaining deadline and return its result.
+     * Rethrows the fork's own exception; throws TimeoutException once the deadline has passed.
+     */
+    <T> T join(Future<T> fork) throws Exception {
+        try {
+            return fork.get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            cancelAll();
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception ex) {
+                throw ex;
+            }
+            throw e;
+        } catch (TimeoutException e) {
+            cancelAll();
+            throw new TimeoutException("Validation deadline exceeded");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancelAll();
+            throw e;
+        }
+    }
+
+    private void cancelAll() {
+        forks.forEach(f -> f.cancel(true));
+    }
+
+    @Override
+    public void close() {
+        cancelAll();
+        executor.shutdownNow();
+    }
+}
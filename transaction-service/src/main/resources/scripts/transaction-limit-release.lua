@@ -0,0 +1,20 @@
+-- =======================================================
+-- Release a reservation made by transaction-limit-reserve.lua
+-- KEYS[1] = reservation hash for the transaction
+-- Gives the amount back to the counters it was charged to, even if the
+-- period has rolled over since. Returns 1 if released, 0 if nothing was held.
+-- =======================================================
+local reservation = redis.call('HMGET', KEYS[1], 'amount', 'daily', 'monthly')
+if not reservation[1] then
+    return 0
+end
+redis.call('DEL', KEYS[1])
+
+local amount = tonumber(reservation[1])
+if redis.call('EXISTS', reservation[2]) == 1 then
+    redis.call('DECRBY', reservation[2], amount)
+end
+if redis.call('EXISTS', reservation[3]) == 1 then
+    redis.call('DECRBY', reservation[3], amount)
+end
+return 1
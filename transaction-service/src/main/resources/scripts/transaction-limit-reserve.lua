@@ -0,0 +1,29 @@
+-- =======================================================
+-- Atomic check-and-reserve against daily and monthly limits
+-- KEYS[1] = daily usage counter, KEYS[2] = monthly usage counter,
+-- KEYS[3] = reservation hash for the transaction
+-- ARGV: amount, daily limit, monthly limit, daily seed, monthly seed,
+--       daily ttl, monthly ttl, reservation ttl (amounts in minor units)
+-- Returns 1 = reserved (or already reserved), -1 = daily exceeded, -2 = monthly exceeded
+-- =======================================================
+if redis.call('EXISTS', KEYS[3]) == 1 then
+    return 1
+end
+
+-- Counters start from the persisted usage the first time a period is touched
+redis.call('SET', KEYS[1], ARGV[4], 'NX', 'EX', ARGV[6])
+redis.call('SET', KEYS[2], ARGV[5], 'NX', 'EX', ARGV[7])
+
+local amount = tonumber(ARGV[1])
+if tonumber(redis.call('GET', KEYS[1])) + amount > tonumber(ARGV[2]) then
+    return -1
+end
+if tonumber(redis.call('GET', KEYS[2])) + amount > tonumber(ARGV[3]) then
+    return -2
+end
+
+redis.call('INCRBY', KEYS[1], amount)
+redis.call('INCRBY', KEYS[2], amount)
+redis.call('HSET', KEYS[3], 'amount', amount, 'daily', KEYS[1], 'monthly', KEYS[2])
+redis.call('EXPIRE', KEYS[3], ARGV[8])
+return 1
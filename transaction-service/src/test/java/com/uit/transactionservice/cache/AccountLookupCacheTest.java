@@ -0,0 +1,88 @@
+package com.uit.transactionservice.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountLookupCache Unit Tests")
+class AccountLookupCacheTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AccountLookupCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new AccountLookupCache(redisTemplate, meterRegistry, 100, 60, 600);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    @DisplayName("Loads once, caches only the lookup projection, then serves from the near-cache")
+    void testLoadThenNearHit() {
+        AtomicInteger loads = new AtomicInteger();
+        Map<String, Object> account = Map.of(
+                "accountId", "acc-1", "accountNumber", "1234567890", "userId", "user-1",
+                "accountStatus", "ACTIVE", "fullName", "Alice", "balance", 500);
+
+        Map<String, Object> first = cache.get("1234567890", n -> { loads.incrementAndGet(); return account; });
+        Map<String, Object> second = cache.get("1234567890", n -> { loads.incrementAndGet(); return account; });
+
+        assertThat(loads).hasValue(1);
+        assertThat(first).doesNotContainKey("balance").containsEntry("userId", "user-1");
+        assertThat(second).isEqualTo(first);
+        verify(valueOperations).set(eq(AccountLookupCache.REDIS_KEY_PREFIX + "1234567890"), any(), any(Duration.class));
+        assertThat(meterRegistry.get("account.lookup.cache").tags("level", "near", "result", "hit").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Redis hit skips the loader")
+    void testRedisHit() {
+        when(valueOperations.get(AccountLookupCache.REDIS_KEY_PREFIX + "555")).thenReturn(Map.of("accountId", "acc-5"));
+
+        Map<String, Object> result = cache.get("555", n -> { throw new AssertionError("loader called"); });
+
+        assertThat(result).containsEntry("accountId", "acc-5");
+    }
+
+    @Test
+    @DisplayName("Not-found results are not cached and eviction forces a reload")
+    void testNotFoundAndEvict() {
+        assertThat(cache.get("404", n -> null)).isNull();
+        verify(valueOperations, never()).set(anyString(), any(), any(Duration.class));
+
+        AtomicInteger loads = new AtomicInteger();
+        cache.get("777", n -> { loads.incrementAndGet(); return Map.of("accountId", "acc-7"); });
+        cache.evict("777");
+        cache.get("777", n -> { loads.incrementAndGet(); return Map.of("accountId", "acc-7"); });
+
+        assertThat(loads).hasValue(2);
+        verify(redisTemplate).delete(AccountLookupCache.REDIS_KEY_PREFIX + "777");
+    }
+}
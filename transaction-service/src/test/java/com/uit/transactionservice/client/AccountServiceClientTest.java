@@ -0,0 +1,153 @@
+package com.uit.transactionservice.client;
+
+import com.uit.transactionservice.cache.AccountLookupCache;
+import com.uit.transactionservice.client.dto.BatchInternalTransferResponse;
+import com.uit.transactionservice.client.dto.InternalTransferResponse;
+import com.uit.transactionservice.client.dto.TransferFailureCode;
+import com.uit.transactionservice.exception.AccountServiceException;
+import com.uit.transactionservice.exception.InsufficientBalanceException;
+import com.uit.transactionservice.exception.TransferOutcomeUnknownException;
+import feign.FeignException;
+import feign.Request;
+import feign.RetryableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * How batched internal transfer results and failures reach the caller.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AccountServiceClient Batched Transfer Unit Tests")
+class AccountServiceClientTest {
+
+    @Mock
+    private AccountServiceFeignClient feignClient;
+
+    @Mock
+    private AccountLookupCache accountLookupCache;
+
+    private InternalTransferBatcher batcher;
+    private AccountServiceClient client;
+
+    @BeforeEach
+    void setUp() {
+        batcher = new InternalTransferBatcher(feignClient);
+        ReflectionTestUtils.setField(batcher, "enabled", true);
+        ReflectionTestUtils.setField(batcher, "windowMs", 1L);
+        ReflectionTestUtils.setField(batcher, "maxBatchSize", 10);
+        ReflectionTestUtils.setField(batcher, "workerCount", 1);
+        client = new AccountServiceClient(feignClient, batcher, accountLookupCache);
+        ReflectionTestUtils.setField(client, "batchTimeoutMs", 200L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        batcher.stop();
+    }
+
+    @Test
+    @DisplayName("A rejected item is classified by its failure code, not its message")
+    void testFailureCodeClassification() {
+        batcher.start();
+        when(feignClient.executeInternalTransferBatch(any())).thenReturn(BatchInternalTransferResponse.builder()
+                .results(List.of(InternalTransferResponse.builder()
+                        .success(false)
+                        .failureCode(TransferFailureCode.INSUFFICIENT_FUNDS)
+                        .message("Not enough money")
+                        .build()))
+                .failed(1)
+                .build());
+
+        assertThatThrownBy(this::transfer).isInstanceOf(InsufficientBalanceException.class);
+    }
+
+    @Test
+    @DisplayName("Other failure codes surface as account service errors")
+    void testOtherFailureCode() {
+        batcher.start();
+        when(feignClient.executeInternalTransferBatch(any())).thenReturn(BatchInternalTransferResponse.builder()
+                .results(List.of(InternalTransferResponse.builder()
+                        .success(false)
+                        .failureCode(TransferFailureCode.RECEIVER_NOT_FOUND)
+                        .message("Insufficient balance wording must not matter")
+                        .build()))
+                .failed(1)
+                .build());
+
+        assertThatThrownBy(this::transfer).isInstanceOf(AccountServiceException.class);
+    }
+
+    @Test
+    @DisplayName("Timing out after the batch was sent leaves the outcome unknown")
+    void testTimeoutAfterSendIsUnknown() throws Exception {
+        CountDownLatch sent = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(feignClient.executeInternalTransferBatch(any())).thenAnswer(invocation -> {
+            sent.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return BatchInternalTransferResponse.builder().results(List.of()).build();
+        });
+        batcher.start();
+
+        try {
+            assertThatThrownBy(this::transfer).isInstanceOf(TransferOutcomeUnknownException.class);
+            assertThat(sent.getCount()).isZero();
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("Timing out while still queued withdraws the transfer and fails it")
+    void testTimeoutWhileQueuedFails() {
+        // Batching on but no worker, so the transfer never leaves the queue
+        ReflectionTestUtils.setField(batcher, "workerCount", 0);
+        batcher.start();
+
+        assertThatThrownBy(this::transfer)
+                .isInstanceOf(AccountServiceException.class)
+                .hasMessageContaining("queueing");
+        verify(feignClient, never()).executeInternalTransferBatch(any());
+        verify(feignClient, never()).executeInternalTransfer(any());
+    }
+
+    @Test
+    @DisplayName("A transport error on the batch call leaves the outcome unknown; a 400 fails it")
+    void testBatchCallFailures() {
+        batcher.start();
+        Request request = Request.create(Request.HttpMethod.POST, "/accounts/internal/transfer/batch",
+                new HashMap<>(), null, StandardCharsets.UTF_8, null);
+        when(feignClient.executeInternalTransferBatch(any()))
+                .thenThrow(new RetryableException(-1, "Read timed out", Request.HttpMethod.POST, (Long) null, request))
+                .thenThrow(new FeignException.BadRequest("Bad request", request, null, null));
+
+        assertThatThrownBy(this::transfer).isInstanceOf(TransferOutcomeUnknownException.class);
+        assertThatThrownBy(this::transfer)
+                .isInstanceOf(AccountServiceException.class)
+                .isNotInstanceOf(TransferOutcomeUnknownException.class);
+    }
+
+    private InternalTransferResponse transfer() {
+        return client.executeInternalTransfer("acc-a", "acc-b", new BigDecimal("10.00"), "tx-1", "test");
+    }
+}
@@ -0,0 +1,230 @@
+package com.uit.transactionservice.limit;
+
+import com.uit.transactionservice.entity.TransactionLimit;
+import com.uit.transactionservice.exception.TransactionLimitExceededException;
+import com.uit.transactionservice.repository.TransactionLimitRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * The reserve/release Lua scripts against a real Redis: concurrent reservations
+ * and period rollover. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("TransactionLimitEngine Redis Integration Tests")
+class TransactionLimitEngineRedisTest {
+
+    @Container
+    private static final GenericContainer<?> REDIS =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private static final String ACCOUNT = "acc-1";
+    private static final LocalDateTime TODAY = LocalDateTime.of(2024, 3, 30, 0, 0);
+
+    private static LettuceConnectionFactory connectionFactory;
+    private static StringRedisTemplate redisTemplate;
+
+    private TransactionLimitRepository transactionLimitRepository;
+    private MutableClock clock;
+    private TransactionLimitEngine engine;
+
+    @BeforeAll
+    static void connect() {
+        connectionFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(REDIS.getHost(), REDIS.getFirstMappedPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+    }
+
+    @AfterAll
+    static void disconnect() {
+        connectionFactory.destroy();
+    }
+
+    @BeforeEach
+    void setUp() {
+        redisTemplate.execute((RedisCallback<Object>) connection -> {
+            connection.serverCommands().flushAll();
+            return null;
+        });
+        clock = new MutableClock(Instant.parse("2024-03-30T12:00:00Z"));
+        transactionLimitRepository = mock(TransactionLimitRepository.class);
+        // 50.00 daily, 80.00 monthly; 10.00 already used today and this month
+        when(transactionLimitRepository.findById(ACCOUNT)).thenReturn(Optional.of(TransactionLimit.builder()
+                .accountId(ACCOUNT)
+                .dailyLimit(new BigDecimal("50.00"))
+                .monthlyLimit(new BigDecimal("80.00"))
+                .dailyUsed(new BigDecimal("10.00"))
+                .monthlyUsed(new BigDecimal("10.00"))
+                .lastDailyReset(TODAY.plusHours(1))
+                .lastMonthlyReset(TODAY.plusHours(1))
+                .build()));
+        engine = new TransactionLimitEngine(redisTemplate, transactionLimitRepository, clock, "UTC", 35, 100, 300);
+    }
+
+    @Test
+    @DisplayName("Concurrent reservations never charge more than the daily limit")
+    void testConcurrentReserveStopsAtLimit() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Callable<Boolean>> attempts = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            attempts.add(() -> {
+                try {
+                    engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("1.00"));
+                    return true;
+                } catch (TransactionLimitExceededException e) {
+                    return false;
+                }
+            });
+        }
+        int reserved = 0;
+        for (Future<Boolean> attempt : pool.invokeAll(attempts, 30, TimeUnit.SECONDS)) {
+            if (attempt.get()) {
+                reserved++;
+            }
+        }
+        pool.shutdown();
+
+        // 10.00 seeded + 40 x 1.00 fills the 50.00 daily limit exactly
+        assertThat(reserved).isEqualTo(40);
+        assertThat(engine.snapshot(ACCOUNT).getDailyUsed()).isEqualByComparingTo("50.00");
+        assertThat(engine.snapshot(ACCOUNT).getMonthlyUsed()).isEqualByComparingTo("50.00");
+    }
+
+    @Test
+    @DisplayName("Concurrent releases give each reservation back exactly once")
+    void testConcurrentReleaseIsIdempotent() throws Exception {
+        List<UUID> transactions = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            UUID txId = UUID.randomUUID();
+            engine.reserve(ACCOUNT, txId, new BigDecimal("2.00"));
+            // Reserving the same transaction again is a no-op
+            engine.reserve(ACCOUNT, txId, new BigDecimal("2.00"));
+            transactions.add(txId);
+        }
+        assertThat(engine.snapshot(ACCOUNT).getDailyUsed()).isEqualByComparingTo("50.00");
+
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        List<Callable<Void>> releases = new ArrayList<>();
+        for (UUID txId : transactions.subList(0, 10)) {
+            // Every release is attempted twice, concurrently
+            releases.add(() -> { engine.release(ACCOUNT, txId); return null; });
+            releases.add(() -> { engine.release(ACCOUNT, txId); return null; });
+        }
+        for (Future<Void> release : pool.invokeAll(releases, 30, TimeUnit.SECONDS)) {
+            release.get();
+        }
+        pool.shutdown();
+
+        assertThat(engine.snapshot(ACCOUNT).getDailyUsed()).isEqualByComparingTo("30.00");
+        assertThat(engine.snapshot(ACCOUNT).getMonthlyUsed()).isEqualByComparingTo("30.00");
+    }
+
+    @Test
+    @DisplayName("At midnight the daily counter starts over while the monthly one carries on")
+    void testDayRollover() {
+        clock.set(Instant.parse("2024-03-30T23:59:59Z"));
+        UUID lateTx = UUID.randomUUID();
+        engine.reserve(ACCOUNT, lateTx, new BigDecimal("35.00"));
+        assertThatThrownBy(() -> engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("10.00")))
+                .hasMessage("Daily transaction limit exceeded");
+
+        clock.set(Instant.parse("2024-03-31T00:00:01Z"));
+        engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("20.00"));
+
+        // The persisted 10.00 was recorded yesterday and no longer counts for the day
+        TransactionLimit today = engine.snapshot(ACCOUNT);
+        assertThat(today.getDailyUsed()).isEqualByComparingTo("20.00");
+        assertThat(today.getMonthlyUsed()).isEqualByComparingTo("65.00");
+        assertThat(redisTemplate.getExpire(TransactionLimitEngine.KEY_PREFIX + "{acc-1}:d:20240330"))
+                .isPositive();
+
+        // Releasing yesterday's reservation credits the counters it was charged to
+        engine.release(ACCOUNT, lateTx);
+        assertThat(engine.snapshot(ACCOUNT).getDailyUsed()).isEqualByComparingTo("20.00");
+        assertThat(engine.snapshot(ACCOUNT).getMonthlyUsed()).isEqualByComparingTo("30.00");
+        assertThat(redisTemplate.opsForValue().get(TransactionLimitEngine.KEY_PREFIX + "{acc-1}:d:20240330"))
+                .isEqualTo("1000");
+    }
+
+    @Test
+    @DisplayName("At the start of a month both counters start over")
+    void testMonthRollover() {
+        engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("40.00"));
+        assertThatThrownBy(() -> engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("1.00")))
+                .hasMessage("Daily transaction limit exceeded");
+
+        clock.set(Instant.parse("2024-04-01T00:00:00Z"));
+        engine.reserve(ACCOUNT, UUID.randomUUID(), new BigDecimal("50.00"));
+
+        TransactionLimit april = engine.snapshot(ACCOUNT);
+        assertThat(april.getDailyUsed()).isEqualByComparingTo("50.00");
+        assertThat(april.getMonthlyUsed()).isEqualByComparingTo("50.00");
+        assertThat(april.getLastMonthlyReset()).isEqualTo(LocalDateTime.of(2024, 4, 1, 0, 0));
+    }
+
+    /**
+     * A clock tests can move; reads are safe from the reserving threads.
+     */
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void set(Instant now) {
+            this.now = now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            // The engine asks for its configured zone, UTC in these tests
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
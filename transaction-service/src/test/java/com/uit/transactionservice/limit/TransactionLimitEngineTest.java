@@ -0,0 +1,161 @@
+package com.uit.transactionservice.limit;
+
+import com.uit.transactionservice.entity.TransactionLimit;
+import com.uit.transactionservice.exception.TransactionLimitExceededException;
+import com.uit.transactionservice.repository.TransactionLimitRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransactionLimitEngine Unit Tests")
+class TransactionLimitEngineTest {
+
+    private static final String ACCOUNT = "acc-1";
+    private static final Instant NOW = Instant.parse("2024-03-15T10:00:00Z");
+    private static final LocalDateTime TODAY = LocalDateTime.of(2024, 3, 15, 0, 0);
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    @Mock
+    private TransactionLimitRepository transactionLimitRepository;
+
+    private TransactionLimitEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = engineAt(NOW);
+        lenient().when(transactionLimitRepository.findById(ACCOUNT)).thenReturn(Optional.of(limit(BigDecimal.valueOf(120), TODAY.plusHours(9))));
+    }
+
+    @Test
+    @DisplayName("Reserve sends minor units, limits and period seeds to the Lua script")
+    @SuppressWarnings("unchecked")
+    void testReserveArguments() {
+        UUID txId = UUID.randomUUID();
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        engine.reserve(ACCOUNT, txId, new BigDecimal("10.005"));
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+
+        assertThat(keys.getValue()).containsExactly(
+                "txlimit:{acc-1}:d:20240315",
+                "txlimit:{acc-1}:m:202403",
+                "txlimit:{acc-1}:tx:" + txId);
+        // amount rounded up to cents, then daily/monthly limits and the persisted usage as seeds
+        assertThat(Arrays.copyOf(args.getValue(), 5)).containsExactly("1001", "500000", "2000000", "12000", "12000");
+    }
+
+    @Test
+    @DisplayName("Reserve maps script results to the limit that was hit")
+    @SuppressWarnings("unchecked")
+    void testReserveRejected() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(-1L, -2L);
+
+        assertThatThrownBy(() -> engine.reserve(ACCOUNT, UUID.randomUUID(), BigDecimal.TEN))
+                .isInstanceOf(TransactionLimitExceededException.class)
+                .hasMessage("Daily transaction limit exceeded");
+        assertThatThrownBy(() -> engine.reserve(ACCOUNT, UUID.randomUUID(), BigDecimal.TEN))
+                .isInstanceOf(TransactionLimitExceededException.class)
+                .hasMessage("Monthly transaction limit exceeded");
+    }
+
+    @Test
+    @DisplayName("Check seeds from the table only when usage was recorded in the current period")
+    void testCheckIgnoresUsageFromPreviousDay() {
+        when(transactionLimitRepository.findById("acc-2")).thenReturn(Optional.of(
+                limit(BigDecimal.valueOf(4990), TODAY.minusHours(1))));
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(Arrays.asList(null, null));
+
+        // 4,990 used yesterday does not count against today's 5,000 daily limit
+        engine.check("acc-2", BigDecimal.valueOf(4000));
+    }
+
+    @Test
+    @DisplayName("Write-back persists live counters of reserved accounts")
+    @SuppressWarnings("unchecked")
+    void testWriteBack() {
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.multiGet(anyList())).thenReturn(List.of("13000", "25000"));
+        when(transactionLimitRepository.save(any(TransactionLimit.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        engine.reserve(ACCOUNT, UUID.randomUUID(), BigDecimal.TEN);
+        engine.writeBack();
+
+        ArgumentCaptor<TransactionLimit> saved = ArgumentCaptor.forClass(TransactionLimit.class);
+        verify(transactionLimitRepository).save(saved.capture());
+        assertThat(saved.getValue().getDailyUsed()).isEqualByComparingTo("130.00");
+        assertThat(saved.getValue().getMonthlyUsed()).isEqualByComparingTo("250.00");
+        assertThat(saved.getValue().getLastDailyReset()).isEqualTo(TODAY);
+        assertThat(saved.getValue().getLastMonthlyReset()).isEqualTo(TODAY.withDayOfMonth(1));
+    }
+
+    @Test
+    @DisplayName("One second before midnight the keys are still today's and expire a grace day after it ends")
+    @SuppressWarnings("unchecked")
+    void testPeriodsFollowTheClock() {
+        engine = engineAt(Instant.parse("2024-03-31T23:59:59Z"));
+        when(redisTemplate.execute(any(RedisScript.class), anyList(), any(Object[].class))).thenReturn(1L);
+
+        engine.reserve(ACCOUNT, UUID.randomUUID(), BigDecimal.ONE);
+
+        ArgumentCaptor<List<String>> keys = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<Object[]> args = ArgumentCaptor.forClass(Object[].class);
+        verify(redisTemplate).execute(any(RedisScript.class), keys.capture(), args.capture());
+        assertThat(keys.getValue()).startsWith("txlimit:{acc-1}:d:20240331", "txlimit:{acc-1}:m:202403");
+        // 1 s left in the day and in the month, plus one day of grace
+        assertThat(args.getValue()[5]).isEqualTo("86401");
+        assertThat(args.getValue()[6]).isEqualTo("86401");
+    }
+
+    private TransactionLimitEngine engineAt(Instant now) {
+        return new TransactionLimitEngine(redisTemplate, transactionLimitRepository,
+                Clock.fixed(now, ZoneOffset.UTC), "UTC", 35, 100, 300);
+    }
+
+    private static TransactionLimit limit(BigDecimal used, LocalDateTime lastReset) {
+        return TransactionLimit.builder()
+                .accountId(ACCOUNT)
+                .dailyLimit(BigDecimal.valueOf(5000))
+                .monthlyLimit(BigDecimal.valueOf(20000))
+                .dailyUsed(used)
+                .monthlyUsed(used)
+                .lastDailyReset(lastReset)
+                .lastMonthlyReset(lastReset)
+                .build();
+    }
+}
@@ -0,0 +1,100 @@
+package com.uit.transactionservice.outbox;
+
+import com.uit.sharedkernel.outbox.OutboxNotificationListener;
+import com.uit.sharedkernel.outbox.OutboxScheduler;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * The outbox insert trigger from the migrations wakes the shared-kernel listener
+ * on commit. Skipped when Docker is not available.
+ */
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Outbox NOTIFY Trigger Integration Tests")
+class OutboxNotifyTriggerTest {
+
+    @Container
+    private static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    private OutboxScheduler outboxScheduler;
+    private OutboxNotificationListener listener;
+
+    @BeforeAll
+    static void migrate() {
+        Flyway.configure()
+                .dataSource(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+    }
+
+    @BeforeEach
+    void setUp() {
+        outboxScheduler = mock(OutboxScheduler.class);
+        listener = new OutboxNotificationListener(outboxScheduler,
+                POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword(), 100, 100);
+        listener.start();
+        // One drain right after LISTEN, for anything committed before it
+        verify(outboxScheduler, timeout(5000)).requestDrain();
+        clearInvocations(outboxScheduler);
+    }
+
+    @AfterEach
+    void tearDown() {
+        listener.stop();
+    }
+
+    @Test
+    @DisplayName("A committed outbox insert wakes the poller")
+    void testInsertWakesPoller() throws Exception {
+        try (Connection conn = connect(); Statement statement = conn.createStatement()) {
+            statement.executeUpdate(insertEvent());
+        }
+
+        verify(outboxScheduler, timeout(5000)).requestDrain();
+    }
+
+    @Test
+    @DisplayName("No wake-up until the inserting transaction commits, none after a rollback")
+    void testNotifyOnlyOnCommit() throws Exception {
+        try (Connection conn = connect(); Statement statement = conn.createStatement()) {
+            conn.setAutoCommit(false);
+            statement.executeUpdate(insertEvent());
+            verify(outboxScheduler, after(500).never()).requestDrain();
+
+            conn.rollback();
+            verify(outboxScheduler, after(500).never()).requestDrain();
+
+            statement.executeUpdate(insertEvent());
+            conn.commit();
+        }
+
+        verify(outboxScheduler, timeout(5000)).requestDrain();
+    }
+
+    private static Connection connect() throws Exception {
+        return DriverManager.getConnection(POSTGRES.getJdbcUrl(), POSTGRES.getUsername(), POSTGRES.getPassword());
+    }
+
+    private static String insertEvent() {
+        return "INSERT INTO outbox_events (event_id, aggregate_type, aggregate_id, event_type, exchange, routing_key, payload, status) "
+                + "VALUES (gen_random_uuid(), 'Transaction', 'tx-1', 'TransactionCompleted', 'ex', 'rk', '{}', 'PENDING')";
+    }
+}
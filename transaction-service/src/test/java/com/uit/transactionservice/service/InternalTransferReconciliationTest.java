@@ -0,0 +1,157 @@
+package com.uit.transactionservice.service;
+
+import com.uit.sharedkernel.audit.AuditEventPublisher;
+import com.uit.sharedkernel.notification.NotificationEventPublisher;
+import com.uit.transactionservice.client.AccountServiceClient;
+import com.uit.transactionservice.client.dto.InternalTransferResponse;
+import com.uit.transactionservice.client.dto.TransferFailureCode;
+import com.uit.transactionservice.entity.SagaStep;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.entity.TransactionStatus;
+import com.uit.transactionservice.entity.TransactionType;
+import com.uit.transactionservice.exception.TransferOutcomeUnknownException;
+import com.uit.transactionservice.limit.TransactionLimitEngine;
+import com.uit.transactionservice.mapper.TransactionMapper;
+import com.uit.transactionservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Internal transfers whose account-service call timed out after being sent:
+ * left PROCESSING, then completed or failed by reconciliation.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("Internal Transfer Reconciliation Unit Tests")
+class InternalTransferReconciliationTest {
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionLimitEngine transactionLimitEngine;
+
+    @Mock
+    private OTPService otpService;
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private AuditEventPublisher auditEventPublisher;
+
+    @Mock
+    private NotificationEventPublisher notificationEventPublisher;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    private Transaction transaction;
+
+    @BeforeEach
+    void setUp() {
+        transaction = Transaction.builder()
+                .transactionId(UUID.randomUUID())
+                .senderAccountId("acc-a")
+                .receiverAccountId("acc-b")
+                .amount(new BigDecimal("25.00"))
+                .transactionType(TransactionType.INTERNAL_TRANSFER)
+                .status(TransactionStatus.PENDING_OTP)
+                .build();
+        when(transactionRepository.findById(transaction.getTransactionId())).thenReturn(Optional.of(transaction));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> inv.getArgument(0));
+        when(otpService.verifyOTP(transaction.getTransactionId(), "123456"))
+                .thenReturn(OTPService.OTPVerificationResult.success());
+    }
+
+    @Test
+    @DisplayName("A timed-out transfer stays PROCESSING with its limit charged")
+    void testUnknownOutcomeIsNotFailed() {
+        when(accountServiceClient.executeInternalTransfer(anyString(), anyString(), any(), anyString(), any()))
+                .thenThrow(new TransferOutcomeUnknownException("Timed out"));
+
+        transactionService.verifyOTP(transaction.getTransactionId(), "123456");
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.PROCESSING);
+        assertThat(transaction.getCurrentStep()).isEqualTo(SagaStep.OTP_VERIFIED);
+        assertThat(transaction.getFailureReason()).isNull();
+        verify(transactionLimitEngine, never()).release(any(), any());
+        verify(notificationEventPublisher, never()).publishMail(any());
+    }
+
+    @Test
+    @DisplayName("Reconciliation completes a transfer that account-service applied")
+    void testReconcileApplied() {
+        leftProcessing();
+        when(accountServiceClient.getInternalTransferOutcome(transaction.getTransactionId().toString(), "acc-a"))
+                .thenReturn(InternalTransferResponse.builder().success(true).build());
+
+        transactionService.reconcileInternalTransfer(transaction);
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.COMPLETED);
+        assertThat(transaction.getCurrentStep()).isEqualTo(SagaStep.COMPLETED);
+        verify(transactionLimitEngine).commit("acc-a", transaction.getTransactionId());
+        verify(transactionLimitEngine, never()).release(any(), any());
+    }
+
+    @Test
+    @DisplayName("Reconciliation fails a transfer that never committed and releases its limit")
+    void testReconcileNotApplied() {
+        leftProcessing();
+        when(accountServiceClient.getInternalTransferOutcome(transaction.getTransactionId().toString(), "acc-a"))
+                .thenReturn(InternalTransferResponse.builder()
+                        .success(false)
+                        .failureCode(TransferFailureCode.NOT_FOUND)
+                        .build());
+
+        transactionService.reconcileInternalTransfer(transaction);
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.FAILED);
+        assertThat(transaction.getCurrentStep()).isEqualTo(SagaStep.FAILED);
+        verify(transactionLimitEngine).release("acc-a", transaction.getTransactionId());
+    }
+
+    @Test
+    @DisplayName("Any other lookup answer leaves the transfer for the next run")
+    void testReconcileUnresolved() {
+        leftProcessing();
+        when(accountServiceClient.getInternalTransferOutcome(eq(transaction.getTransactionId().toString()), anyString()))
+                .thenReturn(InternalTransferResponse.builder()
+                        .success(false)
+                        .failureCode(TransferFailureCode.PROCESSING_ERROR)
+                        .build());
+
+        transactionService.reconcileInternalTransfer(transaction);
+
+        assertThat(transaction.getStatus()).isEqualTo(TransactionStatus.PROCESSING);
+        verify(transactionLimitEngine, never()).release(any(), any());
+        verify(transactionLimitEngine, never()).commit(any(), any());
+    }
+
+    private void leftProcessing() {
+        transaction.setStatus(TransactionStatus.PROCESSING);
+        transaction.setCurrentStep(SagaStep.OTP_VERIFIED);
+    }
+}
@@ -0,0 +1,154 @@
+package com.uit.transactionservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.entity.TransactionStatus;
+import com.uit.transactionservice.entity.TransactionType;
+import com.uit.transactionservice.mapper.TransactionMapperImpl;
+import com.uit.transactionservice.repository.TransactionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Export benchmark: streams ROWS generated transactions through the statement exporter
+ * into gzip and samples the live heap the collector reported after its last run at ten
+ * checkpoints. It must stay flat; a buffering exporter would grow by hundreds of bytes
+ * per row. Measures the exporter alone, the repository is stubbed; StatementExportTest
+ * covers the real cursor.
+ *
+ * Runs only with -Pbenchmark; scale it with -Dexport.benchmark.rows=10000000.
+ */
+@Tag("benchmark")
+@ExtendWith(MockitoExtension.class)
+@DisplayName("Statement export benchmark")
+class StatementExportBenchmarkTest {
+
+    private static final Logger log = LoggerFactory.getLogger(StatementExportBenchmarkTest.class);
+
+    private static final long ROWS = Long.getLong("export.benchmark.rows", 100_000L);
+    private static final long MAX_HEAP_GROWTH_BYTES = 64L * 1024 * 1024;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    private TransactionExportService exportService;
+
+    @BeforeEach
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        exportService = new TransactionExportService(transactionRepository, new TransactionMapperImpl(), objectMapper);
+        // stubOnly: a recording mock would itself keep one invocation per exported row
+        ReflectionTestUtils.setField(exportService, "entityManager", mock(EntityManager.class, withSettings().stubOnly()));
+    }
+
+    @Test
+    @DisplayName("Exports the full row count as gzipped NDJSON with flat live heap")
+    void testConstantMemoryExport() throws Exception {
+        long checkpointEvery = Math.max(1, ROWS / 10);
+        AtomicLong generated = new AtomicLong();
+        long[] heapAfterGc = {Long.MAX_VALUE, 0};
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 0, 0);
+
+        when(transactionRepository.streamStatement(anyString(), any(), any())).thenReturn(
+                Stream.generate(() -> {
+                    long n = generated.incrementAndGet();
+                    if (n % checkpointEvery == 0) {
+                        long used = liveHeapAfterLastGc();
+                        if (used > 0) {
+                            heapAfterGc[0] = Math.min(heapAfterGc[0], used);
+                            heapAfterGc[1] = Math.max(heapAfterGc[1], used);
+                        }
+                    }
+                    return transaction(n, base);
+                }).limit(ROWS));
+
+        CountingOutputStream raw = new CountingOutputStream();
+        long started = System.nanoTime();
+        long exported;
+        try (GZIPOutputStream gzip = new GZIPOutputStream(raw, 64 * 1024)) {
+            exported = exportService.exportStatement("1111111111", base, base.plusYears(1), ExportFormat.NDJSON, gzip);
+        }
+        double seconds = (System.nanoTime() - started) / 1e9;
+
+        log.info("Exported {} rows in {} s ({} rows/s), {} gzip bytes, live heap {}..{} bytes",
+                exported, String.format("%.1f", seconds), Math.round(exported / seconds), raw.count,
+                heapAfterGc[0], heapAfterGc[1]);
+        assertThat(exported).isEqualTo(ROWS);
+        assertThat(raw.count).isPositive();
+        // No collection during a short run means nothing to compare
+        assertThat(Math.max(0, heapAfterGc[1] - heapAfterGc[0])).isLessThan(MAX_HEAP_GROWTH_BYTES);
+    }
+
+    /**
+     * Heap in use right after the most recent collection of each pool, without forcing one.
+     */
+    private static long liveHeapAfterLastGc() {
+        long used = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            MemoryUsage afterGc = pool.getType() == MemoryType.HEAP ? pool.getCollectionUsage() : null;
+            if (afterGc != null) {
+                used += afterGc.getUsed();
+            }
+        }
+        return used;
+    }
+
+    private static Transaction transaction(long n, LocalDateTime base) {
+        return Transaction.builder()
+                .transactionId(UUID.randomUUID())
+                .senderAccountNumber("1111111111")
+                .receiverAccountNumber("2222222222")
+                .amount(BigDecimal.valueOf(n % 100_000, 2))
+                .feeAmount(BigDecimal.ZERO)
+                .transactionType(TransactionType.INTERNAL_TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description("Transfer " + n)
+                .createdAt(base.plusSeconds(n))
+                .build();
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.uit.transactionservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.uit.sharedkernel.export.ExportFormat;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.entity.TransactionStatus;
+import com.uit.transactionservice.entity.TransactionType;
+import com.uit.transactionservice.mapper.TransactionMapperImpl;
+import com.uit.transactionservice.repository.TransactionRepository;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.jackson.JacksonAutoConfiguration;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Statement export through the real repository cursor on an in-memory database.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "spring.cloud.config.enabled=false"
+})
+@Import({TransactionExportService.class, TransactionMapperImpl.class})
+@ImportAutoConfiguration(JacksonAutoConfiguration.class)
+@DisplayName("Statement Export Integration Tests")
+class StatementExportTest {
+
+    private static final String ACCOUNT = "1111111111";
+    private static final String OTHER = "2222222222";
+    private static final LocalDateTime FROM = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime TO = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    @Autowired
+    private TransactionExportService exportService;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final List<UUID> expectedOrder = new ArrayList<>();
+
+    /**
+     * The application class scans every package explicitly, which a slice cannot filter.
+     */
+    @SpringBootConfiguration
+    @EntityScan(basePackageClasses = Transaction.class)
+    @EnableJpaRepositories(basePackageClasses = TransactionRepository.class)
+    static class JpaSliceConfig {
+    }
+
+    @BeforeEach
+    void setUp() {
+        // Inserted out of time order; the export must come back oldest first
+        UUID third = persist(ACCOUNT, OTHER, "30.00", "rent, January", FROM.plusDays(20));
+        UUID first = persist(OTHER, ACCOUNT, "10.00", "salary", FROM.plusDays(1));
+        UUID second = persist(ACCOUNT, OTHER, "20.00", "say \"hi\"", FROM.plusDays(10));
+        persist(OTHER, "3333333333", "99.00", "someone else", FROM.plusDays(5));
+        persist(ACCOUNT, OTHER, "99.00", "before range", FROM.minusDays(1));
+        persist(ACCOUNT, OTHER, "99.00", "after range", TO.plusDays(1));
+        expectedOrder.addAll(List.of(first, second, third));
+        entityManager.clear();
+    }
+
+    @Test
+    @DisplayName("NDJSON export streams only the account's rows in range, oldest first")
+    void testNdjsonExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportStatement(ACCOUNT, FROM, TO, ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines).hasSize(3);
+        List<UUID> ids = new ArrayList<>();
+        for (String line : lines) {
+            JsonNode json = objectMapper.readTree(line);
+            ids.add(UUID.fromString(json.get("transactionId").asText()));
+        }
+        assertThat(ids).containsExactlyElementsOf(expectedOrder);
+        assertThat(objectMapper.readTree(lines[0]).get("amount").decimalValue()).isEqualByComparingTo("10.00");
+    }
+
+    @Test
+    @DisplayName("CSV export writes a header and quotes descriptions with commas and quotes")
+    void testCsvExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportStatement(ACCOUNT, FROM, TO, ExportFormat.CSV, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(rows).isEqualTo(3);
+        assertThat(lines[0]).isEqualTo(String.join(",", TransactionExportService.CSV_HEADER));
+        assertThat(lines).hasSize(4);
+        assertThat(lines[1]).startsWith(expectedOrder.get(0) + ",").contains(",salary,");
+        assertThat(lines[2]).contains(",\"say \"\"hi\"\"\",");
+        assertThat(lines[3]).contains(",\"rent, January\",");
+    }
+
+    @Test
+    @DisplayName("Exported rows are not kept in the persistence context")
+    void testDetachesExportedRows() throws Exception {
+        exportService.exportStatement(ACCOUNT, FROM, TO, ExportFormat.NDJSON, new ByteArrayOutputStream());
+
+        Session session = entityManager.getEntityManager().unwrap(Session.class);
+        assertThat(session.getStatistics().getEntityCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("An empty range exports nothing")
+    void testEmptyExport() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exportService.exportStatement(ACCOUNT, TO.plusYears(1), TO.plusYears(2), ExportFormat.NDJSON, out);
+
+        assertThat(rows).isZero();
+        assertThat(out.size()).isZero();
+    }
+
+    private UUID persist(String sender, String receiver, String amount, String description, LocalDateTime createdAt) {
+        Transaction transaction = entityManager.persistFlushFind(Transaction.builder()
+                .senderAccountId("acc-" + sender)
+                .senderAccountNumber(sender)
+                .receiverAccountNumber(receiver)
+                .amount(new BigDecimal(amount))
+                .feeAmount(BigDecimal.ZERO)
+                .transactionType(TransactionType.INTERNAL_TRANSFER)
+                .status(TransactionStatus.COMPLETED)
+                .description(description)
+                .build());
+        // created_at is set by Hibernate on insert
+        entityManager.getEntityManager()
+                .createQuery("UPDATE Transaction t SET t.createdAt = :createdAt WHERE t.transactionId = :id")
+                .setParameter("createdAt", createdAt)
+                .setParameter("id", transaction.getTransactionId())
+                .executeUpdate();
+        return transaction.getTransactionId();
+    }
+}
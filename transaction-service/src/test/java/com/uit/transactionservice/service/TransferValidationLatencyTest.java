@@ -0,0 +1,152 @@
+package com.uit.transactionservice.service;
+
+import com.uit.sharedkernel.exception.AppException;
+import com.uit.sharedkernel.exception.ErrorCode;
+import com.uit.sharedkernel.notification.NotificationEventPublisher;
+import com.uit.transactionservice.client.AccountServiceClient;
+import com.uit.transactionservice.dto.request.CreateTransferRequest;
+import com.uit.transactionservice.entity.Transaction;
+import com.uit.transactionservice.entity.TransactionType;
+import com.uit.transactionservice.limit.TransactionLimitEngine;
+import com.uit.transactionservice.mapper.TransactionMapper;
+import com.uit.transactionservice.repository.TransactionRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * Latency benchmark for the createTransfer validation fan-out against local stubs.
+ * Each stubbed dependency sleeps STUB_LATENCY_MS, so a sequential path costs three times
+ * that while the fan-out should cost roughly one.
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+@DisplayName("createTransfer validation fan-out")
+class TransferValidationLatencyTest {
+
+    private static final long STUB_LATENCY_MS = 100;
+
+    @Mock
+    private TransactionRepository transactionRepository;
+
+    @Mock
+    private TransactionLimitEngine transactionLimitEngine;
+
+    @Mock
+    private OTPService otpService;
+
+    @Mock
+    private AccountServiceClient accountServiceClient;
+
+    @Mock
+    private StripeTransferService stripeTransferService;
+
+    @Mock
+    private TransactionMapper transactionMapper;
+
+    @Mock
+    private NotificationEventPublisher notificationEventPublisher;
+
+    @InjectMocks
+    private TransactionService transactionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(transactionService, "validationTimeoutMs", 1000L);
+
+        when(accountServiceClient.getAccountByNumber("1111111111")).thenAnswer(inv -> {
+            Thread.sleep(STUB_LATENCY_MS);
+            return Map.of("accountId", "acc-sender", "userId", "user-sender");
+        });
+        when(accountServiceClient.getAccountByNumber("2222222222")).thenAnswer(inv -> {
+            Thread.sleep(STUB_LATENCY_MS);
+            return Map.of("accountId", "acc-receiver", "userId", "user-receiver");
+        });
+        doAnswer(inv -> {
+            Thread.sleep(STUB_LATENCY_MS);
+            return null;
+        }).when(transactionLimitEngine).check(eq("acc-sender"), any(BigDecimal.class));
+        when(transactionRepository.save(any(Transaction.class))).thenAnswer(inv -> {
+            Transaction tx = inv.getArgument(0);
+            tx.setTransactionId(UUID.randomUUID());
+            return tx;
+        });
+        when(otpService.generateOTP()).thenReturn("123456");
+    }
+
+    @Test
+    @DisplayName("Validation latency tracks the slowest dependency, not the sum")
+    void testLatencyIsBoundedBySlowestDependency() {
+        CreateTransferRequest request = internalTransfer("2222222222");
+        transactionService.createTransfer(request, "user-sender", "0900000000"); // warm-up
+
+        long[] samples = new long[5];
+        for (int i = 0; i < samples.length; i++) {
+            long start = System.nanoTime();
+            transactionService.createTransfer(request, "user-sender", "0900000000");
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        long median = samples[samples.length / 2];
+
+        assertThat(median)
+                .as("median validation latency in ms (max %d, sequential floor %d)",
+                        samples[samples.length - 1], 3 * STUB_LATENCY_MS)
+                .isLessThan(2 * STUB_LATENCY_MS);
+    }
+
+    @Test
+    @DisplayName("Sender failure is still reported first")
+    void testSenderFailureWins() {
+        when(accountServiceClient.getAccountByNumber("1111111111")).thenReturn(null);
+
+        assertThatThrownBy(() -> transactionService.createTransfer(internalTransfer("2222222222"), "user-sender", "0900000000"))
+                .isInstanceOf(AppException.class)
+                .hasMessage("Sender account validation failed");
+    }
+
+    @Test
+    @DisplayName("A hung dependency fails the request at the deadline")
+    void testDeadlineBoundsHungDependency() {
+        ReflectionTestUtils.setField(transactionService, "validationTimeoutMs", 200L);
+        when(accountServiceClient.getAccountByNumber("3333333333")).thenAnswer(inv -> {
+            Thread.sleep(10_000);
+            return Map.of("accountId", "acc-slow");
+        });
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> transactionService.createTransfer(internalTransfer("3333333333"), "user-sender", "0900000000"))
+                .isInstanceOf(AppException.class)
+                .satisfies(e -> assertThat(((AppException) e).getErrorCode()).isEqualTo(ErrorCode.ACCOUNT_NOT_FOUND));
+        assertThat((System.nanoTime() - start) / 1_000_000).isLessThan(1000);
+    }
+
+    private CreateTransferRequest internalTransfer(String receiverAccountNumber) {
+        return CreateTransferRequest.builder()
+                .senderAccountId("acc-sender")
+                .senderAccountNumber("1111111111")
+                .receiverAccountNumber(receiverAccountNumber)
+                .amount(BigDecimal.valueOf(100))
+                .transactionType(TransactionType.INTERNAL_TRANSFER)
+                .build();
+    }
+}
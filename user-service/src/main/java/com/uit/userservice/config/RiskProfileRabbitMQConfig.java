@@ -0,0 +1,35 @@
+package com.uit.userservice.config;
+
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Transfer events feeding the risk profile projection: a durable queue shared
+ * by every instance, bound to the transaction exchange.
+ */
+@Configuration
+public class RiskProfileRabbitMQConfig {
+
+    @Bean
+    public TopicExchange transactionExchange() {
+        return new TopicExchange(RabbitMQConstants.TRANSACTION_EXCHANGE, true, false);
+    }
+
+    @Bean
+    public Queue userRiskProfileQueue() {
+        return new Queue(RabbitMQConstants.USER_RISK_PROFILE_QUEUE, true);
+    }
+
+    @Bean
+    public Binding userRiskProfileBinding(Queue userRiskProfileQueue, TopicExchange transactionExchange) {
+        return BindingBuilder
+                .bind(userRiskProfileQueue)
+                .to(transactionExchange)
+                .with(RabbitMQConstants.TRANSACTION_SUCCESS);
+    }
+}
@@ -8,6 +8,7 @@ import com.uit.userservice.dto.response.TokenResponse;
 import com.uit.userservice.dto.response.UserResponse;
 import com.uit.userservice.dto.response.ValidationResponse;
 import com.uit.userservice.service.AuthService;
+import com.uit.userservice.service.UserRiskProfileService;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +24,7 @@ import org.springframework.web.multipart.MultipartFile;
 @RequiredArgsConstructor
 public class AuthController {
     private final AuthService authService;
+    private final UserRiskProfileService userRiskProfileService;
 
     /**
      * Step 1: Validate registration data (email, phoneNumber, citizenId) and send OTP
@@ -49,8 +51,13 @@ public class AuthController {
 
     // ==================== OTHER AUTH ENDPOINTS ====================
     @PostMapping("/login")
-    public ApiResponse<TokenResponse> login(@Valid @RequestBody LoginRequest request) {
-        return ApiResponse.success(authService.login(request));
+    public ApiResponse<TokenResponse> login(@Valid @RequestBody LoginRequest request,
+                                            @RequestHeader(value = "X-Device-Fingerprint", required = false) String device,
+                                            @RequestHeader(value = "X-Location", required = false) String location) {
+        TokenResponse tokens = authService.login(request);
+        // Only successful logins are recorded, and only as sightings, never as trusted devices
+        userRiskProfileService.recordLogin(request.username(), device, location);
+        return ApiResponse.success(tokens);
     }
 
     @PostMapping("/logout")
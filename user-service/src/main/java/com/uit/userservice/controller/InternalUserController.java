@@ -2,6 +2,8 @@ package com.uit.userservice.controller;
 
 import com.uit.sharedkernel.api.ApiResponse;
 import com.uit.userservice.dto.response.UserResponse;
+import com.uit.userservice.dto.response.UserRiskProfileResponse;
+import com.uit.userservice.service.UserRiskProfileService;
 import com.uit.userservice.service.UserService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.*;
 public class InternalUserController {
 
     private final UserService userService;
+    private final UserRiskProfileService userRiskProfileService;
 
     /**
      * Get user by ID - Internal endpoint for microservice communication
@@ -28,4 +31,16 @@ public class InternalUserController {
     public ApiResponse<UserResponse> getUserById(@PathVariable("userId") String userId) {
         return ApiResponse.success(userService.getUserById(userId));
     }
+
+    /**
+     * Known devices, locations and payees - Internal endpoint for risk assessment
+     * Called by: risk-engine
+     *
+     * @param userId The user ID (Keycloak sub)
+     * @return UserRiskProfileResponse, with empty lists for a user with no history yet
+     */
+    @GetMapping("/{userId}/risk-profile")
+    public ApiResponse<UserRiskProfileResponse> getRiskProfile(@PathVariable("userId") String userId) {
+        return ApiResponse.success(userRiskProfileService.getRiskProfile(userId));
+    }
 }
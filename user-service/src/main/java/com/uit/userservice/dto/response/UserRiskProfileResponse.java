@@ -0,0 +1,9 @@
+package com.uit.userservice.dto.response;
+
+import java.util.List;
+
+public record UserRiskProfileResponse(
+        List<String> knownDevices,
+        List<String> knownLocations,
+        List<String> knownPayees
+) { }
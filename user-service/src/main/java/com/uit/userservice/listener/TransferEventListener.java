@@ -0,0 +1,47 @@
+package com.uit.userservice.listener;
+
+import com.uit.sharedkernel.constants.RabbitMQConstants;
+import com.uit.userservice.service.UserRiskProfileService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Adds the receiver of each completed transfer to the sender's known payees.
+ * transaction.success also carries deposits and in-flight notifications; only
+ * completed internal and external transfers name a payee.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TransferEventListener {
+
+    static final Set<String> TRANSFER_TYPES = Set.of("INTERNAL_TRANSFER", "EXTERNAL_TRANSFER");
+
+    private final UserRiskProfileService userRiskProfileService;
+
+    @RabbitListener(queues = RabbitMQConstants.USER_RISK_PROFILE_QUEUE)
+    public void onTransfer(Map<String, Object> message) {
+        // Set.of rejects contains(null); events from older publishers carry no type
+        Object transactionType = message.get("transactionType");
+        if (!Boolean.TRUE.equals(message.get("success"))
+                || !"COMPLETED".equals(message.get("status"))
+                || transactionType == null
+                || !TRANSFER_TYPES.contains(transactionType)) {
+            return;
+        }
+        String senderUserId = (String) message.get("senderUserId");
+        String receiverAccountNumber = (String) message.get("receiverAccountNumber");
+        try {
+            userRiskProfileService.recordPayee(senderUserId, receiverAccountNumber);
+        } catch (Exception e) {
+            // A missed payee only makes the next transfer look new; don't requeue forever
+            log.error("Failed to update risk profile for transaction {}: {}",
+                    message.get("transactionId"), e.getMessage());
+        }
+    }
+}
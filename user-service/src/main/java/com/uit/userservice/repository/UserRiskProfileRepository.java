@@ -0,0 +1,27 @@
+package com.uit.userservice.repository;
+
+import com.uit.userservice.entity.UserRiskProfile;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface UserRiskProfileRepository extends JpaRepository<UserRiskProfile, String> {
+
+    /**
+     * Create an empty profile unless one exists, so concurrent first events
+     * for a user both end up updating the same row
+     */
+    @Modifying
+    @Query(value = "INSERT INTO user_risk_profiles (user_id) VALUES (:userId) ON CONFLICT (user_id) DO NOTHING",
+            nativeQuery = true)
+    void insertIfAbsent(@Param("userId") String userId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM UserRiskProfile p WHERE p.userId = :userId")
+    Optional<UserRiskProfile> findByIdForUpdate(@Param("userId") String userId);
+}
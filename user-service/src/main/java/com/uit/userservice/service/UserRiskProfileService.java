@@ -0,0 +1,12 @@
+package com.uit.userservice.service;
+
+import com.uit.userservice.dto.response.UserRiskProfileResponse;
+
+public interface UserRiskProfileService {
+
+    UserRiskProfileResponse getRiskProfile(String userId);
+
+    void recordLogin(String username, String device, String location);
+
+    void recordPayee(String userId, String payee);
+}
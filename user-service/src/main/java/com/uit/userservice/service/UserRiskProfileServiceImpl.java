@@ -0,0 +1,118 @@
+package com.uit.userservice.service;
+
+import com.uit.userservice.dto.response.UserRiskProfileResponse;
+import com.uit.userservice.entity.UserRiskProfile;
+import com.uit.userservice.repository.UserRepository;
+import com.uit.userservice.repository.UserRiskProfileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Keeps the risk profile projection current as logins and transfers happen,
+ * so a lookup is one primary-key read with nothing aggregated per request.
+ * Every list is kept most-recent-first and capped: seeing a value again moves
+ * it to the front, and a new value past the cap evicts the least recent one.
+ */
+@Slf4j
+@Service
+@Transactional
+public class UserRiskProfileServiceImpl implements UserRiskProfileService {
+
+    private final UserRiskProfileRepository riskProfileRepository;
+    private final UserRepository userRepository;
+    private final int maxDevices;
+    private final int maxLocations;
+    private final int maxPayees;
+
+    public UserRiskProfileServiceImpl(UserRiskProfileRepository riskProfileRepository,
+                                      UserRepository userRepository,
+                                      @Value("${user.risk-profile.max-devices:20}") int maxDevices,
+                                      @Value("${user.risk-profile.max-locations:20}") int maxLocations,
+                                      @Value("${user.risk-profile.max-payees:100}") int maxPayees) {
+        this.riskProfileRepository = riskProfileRepository;
+        this.userRepository = userRepository;
+        this.maxDevices = maxDevices;
+        this.maxLocations = maxLocations;
+        this.maxPayees = maxPayees;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public UserRiskProfileResponse getRiskProfile(String userId) {
+        return riskProfileRepository.findById(userId)
+                .map(profile -> new UserRiskProfileResponse(
+                        profile.getKnownDevices(), profile.getKnownLocations(), profile.getKnownPayees()))
+                .orElseGet(() -> new UserRiskProfileResponse(List.of(), List.of(), List.of()));
+    }
+
+    /**
+     * Records the login's device and location as sightings only. A password alone
+     * must not make a device trusted, or a stolen one would vouch for the thief;
+     * getRiskProfile never serves these lists.
+     * Runs after the login response is sent; a failure here never fails a login.
+     */
+    @Override
+    @Async
+    public void recordLogin(String username, String device, String location) {
+        if (isBlank(device) && isBlank(location)) {
+            return;
+        }
+        userRepository.findByUsername(username).ifPresentOrElse(
+                user -> update(user.getId(), profile -> {
+                    profile.setSeenDevices(touch(profile.getSeenDevices(), device, maxDevices));
+                    profile.setSeenLocations(touch(profile.getSeenLocations(), location, maxLocations));
+                }),
+                () -> log.warn("Login by unknown user {}, risk profile not updated", username));
+    }
+
+    @Override
+    public void recordPayee(String userId, String payee) {
+        if (isBlank(userId) || isBlank(payee)) {
+            return;
+        }
+        update(userId, profile -> profile.setKnownPayees(touch(profile.getKnownPayees(), payee, maxPayees)));
+    }
+
+    private void update(String userId, Consumer<UserRiskProfile> change) {
+        // Row lock serializes concurrent events for the same user
+        riskProfileRepository.insertIfAbsent(userId);
+        UserRiskProfile profile = riskProfileRepository.findByIdForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Risk profile missing after insert: " + userId));
+        change.accept(profile);
+    }
+
+    /**
+     * Move value to the front of values, dropping the least recent entries past cap.
+     * Returns values itself when nothing changes so the row is not rewritten.
+     */
+    static List<String> touch(List<String> values, String value, int cap) {
+        if (isBlank(value)) {
+            return values;
+        }
+        if (!values.isEmpty() && values.get(0).equals(value)) {
+            return values;
+        }
+        List<String> updated = new ArrayList<>(Math.min(values.size() + 1, cap));
+        updated.add(value);
+        for (String existing : values) {
+            if (updated.size() >= cap) {
+                break;
+            }
+            if (!existing.equals(value)) {
+                updated.add(existing);
+            }
+        }
+        return updated;
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+}
@@ -0,0 +1,19 @@
+-- =======================================================
+-- Outbox wake-up via LISTEN/NOTIFY
+-- =======================================================
+
+-- Notifies the outbox relay (shared-kernel OutboxNotificationListener) when
+-- events are inserted. Statement-level, so a multi-row insert sends one
+-- notification; Postgres delivers it on commit, when the rows are visible.
+CREATE OR REPLACE FUNCTION notify_outbox_events() RETURNS trigger AS $$
+BEGIN
+    PERFORM pg_notify('outbox_events', '');
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_outbox_events_notify ON outbox_events;
+CREATE TRIGGER trg_outbox_events_notify
+    AFTER INSERT ON outbox_events
+    FOR EACH STATEMENT
+    EXECUTE FUNCTION notify_outbox_events();
@@ -0,0 +1,10 @@
+-- Risk profile read model served to risk-engine, one row per user.
+-- Each column is a JSON array of values, most recently seen first, capped by
+-- the projection so a profile is a single primary-key read of bounded size.
+CREATE TABLE IF NOT EXISTS user_risk_profiles (
+    user_id         VARCHAR(255) PRIMARY KEY,
+    known_devices   JSONB NOT NULL DEFAULT '[]'::jsonb,
+    known_locations JSONB NOT NULL DEFAULT '[]'::jsonb,
+    known_payees    JSONB NOT NULL DEFAULT '[]'::jsonb,
+    updated_at      TIMESTAMP NOT NULL DEFAULT NOW()
+);
@@ -0,0 +1,15 @@
+-- Devices and locations from password logins are only sightings: a stolen
+-- password would otherwise make the thief's device known before risk-engine
+-- ever scores it. They get their own columns; known_devices and
+-- known_locations are left for sources that passed a step-up check.
+ALTER TABLE user_risk_profiles
+    ADD COLUMN IF NOT EXISTS seen_devices   JSONB NOT NULL DEFAULT '[]'::jsonb,
+    ADD COLUMN IF NOT EXISTS seen_locations JSONB NOT NULL DEFAULT '[]'::jsonb;
+
+-- Everything recorded so far came from logins
+UPDATE user_risk_profiles
+SET seen_devices    = known_devices,
+    seen_locations  = known_locations,
+    known_devices   = '[]'::jsonb,
+    known_locations = '[]'::jsonb
+WHERE known_devices <> '[]'::jsonb OR known_locations <> '[]'::jsonb;
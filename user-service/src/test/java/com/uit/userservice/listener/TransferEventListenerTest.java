@@ -0,0 +1,69 @@
+package com.uit.userservice.listener;
+
+import com.uit.userservice.service.UserRiskProfileService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TransferEventListener Unit Tests")
+class TransferEventListenerTest {
+
+    @Mock
+    private UserRiskProfileService userRiskProfileService;
+
+    @InjectMocks
+    private TransferEventListener listener;
+
+    @Test
+    @DisplayName("Completed internal and external transfers record the receiver as a payee")
+    void testCompletedTransfersRecordPayee() {
+        listener.onTransfer(event("INTERNAL_TRANSFER", "COMPLETED", true));
+        listener.onTransfer(event("EXTERNAL_TRANSFER", "COMPLETED", true));
+
+        verify(userRiskProfileService, times(2)).recordPayee("user-1", "acc-2");
+    }
+
+    @Test
+    @DisplayName("Deposits, failed or in-flight transfers and untyped events are ignored")
+    void testOtherEventsIgnored() {
+        listener.onTransfer(event("DEPOSIT", "COMPLETED", true));
+        listener.onTransfer(event("INTERNAL_TRANSFER", "FAILED", false));
+        listener.onTransfer(event("EXTERNAL_TRANSFER", "PENDING", true));
+        listener.onTransfer(event(null, "COMPLETED", true));
+
+        verifyNoInteractions(userRiskProfileService);
+    }
+
+    @Test
+    @DisplayName("A failure to update the profile is logged, not rethrown")
+    void testFailureSwallowed() {
+        doThrow(new IllegalStateException("db down")).when(userRiskProfileService).recordPayee("user-1", "acc-2");
+
+        listener.onTransfer(event("INTERNAL_TRANSFER", "COMPLETED", true));
+
+        verify(userRiskProfileService).recordPayee("user-1", "acc-2");
+    }
+
+    private static Map<String, Object> event(String transactionType, String status, boolean success) {
+        Map<String, Object> message = new HashMap<>();
+        message.put("transactionId", "tx-1");
+        message.put("senderUserId", "user-1");
+        message.put("receiverAccountNumber", "acc-2");
+        message.put("transactionType", transactionType);
+        message.put("status", status);
+        message.put("success", success);
+        return message;
+    }
+}
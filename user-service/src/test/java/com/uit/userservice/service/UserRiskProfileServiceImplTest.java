@@ -0,0 +1,143 @@
+package com.uit.userservice.service;
+
+import com.uit.userservice.dto.response.UserRiskProfileResponse;
+import com.uit.userservice.entity.User;
+import com.uit.userservice.entity.UserRiskProfile;
+import com.uit.userservice.repository.UserRepository;
+import com.uit.userservice.repository.UserRiskProfileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserRiskProfileServiceImpl Unit Tests")
+class UserRiskProfileServiceImplTest {
+
+    @Mock
+    private UserRiskProfileRepository riskProfileRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    private UserRiskProfileServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new UserRiskProfileServiceImpl(riskProfileRepository, userRepository, 2, 2, 3);
+    }
+
+    @Test
+    @DisplayName("A new value goes to the front and the least recent entry is evicted past the cap")
+    void testTouchEvictsLeastRecent() {
+        List<String> values = List.of("b", "c", "d");
+
+        assertThat(UserRiskProfileServiceImpl.touch(values, "a", 3)).containsExactly("a", "b", "c");
+        assertThat(UserRiskProfileServiceImpl.touch(List.of("b", "c"), "a", 3)).containsExactly("a", "b", "c");
+        assertThat(UserRiskProfileServiceImpl.touch(List.of(), "a", 3)).containsExactly("a");
+    }
+
+    @Test
+    @DisplayName("A value seen again moves to the front instead of being duplicated")
+    void testTouchMovesExistingToFront() {
+        assertThat(UserRiskProfileServiceImpl.touch(List.of("a", "b", "c"), "c", 3)).containsExactly("c", "a", "b");
+        assertThat(UserRiskProfileServiceImpl.touch(List.of("a", "b", "c"), "b", 2)).containsExactly("b", "a");
+    }
+
+    @Test
+    @DisplayName("A blank value, or one already most recent, returns the same list so the row is not rewritten")
+    void testTouchUnchanged() {
+        List<String> values = List.of("a", "b");
+
+        assertThat(UserRiskProfileServiceImpl.touch(values, "a", 3)).isSameAs(values);
+        assertThat(UserRiskProfileServiceImpl.touch(values, null, 3)).isSameAs(values);
+        assertThat(UserRiskProfileServiceImpl.touch(values, " ", 3)).isSameAs(values);
+    }
+
+    @Test
+    @DisplayName("Repeated touches keep the list most-recent-first and within the cap")
+    void testTouchSequence() {
+        List<String> values = new ArrayList<>();
+        for (String value : List.of("a", "b", "c", "a", "d", "e", "a")) {
+            values = UserRiskProfileServiceImpl.touch(values, value, 3);
+        }
+
+        assertThat(values).containsExactly("a", "e", "d");
+    }
+
+    @Test
+    @DisplayName("recordPayee locks the user's profile row and moves the payee to the front")
+    void testRecordPayee() {
+        UserRiskProfile profile = profile("user-1");
+        profile.setKnownPayees(List.of("acc-1", "acc-2", "acc-3"));
+        when(riskProfileRepository.findByIdForUpdate("user-1")).thenReturn(Optional.of(profile));
+
+        service.recordPayee("user-1", "acc-9");
+
+        verify(riskProfileRepository).insertIfAbsent("user-1");
+        assertThat(profile.getKnownPayees()).containsExactly("acc-9", "acc-1", "acc-2");
+    }
+
+    @Test
+    @DisplayName("recordLogin adds the device and location to the sightings, not the known lists")
+    void testRecordLogin() {
+        User user = new User();
+        user.setId("user-1");
+        when(userRepository.findByUsername("alice")).thenReturn(Optional.of(user));
+        UserRiskProfile profile = profile("user-1");
+        profile.setKnownDevices(List.of("phone"));
+        profile.setSeenDevices(List.of("phone", "laptop"));
+        when(riskProfileRepository.findByIdForUpdate("user-1")).thenReturn(Optional.of(profile));
+
+        service.recordLogin("alice", "tablet", "Hanoi");
+
+        assertThat(profile.getSeenDevices()).containsExactly("tablet", "phone");
+        assertThat(profile.getSeenLocations()).containsExactly("Hanoi");
+        assertThat(profile.getKnownDevices()).containsExactly("phone");
+        assertThat(profile.getKnownLocations()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("getRiskProfile serves only the known lists, never login sightings")
+    void testGetRiskProfileExcludesSightings() {
+        UserRiskProfile profile = profile("user-1");
+        profile.setKnownDevices(List.of("phone"));
+        profile.setSeenDevices(List.of("stolen-password-device", "phone"));
+        profile.setSeenLocations(List.of("Elsewhere"));
+        profile.setKnownPayees(List.of("acc-1"));
+        when(riskProfileRepository.findById("user-1")).thenReturn(Optional.of(profile));
+
+        UserRiskProfileResponse response = service.getRiskProfile("user-1");
+
+        assertThat(response.knownDevices()).containsExactly("phone");
+        assertThat(response.knownLocations()).isEmpty();
+        assertThat(response.knownPayees()).containsExactly("acc-1");
+    }
+
+    @Test
+    @DisplayName("Blank input touches no repository")
+    void testBlankInputIgnored() {
+        service.recordPayee("user-1", " ");
+        service.recordPayee(null, "acc-1");
+        service.recordLogin("alice", null, "");
+
+        verifyNoInteractions(riskProfileRepository, userRepository);
+    }
+
+    private static UserRiskProfile profile(String userId) {
+        UserRiskProfile profile = new UserRiskProfile();
+        profile.setUserId(userId);
+        return profile;
+    }
+}